@@ -0,0 +1,85 @@
+package multikernel.benchmarks;
+
+import org.openjdk.jmh.results.BenchmarkResult;
+import org.openjdk.jmh.results.Result;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.Collection;
+import java.util.Locale;
+
+/**
+ * Runs every benchmark at 1, 2, 4, ... 64 threads.
+ *
+ * Output (machine readable), in the directory given as first arg
+ * (default "jmh-results"):
+ *   results-&lt;n&gt;t.json   raw JMH JSON per thread count
+ *   summary.csv           benchmark,mode,threads,params,score,error,unit
+ *
+ * Second arg: optional regex to restrict benchmarks (e.g. "MessageBus").
+ * Third arg: optional comma separated thread counts (e.g. "1,8,64").
+ */
+public class BenchmarkMain {
+
+    private static final int[] DEFAULT_THREADS = {1, 2, 4, 8, 16, 32, 64};
+
+    public static void main(String[] args) throws RunnerException, IOException {
+        File outDir = new File(args.length > 0 ? args[0] : "jmh-results");
+        String include = args.length > 1 ? args[1] : "multikernel\\.benchmarks\\..*Benchmark";
+        int[] threadCounts = DEFAULT_THREADS;
+        if (args.length > 2) {
+            String[] parts = args[2].split(",");
+            threadCounts = new int[parts.length];
+            for (int i = 0; i < parts.length; i++) {
+                threadCounts[i] = Integer.parseInt(parts[i].trim());
+            }
+        }
+        if (!outDir.isDirectory() && !outDir.mkdirs()) {
+            throw new IOException("Cannot create " + outDir);
+        }
+
+        try (PrintWriter summary = new PrintWriter(new FileWriter(new File(outDir, "summary.csv")))) {
+            summary.println("benchmark,mode,threads,params,score,error,unit");
+            for (int threads : threadCounts) {
+                ChainedOptionsBuilder opts = new OptionsBuilder()
+                        .include(include)
+                        .threads(threads)
+                        .resultFormat(ResultFormatType.JSON)
+                        .result(new File(outDir, "results-" + threads + "t.json").getPath());
+                Collection<RunResult> results = new Runner(opts.build()).run();
+
+                for (RunResult run : results) {
+                    BenchmarkResult agg = run.getAggregatedResult();
+                    Result primary = agg.getPrimaryResult();
+                    summary.printf(Locale.US, "%s,%s,%d,%s,%.4f,%.4f,%s%n",
+                            run.getParams().getBenchmark(),
+                            run.getParams().getMode().shortLabel(),
+                            threads,
+                            paramString(run),
+                            primary.getScore(),
+                            primary.getScoreError(),
+                            primary.getScoreUnit());
+                }
+                summary.flush();
+            }
+        }
+        System.out.println("Results written to " + outDir.getAbsolutePath());
+    }
+
+    private static String paramString(RunResult run) {
+        StringBuilder sb = new StringBuilder();
+        for (String key : run.getParams().getParamsKeys()) {
+            if (sb.length() > 0) sb.append(';');
+            sb.append(key).append('=').append(run.getParams().getParam(key));
+        }
+        return sb.toString();
+    }
+}
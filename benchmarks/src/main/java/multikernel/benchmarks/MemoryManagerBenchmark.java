@@ -0,0 +1,46 @@
+package multikernel.benchmarks;
+
+import multikernel.MemoryManager;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * MemoryManager under contention. One shared instance, as when a core's
+ * own allocations race with canFit() checks from its message handler.
+ * The manager uses a fair ReentrantLock, so throughput under contention
+ * is the interesting number.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MemoryManagerBenchmark {
+
+    MemoryManager memoryManager;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        // large enough that allocate never fails at 64 threads x 200
+        memoryManager = new MemoryManager(Integer.MAX_VALUE / 2);
+    }
+
+    @Benchmark
+    public boolean allocateDeallocate() {
+        boolean ok = memoryManager.allocate(128);
+        memoryManager.deallocate(128);
+        return ok;
+    }
+
+    @Benchmark
+    public boolean canFit() {
+        return memoryManager.canFit(128);
+    }
+
+    @Benchmark
+    public int usedMemory() {
+        return memoryManager.getUsedMemory();
+    }
+}
@@ -0,0 +1,102 @@
+package multikernel.benchmarks;
+
+import multikernel.MessageBus;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.ThreadParams;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * MessageBus hot paths.
+ *
+ *  - asyncShared:  every benchmark thread sends to and polls core 0's inbox
+ *                  (fan-in contention on one LinkedBlockingQueue)
+ *  - asyncPrivate: each thread uses its own inbox (no queue contention,
+ *                  only the shared counters)
+ *  - syncRoundTrip: sendSyncRequest to core 0, answered by a dedicated
+ *                  responder thread that polls core 0 and calls sendSyncReply;
+ *                  i.e. the blocking RESOURCE_REQUEST pattern in Core.run
+ *
+ * Core ids: 0 = responder / shared inbox, 1..MAX_THREADS = benchmark threads.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MessageBusBenchmark {
+
+    static final int MAX_THREADS = 64;
+
+    @State(Scope.Benchmark)
+    public static class Bus {
+        MessageBus bus;
+        Thread responder;
+        volatile boolean running;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            bus = new MessageBus(MAX_THREADS + 1);
+            running = true;
+            responder = new Thread(() -> {
+                while (running) {
+                    MessageBus.Message req = bus.pollMessage(0);
+                    if (req == null) {
+                        Thread.onSpinWait();
+                        continue;
+                    }
+                    if ("RESOURCE_REQUEST".equals(req.getType())) {
+                        bus.sendSyncReply(0, req.getFromCore(), new MessageBus.Message(
+                                "RESOURCE_GRANTED", null, 0, req.getFromCore(), req.getCorrelationId()));
+                    }
+                }
+            }, "bench-responder");
+            responder.setDaemon(true);
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() throws InterruptedException {
+            running = false;
+            if (responder.isAlive()) {
+                responder.join(1000);
+            }
+        }
+
+        void ensureResponder() {
+            synchronized (this) {
+                if (!responder.isAlive()) {
+                    responder.start();
+                }
+            }
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Endpoint {
+        int coreId;
+
+        @Setup(Level.Trial)
+        public void setUp(ThreadParams params) {
+            coreId = 1 + (params.getThreadIndex() % MAX_THREADS);
+        }
+    }
+
+    @Benchmark
+    public MessageBus.Message asyncShared(Bus b, Endpoint e) {
+        b.bus.sendAsync(e.coreId, 0, new MessageBus.Message("OFFLOAD_REQUEST", null, e.coreId, 0, "bench"));
+        return b.bus.pollMessage(0);
+    }
+
+    @Benchmark
+    public MessageBus.Message asyncPrivate(Bus b, Endpoint e) {
+        b.bus.sendAsync(e.coreId, e.coreId, new MessageBus.Message("OFFLOAD_REQUEST", null, e.coreId, e.coreId, "bench"));
+        return b.bus.pollMessage(e.coreId);
+    }
+
+    @Benchmark
+    public MessageBus.Message syncRoundTrip(Bus b, Endpoint e) throws InterruptedException {
+        b.ensureResponder();
+        return b.bus.sendSyncRequest(e.coreId, 0,
+                new MessageBus.Message("RESOURCE_REQUEST", null, e.coreId, 0, null));
+    }
+}
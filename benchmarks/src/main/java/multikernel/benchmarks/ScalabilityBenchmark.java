@@ -0,0 +1,251 @@
+package multikernel.benchmarks;
+
+import multikernel.CorePhaseProfile;
+import multikernel.ExperimentOptions;
+import multikernel.ExperimentRunner;
+import multikernel.SchedulerType;
+import multikernel.Simulation;
+import multikernel.SimulationConfig;
+import multikernel.SimulationResult;
+import org.jfree.chart.ChartUtilities;
+import org.jfree.chart.JFreeChart;
+import org.jfree.chart.axis.LogAxis;
+import org.jfree.chart.axis.NumberAxis;
+import org.jfree.chart.plot.XYPlot;
+import org.jfree.chart.renderer.xy.XYLineAndShapeRenderer;
+import org.jfree.data.xy.XYSeries;
+import org.jfree.data.xy.XYSeriesCollection;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.util.*;
+
+/**
+ * End-to-end (macro) scalability harness: drives whole simulations
+ * (Core + MessageBus + Scheduler + MemoryManager + MetricsCollector) across
+ * core counts and task counts and reports, per point:
+ *
+ *   simulated tasks / wall second, messages / second,
+ *   peak heap, GC time and count,
+ *   share of core-loop time per CorePhaseProfile phase, and the dominant
+ *   non-execution phase - i.e. which component stops the scaling.
+ *
+ * Points run one after another in this JVM (GC'd in between) so heap and
+ * GC numbers belong to a single simulation. Burst sleeps are scaled by
+ * timeScale (default 0 = no sleeping) so only simulator overhead is timed.
+ *
+ *   java -Xmx8g -cp benchmarks.jar multikernel.benchmarks.ScalabilityBenchmark \
+ *        cores=1,2,4,8,16,32,64,128,256,512,1024 tasks=1000,10000,100000,1000000,10000000 \
+ *        scheduler=RR timeScale=0 out=scalability
+ *
+ * Writes scalability.csv and PNG scaling curves into the out directory.
+ * A point that runs out of memory is recorded as OOM and the sweep goes on.
+ */
+public class ScalabilityBenchmark {
+
+    static class Point {
+        int cores;
+        int tasks;
+        boolean oom;
+        long wallMs;
+        int completed;
+        long messages;
+        double tasksPerSec;
+        double messagesPerSec;
+        long peakHeapBytes;
+        long gcTimeMs;
+        long gcCount;
+        Map<String, Double> phaseShare = new LinkedHashMap<>();
+        String dominantOverhead = "";
+    }
+
+    public static void main(String[] args) throws IOException {
+        ExperimentOptions options = new ExperimentOptions(args);
+        List<Integer> coreCounts = options.getInts("cores", powersOfTwo(1, 1024));
+        List<Integer> taskCounts = options.getInts("tasks", List.of(1_000, 10_000, 100_000, 1_000_000, 10_000_000));
+        SchedulerType scheduler = options.getScheduler("scheduler", SchedulerType.ROUND_ROBIN);
+        double timeScale = options.getDouble("timeScale", 0.0);
+        long deadlineMs = options.getLong("deadline", 600_000);
+        File outDir = options.get("out", File::new, new File("scalability"));
+        options.rejectUnknown();
+        if (!outDir.isDirectory() && !outDir.mkdirs()) {
+            throw new IOException("Cannot create " + outDir);
+        }
+
+        ExperimentRunner.warmUp(new SimulationConfig(scheduler, 4, 1_000, 1000, 42L).setTimeScale(timeScale));
+
+        List<Point> points = new ArrayList<>();
+        File csv = new File(outDir, "scalability.csv");
+        try (PrintWriter pw = new PrintWriter(new FileWriter(csv))) {
+            pw.println(csvHeader());
+            for (int tasks : taskCounts) {
+                for (int cores : coreCounts) {
+                    Point p = runPoint(scheduler, cores, tasks, timeScale, deadlineMs);
+                    points.add(p);
+                    pw.println(csvRow(p));
+                    pw.flush();
+                    System.out.printf(Locale.US, "cores=%5d tasks=%9d -> %s%n", cores, tasks,
+                            p.oom ? "OOM" : String.format(Locale.US,
+                                    "%.0f tasks/s, %.0f msgs/s, heap %d MB, gc %d ms, bottleneck %s",
+                                    p.tasksPerSec, p.messagesPerSec, p.peakHeapBytes >> 20,
+                                    p.gcTimeMs, p.dominantOverhead));
+                }
+            }
+        }
+
+        plot(points, taskCounts, outDir, "tasks_per_second.png", "Simulated tasks / wall second", p -> p.tasksPerSec);
+        plot(points, taskCounts, outDir, "messages_per_second.png", "Messages / second", p -> p.messagesPerSec);
+        plot(points, taskCounts, outDir, "peak_heap_mb.png", "Peak heap (MB)", p -> p.peakHeapBytes / (1024.0 * 1024.0));
+        plot(points, taskCounts, outDir, "gc_time_ms.png", "GC time (ms)", p -> (double) p.gcTimeMs);
+        System.out.println("Results written to " + outDir.getAbsolutePath());
+    }
+
+    private static Point runPoint(SchedulerType scheduler, int cores, int tasks,
+                                  double timeScale, long deadlineMs) {
+        Point p = new Point();
+        p.cores = cores;
+        p.tasks = tasks;
+
+        System.gc();
+        List<MemoryPoolMXBean> heapPools = new ArrayList<>();
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) {
+                pool.resetPeakUsage();
+                heapPools.add(pool);
+            }
+        }
+        long gcTimeBefore = totalGcTime();
+        long gcCountBefore = totalGcCount();
+
+        try {
+            // the workload is generated inside the timed region on purpose:
+            // building the task list is part of what has to scale
+            long start = System.nanoTime();
+            Simulation sim = new Simulation(new SimulationConfig(scheduler, cores, tasks, 1000, 42L)
+                    .setTimeScale(timeScale)
+                    .setDeadlineMs(deadlineMs)
+                    .setRegisterJmx(false));
+            SimulationResult result = sim.run();
+            p.wallMs = Math.max(1, (System.nanoTime() - start) / 1_000_000L);
+            p.completed = result.getCompletedTasks();
+            p.messages = result.getTotalMessages();
+            p.tasksPerSec = 1000.0 * p.completed / p.wallMs;
+            p.messagesPerSec = 1000.0 * p.messages / p.wallMs;
+            fillPhaseShares(p, sim.getMetricsCollector().getCorePhaseBreakdownMs());
+        } catch (OutOfMemoryError e) {
+            // thrown here or in a core thread; run() stops the other cores and rethrows the latter
+            p.oom = true;
+        }
+
+        for (MemoryPoolMXBean pool : heapPools) {
+            p.peakHeapBytes += pool.getPeakUsage().getUsed();
+        }
+        p.gcTimeMs = totalGcTime() - gcTimeBefore;
+        p.gcCount = totalGcCount() - gcCountBefore;
+        return p;
+    }
+
+    private static void fillPhaseShares(Point p, Map<Integer, Map<String, Double>> perCore) {
+        Map<String, Double> totals = new LinkedHashMap<>();
+        for (CorePhaseProfile.Phase phase : CorePhaseProfile.Phase.values()) {
+            totals.put(phase.name(), 0.0);
+        }
+        double all = 0;
+        for (Map<String, Double> phases : perCore.values()) {
+            for (Map.Entry<String, Double> e : phases.entrySet()) {
+                totals.merge(e.getKey(), e.getValue(), Double::sum);
+                all += e.getValue();
+            }
+        }
+        double worst = -1;
+        for (Map.Entry<String, Double> e : totals.entrySet()) {
+            double share = (all == 0) ? 0.0 : 100.0 * e.getValue() / all;
+            p.phaseShare.put(e.getKey(), share);
+            boolean overhead = !e.getKey().equals(CorePhaseProfile.Phase.EXECUTION.name())
+                    && !e.getKey().equals(CorePhaseProfile.Phase.IDLE.name());
+            if (overhead && share > worst) {
+                worst = share;
+                p.dominantOverhead = e.getKey();
+            }
+        }
+    }
+
+    private static String csvHeader() {
+        StringBuilder sb = new StringBuilder(
+                "cores,tasks,status,wallMs,completed,messages,tasksPerSec,messagesPerSec,peakHeapMB,gcTimeMs,gcCount");
+        for (CorePhaseProfile.Phase phase : CorePhaseProfile.Phase.values()) {
+            sb.append(',').append(phase.name().toLowerCase(Locale.ROOT)).append("Pct");
+        }
+        sb.append(",dominantOverhead");
+        return sb.toString();
+    }
+
+    private static String csvRow(Point p) {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format(Locale.US, "%d,%d,%s,%d,%d,%d,%.1f,%.1f,%.1f,%d,%d",
+                p.cores, p.tasks, p.oom ? "OOM" : "OK", p.wallMs, p.completed, p.messages,
+                p.tasksPerSec, p.messagesPerSec, p.peakHeapBytes / (1024.0 * 1024.0),
+                p.gcTimeMs, p.gcCount));
+        for (CorePhaseProfile.Phase phase : CorePhaseProfile.Phase.values()) {
+            sb.append(String.format(Locale.US, ",%.2f", p.phaseShare.getOrDefault(phase.name(), 0.0)));
+        }
+        sb.append(',').append(p.dominantOverhead);
+        return sb.toString();
+    }
+
+    private interface Metric {
+        double of(Point p);
+    }
+
+    /** One curve per task count, x = core count on a log2 axis. */
+    private static void plot(List<Point> points, List<Integer> taskCounts, File outDir,
+                             String file, String yLabel, Metric metric) throws IOException {
+        XYSeriesCollection dataset = new XYSeriesCollection();
+        for (int tasks : taskCounts) {
+            XYSeries series = new XYSeries(tasks + " tasks");
+            for (Point p : points) {
+                if (p.tasks == tasks && !p.oom) {
+                    series.add(p.cores, metric.of(p));
+                }
+            }
+            dataset.addSeries(series);
+        }
+        LogAxis xAxis = new LogAxis("Simulated cores");
+        xAxis.setBase(2);
+        xAxis.setSmallestValue(1);
+        NumberAxis yAxis = new NumberAxis(yLabel);
+        XYPlot plot = new XYPlot(dataset, xAxis, yAxis, new XYLineAndShapeRenderer(true, true));
+        JFreeChart chart = new JFreeChart(yLabel + " vs cores", JFreeChart.DEFAULT_TITLE_FONT, plot, true);
+        ChartUtilities.saveChartAsPNG(new File(outDir, file), chart, 900, 600);
+    }
+
+    private static long totalGcTime() {
+        long total = 0;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            total += Math.max(0, gc.getCollectionTime());
+        }
+        return total;
+    }
+
+    private static long totalGcCount() {
+        long total = 0;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            total += Math.max(0, gc.getCollectionCount());
+        }
+        return total;
+    }
+
+    private static List<Integer> powersOfTwo(int from, int to) {
+        List<Integer> values = new ArrayList<>();
+        for (int v = from; v <= to; v *= 2) {
+            values.add(v);
+        }
+        return values;
+    }
+}
@@ -0,0 +1,63 @@
+package multikernel.benchmarks;
+
+import multikernel.Scheduler;
+import multikernel.SchedulerType;
+import multikernel.Task;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Scheduler implementations under contention: one shared queue,
+ * every thread does addTask + getNextTask (the steady state of a core that
+ * also receives migrated tasks). preload controls the resident queue
+ * length, which matters for the SJF heap. ADAPT includes the adaptive
+ * scheduler's window bookkeeping and its occasional policy switches.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SchedulerBenchmark {
+
+    @Param({"RR", "SJF", "ADAPT"})
+    String scheduler;
+
+    @Param({"0", "1000"})
+    int preload;
+
+    Scheduler queue;
+    Task[] tasks;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        queue = SchedulerType.parse(scheduler).create();
+        SplittableRandom rand = new SplittableRandom(42);
+        tasks = new Task[4096];
+        for (int i = 0; i < tasks.length; i++) {
+            tasks[i] = new Task(i, 200 + rand.nextInt(800), 50 + rand.nextInt(150), 0L);
+        }
+        for (int i = 0; i < preload; i++) {
+            queue.addTask(tasks[i % tasks.length]);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Cursor {
+        int next;
+    }
+
+    @Benchmark
+    public Task addThenPoll(Cursor c) {
+        queue.addTask(tasks[c.next++ & (tasks.length - 1)]);
+        return queue.getNextTask();
+    }
+
+    @Benchmark
+    public int size() {
+        return queue.size();
+    }
+}
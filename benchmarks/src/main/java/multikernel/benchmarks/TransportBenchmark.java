@@ -0,0 +1,128 @@
+package multikernel.benchmarks;
+
+import multikernel.MessageBus;
+import multikernel.Transport;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.nio.file.Files;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Synchronous round trip between two cores on different MessageBus
+ * instances, i.e. the RESOURCE_REQUEST pattern of MessageBusBenchmark's
+ * syncRoundTrip with the two cores split over two "processes".
+ *
+ * Both buses live in this JVM but only talk through their Transport, so
+ * every request and reply is encoded, carried and decoded as between two
+ * JVMs:
+ *
+ *  - inJvm:  one bus, no transport (the baseline)
+ *  - TCP:    loopback TCP sockets
+ *  - UNIX:   Unix domain sockets
+ *  - MAPPED: memory-mapped ring buffers
+ *
+ * Core 0 (node 0) sends, core 1 (node 1) answers from a responder thread.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TransportBenchmark {
+
+    private static final long CONNECT_TIMEOUT_MS = 10_000;
+
+    @State(Scope.Benchmark)
+    public static class Link {
+        @Param({"inJvm", "TCP", "UNIX", "MAPPED"})
+        String transport;
+
+        MessageBus sender;
+        MessageBus responderBus;
+        Transport[] transports;
+        Thread responder;
+        volatile boolean running;
+
+        @Setup(Level.Trial)
+        public void setUp() throws Exception {
+            if ("inJvm".equals(transport)) {
+                sender = new MessageBus(2);
+                responderBus = sender;
+            } else {
+                Transport.Kind kind = Transport.Kind.parse(transport);
+                String endpoint = (kind == Transport.Kind.TCP)
+                        ? Integer.toString(freeBasePort())
+                        : Files.createTempDirectory("multikernel-bench").toString();
+                transports = new Transport[] {
+                        Transport.create(kind, endpoint, 2, 0, 2),
+                        Transport.create(kind, endpoint, 2, 1, 2)
+                };
+                sender = new MessageBus(2);
+                responderBus = new MessageBus(2);
+                sender.attachTransport(transports[0]);
+                responderBus.attachTransport(transports[1]);
+                // connect() waits for the other side, so both connect at once
+                CompletableFuture<Void> other = CompletableFuture.runAsync(() -> connect(transports[1]));
+                connect(transports[0]);
+                other.join();
+            }
+            running = true;
+            responder = new Thread(() -> {
+                while (running) {
+                    MessageBus.Message req = responderBus.pollMessage(1);
+                    if (req == null) {
+                        Thread.onSpinWait();
+                        continue;
+                    }
+                    responderBus.sendSyncReply(1, req.getFromCore(), new MessageBus.Message(
+                            "RESOURCE_GRANTED", null, 1, req.getFromCore(), req.getCorrelationId()));
+                }
+            }, "bench-responder");
+            responder.setDaemon(true);
+            responder.start();
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() throws InterruptedException {
+            running = false;
+            responder.join(1000);
+            if (transports != null) {
+                for (Transport t : transports) {
+                    t.close();
+                }
+            }
+        }
+
+        private static void connect(Transport t) {
+            try {
+                t.connect(CONNECT_TIMEOUT_MS);
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        /** A port p with p + 1 free as well, as far as we can tell right now. */
+        private static int freeBasePort() throws IOException {
+            for (int attempt = 0; attempt < 100; attempt++) {
+                int port;
+                try (ServerSocket probe = new ServerSocket(0)) {
+                    port = probe.getLocalPort();
+                }
+                try (ServerSocket next = new ServerSocket(port + 1)) {
+                    return port;
+                } catch (IOException taken) {
+                    // try another
+                }
+            }
+            throw new IOException("No two consecutive free ports");
+        }
+    }
+
+    @Benchmark
+    public MessageBus.Message syncRoundTrip(Link l) throws InterruptedException {
+        return l.sender.sendSyncRequest(0, 1, new MessageBus.Message("RESOURCE_REQUEST", null, 0, 1, null));
+    }
+}
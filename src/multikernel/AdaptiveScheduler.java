@@ -0,0 +1,356 @@
+package multikernel;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Queue;
+import java.util.function.Predicate;
+
+/**
+ * Scheduler that picks its own ordering at run time from what it observes
+ * in its queue, instead of a policy fixed for the whole run.
+ *
+ * Over windows of EVAL_DEQUEUES dequeues it tracks the average queue
+ * length, the arrival and service rates, and (as an exponentially weighted
+ * moving average over every task added) the mean and variance of the burst
+ * times. Only addTask counts as an arrival and only getNextTask as service:
+ * requeues, drains and steals move tasks the window has already seen. At the end of each window it proposes:
+ *
+ *   FIFO  the queue is short, or bursts are nearly equal: ordering cannot
+ *         improve turnaround much, and FIFO is fair
+ *   MLFQ  tasks arrive faster than they are served: short bursts first, but
+ *         periodically boosted long tasks so the backlog cannot starve them
+ *   SJF   a real queue of mixed burst sizes that is being worked off:
+ *         shortest first minimises mean turnaround
+ *
+ * A proposal has to hold for CONFIRM_WINDOWS windows in a row before the
+ * policy switches, so one noisy window does not flap. On a switch every
+ * queued task moves to the new ordering (in admission order), none is lost.
+ *
+ * Each switch is logged in the MetricsCollector with the statistics that
+ * caused it, the mean queueing delay of the window before and, once the
+ * next window closes, of the window after (wall-clock ms).
+ */
+public class AdaptiveScheduler implements Scheduler {
+
+    public enum Policy { FIFO, SJF, MLFQ }
+
+    // dequeues per evaluation window
+    static final int EVAL_DEQUEUES = 8;
+    // consecutive windows that must agree before switching
+    static final int CONFIRM_WINDOWS = 2;
+    // below this average queue length ordering hardly matters
+    static final double SHORT_QUEUE = 2.0;
+    // burst coefficient of variation below which tasks count as equal-sized
+    static final double LOW_VARIANCE_CV = 0.15;
+    // weight of the newest burst in the moving mean / variance
+    private static final double BURST_ALPHA = 0.05;
+
+    // MLFQ: a task's level is the number of quanta its burst spans (capped),
+    // and every BOOST_INTERVAL dequeues all levels are moved to the top
+    static final int MLFQ_LEVELS = 3;
+    static final int MLFQ_QUANTUM_MS = 300;
+    static final int MLFQ_BOOST_INTERVAL = 16;
+
+    /** A queued task with its admission order, kept across policy switches. */
+    private static final class Entry {
+        final Task task;
+        final long seq;
+
+        Entry(Task task, long seq) {
+            this.task = task;
+            this.seq = seq;
+        }
+    }
+
+    private static final Comparator<Entry> BY_ADMISSION = Comparator.comparingLong(e -> e.seq);
+
+    private Policy policy = Policy.FIFO;
+    private final ArrayDeque<Entry> fifo = new ArrayDeque<>();
+    private final PriorityQueue<Entry> sjf = new PriorityQueue<>(
+            Comparator.<Entry>comparingInt(e -> e.task.getBurstTime()).thenComparingLong(e -> e.seq));
+    private final List<ArrayDeque<Entry>> levels = new ArrayList<>();
+    private int dequeuesSinceBoost = 0;
+    private long nextSeq = 0;
+
+    // mirrors the queue length; written under the lock, read without it by monitoring threads
+    private volatile int size;
+    private volatile long work;  // burst sum of the queued tasks, same rules as size
+
+    // switch logging (optional, see attachMetrics)
+    private int coreId = -1;
+    private MetricsCollector metrics;
+    private int pendingSwitch = -1; // switch whose after-window is still open
+
+    // burst statistics (EWMA over added tasks)
+    private double burstMean = 0.0;
+    private double burstVar = 0.0;
+    private boolean burstSeen = false;
+
+    // current window
+    private long windowStartNanos = 0L; // 0 = opens at the next dequeue
+    private int windowAdds = 0;
+    private int windowDequeues = 0;
+    private long windowQueueSum = 0L;
+    private long windowWaitMs = 0L;
+    private Policy proposal = Policy.FIFO;
+    private int proposalStreak = 0;
+    private int switches = 0;
+
+    public AdaptiveScheduler() {
+        for (int i = 0; i < MLFQ_LEVELS; i++) {
+            levels.add(new ArrayDeque<>());
+        }
+    }
+
+    /** Logs policy switches into metrics, under coreId (-1 = shared queue). */
+    public void attachMetrics(int coreId, MetricsCollector metrics) {
+        this.coreId = coreId;
+        this.metrics = metrics;
+    }
+
+    @Override
+    public synchronized void addTask(Task task) {
+        enqueue(task);
+        observeBurst(task.getBurstTime());
+        if (windowStartNanos != 0L) {
+            windowAdds++;
+        }
+    }
+
+    /** A task this core already had: neither an arrival nor a new burst sample. */
+    @Override
+    public synchronized void requeue(Task task) {
+        enqueue(task);
+    }
+
+    @Override
+    public synchronized Task getNextTask() {
+        if (size == 0) {
+            return null;
+        }
+        long now = System.nanoTime();
+        if (windowStartNanos == 0L) {
+            windowStartNanos = now;
+        }
+        windowQueueSum += size;
+        Entry next = poll();
+        size--;
+        work -= next.task.getBurstTime();
+        windowDequeues++;
+        windowWaitMs += Math.max(0L, System.currentTimeMillis() - next.task.getArrivalTime());
+        if (windowDequeues >= EVAL_DEQUEUES) {
+            evaluate(now);
+        }
+        return next.task;
+    }
+
+    /**
+     * Hands tasks to another core (steal() by default drains), which is not
+     * service here: like steal, it leaves the window and the MLFQ boost
+     * count alone.
+     */
+    @Override
+    public synchronized int drainTo(Collection<? super Task> sink, int maxTasks) {
+        int moved = 0;
+        while (moved < maxTasks && size > 0) {
+            sink.add(take(headQueue()));
+            moved++;
+        }
+        return moved;
+    }
+
+    /** A steal is not service: it leaves the window and the MLFQ boost count alone. */
+    @Override
+    public synchronized List<Task> steal(int maxTasks, int keep, Predicate<? super Task> accept) {
+        List<Task> stolen = new ArrayList<>();
+        while (stolen.size() < maxTasks && size > keep) {
+            Queue<Entry> next = headQueue();
+            if (!accept.test(next.peek().task)) {
+                break;
+            }
+            stolen.add(take(next));
+        }
+        return stolen;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public long estimatedWork() {
+        return work;
+    }
+
+    public synchronized Policy getPolicy() {
+        return policy;
+    }
+
+    public synchronized int getSwitchCount() {
+        return switches;
+    }
+
+    // ----------------------------------------------------------------------
+    // Policy decision
+    // ----------------------------------------------------------------------
+
+    private void observeBurst(int burst) {
+        if (!burstSeen) {
+            burstMean = burst;
+            burstSeen = true;
+            return;
+        }
+        double diff = burst - burstMean;
+        burstMean += BURST_ALPHA * diff;
+        burstVar = (1 - BURST_ALPHA) * (burstVar + BURST_ALPHA * diff * diff);
+    }
+
+    private void evaluate(long now) {
+        double elapsedSec = Math.max(1L, now - windowStartNanos) / 1e9;
+        double avgQueue = (double) windowQueueSum / windowDequeues;
+        double arrivalRate = windowAdds / elapsedSec;
+        double serviceRate = windowDequeues / elapsedSec;
+        double burstCv = (burstMean == 0) ? 0.0 : Math.sqrt(burstVar) / burstMean;
+        double meanWaitMs = (double) windowWaitMs / windowDequeues;
+
+        if (pendingSwitch >= 0 && metrics != null) {
+            metrics.recordPolicySwitchEffect(pendingSwitch, meanWaitMs);
+        }
+        pendingSwitch = -1;
+
+        Policy proposed = propose(avgQueue, arrivalRate, serviceRate, burstCv);
+        proposalStreak = (proposed == proposal) ? proposalStreak + 1 : 1;
+        proposal = proposed;
+        if (proposed != policy && proposalStreak >= CONFIRM_WINDOWS) {
+            if (metrics != null) {
+                pendingSwitch = metrics.recordPolicySwitch(coreId, policy.name(), proposed.name(),
+                        avgQueue, burstCv, arrivalRate, serviceRate, meanWaitMs);
+            }
+            switchTo(proposed);
+        }
+
+        windowStartNanos = 0L;
+        windowAdds = 0;
+        windowDequeues = 0;
+        windowQueueSum = 0L;
+        windowWaitMs = 0L;
+    }
+
+    static Policy propose(double avgQueue, double arrivalRate, double serviceRate, double burstCv) {
+        if (avgQueue < SHORT_QUEUE || burstCv < LOW_VARIANCE_CV) {
+            return Policy.FIFO;
+        }
+        if (arrivalRate >= serviceRate) {
+            return Policy.MLFQ;
+        }
+        return Policy.SJF;
+    }
+
+    /** Moves every queued task into the new policy's structure. */
+    private void switchTo(Policy next) {
+        List<Entry> queued = new ArrayList<>(size);
+        queued.addAll(fifo);
+        queued.addAll(sjf);
+        for (ArrayDeque<Entry> level : levels) {
+            queued.addAll(level);
+            level.clear();
+        }
+        fifo.clear();
+        sjf.clear();
+        queued.sort(BY_ADMISSION);
+
+        policy = next;
+        dequeuesSinceBoost = 0;
+        for (Entry e : queued) {
+            insert(e);
+        }
+        switches++;
+    }
+
+    // ----------------------------------------------------------------------
+    // Queue operations of the current policy
+    // ----------------------------------------------------------------------
+
+    private void enqueue(Task task) {
+        insert(new Entry(task, nextSeq++));
+        size++;
+        work += task.getBurstTime();
+    }
+
+    private Task take(Queue<Entry> from) {
+        Task task = from.poll().task;
+        size--;
+        work -= task.getBurstTime();
+        return task;
+    }
+
+    private void insert(Entry e) {
+        switch (policy) {
+            case SJF:
+                sjf.offer(e);
+                break;
+            case MLFQ:
+                levels.get(Math.min(MLFQ_LEVELS - 1, e.task.getBurstTime() / MLFQ_QUANTUM_MS)).addLast(e);
+                break;
+            case FIFO:
+            default:
+                fifo.addLast(e);
+                break;
+        }
+    }
+
+    private Entry poll() {
+        switch (policy) {
+            case SJF:
+                return sjf.poll();
+            case MLFQ:
+                if (++dequeuesSinceBoost >= MLFQ_BOOST_INTERVAL) {
+                    boost();
+                }
+                for (ArrayDeque<Entry> level : levels) {
+                    if (!level.isEmpty()) {
+                        return level.pollFirst();
+                    }
+                }
+                return null;
+            case FIFO:
+            default:
+                return fifo.pollFirst();
+        }
+    }
+
+    /** The structure whose head poll() would return next; queue must not be empty. */
+    private Queue<Entry> headQueue() {
+        switch (policy) {
+            case SJF:
+                return sjf;
+            case MLFQ:
+                for (ArrayDeque<Entry> level : levels) {
+                    if (!level.isEmpty()) {
+                        return level;
+                    }
+                }
+                throw new IllegalStateException("MLFQ levels empty with " + size + " tasks queued");
+            case FIFO:
+            default:
+                return fifo;
+        }
+    }
+
+    /** MLFQ priority boost: every waiting task moves to the top level, oldest first. */
+    private void boost() {
+        dequeuesSinceBoost = 0;
+        List<Entry> lower = new ArrayList<>();
+        for (int i = 1; i < MLFQ_LEVELS; i++) {
+            lower.addAll(levels.get(i));
+            levels.get(i).clear();
+        }
+        lower.sort(BY_ADMISSION);
+        levels.get(0).addAll(lower);
+    }
+}
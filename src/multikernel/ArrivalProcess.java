@@ -0,0 +1,161 @@
+package multikernel;
+
+import java.util.Random;
+
+/**
+ * Open-system arrival processes: successive arrival times (simulated ms,
+ * starting at 0) of tasks entering the system. Used by ArrivalTaskSource to
+ * drive a TraceFeeder, so tasks keep arriving while the cores run instead
+ * of being enqueued up front.
+ *
+ * Every process has a long-run mean rate, so experiments can be set up at
+ * a target offered load (see rateFor). Processes are stateful; create one
+ * per run.
+ */
+public interface ArrivalProcess {
+
+    /** Time of the next arrival in simulated ms; non-decreasing. */
+    double nextArrivalMs();
+
+    /** The kinds of process a SimulationConfig can ask for. */
+    enum Pattern {
+        POISSON, MMPP, DIURNAL;
+
+        public static Pattern parse(String text) {
+            for (Pattern p : values()) {
+                if (p.name().equalsIgnoreCase(text)) {
+                    return p;
+                }
+            }
+            throw new IllegalArgumentException("Unknown arrival pattern: " + text);
+        }
+    }
+
+    /**
+     * Mean arrival rate (tasks per simulated second) that puts offeredLoad
+     * on numCores cores whose tasks take meanBurstMs each: 1.0 = arrivals
+     * exactly match total service capacity.
+     */
+    static double rateFor(double offeredLoad, int numCores, double meanBurstMs) {
+        return offeredLoad * numCores * 1000.0 / meanBurstMs;
+    }
+
+    /** A process of the given pattern with mean rate ratePerSec. */
+    static ArrivalProcess create(Pattern pattern, double ratePerSec, long seed) {
+        switch (pattern) {
+            case MMPP:
+                return new Mmpp(ratePerSec * (1 - Mmpp.SPREAD), ratePerSec * (1 + Mmpp.SPREAD),
+                        Mmpp.MEAN_SOJOURN_MS, Mmpp.MEAN_SOJOURN_MS, seed);
+            case DIURNAL:
+                return new Diurnal(ratePerSec, Diurnal.AMPLITUDE, Diurnal.PERIOD_MS, seed);
+            case POISSON:
+            default:
+                return new Poisson(ratePerSec, seed);
+        }
+    }
+
+    // ----------------------------------------------------------------------
+    // Implementations
+    // ----------------------------------------------------------------------
+
+    /** Memoryless arrivals: exponential inter-arrival times. */
+    final class Poisson implements ArrivalProcess {
+        private final double ratePerMs;
+        private final Random rand;
+        private double now = 0.0;
+
+        public Poisson(double ratePerSec, long seed) {
+            this.ratePerMs = ratePerSec / 1000.0;
+            this.rand = new Random(seed);
+        }
+
+        @Override
+        public double nextArrivalMs() {
+            now += exponential(rand, ratePerMs);
+            return now;
+        }
+    }
+
+    /**
+     * Two-state Markov-modulated Poisson process: the rate alternates between
+     * a low and a high state with exponentially distributed sojourn times,
+     * giving bursts that a plain Poisson stream never has.
+     */
+    final class Mmpp implements ArrivalProcess {
+        // default shape for create(): states at 20% / 180% of the mean rate,
+        // each lasting 10 simulated seconds on average
+        static final double SPREAD = 0.8;
+        static final double MEAN_SOJOURN_MS = 10_000.0;
+
+        private final double[] ratePerMs;
+        private final double[] leaveRatePerMs;
+        private final Random rand;
+        private int state = 0;
+        private double now = 0.0;
+        private double stateEnd;
+
+        public Mmpp(double lowRatePerSec, double highRatePerSec,
+                    double meanLowMs, double meanHighMs, long seed) {
+            this.ratePerMs = new double[]{lowRatePerSec / 1000.0, highRatePerSec / 1000.0};
+            this.leaveRatePerMs = new double[]{1.0 / meanLowMs, 1.0 / meanHighMs};
+            this.rand = new Random(seed);
+            this.stateEnd = exponential(rand, leaveRatePerMs[0]);
+        }
+
+        @Override
+        public double nextArrivalMs() {
+            while (true) {
+                double candidate = now + exponential(rand, ratePerMs[state]);
+                if (candidate <= stateEnd) {
+                    now = candidate;
+                    return now;
+                }
+                // switch state; memorylessness lets us restart the draw there
+                now = stateEnd;
+                state = 1 - state;
+                stateEnd = now + exponential(rand, leaveRatePerMs[state]);
+            }
+        }
+    }
+
+    /**
+     * Non-homogeneous Poisson process with a sinusoidal "day":
+     * rate(t) = mean * (1 + amplitude * sin(2 pi t / period)),
+     * sampled by thinning a Poisson stream at the peak rate.
+     */
+    final class Diurnal implements ArrivalProcess {
+        // default shape for create(): +-80% swing over a 60 simulated second day
+        static final double AMPLITUDE = 0.8;
+        static final double PERIOD_MS = 60_000.0;
+
+        private final double meanRatePerMs;
+        private final double amplitude;
+        private final double periodMs;
+        private final double peakRatePerMs;
+        private final Random rand;
+        private double now = 0.0;
+
+        public Diurnal(double meanRatePerSec, double amplitude, double periodMs, long seed) {
+            this.meanRatePerMs = meanRatePerSec / 1000.0;
+            this.amplitude = amplitude;
+            this.periodMs = periodMs;
+            this.peakRatePerMs = meanRatePerMs * (1 + Math.abs(amplitude));
+            this.rand = new Random(seed);
+        }
+
+        @Override
+        public double nextArrivalMs() {
+            while (true) {
+                now += exponential(rand, peakRatePerMs);
+                double rate = meanRatePerMs * (1 + amplitude * Math.sin(2 * Math.PI * now / periodMs));
+                if (rand.nextDouble() * peakRatePerMs <= rate) {
+                    return now;
+                }
+            }
+        }
+    }
+
+    private static double exponential(Random rand, double ratePerMs) {
+        return -Math.log(1.0 - rand.nextDouble()) / ratePerMs;
+    }
+}
@@ -0,0 +1,35 @@
+package multikernel;
+
+/**
+ * Synthetic open workload as a task stream: task sizes from a seeded
+ * WorkloadGenerator, arrival times from an ArrivalProcess. Plugs into
+ * TraceFeeder exactly like a trace file does, so generated and recorded
+ * workloads go through the same producer stage.
+ */
+public class ArrivalTaskSource implements TaskTraceReader {
+
+    private final WorkloadGenerator generator;
+    private final ArrivalProcess arrivals;
+    private final int numTasks;
+    private int produced = 0;
+
+    public ArrivalTaskSource(WorkloadGenerator generator, ArrivalProcess arrivals, int numTasks) {
+        this.generator = generator;
+        this.arrivals = arrivals;
+        this.numTasks = numTasks;
+    }
+
+    @Override
+    public Task next() {
+        if (produced >= numTasks) {
+            return null;
+        }
+        produced++;
+        return generator.next(Math.round(arrivals.nextArrivalMs()));
+    }
+
+    @Override
+    public void close() {
+        // nothing to release
+    }
+}
@@ -0,0 +1,53 @@
+package multikernel;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.FileInputStream;
+import java.io.IOException;
+
+/**
+ * Reads the binary trace format written by BinaryTraceWriter (versions 1-3).
+ * Records are fixed-size apart from the optional capability, so this is
+ * several times faster to parse than CSV for multi-million-task traces.
+ */
+public class BinaryTraceReader implements TaskTraceReader {
+
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private final DataInputStream in;
+    private final int version;
+
+    public BinaryTraceReader(String filename) throws IOException {
+        this.in = new DataInputStream(new BufferedInputStream(new FileInputStream(filename), BUFFER_SIZE));
+        int magic = in.readInt();
+        this.version = in.readInt();
+        if (magic != BinaryTraceWriter.MAGIC || version < 1 || version > BinaryTraceWriter.VERSION) {
+            in.close();
+            throw new IOException(filename + ": not a version 1-" + BinaryTraceWriter.VERSION + " task trace");
+        }
+    }
+
+    @Override
+    public Task next() throws IOException {
+        int id;
+        try {
+            id = in.readInt();
+        } catch (EOFException end) {
+            return null;
+        }
+        long arrival = in.readLong();
+        int burst = in.readInt();
+        int memory = in.readInt();
+        int priority = in.readInt();
+        long deadline = in.readLong();
+        int workingSet = (version >= 2) ? in.readInt() : 0;
+        String capability = (version >= 3 && in.readBoolean()) ? in.readUTF() : null;
+        return new Task(id, burst, memory, arrival, priority, deadline, workingSet, capability);
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+}
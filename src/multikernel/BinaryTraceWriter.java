@@ -0,0 +1,74 @@
+package multikernel;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+
+/**
+ * Writes task traces in the binary format read by BinaryTraceReader:
+ *
+ *   int magic ("MKTR"), int version
+ *   then per task: int id, long arrival, int burst, int memory,
+ *                  int priority, long deadline, int workingSetKb,
+ *                  boolean hasCapability, [UTF requiredCapability]
+ *                  (big-endian; version 1 had neither workingSetKb nor the
+ *                  capability, version 2 had no capability)
+ *
+ * Also converts CSV traces:
+ *   java multikernel.BinaryTraceWriter trace.csv trace.mkt
+ */
+public class BinaryTraceWriter implements Closeable {
+
+    public static final int MAGIC = 0x4D4B5452; // "MKTR"
+    public static final int VERSION = 3;
+
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private final DataOutputStream out;
+
+    public BinaryTraceWriter(String filename) throws IOException {
+        this.out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(filename), BUFFER_SIZE));
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+    }
+
+    public void write(Task task) throws IOException {
+        out.writeInt(task.getId());
+        out.writeLong(task.getArrivalTime());
+        out.writeInt(task.getBurstTime());
+        out.writeInt(task.getMemoryRequired());
+        out.writeInt(task.getPriority());
+        out.writeLong(task.getDeadline());
+        out.writeInt(task.getWorkingSetKb());
+        out.writeBoolean(task.getRequiredCapability() != null);
+        if (task.getRequiredCapability() != null) {
+            out.writeUTF(task.getRequiredCapability());
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        out.close();
+    }
+
+    public static void main(String[] args) {
+        if (args.length != 2) {
+            System.out.println("Usage: BinaryTraceWriter <input trace> <output.mkt>");
+            return;
+        }
+        long count = 0;
+        try (TaskTraceReader reader = TaskTraceReader.open(args[0]);
+             BinaryTraceWriter writer = new BinaryTraceWriter(args[1])) {
+            Task task;
+            while ((task = reader.next()) != null) {
+                writer.write(task);
+                count++;
+            }
+            System.out.println("✔ " + count + " tasks converted to " + args[1]);
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+}
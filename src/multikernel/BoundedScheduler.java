@@ -0,0 +1,142 @@
+package multikernel;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Predicate;
+
+/**
+ * Admission control in front of another scheduler: at most capacity tasks
+ * may be queued when a new arrival is offered. Depending on the policy a
+ * full queue either blocks the producer (backpressure) or rejects the task.
+ *
+ * Only offer() is bounded. addTask() and requeue() always succeed, because
+ * cores use them to requeue or migrate tasks that are already in the system, and refusing
+ * those would lose work (or deadlock a core on its own queue).
+ */
+public class BoundedScheduler implements Scheduler {
+
+    public enum AdmissionPolicy {
+        BLOCK, REJECT;
+
+        public static AdmissionPolicy parse(String text) {
+            for (AdmissionPolicy p : values()) {
+                if (p.name().equalsIgnoreCase(text)) {
+                    return p;
+                }
+            }
+            throw new IllegalArgumentException("Unknown admission policy: " + text);
+        }
+    }
+
+    private final Scheduler delegate;
+    private final int capacity;
+    private final AdmissionPolicy policy;
+
+    private final Object notFull = new Object();
+    private volatile int blockedProducers = 0;
+
+    public BoundedScheduler(Scheduler delegate, int capacity, AdmissionPolicy policy) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("capacity must be >= 1: " + capacity);
+        }
+        this.delegate = delegate;
+        this.capacity = capacity;
+        this.policy = policy;
+    }
+
+    @Override
+    public boolean offer(Task task) throws InterruptedException {
+        if (policy == AdmissionPolicy.REJECT) {
+            if (delegate.size() >= capacity) {
+                return false;
+            }
+            delegate.addTask(task);
+            return true;
+        }
+        synchronized (notFull) {
+            blockedProducers++;
+            try {
+                while (delegate.size() >= capacity) {
+                    notFull.wait();
+                }
+            } finally {
+                blockedProducers--;
+            }
+            delegate.addTask(task);
+        }
+        return true;
+    }
+
+    @Override
+    public void addTask(Task task) {
+        delegate.addTask(task);
+    }
+
+    @Override
+    public void requeue(Task task) {
+        delegate.requeue(task);
+    }
+
+    @Override
+    public void addAll(Collection<Task> tasks) {
+        delegate.addAll(tasks);
+    }
+
+    @Override
+    public Task getNextTask() {
+        Task task = delegate.getNextTask();
+        if (task != null) {
+            signalNotFull();
+        }
+        return task;
+    }
+
+    @Override
+    public int drainTo(Collection<? super Task> sink, int maxTasks) {
+        int moved = delegate.drainTo(sink, maxTasks);
+        if (moved > 0) {
+            signalNotFull();
+        }
+        return moved;
+    }
+
+    @Override
+    public List<Task> steal(int maxTasks, int keep) {
+        List<Task> stolen = delegate.steal(maxTasks, keep);
+        if (!stolen.isEmpty()) {
+            signalNotFull();
+        }
+        return stolen;
+    }
+
+    @Override
+    public List<Task> steal(int maxTasks, int keep, Predicate<? super Task> accept) {
+        List<Task> stolen = delegate.steal(maxTasks, keep, accept);
+        if (!stolen.isEmpty()) {
+            signalNotFull();
+        }
+        return stolen;
+    }
+
+    private void signalNotFull() {
+        if (blockedProducers > 0) {
+            synchronized (notFull) {
+                notFull.notifyAll();
+            }
+        }
+    }
+
+    @Override
+    public int size() {
+        return delegate.size();
+    }
+
+    @Override
+    public long estimatedWork() {
+        return delegate.estimatedWork();
+    }
+
+    public int getCapacity() { return capacity; }
+    public AdmissionPolicy getPolicy() { return policy; }
+    public Scheduler getDelegate() { return delegate; }
+}
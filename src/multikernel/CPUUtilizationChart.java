@@ -13,6 +13,12 @@ import java.util.Map;
 public class CPUUtilizationChart {
 
     public static void showCPUUtilization(Map<Integer, Double> coreUtilPct) {
+        ChartFrame frame = new ChartFrame("CPU Utilization", createCPUUtilization(coreUtilPct));
+        frame.pack();
+        frame.setVisible(true);
+    }
+
+    public static JFreeChart createCPUUtilization(Map<Integer, Double> coreUtilPct) {
         DefaultCategoryDataset dataset = new DefaultCategoryDataset();
 
         for (Map.Entry<Integer, Double> e : coreUtilPct.entrySet()) {
@@ -28,8 +34,6 @@ public class CPUUtilizationChart {
                 dataset
         );
 
-        ChartFrame frame = new ChartFrame("CPU Utilization", chart);
-        frame.pack();
-        frame.setVisible(true);
+        return chart;
     }
 }
@@ -6,28 +6,58 @@ import org.jfree.chart.JFreeChart;
 import org.jfree.data.category.DefaultCategoryDataset;
 
 import java.util.Map;
+import java.util.TreeMap;
 
 /**
- * Generates a bar chart for task turnaround time.
+ * Generates a bar chart for task turnaround time. Above MAX_BARS tasks,
+ * consecutive task ids share a bar showing their mean turnaround.
  */
 public class ChartGenerator {
 
+    public static final int MAX_BARS = 100;
+
     public static void showTurnaroundChart(Map<Integer, Long> taskTurnarounds) {
+        ChartFrame frame = new ChartFrame("Task Turnaround", createTurnaroundChart(taskTurnarounds));
+        frame.pack();
+        frame.setVisible(true);
+    }
+
+    public static JFreeChart createTurnaroundChart(Map<Integer, Long> taskTurnarounds) {
         DefaultCategoryDataset dataset = new DefaultCategoryDataset();
 
-        for (Map.Entry<Integer, Long> entry : taskTurnarounds.entrySet()) {
-            dataset.addValue(entry.getValue(), "Turnaround", "Task " + entry.getKey());
+        Map<Integer, Long> byId = new TreeMap<>(taskTurnarounds);
+        int perBar = Math.max(1, (byId.size() + MAX_BARS - 1) / MAX_BARS);
+        if (perBar == 1) {
+            for (Map.Entry<Integer, Long> entry : byId.entrySet()) {
+                dataset.addValue(entry.getValue(), "Turnaround", "Task " + entry.getKey());
+            }
+        } else {
+            int inBar = 0;
+            int firstId = 0;
+            long sum = 0;
+            int lastId = 0;
+            for (Map.Entry<Integer, Long> entry : byId.entrySet()) {
+                if (inBar == 0) {
+                    firstId = entry.getKey();
+                }
+                sum += entry.getValue();
+                lastId = entry.getKey();
+                if (++inBar == perBar) {
+                    dataset.addValue((double) sum / inBar, "Mean turnaround", "Tasks " + firstId + "-" + lastId);
+                    inBar = 0;
+                    sum = 0;
+                }
+            }
+            if (inBar > 0) {
+                dataset.addValue((double) sum / inBar, "Mean turnaround", "Tasks " + firstId + "-" + lastId);
+            }
         }
 
-        JFreeChart chart = ChartFactory.createBarChart(
+        return ChartFactory.createBarChart(
                 "Task Turnaround Times",
                 "Task",
                 "Turnaround (ms)",
                 dataset
         );
-
-        ChartFrame frame = new ChartFrame("Task Turnaround", chart);
-        frame.pack();
-        frame.setVisible(true);
     }
 }
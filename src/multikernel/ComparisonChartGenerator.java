@@ -12,13 +12,21 @@ import java.util.Map;
 public class ComparisonChartGenerator {
 
     public static void showTurnaroundComparison(Map<String, Double> schedulerAverages) {
+        JFrame frame = new JFrame("Scheduler Performance Comparison");
+        frame.setDefaultCloseOperation(JFrame.DISPOSE_ON_CLOSE);
+        frame.setContentPane(new ChartPanel(createTurnaroundComparison(schedulerAverages)));
+        frame.setSize(800, 600);
+        frame.setVisible(true);
+    }
+
+    public static JFreeChart createTurnaroundComparison(Map<String, Double> schedulerAverages) {
         DefaultCategoryDataset dataset = new DefaultCategoryDataset();
 
         for (Map.Entry<String, Double> entry : schedulerAverages.entrySet()) {
             dataset.addValue(entry.getValue(), "Avg Turnaround Time", entry.getKey());
         }
 
-        JFreeChart chart = ChartFactory.createBarChart(
+        return ChartFactory.createBarChart(
                 "Scheduler Comparison - Average Turnaround Time",
                 "Scheduler",
                 "Time (ms)",
@@ -28,11 +36,5 @@ public class ComparisonChartGenerator {
                 true,
                 false
         );
-
-        JFrame frame = new JFrame("Scheduler Performance Comparison");
-        frame.setDefaultCloseOperation(JFrame.DISPOSE_ON_CLOSE);
-        frame.setContentPane(new ChartPanel(chart));
-        frame.setSize(800, 600);
-        frame.setVisible(true);
     }
 }
@@ -1,6 +1,14 @@
 package multikernel;
 
-public class Core extends Thread {
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+public class Core extends Thread implements CoreMXBean {
 
     private final int coreId;
     private final Scheduler scheduler;
@@ -12,14 +20,94 @@ public class Core extends Thread {
     // control loop
     private volatile boolean running = true;
 
+    // longest an idle core waits on its inbox before re-checking its queue
+    private static final long IDLE_WAIT_MS = 5;
+
+    // simulated ms -> wall ms; 1.0 = real time, 0 = don't sleep at all
+    private double timeScale = 1.0;
+
     // utilization tracking
-    private long coreStartTimeMs;
-    private long coreEndTimeMs;
-    private long busyTimeMs = 0L; // total time spent "executing tasks"
+    // (volatile: written only by this core's thread, read live over JMX)
+    private volatile long coreStartTimeMs;
+    private volatile long coreEndTimeMs;
+    private volatile long busyTimeMs = 0L; // total time spent "executing tasks"
+    private volatile long tasksCompleted = 0L;
+
+    // fine-grained (nanoTime) breakdown of where this core's loop spends time
+    private final CorePhaseProfile profile = new CorePhaseProfile();
 
     // total number of cores in the system (used for routing decisions)
     private final int numCores;
 
+    // optional completion mode: stop once the whole system has run dry
+    private TerminationDetector terminationDetector;
+
+    // optional record / replay of this core's scheduling decisions (see ReplayLog)
+    private ReplayLog recordLog;
+    private ReplayLog.Cursor replay;
+    // replay: messages that arrived before the log says to handle them
+    private final Map<String, MessageBus.Message> heldMessages = new HashMap<>();
+
+    // deterministic correlation ids for the requests this core sends
+    private long requestSeq = 0;
+
+    // optional cache-affinity model (see Topology / MigrationCostModel)
+    private Topology topology;
+    private MigrationCostModel migrationCost;
+    private boolean workStealing = false;
+    private int placementCursor = 0;  // next entry of othersByDistance for resource requests
+    private int stealCursor = 0;      // next victim to try, nearest first
+    private volatile long stealRequestsSent = 0L;
+
+    // optional periodic load balancing (see LoadBalancer / SchedDomains)
+    private LoadBalancer loadBalancer;
+
+    // optional coalescing of memory-pressure migrations: candidates for the
+    // same destination are collected and sent as one RESOURCE_REQUEST_BATCH
+    private int migrationBatch = 1;            // tasks per request, 1 = no batching
+    private double migrationWindowMs = 0.0;    // longest a candidate waits to be sent (simulated)
+    private final Map<Integer, List<Task>> outboundMigrations = new LinkedHashMap<>();
+    private long migrationWindowStart = 0L;
+    // batches whose reply timed out: correlation id -> tasks offered
+    private final Map<String, Integer> lateBatches = new HashMap<>();
+
+    // optional memory probe: before a memory-pressure migration, ask all
+    // capable cores at once who has room and send the task to the first yes
+    private boolean memoryProbe = false;
+    private volatile long probesSent = 0L;
+    private volatile long probesUnanswered = 0L;
+
+    // optional demand paging: a task that does not fit runs in the free
+    // frames and pays for its page faults instead of migrating
+    private VirtualMemory virtualMemory;
+
+    // optional hedging of stragglers: duplicates of long-waiting tasks race
+    // their originals and the first copy to finish counts (StragglerHedging)
+    private StragglerHedging hedging;
+    private volatile boolean idle = false; // waiting for work, nothing queued or running
+
+    // optional diffusion rebalancing epochs (see DiffusionRebalancer)
+    private DiffusionRebalancer rebalancer;
+    private volatile long tasksPushed = 0L;
+
+    // optional heterogeneous cores (see CoreProfile); null = all cores are the reference core
+    private List<CoreProfile> coreProfiles;
+    private CoreProfile coreProfile = CoreProfile.REFERENCE;
+    private boolean speedAware = false;
+
+    // longest a thief waits for a victim; victims may be busy or stealing themselves
+    private static final long STEAL_TIMEOUT_MS = 20;
+    // longest a memory probe waits for a core with room
+    private static final long PROBE_TIMEOUT_MS = 20;
+    // longest a migration batch waits for its reply; two cores may be flushing to each other
+    private static final long BATCH_TIMEOUT_MS = 20;
+    static final String MEMORY_PROBE = "MEMORY_PROBE";
+    static final String MEMORY_AVAILABLE = "MEMORY_AVAILABLE";
+    static final String MEMORY_UNAVAILABLE = "MEMORY_UNAVAILABLE";
+    // tasks a victim keeps before it gives one away, by Topology distance:
+    // the further the thief, the bigger the imbalance has to be to be worth it
+    static final int[] STEAL_MIN_QUEUE = {0, 1, 2, 4};
+
     public Core(int coreId,
                 Scheduler scheduler,
                 MemoryManager memoryManager,
@@ -41,45 +129,194 @@ public class Core extends Thread {
         coreStartTimeMs = System.currentTimeMillis();
 
         while (running) {
+            long mark = System.nanoTime();
+
             // 1. Service incoming messages first:
             //    This includes async offload and sync resource requests from other cores.
-            MessageBus.Message incoming = messageBus.pollMessage(coreId);
+            MessageBus.Message incoming = nextMessage();
+            mark = profile.lap(CorePhaseProfile.Phase.MESSAGE_POLL, mark);
             if (incoming != null) {
                 handleIncomingMessage(incoming);
+                mark = profile.lap(CorePhaseProfile.Phase.MESSAGE_HANDLING, mark);
+            }
+
+            // 1b. Periodic load balancing: publish our load, pull if a domain is due
+            if (loadBalancer != null) {
+                loadBalancer.updateLoad(coreId, scheduler.size());
+                int source = loadBalancer.pickSource(coreId);
+                if (source >= 0) {
+                    loadBalancer.pullResult(coreId, source, stealFrom(source));
+                    loadBalancer.updateLoad(coreId, scheduler.size());
+                    mark = profile.lap(CorePhaseProfile.Phase.SYNC_WAIT, mark);
+                }
+            }
+
+            // 1b'. Send migration batches whose window has closed
+            if (!outboundMigrations.isEmpty()
+                    && System.nanoTime() - migrationWindowStart >= migrationWindowMs * timeScale * 1_000_000L) {
+                flushMigrations();
+                mark = profile.lap(CorePhaseProfile.Phase.SYNC_WAIT, mark);
+            }
+
+            // 1c. Rebalancing epoch: tell the neighbours how loaded we are
+            if (rebalancer != null) {
+                List<Integer> neighbours = rebalancer.startEpochIfDue(System.nanoTime());
+                if (neighbours != null) {
+                    for (int neighbour : neighbours) {
+                        sendLoadSummary(neighbour, false);
+                    }
+                    mark = profile.lap(CorePhaseProfile.Phase.MESSAGE_HANDLING, mark);
+                }
             }
 
             // 2. Pull next task from this core's scheduler
-            Task task = scheduler.getNextTask();
+            Task task = nextTask();
+            mark = profile.lap(CorePhaseProfile.Phase.DEQUEUE, mark);
 
             if (task == null) {
                 // no local work right now
-                try { Thread.sleep(5); } catch (InterruptedException ignored) {}
+                idle = true;
+                if (replay != null && replay.isDone()) {
+                    running = false; // every recorded step replayed
+                    continue;
+                }
+                if (!outboundMigrations.isEmpty()) {
+                    // nothing left to overlap the window with; we still hold those tasks
+                    flushMigrations();
+                    profile.lap(CorePhaseProfile.Phase.SYNC_WAIT, mark);
+                    continue;
+                }
+                if (terminationDetector != null) {
+                    terminationDetector.onPassive();
+                    if (terminationDetector.isTerminated()) {
+                        running = false;
+                        continue;
+                    }
+                }
+                if (workStealing && tryStealWork()) {
+                    profile.lap(CorePhaseProfile.Phase.SYNC_WAIT, mark);
+                    continue;
+                }
+                // wait for work, but wake up as soon as a message arrives
+                MessageBus.Message wakeUp = null;
+                try {
+                    wakeUp = messageBus.pollMessage(coreId, IDLE_WAIT_MS);
+                } catch (InterruptedException ignored) {}
+                mark = profile.lap(CorePhaseProfile.Phase.IDLE, mark);
+                if (wakeUp != null) {
+                    if (replay != null) {
+                        // delivered when the log gets to it
+                        heldMessages.put(wakeUp.getCorrelationId(), wakeUp);
+                    } else {
+                        handleIncomingMessage(wakeUp);
+                        profile.lap(CorePhaseProfile.Phase.MESSAGE_HANDLING, mark);
+                    }
+                }
+                continue;
+            }
+            idle = false;
+
+            StragglerHedging.Hedge hedge = (hedging != null) ? hedging.lookup(task) : null;
+            if (hedge != null && hedge.isFinished()) {
+                hedging.onDiscarded(); // the other copy already finished
                 continue;
             }
 
             long taskStartWall = System.currentTimeMillis(); // when we decided to run it
 
-            // 3. Try to allocate memory locally
-            boolean allocated = memoryManager.allocate(task.getMemoryRequired());
+            JfrEvents.TaskDequeued dequeued = new JfrEvents.TaskDequeued();
+            if (dequeued.shouldCommit()) {
+                dequeued.coreId = coreId;
+                dequeued.taskId = task.getId();
+                dequeued.burstTime = task.getBurstTime();
+                dequeued.waitTime = taskStartWall - task.getArrivalTime();
+                dequeued.queueDepth = scheduler.size();
+                dequeued.commit();
+            }
+
+            mark = profile.lap(CorePhaseProfile.Phase.ACCOUNTING, mark);
+
+            // 3. Try to allocate memory locally (a task needing a capability
+            //    this core lacks is forwarded like one that does not fit)
+            boolean capable = coreProfile.supports(task);
+            int frames = task.getMemoryRequired();
+            boolean allocated = capable && memoryManager.allocate(frames);
+            if (!allocated && capable && virtualMemory != null) {
+                // overcommit: run in whatever is free and page the rest
+                frames = Math.min(frames, memoryManager.getFreeMemory());
+                allocated = frames > 0 && memoryManager.allocate(frames);
+            }
+            mark = profile.lap(CorePhaseProfile.Phase.ALLOCATION, mark);
+            if (!allocated && hedge != null && hedge.isDuplicate(task)) {
+                hedging.onDuplicateDropped(); // speculative; the original is still queued
+                continue;
+            }
             if (!allocated) {
+                JfrEvents.AllocationFailed allocFailed = new JfrEvents.AllocationFailed();
+                if (capable && allocFailed.shouldCommit()) {
+                    allocFailed.coreId = coreId;
+                    allocFailed.taskId = task.getId();
+                    allocFailed.memoryRequired = task.getMemoryRequired();
+                    allocFailed.usedMemory = memoryManager.getUsedMemory();
+                    allocFailed.totalMemory = memoryManager.getTotalMemory();
+                    allocFailed.commit();
+                }
+
                 // can't run locally because memory is tight
                 // Strategy:
                 //   Attempt synchronous request to another core for help.
                 //   If they say RESOURCE_GRANTED, they'll enqueue it; we skip it.
                 //   If denied, we put it back in our own queue and try later.
 
-                int targetCore = pickOtherCore();
+                int targetCore = pickOtherCore(task);
+                if (targetCore == coreId) {
+                    // single-core system (or no other core can run it): nobody
+                    // to ask, and a sync request to ourselves would block forever
+                    scheduler.requeue(task);
+                    continue;
+                }
+                if (migrationBatch > 1) {
+                    queueMigration(targetCore, task);
+                    mark = profile.lap(CorePhaseProfile.Phase.ACCOUNTING, mark);
+                    continue;
+                }
+                if (memoryProbe) {
+                    targetCore = probeForMemory(task);
+                    mark = profile.lap(CorePhaseProfile.Phase.SYNC_WAIT, mark);
+                    if (targetCore < 0) {
+                        scheduler.requeue(task); // nobody has room right now
+                        continue;
+                    }
+                }
                 MessageBus.Message req = new MessageBus.Message(
                         "RESOURCE_REQUEST",
                         task,
                         coreId,
                         targetCore,
-                        null // correlationId auto-generated
+                        coreId + "-" + (++requestSeq) // same id on every replay of this run
                 );
 
+                JfrEvents.ResourceRequestSent sent = new JfrEvents.ResourceRequestSent();
+                if (sent.shouldCommit()) {
+                    sent.fromCore = coreId;
+                    sent.toCore = targetCore;
+                    sent.taskId = task.getId();
+                    sent.commit();
+                }
+                JfrEvents.ResourceReply replyEvent = new JfrEvents.ResourceReply();
+                replyEvent.begin();
+                mark = profile.lap(CorePhaseProfile.Phase.ACCOUNTING, mark);
+
                 try {
+                    if (terminationDetector != null) {
+                        terminationDetector.onBasicSent();
+                    }
                     MessageBus.Message reply =
                             messageBus.sendSyncRequest(coreId, targetCore, req);
+                    profile.lap(CorePhaseProfile.Phase.SYNC_WAIT, mark);
+                    emitResourceReply(replyEvent, targetCore, task, reply.getType());
+                    recordStep(ReplayLog.replyStep(task, reply.getType()));
+                    metricsCollector.recordMigrationRequest(1, "RESOURCE_GRANTED".equals(reply.getType()) ? 1 : 0);
 
                     if ("RESOURCE_GRANTED".equals(reply.getType())) {
                         // remote core accepted and (in its handler) enqueued the task.
@@ -87,32 +324,64 @@ public class Core extends Thread {
                         continue;
                     } else {
                         // "RESOURCE_DENIED" (or anything else): requeue locally and try later
-                        scheduler.addTask(task);
+                        scheduler.requeue(task);
                         continue;
                     }
                 } catch (InterruptedException e) {
                     // If sync request was interrupted, just requeue.
-                    scheduler.addTask(task);
+                    profile.lap(CorePhaseProfile.Phase.SYNC_WAIT, mark);
+                    emitResourceReply(replyEvent, targetCore, task, "INTERRUPTED");
+                    recordStep(ReplayLog.replyStep(task, "INTERRUPTED"));
+                    scheduler.requeue(task);
                     continue;
                 }
             }
 
             // 4. Record memory snapshot for heatmap *after* allocation
             memoryTracker.record(coreId, memoryManager.getUsedMemory());
+            mark = profile.lap(CorePhaseProfile.Phase.ALLOCATION, mark);
 
             // 5. "Run" the task (simulate CPU busy time)
+            JfrEvents.TaskExecuted executed = new JfrEvents.TaskExecuted();
+            executed.begin();
             long execStart = System.currentTimeMillis();
-            try {
-                Thread.sleep(task.getBurstTime());
-            } catch (InterruptedException ignored) {}
+            int penaltyMs = chargeMigration(task);
+            double pagingMs = (virtualMemory != null) ? virtualMemory.execute(task, frames) : 0.0;
+            double execMs = coreProfile.executionMs(task.getBurstTime()) + penaltyMs + pagingMs;
+            long execNanos = (long) (execMs * timeScale * 1_000_000L);
+            if (execNanos > 0 && hedge != null) {
+                hedge.runUnlessBeaten(execNanos); // cut short if the other copy finishes
+            } else if (execNanos > 0) {
+                try {
+                    TimeUnit.NANOSECONDS.sleep(execNanos);
+                } catch (InterruptedException ignored) {}
+            }
             long execEnd = System.currentTimeMillis();
+            executed.end();
+            mark = profile.lap(CorePhaseProfile.Phase.EXECUTION, mark);
 
             // 6. Free memory and record snapshot again
-            memoryManager.deallocate(task.getMemoryRequired());
+            memoryManager.deallocate(frames);
             memoryTracker.record(coreId, memoryManager.getUsedMemory());
+            mark = profile.lap(CorePhaseProfile.Phase.ALLOCATION, mark);
 
             long taskEndWall = System.currentTimeMillis();
 
+            // 6b. A hedged task completes once, by whichever copy finished first
+            if (hedging != null && !hedging.finish(task, execEnd - execStart)) {
+                busyTimeMs += (execEnd - execStart);
+                profile.lap(CorePhaseProfile.Phase.ACCOUNTING, mark);
+                continue;
+            }
+
+            if (executed.shouldCommit()) {
+                executed.coreId = coreId;
+                executed.taskId = task.getId();
+                executed.burstTime = task.getBurstTime();
+                executed.turnaround = taskEndWall - task.getArrivalTime();
+                executed.commit();
+            }
+
             // 7. Report per-task metrics
             metricsCollector.recordTaskCompletion(
                     coreId,
@@ -123,6 +392,8 @@ public class Core extends Thread {
 
             // 8. Update utilization accounting
             busyTimeMs += (execEnd - execStart);
+            tasksCompleted++;
+            profile.lap(CorePhaseProfile.Phase.ACCOUNTING, mark);
         }
 
         coreEndTimeMs = System.currentTimeMillis();
@@ -131,8 +402,21 @@ public class Core extends Thread {
         metricsCollector.recordCoreUtilization(
                 coreId,
                 busyTimeMs,
-                coreEndTimeMs - coreStartTimeMs
+                coreEndTimeMs - coreStartTimeMs,
+                coreProfile.getSpeed()
         );
+        metricsCollector.recordCorePhaseBreakdown(coreId, profile.snapshotNanos());
+    }
+
+    private void emitResourceReply(JfrEvents.ResourceReply event, int targetCore, Task task, String outcome) {
+        event.end();
+        if (event.shouldCommit()) {
+            event.fromCore = coreId;
+            event.toCore = targetCore;
+            event.taskId = task.getId();
+            event.outcome = outcome;
+            event.commit();
+        }
     }
 
     /**
@@ -142,15 +426,611 @@ public class Core extends Thread {
         running = false;
     }
 
+    /**
+     * Completion mode: instead of running until stopCore(), this core takes
+     * part in distributed termination detection and exits on its own once
+     * every task has finished and no task-carrying message is in flight.
+     * Must be called on every core of the system before start().
+     */
+    public void enableTerminationDetection() {
+        this.terminationDetector = new TerminationDetector(coreId, numCores, messageBus);
+    }
+
+    /**
+     * Completion mode for open workloads: as above, but termination is not
+     * concluded before inputDone reports that no more tasks will be
+     * injected from outside (see TraceFeeder).
+     */
+    public void enableTerminationDetection(BooleanSupplier inputDone) {
+        enableTerminationDetection();
+        terminationDetector.setInputGate(inputDone);
+    }
+
+    /**
+     * Scales the simulated burst time into wall-clock sleep. 1.0 (default)
+     * sleeps the full burst; 0.01 runs 100x faster; 0 skips the sleep so
+     * only the simulator's own overhead is measured. Call before start().
+     */
+    public void setTimeScale(double timeScale) {
+        this.timeScale = timeScale;
+    }
+
+    /**
+     * Record mode: every scheduling / message-delivery decision of this core
+     * is appended to log. Call before start().
+     */
+    public void setRecordLog(ReplayLog log) {
+        this.recordLog = log;
+    }
+
+    /**
+     * Replay mode: this core repeats the decisions recorded in log, in the
+     * same order, and stops once they are used up. Replaces termination
+     * detection. Call before start().
+     */
+    public void setReplayLog(ReplayLog log) {
+        this.replay = log.cursor(coreId);
+    }
+
+    /**
+     * Cache-affinity model: running a task away from its home core costs
+     * migrationCost's warm-up penalty for the topology distance, and
+     * resource requests go to the nearest cores first. Call before start().
+     */
+    public void setAffinity(Topology topology, MigrationCostModel migrationCost) {
+        this.topology = topology;
+        this.migrationCost = migrationCost;
+    }
+
+    /**
+     * Idle cores steal queued tasks from other cores, nearest first; far
+     * victims only give work away when their queue is long enough to be
+     * worth the migration. Call before start().
+     */
+    public void enableWorkStealing(Topology topology) {
+        this.topology = topology;
+        this.workStealing = true;
+    }
+
+    /**
+     * Heterogeneous cores: this core runs bursts at its profile's speed and
+     * only takes tasks its capabilities allow; profiles (indexed by core id)
+     * tell it where a task it cannot run may be forwarded. With speedAware,
+     * long tasks are only forwarded to cores at least as fast as this one
+     * when such a core exists. Call before start().
+     */
+    public void setCoreProfiles(List<CoreProfile> profiles, boolean speedAware) {
+        this.coreProfiles = profiles;
+        this.coreProfile = profiles.get(coreId);
+        this.speedAware = speedAware;
+    }
+
+    /**
+     * Periodic load balancing: on every loop iteration this core reports its
+     * queue length to balancer and pulls a task from the core it names.
+     * topology gives the victims' distance rules (see handleStealRequest).
+     * Call before start().
+     */
+    public void setLoadBalancer(LoadBalancer balancer, Topology topology) {
+        this.loadBalancer = balancer;
+        this.topology = topology;
+    }
+
+    /**
+     * Coalesces memory-pressure migrations: a task that does not fit here is
+     * held for its destination and sent together with up to maxBatch - 1
+     * others in one RESOURCE_REQUEST_BATCH, at the latest windowMs
+     * (simulated) after the first held task, or as soon as this core runs
+     * out of other work. maxBatch 1 = one request per task (the default).
+     * Call before start().
+     */
+    public void setMigrationBatching(int maxBatch, double windowMs) {
+        this.migrationBatch = Math.max(1, maxBatch);
+        this.migrationWindowMs = windowMs;
+    }
+
+    /**
+     * Finds the destination of a memory-pressure migration with one
+     * requestAny to every core able to run the task (MEMORY_PROBE) instead
+     * of asking the next core in the ring, then sends the RESOURCE_REQUEST
+     * to the first core that has room. If none answers yes within
+     * PROBE_TIMEOUT_MS the task is requeued here. Call before start().
+     */
+    public void setMemoryProbe(boolean enabled) {
+        this.memoryProbe = enabled;
+    }
+
+    /**
+     * Demand paging: a task this core can run but whose memory is not all
+     * free runs anyway in the free frames, paging through vm, instead of
+     * being offered to another core. Call before start().
+     */
+    public void setVirtualMemory(VirtualMemory vm) {
+        this.virtualMemory = vm;
+    }
+
+    /**
+     * Straggler hedging: accept DUPLICATE tasks, drop copies whose twin has
+     * finished and stop a running copy as soon as its twin finishes. The
+     * scheduler must be the one hedging.track returned. Call before start().
+     */
+    public void setHedging(StragglerHedging hedging) {
+        this.hedging = hedging;
+    }
+
+    /** True while this core waits for work with nothing queued or running. */
+    public boolean isIdle() {
+        return idle;
+    }
+
+    /** This core's paging statistics, or null without demand paging. */
+    public VirtualMemory getVirtualMemory() {
+        return virtualMemory;
+    }
+
+    /**
+     * Periodic rebalancing epochs: this core exchanges load summaries with
+     * its neighbours and pushes queued tasks down the load gradient.
+     * Call before start().
+     */
+    public void enableRebalancing(DiffusionRebalancer rebalancer) {
+        this.rebalancer = rebalancer;
+    }
+
+    /** True once this core has learned that the whole system terminated. */
+    public boolean isTerminated() {
+        return terminationDetector != null && terminationDetector.isTerminated();
+    }
+
+    // ----------------------------------------------------------------------
+    // Live monitoring (CoreMXBean)
+    // ----------------------------------------------------------------------
+
+    @Override
+    public int getCoreId() {
+        return coreId;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running && isAlive();
+    }
+
+    @Override
+    public int getQueueDepth() {
+        return scheduler.size();
+    }
+
+    @Override
+    public int getInboxBacklog() {
+        return messageBus.getInboxBacklog(coreId);
+    }
+
+    @Override
+    public int getPendingSyncRequests() {
+        return messageBus.getPendingSyncRequests(coreId);
+    }
+
+    @Override
+    public long getTasksCompleted() {
+        return tasksCompleted;
+    }
+
+    @Override
+    public double getTasksCompletedPerSecond() {
+        long uptime = getUptimeMs();
+        return (uptime == 0) ? 0.0 : (1000.0 * tasksCompleted / uptime);
+    }
+
+    @Override
+    public long getBusyTimeMs() {
+        return busyTimeMs;
+    }
+
+    @Override
+    public long getUptimeMs() {
+        long start = coreStartTimeMs;
+        if (start == 0) {
+            return 0; // not started yet
+        }
+        long end = (coreEndTimeMs != 0) ? coreEndTimeMs : System.currentTimeMillis();
+        return end - start;
+    }
+
+    @Override
+    public double getBusyRatio() {
+        long uptime = getUptimeMs();
+        return (uptime == 0) ? 0.0 : Math.min(1.0, (double) busyTimeMs / uptime);
+    }
+
+    @Override
+    public double getIdleRatio() {
+        return (getUptimeMs() == 0) ? 0.0 : 1.0 - getBusyRatio();
+    }
+
+    @Override
+    public long getStealRequestsSent() {
+        return stealRequestsSent;
+    }
+
+    @Override
+    public long getTasksPushed() {
+        return tasksPushed;
+    }
+
+    @Override
+    public long getProbesSent() {
+        return probesSent;
+    }
+
+    @Override
+    public long getProbesUnanswered() {
+        return probesUnanswered;
+    }
+
+    @Override
+    public double getSpeedFactor() {
+        return coreProfile.getSpeed();
+    }
+
+    @Override
+    public Map<String, Long> getPhaseBreakdownMs() {
+        return profile.toMillisMap();
+    }
+
+    // ----------------------------------------------------------------------
+    // Record / replay
+    // ----------------------------------------------------------------------
+
+    /**
+     * Next inbox message to handle. In replay mode only the message the log
+     * expects next is returned; anything else is held back until its turn.
+     */
+    private MessageBus.Message nextMessage() {
+        if (replay == null) {
+            return messageBus.pollMessage(coreId);
+        }
+        if (!replay.nextIs(ReplayLog.MESSAGE)) {
+            return null;
+        }
+        String expected = replay.peekKey();
+        MessageBus.Message msg;
+        while (!heldMessages.containsKey(expected)
+                && (msg = messageBus.pollMessage(coreId)) != null) {
+            heldMessages.put(msg.getCorrelationId(), msg);
+        }
+        return heldMessages.remove(expected);
+    }
+
+    /** Next task to run; in replay mode only when the log says this core dequeued. */
+    private Task nextTask() {
+        if (replay == null) {
+            Task task = scheduler.getNextTask();
+            if (task != null) {
+                recordStep(ReplayLog.taskStep(task));
+            }
+            return task;
+        }
+        if (!replay.nextIs(ReplayLog.TASK)) {
+            return null;
+        }
+        Task task = scheduler.getNextTask();
+        recordStep(ReplayLog.taskStep(task));
+        return task;
+    }
+
+    /** Appends to the record log and/or checks against the replay log. */
+    private void recordStep(String step) {
+        if (recordLog != null) {
+            recordLog.record(coreId, step);
+        }
+        if (replay != null) {
+            replay.advance(step);
+        }
+    }
+
+    // ----------------------------------------------------------------------
+    // Affinity and work stealing
+    // ----------------------------------------------------------------------
+
+    /**
+     * Penalty (simulated ms) for running task here instead of at its home,
+     * recorded in the metrics; the task's working set is warm here afterwards.
+     */
+    private int chargeMigration(Task task) {
+        int penalty = 0;
+        if (migrationCost != null) {
+            int home = task.getHomeCore();
+            penalty = migrationCost.penaltyMs(task, coreId, topology);
+            metricsCollector.recordPlacement(
+                    (home < 0) ? Topology.SAME_CORE : topology.distance(home, coreId), penalty);
+        }
+        task.setHomeCore(coreId);
+        return penalty;
+    }
+
+    /**
+     * Asks one victim (nearest first, rotating) for a queued task.
+     * Returns true if a task was stolen and queued locally.
+     */
+    private boolean tryStealWork() {
+        int[] victims = topology.othersByDistance(coreId);
+        if (victims.length == 0) {
+            return false;
+        }
+        int victim = victims[stealCursor];
+        stealCursor = (stealCursor + 1) % victims.length;
+        if (stealFrom(victim)) {
+            stealCursor = 0; // start again from the nearest victim
+            return true;
+        }
+        return false;
+    }
+
+    /** One STEAL_REQUEST to victim; true if it granted a task, now queued here. */
+    private boolean stealFrom(int victim) {
+        stealRequestsSent++;
+        MessageBus.Message request = new MessageBus.Message(
+                "STEAL_REQUEST", null, coreId, victim, coreId + "-" + (++requestSeq));
+        try {
+            MessageBus.Message reply = messageBus.sendSyncRequest(coreId, victim, request, STEAL_TIMEOUT_MS);
+            if (reply != null && "STEAL_GRANTED".equals(reply.getType())) {
+                acceptStolenTask(reply);
+                return true;
+            }
+        } catch (InterruptedException ignored) {}
+        return false;
+    }
+
+    private void acceptStolenTask(MessageBus.Message grant) {
+        if (terminationDetector != null) {
+            terminationDetector.onBasicReceived();
+        }
+        scheduler.addTask(grant.getTask());
+        metricsCollector.recordSteal(distanceTo(grant.getFromCore()));
+    }
+
+    /** Victim side: give the thief our next task if we can spare it. */
+    private void handleStealRequest(MessageBus.Message msg) {
+        int thief = msg.getFromCore();
+        List<Task> spare = scheduler.steal(1, STEAL_MIN_QUEUE[distanceTo(thief)]);
+        Task stolen = spare.isEmpty() ? null : spare.get(0);
+        if (stolen != null && !canRunOn(stolen, thief, false)) {
+            scheduler.requeue(stolen); // the thief lacks the capability it needs
+            stolen = null;
+        }
+        if (stolen != null && terminationDetector != null) {
+            terminationDetector.onBasicSent(); // the task is in flight until the thief queues it
+        }
+        messageBus.sendSyncReply(coreId, thief, new MessageBus.Message(
+                stolen != null ? "STEAL_GRANTED" : "STEAL_DENIED",
+                stolen, coreId, thief, msg.getCorrelationId()));
+    }
+
+    // ----------------------------------------------------------------------
+    // Migration batching
+    // ----------------------------------------------------------------------
+
+    private void queueMigration(int targetCore, Task task) {
+        if (outboundMigrations.isEmpty()) {
+            migrationWindowStart = System.nanoTime();
+        }
+        List<Task> batch = outboundMigrations.computeIfAbsent(targetCore, k -> new ArrayList<>());
+        batch.add(task);
+        if (batch.size() >= migrationBatch) {
+            outboundMigrations.remove(targetCore);
+            sendMigrationBatch(targetCore, batch);
+        }
+    }
+
+    /** Sends every held batch, one request per destination. */
+    private void flushMigrations() {
+        List<Map.Entry<Integer, List<Task>>> batches = new ArrayList<>(outboundMigrations.entrySet());
+        outboundMigrations.clear();
+        for (Map.Entry<Integer, List<Task>> batch : batches) {
+            sendMigrationBatch(batch.getKey(), batch.getValue());
+        }
+    }
+
+    /**
+     * One round trip for the whole batch; the destination queues what it can
+     * take and sends the rest back, which we requeue.
+     *
+     * The wait is timed: the destination may be flushing a batch to us at
+     * the same moment. After a timeout the batch stays with the destination,
+     * which still decides on it when it gets to our request; the late reply
+     * lands in our inbox and handleLateBatchReply requeues what it denied.
+     * Requeuing the whole batch here instead would run the tasks it grants
+     * twice.
+     */
+    @SuppressWarnings("unchecked")
+    private void sendMigrationBatch(int targetCore, List<Task> batch) {
+        MessageBus.Message req = new MessageBus.Message(
+                "RESOURCE_REQUEST_BATCH", null, coreId, targetCore, coreId + "-" + (++requestSeq),
+                new ArrayList<>(batch));
+        if (terminationDetector != null) {
+            terminationDetector.onBasicSent();
+        }
+        MessageBus.Message reply = null;
+        try {
+            reply = messageBus.sendSyncRequest(coreId, targetCore, req, BATCH_TIMEOUT_MS);
+        } catch (InterruptedException ignored) {
+            // the request is out either way; its reply comes as a late one
+        }
+        if (reply == null) {
+            lateBatches.put(req.getCorrelationId(), batch.size());
+            return;
+        }
+        requeueDenied(reply, batch.size());
+    }
+
+    /** A RESOURCE_BATCH_REPLY that came after sendMigrationBatch stopped waiting. */
+    private void handleLateBatchReply(MessageBus.Message reply) {
+        Integer offered = lateBatches.remove(reply.getCorrelationId());
+        if (offered != null) {
+            requeueDenied(reply, offered);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void requeueDenied(MessageBus.Message reply, int offered) {
+        List<Task> denied = (List<Task>) reply.getPayload();
+        if (!denied.isEmpty() && terminationDetector != null) {
+            terminationDetector.onBasicReceived();
+        }
+        for (Task task : denied) {
+            scheduler.requeue(task);
+        }
+        metricsCollector.recordMigrationRequest(offered, offered - denied.size());
+    }
+
+    /**
+     * Receiver side: grants tasks in order while their memory fits in what
+     * is free right now, in one pass, and returns the others.
+     */
+    @SuppressWarnings("unchecked")
+    private void handleMigrationBatch(MessageBus.Message msg) {
+        List<Task> offered = (List<Task>) msg.getPayload();
+        List<Task> denied = new ArrayList<>();
+        int budget = memoryManager.getFreeMemory();
+        for (Task task : offered) {
+            if (coreProfile.supports(task) && task.getMemoryRequired() <= budget) {
+                budget -= task.getMemoryRequired();
+                scheduler.addTask(task);
+            } else {
+                denied.add(task);
+            }
+        }
+        if (!denied.isEmpty() && terminationDetector != null) {
+            terminationDetector.onBasicSent(); // the denied tasks are in flight until the requester requeues them
+        }
+        messageBus.sendSyncReply(coreId, msg.getFromCore(), new MessageBus.Message(
+                "RESOURCE_BATCH_REPLY", null, coreId, msg.getFromCore(), msg.getCorrelationId(), denied));
+    }
+
+    // ----------------------------------------------------------------------
+    // Diffusion rebalancing
+    // ----------------------------------------------------------------------
+
+    private void sendLoadSummary(int neighbour, boolean reply) {
+        messageBus.sendAsync(coreId, neighbour, new MessageBus.Message(
+                DiffusionRebalancer.SUMMARY, null, coreId, neighbour, coreId + "-" + (++requestSeq),
+                new DiffusionRebalancer.Summary(scheduler.size(), memoryManager.getFreeMemory(), reply)));
+    }
+
+    /**
+     * A neighbour's summary: push our surplus to it if it is less loaded
+     * (without exceeding its free memory), or answer with our own summary
+     * if it is busier so it can push to us.
+     */
+    private void handleLoadSummary(MessageBus.Message msg) {
+        DiffusionRebalancer.Summary summary = (DiffusionRebalancer.Summary) msg.getPayload();
+        int neighbour = msg.getFromCore();
+        int mine = scheduler.size();
+        int flow = rebalancer.flow(mine, summary.getQueueLength());
+        if (flow == 0) {
+            if (!summary.isReply() && summary.getQueueLength() > mine) {
+                sendLoadSummary(neighbour, true);
+            }
+            return;
+        }
+        // take only what fits there; the first misfit and everything behind it stay where they are
+        int[] memoryLeft = {summary.getFreeMemory()};
+        List<Task> surplus = scheduler.steal(flow, 0, task -> {
+            if (task.getMemoryRequired() > memoryLeft[0]
+                    || (coreProfiles != null && !coreProfiles.get(neighbour).supports(task))) {
+                return false;
+            }
+            memoryLeft[0] -= task.getMemoryRequired();
+            return true;
+        });
+        for (Task task : surplus) {
+            if (terminationDetector != null) {
+                terminationDetector.onBasicSent();
+            }
+            messageBus.sendAsync(coreId, neighbour, new MessageBus.Message(
+                    DiffusionRebalancer.PUSH, task, coreId, neighbour, coreId + "-" + (++requestSeq)));
+            tasksPushed++;
+        }
+    }
+
+    private int distanceTo(int other) {
+        if (topology != null) {
+            return topology.distance(coreId, other);
+        }
+        return (other == coreId) ? Topology.SAME_CORE : Topology.SAME_CLUSTER;
+    }
+
+    /**
+     * Asks every other core that can run task whether it has room for it;
+     * returns the first that says yes, or -1.
+     */
+    private int probeForMemory(Task task) {
+        List<Integer> candidates = new ArrayList<>();
+        for (int other = 0; other < numCores; other++) {
+            if (other != coreId && canRunOn(task, other, false)) {
+                candidates.add(other);
+            }
+        }
+        MessageBus.Message probe = new MessageBus.Message(
+                MEMORY_PROBE, null, coreId, -1, null, task.getMemoryRequired());
+        probesSent++;
+        try {
+            MessageBus.Message yes = messageBus.requestAny(coreId, candidates, probe,
+                    reply -> MEMORY_AVAILABLE.equals(reply.getType()), PROBE_TIMEOUT_MS);
+            if (yes != null) {
+                return yes.getFromCore();
+            }
+        } catch (InterruptedException e) {
+            // stopping; requeue below
+        }
+        probesUnanswered++;
+        return -1;
+    }
+
     /**
      * Pick a "partner" core to attempt offload / sync resource request.
-     * Simple ring: next core ID mod numCores.
+     * Simple ring: next core ID mod numCores. With the affinity model, the
+     * nearest cores are asked first and each further request moves on.
+     * With core profiles, cores that cannot run task are skipped, and under
+     * speed-aware placement a long task prefers cores at least as fast as
+     * this one. Returns coreId if no other core qualifies.
      */
-    private int pickOtherCore() {
+    private int pickOtherCore(Task task) {
         if (numCores <= 1) {
             return coreId; // degenerate case
         }
-        return (coreId + 1) % numCores;
+        int target = pickOtherCore(task, speedAware && task.getBurstTime() >= WorkloadGenerator.MEAN_BURST_MS);
+        if (target == coreId && speedAware) {
+            target = pickOtherCore(task, false); // no fast core can take it, any capable one will do
+        }
+        return target;
+    }
+
+    private int pickOtherCore(Task task, boolean fastOnly) {
+        for (int k = 0; k < numCores - 1; k++) {
+            int candidate;
+            if (migrationCost != null) {
+                int[] candidates = topology.othersByDistance(coreId);
+                candidate = candidates[placementCursor];
+                placementCursor = (placementCursor + 1) % candidates.length;
+            } else {
+                candidate = (coreId + 1 + k) % numCores;
+            }
+            if (canRunOn(task, candidate, fastOnly)) {
+                return candidate;
+            }
+        }
+        return coreId;
+    }
+
+    /** True if core other may run task (and, if fastOnly, is no slower than this core). */
+    private boolean canRunOn(Task task, int other, boolean fastOnly) {
+        if (coreProfiles == null) {
+            return true;
+        }
+        CoreProfile target = coreProfiles.get(other);
+        return target.supports(task) && (!fastOnly || target.getSpeed() >= coreProfile.getSpeed());
     }
 
     /**
@@ -158,12 +1038,108 @@ public class Core extends Thread {
      * - OFFLOAD_REQUEST: other core is asking us to take a task asynchronously
      * - RESOURCE_REQUEST: other core is trying synchronous migration (blocked waiting)
      *   We must reply with RESOURCE_GRANTED or RESOURCE_DENIED using sendSyncReply.
+     * - RESOURCE_REQUEST_BATCH: the same for several tasks; the reply carries the denied ones
+     * - RESOURCE_BATCH_REPLY: such a reply after our batch request stopped waiting for it
+     * - MEMORY_PROBE: another core asks whether we have room for a task (sync reply)
+     * - TERMINATION_TOKEN / TERMINATE: termination detection (completion mode)
      */
     private void handleIncomingMessage(MessageBus.Message msg) {
         String type = msg.getType();
 
+        boolean carriesTasks = "OFFLOAD_REQUEST".equals(type) || "RESOURCE_REQUEST".equals(type)
+                || "RESOURCE_REQUEST_BATCH".equals(type);
+        if (terminationDetector != null && carriesTasks) {
+            terminationDetector.onBasicReceived();
+        }
+        if (carriesTasks) {
+            recordStep(ReplayLog.messageStep(msg.getCorrelationId()));
+        }
+
         switch (type) {
 
+            case TerminationDetector.TOKEN: {
+                if (terminationDetector != null) {
+                    terminationDetector.onToken((TerminationDetector.Token) msg.getPayload());
+                }
+                break;
+            }
+
+            case TerminationDetector.TERMINATE: {
+                if (terminationDetector != null) {
+                    terminationDetector.onTerminate();
+                    running = false;
+                }
+                break;
+            }
+
+            case "STEAL_REQUEST": {
+                handleStealRequest(msg);
+                break;
+            }
+
+            case "STEAL_GRANTED": {
+                // reply that arrived after our steal request timed out
+                acceptStolenTask(msg);
+                break;
+            }
+
+            case "RESOURCE_REQUEST_BATCH": {
+                handleMigrationBatch(msg);
+                break;
+            }
+
+            case "RESOURCE_BATCH_REPLY": {
+                // reply that arrived after our batch request timed out
+                handleLateBatchReply(msg);
+                break;
+            }
+
+            case DiffusionRebalancer.SUMMARY: {
+                if (rebalancer != null) {
+                    handleLoadSummary(msg);
+                }
+                break;
+            }
+
+            case DiffusionRebalancer.PUSH: {
+                if (terminationDetector != null) {
+                    terminationDetector.onBasicReceived();
+                }
+                scheduler.addTask(msg.getTask());
+                break;
+            }
+
+            case MEMORY_PROBE: {
+                boolean room = memoryManager.canFit((Integer) msg.getPayload());
+                messageBus.sendSyncReply(coreId, msg.getFromCore(), new MessageBus.Message(
+                        room ? MEMORY_AVAILABLE : MEMORY_UNAVAILABLE, null, coreId, msg.getFromCore(),
+                        msg.getCorrelationId()));
+                break;
+            }
+
+            case MEMORY_AVAILABLE:
+            case MEMORY_UNAVAILABLE: {
+                // answer to a probe that was already decided
+                break;
+            }
+
+            case StragglerHedging.DUPLICATE: {
+                // speculative copy of a straggler; not a basic message (the original still is)
+                Task duplicate = msg.getTask();
+                if (hedging != null && coreProfile.supports(duplicate)
+                        && memoryManager.canFit(duplicate.getMemoryRequired())) {
+                    scheduler.addTask(duplicate);
+                } else if (hedging != null) {
+                    hedging.onDuplicateDropped();
+                }
+                break;
+            }
+
+            case MessageBus.WAKE_UP: {
+                // new work in our scheduler; the loop picks it up next
+                break;
+            }
+
             case "OFFLOAD_REQUEST": {
                 // Asynchronous offload. If we have room, enqueue task here.
                 Task incomingTask = msg.getTask();
@@ -179,7 +1155,8 @@ public class Core extends Thread {
                 Task requestedTask = msg.getTask();
                 boolean canTake = false;
                 if (requestedTask != null) {
-                    canTake = memoryManager.canFit(requestedTask.getMemoryRequired());
+                    canTake = coreProfile.supports(requestedTask)
+                            && memoryManager.canFit(requestedTask.getMemoryRequired());
                 }
 
                 if (canTake && requestedTask != null) {
@@ -0,0 +1,55 @@
+package multikernel;
+
+import java.util.Map;
+
+/**
+ * Live view of one simulated core, registered with the platform MBeanServer
+ * so a running simulation can be watched from jconsole / JMC.
+ */
+public interface CoreMXBean {
+
+    int getCoreId();
+
+    boolean isRunning();
+
+    /** Tasks waiting in this core's scheduler. */
+    int getQueueDepth();
+
+    /** Messages sitting in this core's inbox, not yet polled. */
+    int getInboxBacklog();
+
+    /** Sync requests this core has sent and is still waiting on. */
+    int getPendingSyncRequests();
+
+    long getTasksCompleted();
+
+    double getTasksCompletedPerSecond();
+
+    long getBusyTimeMs();
+
+    long getUptimeMs();
+
+    /** busy / uptime, 0.0 - 1.0 */
+    double getBusyRatio();
+
+    /** 1 - busy ratio */
+    double getIdleRatio();
+
+    /** STEAL_REQUESTs sent by work stealing or load balancing (each one a request + reply). */
+    long getStealRequestsSent();
+
+    /** Queued tasks this core pushed to neighbours in rebalancing epochs. */
+    long getTasksPushed();
+
+    /** MEMORY_PROBE multicasts this core sent to find a migration target. */
+    long getProbesSent();
+
+    /** Probes that found no core with room (task requeued here). */
+    long getProbesUnanswered();
+
+    /** Speed relative to the reference core (CoreProfile), 1.0 if uniform. */
+    double getSpeedFactor();
+
+    /** Milliseconds spent in each CorePhaseProfile.Phase so far. */
+    Map<String, Long> getPhaseBreakdownMs();
+}
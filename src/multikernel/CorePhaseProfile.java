@@ -0,0 +1,71 @@
+package multikernel;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Low-overhead, nanoTime-based accumulators for the phases of Core.run.
+ *
+ * Written only by the owning core thread, so plain long adds with no
+ * synchronization. The loop takes one System.nanoTime() per phase boundary:
+ *
+ *   long mark = System.nanoTime();
+ *   ...poll inbox...
+ *   mark = profile.lap(Phase.MESSAGE_POLL, mark);
+ *
+ * Readers on other threads (JMX, end-of-run export) may see slightly stale
+ * values, which is fine for a time breakdown.
+ */
+public class CorePhaseProfile {
+
+    public enum Phase {
+        MESSAGE_POLL,      // pollMessage on our inbox
+        MESSAGE_HANDLING,  // handleIncomingMessage (incl. sending sync replies)
+        DEQUEUE,           // scheduler.getNextTask
+        ALLOCATION,        // allocate / deallocate + memory snapshots
+        SYNC_WAIT,         // blocked in sendSyncRequest waiting for a reply
+        IDLE,              // sleeping because there was no local work
+        EXECUTION,         // the simulated task burst itself
+        ACCOUNTING         // metrics and event bookkeeping around a task
+    }
+
+    private static final Phase[] PHASES = Phase.values();
+
+    private final long[] nanos = new long[PHASES.length];
+
+    /**
+     * Charges (now - since) to the phase and returns now, so the result can
+     * be fed straight into the next lap() call.
+     */
+    public long lap(Phase phase, long since) {
+        long now = System.nanoTime();
+        nanos[phase.ordinal()] += now - since;
+        return now;
+    }
+
+    public long getNanos(Phase phase) {
+        return nanos[phase.ordinal()];
+    }
+
+    public long getTotalNanos() {
+        long total = 0;
+        for (long n : nanos) {
+            total += n;
+        }
+        return total;
+    }
+
+    /** Copy of the per-phase nanoseconds, indexed by Phase.ordinal(). */
+    public long[] snapshotNanos() {
+        return nanos.clone();
+    }
+
+    /** Phase name -> milliseconds, in Phase declaration order. */
+    public Map<String, Long> toMillisMap() {
+        Map<String, Long> result = new LinkedHashMap<>();
+        for (Phase p : PHASES) {
+            result.put(p.name(), nanos[p.ordinal()] / 1_000_000L);
+        }
+        return result;
+    }
+}
@@ -0,0 +1,63 @@
+package multikernel;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Hardware description of one simulated core: a speed factor relative to
+ * the reference core the burst times were measured on (2.0 = runs tasks in
+ * half the time) and optional capability tags (e.g. "avx512", "gpu") that
+ * tasks can require via Task.getRequiredCapability().
+ *
+ * Immutable; one list of profiles (indexed by core id) is shared by all cores.
+ */
+public class CoreProfile {
+
+    public static final CoreProfile REFERENCE = new CoreProfile(1.0);
+
+    private final double speed;
+    private final Set<String> capabilities;
+
+    public CoreProfile(double speed, String... capabilities) {
+        if (speed <= 0) {
+            throw new IllegalArgumentException("speed must be > 0: " + speed);
+        }
+        this.speed = speed;
+        this.capabilities = Collections.unmodifiableSet(new LinkedHashSet<>(Arrays.asList(capabilities)));
+    }
+
+    /**
+     * big.LITTLE style mix: the first numBig cores run at bigSpeed, the rest
+     * at littleSpeed. Big cores get the "big" tag.
+     */
+    public static List<CoreProfile> bigLittle(int numCores, int numBig, double bigSpeed, double littleSpeed) {
+        List<CoreProfile> profiles = new ArrayList<>(numCores);
+        for (int i = 0; i < numCores; i++) {
+            profiles.add(i < numBig ? new CoreProfile(bigSpeed, "big") : new CoreProfile(littleSpeed));
+        }
+        return profiles;
+    }
+
+    /** True if this core may run task (it needs no capability, or one this core has). */
+    public boolean supports(Task task) {
+        String needed = task.getRequiredCapability();
+        return needed == null || capabilities.contains(needed);
+    }
+
+    /** Simulated ms this core needs for a burst measured on the reference core. */
+    public double executionMs(int burstMs) {
+        return burstMs / speed;
+    }
+
+    public double getSpeed() { return speed; }
+    public Set<String> getCapabilities() { return capabilities; }
+
+    @Override
+    public String toString() {
+        return "CoreProfile{speed=" + speed + (capabilities.isEmpty() ? "" : ", " + capabilities) + "}";
+    }
+}
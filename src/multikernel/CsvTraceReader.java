@@ -0,0 +1,126 @@
+package multikernel;
+
+import java.io.BufferedReader;
+import java.io.FileReader;
+import java.io.IOException;
+import java.util.Locale;
+
+/**
+ * Reads a CSV task trace line by line.
+ *
+ * With a header line, columns are matched by name (case-insensitive, any
+ * order, unknown columns ignored):
+ *   id, arrival (arrival_ms, arrival_time), burst (cpu, cpu_ms, burst_time),
+ *   memory (mem), priority, deadline (deadline_ms), working_set (working_set_kb),
+ *   capability (CoreProfile tag the task needs; header form only)
+ * arrival, burst and memory are required. Without a header the columns are
+ * positional: arrival,burst,memory[,priority[,deadline[,working_set]]].
+ *
+ * Times are in ms; deadline is absolute in the same clock as arrival, and
+ * empty or negative means none. Missing ids are numbered 1, 2, ... in file
+ * order. Blank lines and lines starting with '#' are skipped.
+ */
+public class CsvTraceReader implements TaskTraceReader {
+
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private final String filename;
+    private final BufferedReader reader;
+
+    // column index per field, -1 = absent
+    private int idCol = -1;
+    private int arrivalCol = 0;
+    private int burstCol = 1;
+    private int memoryCol = 2;
+    private int priorityCol = 3;
+    private int deadlineCol = 4;
+    private int workingSetCol = 5;
+    private int capabilityCol = -1;
+
+    private boolean firstLine = true;
+    private long lineNo = 0;
+    private int nextId = 1;
+
+    public CsvTraceReader(String filename) throws IOException {
+        this.filename = filename;
+        this.reader = new BufferedReader(new FileReader(filename), BUFFER_SIZE);
+    }
+
+    @Override
+    public Task next() throws IOException {
+        String line;
+        while ((line = reader.readLine()) != null) {
+            lineNo++;
+            line = line.trim();
+            if (line.isEmpty() || line.charAt(0) == '#') {
+                continue;
+            }
+            String[] cols = line.split(",", -1);
+            if (firstLine) {
+                firstLine = false;
+                if (!isNumeric(cols[0])) {
+                    parseHeader(cols);
+                    continue;
+                }
+            }
+            return parseTask(cols);
+        }
+        return null;
+    }
+
+    private void parseHeader(String[] cols) throws IOException {
+        idCol = arrivalCol = burstCol = memoryCol = priorityCol = deadlineCol = workingSetCol = -1;
+        for (int i = 0; i < cols.length; i++) {
+            switch (cols[i].trim().toLowerCase(Locale.ROOT)) {
+                case "id": idCol = i; break;
+                case "arrival": case "arrival_ms": case "arrival_time": arrivalCol = i; break;
+                case "burst": case "cpu": case "cpu_ms": case "burst_time": burstCol = i; break;
+                case "memory": case "mem": memoryCol = i; break;
+                case "priority": priorityCol = i; break;
+                case "deadline": case "deadline_ms": deadlineCol = i; break;
+                case "working_set": case "working_set_kb": workingSetCol = i; break;
+                case "capability": capabilityCol = i; break;
+                default: break;
+            }
+        }
+        if (arrivalCol < 0 || burstCol < 0 || memoryCol < 0) {
+            throw new IOException(filename + ": header needs arrival, burst and memory columns");
+        }
+    }
+
+    private Task parseTask(String[] cols) throws IOException {
+        try {
+            int id = (idCol >= 0) ? Integer.parseInt(cols[idCol].trim()) : nextId;
+            nextId = id + 1;
+            long arrival = Long.parseLong(cols[arrivalCol].trim());
+            int burst = Integer.parseInt(cols[burstCol].trim());
+            int memory = Integer.parseInt(cols[memoryCol].trim());
+            String priority = column(cols, priorityCol);
+            String deadline = column(cols, deadlineCol);
+            String workingSet = column(cols, workingSetCol);
+            String capability = column(cols, capabilityCol);
+            long deadlineValue = deadline.isEmpty() ? Task.NO_DEADLINE : Long.parseLong(deadline);
+            return new Task(id, burst, memory, arrival,
+                    priority.isEmpty() ? 0 : Integer.parseInt(priority),
+                    deadlineValue < 0 ? Task.NO_DEADLINE : deadlineValue,
+                    workingSet.isEmpty() ? 0 : Integer.parseInt(workingSet),
+                    capability.isEmpty() ? null : capability);
+        } catch (NumberFormatException | ArrayIndexOutOfBoundsException e) {
+            throw new IOException(filename + ":" + lineNo + ": malformed trace line", e);
+        }
+    }
+
+    private static String column(String[] cols, int index) {
+        return (index >= 0 && index < cols.length) ? cols[index].trim() : "";
+    }
+
+    private static boolean isNumeric(String text) {
+        String t = text.trim();
+        return !t.isEmpty() && (Character.isDigit(t.charAt(0)) || t.charAt(0) == '-');
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+}
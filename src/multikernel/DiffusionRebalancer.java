@@ -0,0 +1,147 @@
+package multikernel;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * One core's side of periodic, message-based load rebalancing: every
+ * period the core sends a LOAD_SUMMARY (queue length, free memory) to its
+ * neighbours, and a core that hears from a less loaded neighbour pushes
+ * part of the difference to it (REBALANCE_PUSH), so work flows down the
+ * load gradient.
+ *
+ * Neighbours are the core's hypercube partners (ids differing in one bit;
+ * partners beyond numCores are skipped). Two schemes:
+ *
+ *   DIFFUSION           every epoch, summaries go to all neighbours and each
+ *                       pushes damping * (mine - theirs) / (dimensions + 1)
+ *   DIMENSION_EXCHANGE  each epoch uses one dimension (cycling), the pair
+ *                       averages: damping * (mine - theirs) / 2
+ *
+ * damping (0..1] trades convergence speed against oscillation from stale
+ * summaries: 1 moves the full amount, smaller values move less per epoch.
+ * A push never sends more memory than the neighbour reported free.
+ *
+ * Only the owning core's thread uses an instance; Core does the messaging.
+ */
+public class DiffusionRebalancer {
+
+    public enum Scheme {
+        DIFFUSION, DIMENSION_EXCHANGE;
+
+        public static Scheme parse(String text) {
+            for (Scheme s : values()) {
+                if (s.name().equalsIgnoreCase(text) || s.name().replace("_", "").equalsIgnoreCase(text)) {
+                    return s;
+                }
+            }
+            throw new IllegalArgumentException("Unknown rebalancing scheme: " + text);
+        }
+    }
+
+    public static final String SUMMARY = "LOAD_SUMMARY";
+    public static final String PUSH = "REBALANCE_PUSH";
+
+    // shortest wall-clock period, for timeScale 0
+    private static final long MIN_PERIOD_NANOS = 100_000L;
+
+    /**
+     * Payload of a LOAD_SUMMARY message. A core that receives a summary from
+     * a busier neighbour answers with its own (reply = true, not answered
+     * again), so the busier side can push in the same epoch.
+     */
+    public static final class Summary {
+        private final int queueLength;
+        private final int freeMemory;
+        private final boolean reply;
+
+        public Summary(int queueLength, int freeMemory, boolean reply) {
+            this.queueLength = queueLength;
+            this.freeMemory = freeMemory;
+            this.reply = reply;
+        }
+
+        public int getQueueLength() { return queueLength; }
+        public int getFreeMemory() { return freeMemory; }
+        public boolean isReply() { return reply; }
+    }
+
+    private final Scheme scheme;
+    private final long periodNanos;
+    private final double damping;
+    private final int dimensions;
+    // partner per dimension, -1 where it would be beyond numCores
+    private final int[] partners;
+
+    private long nextEpochNanos = 0L;
+    private long epoch = 0L;
+
+    /**
+     * periodMs is simulated time between epochs, scaled by timeScale to the
+     * wall clock (at least MIN_PERIOD_NANOS when timeScale is 0).
+     */
+    public DiffusionRebalancer(int coreId, int numCores, Scheme scheme, double periodMs,
+                               double damping, double timeScale) {
+        if (damping <= 0 || damping > 1) {
+            throw new IllegalArgumentException("damping must be in (0, 1]: " + damping);
+        }
+        if (periodMs <= 0) {
+            throw new IllegalArgumentException("period must be > 0 ms: " + periodMs);
+        }
+        this.scheme = scheme;
+        this.periodNanos = Math.max(MIN_PERIOD_NANOS, (long) (periodMs * timeScale * 1_000_000L));
+        this.damping = damping;
+        int dims = 0;
+        while ((1 << dims) < numCores) {
+            dims++;
+        }
+        this.dimensions = dims;
+        this.partners = new int[dims];
+        for (int d = 0; d < dims; d++) {
+            int partner = coreId ^ (1 << d);
+            partners[d] = (partner < numCores) ? partner : -1;
+        }
+    }
+
+    /**
+     * If an epoch is due, starts it and returns the neighbours to send our
+     * summary to (possibly none); otherwise null.
+     */
+    public List<Integer> startEpochIfDue(long nowNanos) {
+        if (nowNanos < nextEpochNanos || dimensions == 0) {
+            return null;
+        }
+        nextEpochNanos = nowNanos + periodNanos;
+        List<Integer> targets = new ArrayList<>();
+        if (scheme == Scheme.DIMENSION_EXCHANGE) {
+            int partner = partners[(int) (epoch % dimensions)];
+            if (partner >= 0) {
+                targets.add(partner);
+            }
+        } else {
+            for (int partner : partners) {
+                if (partner >= 0) {
+                    targets.add(partner);
+                }
+            }
+        }
+        epoch++;
+        return targets;
+    }
+
+    /**
+     * Tasks to push to a neighbour that reported theirs while we hold mine,
+     * rounded to whole tasks and never more than half the difference.
+     */
+    public int flow(int mine, int theirs) {
+        if (mine <= theirs) {
+            return 0;
+        }
+        double share = (scheme == Scheme.DIMENSION_EXCHANGE) ? 2.0 : dimensions + 1.0;
+        int tasks = (int) Math.round(damping * (mine - theirs) / share);
+        return Math.min(tasks, (mine - theirs) / 2);
+    }
+
+    public Scheme getScheme() { return scheme; }
+    public long getEpoch() { return epoch; }
+}
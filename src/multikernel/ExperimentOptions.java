@@ -0,0 +1,158 @@
+package multikernel;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * The key=value command line shared by ExperimentRunner (via SweepSpec)
+ * and the experiment mains:
+ *
+ *   ExperimentOptions options = new ExperimentOptions(args);
+ *   int cores = options.getInt("cores", 8);
+ *   List<Integer> batches = options.getInts("batches", List.of(1, 4, 8));
+ *   String out = options.get("out", "results.csv");
+ *   options.rejectUnknown();
+ *
+ * Keys are matched case-insensitively; a later occurrence of a key wins;
+ * arguments without '=' are ignored. Lists are comma separated, and integer
+ * lists may contain inclusive ranges (1..5). rejectUnknown() fails on any
+ * key that no getter asked for, so a typo does not silently run the default.
+ */
+public class ExperimentOptions {
+
+    private final Map<String, String> values = new LinkedHashMap<>(); // lower-case key -> value
+    private final Map<String, String> spelling = new LinkedHashMap<>(); // lower-case key -> as given
+    private final Set<String> read = new HashSet<>();
+
+    public ExperimentOptions(String[] args) {
+        for (String arg : args) {
+            int eq = arg.indexOf('=');
+            if (eq < 0) {
+                continue;
+            }
+            String key = arg.substring(0, eq).trim();
+            values.put(key.toLowerCase(Locale.ROOT), arg.substring(eq + 1).trim());
+            spelling.put(key.toLowerCase(Locale.ROOT), key);
+        }
+    }
+
+    public boolean has(String key) {
+        read.add(key.toLowerCase(Locale.ROOT));
+        return values.containsKey(key.toLowerCase(Locale.ROOT));
+    }
+
+    public String get(String key, String fallback) {
+        return get(key, Function.identity(), fallback);
+    }
+
+    public <T> T get(String key, Function<String, T> parser, T fallback) {
+        String value = raw(key);
+        return (value == null) ? fallback : parser.apply(value);
+    }
+
+    public int getInt(String key, int fallback) {
+        return get(key, Integer::parseInt, fallback);
+    }
+
+    public long getLong(String key, long fallback) {
+        return get(key, Long::parseLong, fallback);
+    }
+
+    public double getDouble(String key, double fallback) {
+        return get(key, Double::parseDouble, fallback);
+    }
+
+    public SchedulerType getScheduler(String key, SchedulerType fallback) {
+        return get(key, SchedulerType::parse, fallback);
+    }
+
+    /**
+     * The timeScale option (simulated ms -> wall ms, default 0.01). Must be
+     * > 0: the experiments measure on the wall clock and divide by it.
+     */
+    public double getTimeScale() {
+        double timeScale = getDouble("timeScale", 0.01);
+        if (timeScale <= 0) {
+            throw new IllegalArgumentException("timeScale must be > 0: times are measured on the wall clock, got "
+                    + timeScale);
+        }
+        return timeScale;
+    }
+
+    /** Comma-separated values, each parsed by parser. */
+    public <T> List<T> getList(String key, Function<String, T> parser, List<T> fallback) {
+        String value = raw(key);
+        if (value == null) {
+            return fallback;
+        }
+        List<T> result = new ArrayList<>();
+        for (String part : value.split(",")) {
+            result.add(parser.apply(part.trim()));
+        }
+        return result;
+    }
+
+    /** Comma-separated integers and inclusive ranges a..b. */
+    public List<Integer> getInts(String key, List<Integer> fallback) {
+        String value = raw(key);
+        return (value == null) ? fallback : parseInts(value);
+    }
+
+    public List<Double> getDoubles(String key, List<Double> fallback) {
+        return getList(key, Double::parseDouble, fallback);
+    }
+
+    /** Marks keys as known without reading them (options consumed elsewhere). */
+    public void ignore(String... keys) {
+        for (String key : keys) {
+            read.add(key.toLowerCase(Locale.ROOT));
+        }
+    }
+
+    /** Fails on the first key no getter has asked for. */
+    public void rejectUnknown() {
+        for (String key : values.keySet()) {
+            if (!read.contains(key)) {
+                throw new IllegalArgumentException("Unknown option: " + spelling.get(key));
+            }
+        }
+    }
+
+    /** The options as given, as key=value arguments (to pass on to a child process). */
+    public List<String> toArgs() {
+        List<String> args = new ArrayList<>();
+        for (Map.Entry<String, String> e : values.entrySet()) {
+            args.add(spelling.get(e.getKey()) + "=" + e.getValue());
+        }
+        return args;
+    }
+
+    private String raw(String key) {
+        read.add(key.toLowerCase(Locale.ROOT));
+        return values.get(key.toLowerCase(Locale.ROOT));
+    }
+
+    static List<Integer> parseInts(String value) {
+        List<Integer> result = new ArrayList<>();
+        for (String part : value.split(",")) {
+            part = part.trim();
+            int range = part.indexOf("..");
+            if (range >= 0) {
+                int from = Integer.parseInt(part.substring(0, range));
+                int to = Integer.parseInt(part.substring(range + 2));
+                for (int v = from; v <= to; v++) {
+                    result.add(v);
+                }
+            } else {
+                result.add(Integer.parseInt(part));
+            }
+        }
+        return result;
+    }
+}
@@ -0,0 +1,214 @@
+package multikernel;
+
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.Consumer;
+
+/**
+ * Runs many isolated Simulation instances concurrently on a ForkJoinPool
+ * and aggregates repeated seeds into one results table with 95% CIs.
+ *
+ * Simulations spend almost all their time with core threads sleeping, so
+ * the pool workers mostly block in Simulation.run(); that wait goes through
+ * ForkJoinPool.managedBlock, letting the pool add compensating workers.
+ * A full sweep therefore takes roughly as long as its slowest single run.
+ *
+ * Command line:
+ *   java multikernel.ExperimentRunner schedulers=RR,SJF cores=2,4,8 \
+ *        tasks=50,200 memory=500,1000 seeds=1..5 out=sweep_results.csv
+ *
+ * The *Experiment mains build on warmUp and writeCsv here. They take
+ * timeScale=S (ExperimentOptions.getTimeScale) and report all times in
+ * simulated ms, i.e. measured wall time / timeScale.
+ */
+public class ExperimentRunner {
+
+    /** Aggregate over all seeds of one (scheduler, cores, tasks, memory) point. */
+    public static class SummaryRow {
+        final SchedulerType scheduler;
+        final int numCores;
+        final int numTasks;
+        final int memoryPerCore;
+        final int runs;
+        final double avgTurnaround;
+        final double turnaroundCi;
+        final double avgWaiting;
+        final double waitingCi;
+        final double avgUtilization;
+        final double avgUnfinished;
+        final double avgMessages;
+        final double avgWallTimeMs;
+
+        SummaryRow(SimulationConfig c, List<SimulationResult> results) {
+            this.scheduler = c.getSchedulerType();
+            this.numCores = c.getNumCores();
+            this.numTasks = c.getNumTasks();
+            this.memoryPerCore = c.getMemoryPerCore();
+            this.runs = results.size();
+
+            double[] turnaround = new double[runs];
+            double[] waiting = new double[runs];
+            double[] util = new double[runs];
+            double[] unfinished = new double[runs];
+            double[] messages = new double[runs];
+            double[] wall = new double[runs];
+            for (int i = 0; i < runs; i++) {
+                SimulationResult r = results.get(i);
+                turnaround[i] = r.getAvgTurnaroundMs();
+                waiting[i] = r.getAvgWaitingMs();
+                util[i] = r.getAvgUtilizationPct();
+                unfinished[i] = r.getUnfinishedTasks();
+                messages[i] = r.getTotalMessages();
+                wall[i] = r.getWallTimeMs();
+            }
+            this.avgTurnaround = Statistics.mean(turnaround);
+            this.turnaroundCi = Statistics.ci95HalfWidth(turnaround);
+            this.avgWaiting = Statistics.mean(waiting);
+            this.waitingCi = Statistics.ci95HalfWidth(waiting);
+            this.avgUtilization = Statistics.mean(util);
+            this.avgUnfinished = Statistics.mean(unfinished);
+            this.avgMessages = Statistics.mean(messages);
+            this.avgWallTimeMs = Statistics.mean(wall);
+        }
+
+        public SchedulerType getScheduler() { return scheduler; }
+        public int getNumCores() { return numCores; }
+        public int getNumTasks() { return numTasks; }
+        public int getMemoryPerCore() { return memoryPerCore; }
+        public double getAvgTurnaround() { return avgTurnaround; }
+        public double getTurnaroundCi() { return turnaroundCi; }
+        public double getAvgWaiting() { return avgWaiting; }
+    }
+
+    private final ForkJoinPool pool;
+
+    /** parallelism = number of simulations allowed to be actively running at once. */
+    public ExperimentRunner(int parallelism) {
+        this.pool = new ForkJoinPool(parallelism);
+    }
+
+    public ExperimentRunner() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    /** Runs every config concurrently; results come back in config order. */
+    public List<SimulationResult> runAll(List<SimulationConfig> configs) {
+        List<Simulation> simulations = new ArrayList<>();
+        for (SimulationConfig config : configs) {
+            simulations.add(new Simulation(config));
+        }
+        return runSimulations(simulations);
+    }
+
+    /**
+     * Runs already-built simulations concurrently, for callers that want to
+     * export per-run metrics afterwards. Results come back in input order.
+     */
+    public List<SimulationResult> runSimulations(List<Simulation> simulations) {
+        List<ForkJoinTask<SimulationResult>> futures = new ArrayList<>();
+        for (Simulation simulation : simulations) {
+            futures.add(pool.submit(() -> {
+                SimulationResult result = simulation.run();
+                System.out.println("  ✔ " + result);
+                return result;
+            }));
+        }
+        List<SimulationResult> results = new ArrayList<>();
+        for (ForkJoinTask<SimulationResult> f : futures) {
+            results.add(f.join());
+        }
+        return results;
+    }
+
+    /** Runs a whole sweep and folds the seeds of each point into one row. */
+    public List<SummaryRow> runSweep(SweepSpec spec) {
+        List<SimulationConfig> configs = spec.expand();
+        System.out.println("Running sweep of " + configs.size() + " simulations...");
+        long start = System.currentTimeMillis();
+        List<SimulationResult> results = runAll(configs);
+        System.out.println("Sweep finished in " + (System.currentTimeMillis() - start) + " ms");
+        return summarize(results);
+    }
+
+    public static List<SummaryRow> summarize(List<SimulationResult> results) {
+        Map<String, List<SimulationResult>> groups = new LinkedHashMap<>();
+        Map<String, SimulationConfig> firstConfig = new HashMap<>();
+        for (SimulationResult r : results) {
+            SimulationConfig c = r.getConfig();
+            String key = c.getSchedulerType() + "/" + c.getNumCores() + "/" + c.getNumTasks() + "/" + c.getMemoryPerCore();
+            groups.computeIfAbsent(key, k -> new ArrayList<>()).add(r);
+            firstConfig.putIfAbsent(key, c);
+        }
+        List<SummaryRow> rows = new ArrayList<>();
+        for (Map.Entry<String, List<SimulationResult>> e : groups.entrySet()) {
+            rows.add(new SummaryRow(firstConfig.get(e.getKey()), e.getValue()));
+        }
+        return rows;
+    }
+
+    /** Writes the consolidated results table. */
+    public static void exportResultsCSV(List<SummaryRow> rows, String filename) {
+        writeCsv(filename, "Sweep results", "scheduler,numCores,numTasks,memoryPerCore,runs,"
+                + "avgTurnaroundMs,turnaroundCi95Low,turnaroundCi95High,"
+                + "avgWaitingMs,waitingCi95Low,waitingCi95High,"
+                + "avgUtilizationPct,avgUnfinishedTasks,avgMessages,avgWallTimeMs", pw -> {
+            for (SummaryRow r : rows) {
+                pw.printf(Locale.US,
+                        "%s,%d,%d,%d,%d,%.2f,%.2f,%.2f,%.2f,%.2f,%.2f,%.2f,%.2f,%.1f,%.1f%n",
+                        r.scheduler.getShortName(), r.numCores, r.numTasks, r.memoryPerCore, r.runs,
+                        r.avgTurnaround, r.avgTurnaround - r.turnaroundCi, r.avgTurnaround + r.turnaroundCi,
+                        r.avgWaiting, r.avgWaiting - r.waitingCi, r.avgWaiting + r.waitingCi,
+                        r.avgUtilization, r.avgUnfinished, r.avgMessages, r.avgWallTimeMs);
+            }
+        });
+    }
+
+    // ----------------------------------------------------------------------
+    // Shared by the experiment mains
+    // ----------------------------------------------------------------------
+
+    /**
+     * Runs config once and throws the result away: the first run in a JVM
+     * pays for class loading and JIT, which would otherwise land in the first
+     * measured point. Run it before the baseline, with the features the
+     * measured runs use.
+     */
+    public static void warmUp(SimulationConfig config) {
+        new Simulation(config.setRegisterJmx(false)).run();
+    }
+
+    /** Writes header and the rows to filename and reports "what exported to filename". */
+    public static void writeCsv(String filename, String what, String header, Consumer<PrintWriter> rows) {
+        try (PrintWriter pw = new PrintWriter(new FileWriter(filename))) {
+            pw.println(header);
+            rows.accept(pw);
+            System.out.println("✔ " + what + " exported to " + filename);
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    public void shutdown() {
+        pool.shutdown();
+    }
+
+    public static void main(String[] args) {
+        ExperimentOptions options = new ExperimentOptions(args);
+        String out = options.get("out", "sweep_results.csv");
+        int parallelism = options.getInt("parallelism", Runtime.getRuntime().availableProcessors());
+        SweepSpec spec = SweepSpec.from(options);
+        options.rejectUnknown();
+
+        ExperimentRunner runner = new ExperimentRunner(parallelism);
+        try {
+            List<SummaryRow> rows = runner.runSweep(spec);
+            exportResultsCSV(rows, out);
+        } finally {
+            runner.shutdown();
+        }
+    }
+}
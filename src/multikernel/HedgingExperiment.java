@@ -0,0 +1,144 @@
+package multikernel;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Tail latency against extra work: the workload is dealt to the first
+ * hotspot cores only, so tasks queue up behind long bursts there while the
+ * other cores run dry. The same workload runs once without hedging and once
+ * per percentile with StragglerHedging, where idle cores get duplicates of
+ * tasks that have waited longer than that percentile of the waiting times
+ * so far.
+ *
+ * Reports per run the p50/p95/p99 and mean turnaround, the duplicates sent,
+ * which copy won, the copies thrown away (discarded before they ran or
+ * cancelled while running) and the extra work: the time cancelled copies
+ * ran, as a share of all core busy time.
+ *
+ *   java multikernel.HedgingExperiment percentiles=90,95,99 checkMs=10 cores=8 hotspot=2 \
+ *        tasks=400 memory=1000 timeScale=0.01 out=hedging.csv
+ */
+public class HedgingExperiment {
+
+    /** One run. */
+    public static class Outcome {
+        String mode;
+        long completed;
+        double meanTurnaroundMs;
+        double p50TurnaroundMs;
+        double p95TurnaroundMs;
+        double p99TurnaroundMs;
+        double thresholdMs;
+        long duplicatesSent;
+        long duplicatesDropped;
+        long duplicateWins;
+        long originalWins;
+        long discarded;
+        long cancelled;
+        long wastedMs;
+        long busyMs;
+
+        public double getExtraWorkPct() {
+            return (busyMs == 0) ? 0.0 : 100.0 * wastedMs / busyMs;
+        }
+    }
+
+    public static void main(String[] args) {
+        ExperimentOptions options = new ExperimentOptions(args);
+        SchedulerType scheduler = options.getScheduler("scheduler", SchedulerType.ROUND_ROBIN);
+        List<Double> percentiles = options.getDoubles("percentiles", List.of(90.0, 95.0, 99.0));
+        long checkMs = options.getLong("checkMs", 10);
+        int cores = options.getInt("cores", 8);
+        int hotspot = options.getInt("hotspot", 2);
+        int tasks = options.getInt("tasks", 400);
+        int memory = options.getInt("memory", 1000);
+        long seed = options.getLong("seed", 42L);
+        double timeScale = options.getTimeScale();
+        String out = options.get("out", "hedging.csv");
+        options.rejectUnknown();
+
+        ExperimentRunner.warmUp(new SimulationConfig(scheduler, cores, Math.min(tasks, 100), memory, seed)
+                .setHotspotCores(hotspot)
+                .setHedging(percentiles.get(0), checkMs)
+                .setTimeScale(timeScale));
+
+        List<Outcome> outcomes = new ArrayList<>();
+        outcomes.add(runOnce(scheduler, cores, hotspot, tasks, memory, seed, timeScale, 0, checkMs));
+        for (double p : percentiles) {
+            outcomes.add(runOnce(scheduler, cores, hotspot, tasks, memory, seed, timeScale, p, checkMs));
+        }
+
+        System.out.printf(Locale.US, "%n--- Straggler hedging (%d cores, workload on %d, check every %d ms) ---%n",
+                cores, hotspot, checkMs);
+        for (Outcome o : outcomes) {
+            System.out.printf(Locale.US,
+                    "%-9s %d done, turnaround mean %.0f / p50 %.0f / p95 %.0f / p99 %.0f ms, "
+                            + "%d duplicates (%d dropped, %d won, %d lost to the original), "
+                            + "%d discarded, %d cancelled, %.1f%% extra work%n",
+                    o.mode, o.completed, o.meanTurnaroundMs, o.p50TurnaroundMs, o.p95TurnaroundMs,
+                    o.p99TurnaroundMs, o.duplicatesSent, o.duplicatesDropped, o.duplicateWins, o.originalWins,
+                    o.discarded, o.cancelled, o.getExtraWorkPct());
+        }
+        exportCSV(outcomes, out);
+    }
+
+    /** percentile 0 = no hedging. */
+    private static Outcome runOnce(SchedulerType scheduler, int cores, int hotspot, int tasks, int memory, long seed,
+                                   double timeScale, double percentile, long checkMs) {
+        SimulationConfig config = new SimulationConfig(scheduler, cores, tasks, memory, seed)
+                .setHotspotCores(hotspot)
+                .setTimeScale(timeScale)
+                .setRegisterJmx(false);
+        if (percentile > 0) {
+            config.setHedging(percentile, checkMs);
+        }
+        Simulation sim = new Simulation(config);
+        SimulationResult result = sim.run();
+        System.out.println("  ✔ " + result);
+        sim.reportUnfinished();
+
+        MetricsCollector metrics = sim.getMetricsCollector();
+        double[] turnarounds = metrics.getSortedTurnarounds();
+        for (int i = 0; i < turnarounds.length; i++) {
+            turnarounds[i] /= timeScale;
+        }
+        Outcome o = new Outcome();
+        o.mode = (percentile > 0) ? String.format(Locale.US, "hedge-p%.0f", percentile) : "baseline";
+        o.completed = result.getCompletedTasks();
+        o.meanTurnaroundMs = Statistics.mean(turnarounds);
+        o.p50TurnaroundMs = Statistics.percentile(turnarounds, 50);
+        o.p95TurnaroundMs = Statistics.percentile(turnarounds, 95);
+        o.p99TurnaroundMs = Statistics.percentile(turnarounds, 99);
+        for (Core c : sim.getCores()) {
+            o.busyMs += c.getBusyTimeMs();
+        }
+        StragglerHedging hedging = sim.getHedging();
+        if (hedging != null) {
+            o.thresholdMs = hedging.getThresholdMs() / timeScale;
+            o.duplicatesSent = hedging.getDuplicatesSent();
+            o.duplicatesDropped = hedging.getDuplicatesDropped();
+            o.duplicateWins = hedging.getDuplicateWins();
+            o.originalWins = hedging.getOriginalWins();
+            o.discarded = hedging.getCopiesDiscarded();
+            o.cancelled = hedging.getCopiesCancelled();
+            o.wastedMs = hedging.getWastedMs();
+        }
+        return o;
+    }
+
+    public static void exportCSV(List<Outcome> outcomes, String filename) {
+        ExperimentRunner.writeCsv(filename, "Hedging results",
+                "mode,completed,meanTurnaroundMs,p50TurnaroundMs,p95TurnaroundMs,p99TurnaroundMs,thresholdMs,"
+                        + "duplicatesSent,duplicatesDropped,duplicateWins,originalWins,discarded,cancelled,"
+                        + "wastedWallMs,busyWallMs,extraWorkPct", pw -> {
+            for (Outcome o : outcomes) {
+                pw.printf(Locale.US, "%s,%d,%.1f,%.1f,%.1f,%.1f,%.1f,%d,%d,%d,%d,%d,%d,%d,%d,%.2f%n",
+                        o.mode, o.completed, o.meanTurnaroundMs, o.p50TurnaroundMs, o.p95TurnaroundMs,
+                        o.p99TurnaroundMs, o.thresholdMs, o.duplicatesSent, o.duplicatesDropped, o.duplicateWins,
+                        o.originalWins, o.discarded, o.cancelled, o.wastedMs, o.busyMs, o.getExtraWorkPct());
+            }
+        });
+    }
+}
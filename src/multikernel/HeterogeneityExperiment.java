@@ -0,0 +1,110 @@
+package multikernel;
+
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * How much turnaround a mixed fleet (big.LITTLE, or several CPU generations)
+ * loses when the scheduler treats every core as identical.
+ *
+ * Runs the same seeded workload on the same heterogeneous cores twice:
+ * once with uniform placement (round robin, offloads to the next core) and
+ * once with speed-aware placement (earliest estimated finish, long tasks
+ * forwarded to fast cores). The difference in mean / p95 turnaround is the
+ * cost of ignoring core speeds.
+ *
+ *   java multikernel.HeterogeneityExperiment cores=8 big=2 bigSpeed=2.0 littleSpeed=0.5 \
+ *        scheduler=RR tasks=400 timeScale=0.01 out=heterogeneity.csv
+ */
+public class HeterogeneityExperiment {
+
+    /** Outcome of one placement policy. */
+    public static class Outcome {
+        String placement;
+        double meanTurnaroundMs;
+        double p95TurnaroundMs;
+        double makespanMs;
+        double avgUtilizationPct;
+        double capacityUtilizationPct;
+        int completed;
+    }
+
+    public static void main(String[] args) {
+        ExperimentOptions options = new ExperimentOptions(args);
+        SchedulerType scheduler = options.getScheduler("scheduler", SchedulerType.ROUND_ROBIN);
+        int cores = options.getInt("cores", 8);
+        int big = options.getInt("big", 2);
+        double bigSpeed = options.getDouble("bigSpeed", 2.0);
+        double littleSpeed = options.getDouble("littleSpeed", 0.5);
+        int tasks = options.getInt("tasks", 400);
+        int memory = options.getInt("memory", 1000);
+        long seed = options.getLong("seed", 42L);
+        double timeScale = options.getTimeScale();
+        String out = options.get("out", "heterogeneity.csv");
+        options.rejectUnknown();
+
+        List<CoreProfile> profiles = CoreProfile.bigLittle(cores, big, bigSpeed, littleSpeed);
+        System.out.printf(Locale.US, "Cores: %d big @ %.2fx, %d little @ %.2fx%n",
+                big, bigSpeed, cores - big, littleSpeed);
+
+        ExperimentRunner.warmUp(new SimulationConfig(scheduler, cores, Math.min(tasks, 100), memory, seed)
+                .setCoreProfiles(profiles)
+                .setSpeedAwarePlacement(true)
+                .setTimeScale(timeScale));
+        Outcome uniform = run(scheduler, cores, tasks, memory, seed, timeScale, profiles, false);
+        Outcome aware = run(scheduler, cores, tasks, memory, seed, timeScale, profiles, true);
+
+        System.out.println("\n--- Uniform vs speed-aware placement (" + scheduler.getDisplayName() + ") ---");
+        for (Outcome o : List.of(uniform, aware)) {
+            System.out.printf(Locale.US,
+                    "%-11s turnaround mean %.0f p95 %.0f ms, makespan %.0f ms, utilization %.1f%% (capacity-weighted %.1f%%)%n",
+                    o.placement + ":", o.meanTurnaroundMs, o.p95TurnaroundMs, o.makespanMs,
+                    o.avgUtilizationPct, o.capacityUtilizationPct);
+        }
+        double lossMs = uniform.meanTurnaroundMs - aware.meanTurnaroundMs;
+        double lossPct = (aware.meanTurnaroundMs == 0) ? 0.0 : 100.0 * lossMs / aware.meanTurnaroundMs;
+        System.out.printf(Locale.US, "%s Treating cores as uniform costs %.0f ms mean turnaround (%+.1f%%)%n",
+                lossMs > 0 ? "⚠" : "✔", lossMs, lossPct);
+
+        exportCSV(List.of(uniform, aware), out);
+    }
+
+    private static Outcome run(SchedulerType scheduler, int cores, int tasks, int memory, long seed,
+                               double timeScale, List<CoreProfile> profiles, boolean speedAware) {
+        Simulation sim = new Simulation(new SimulationConfig(scheduler, cores, tasks, memory, seed)
+                .setCoreProfiles(profiles)
+                .setSpeedAwarePlacement(speedAware)
+                .setTimeScale(timeScale)
+                .setRegisterJmx(false));
+        SimulationResult result = sim.run();
+        System.out.println("  ✔ " + result);
+        sim.reportUnfinished();
+
+        MetricsCollector metrics = sim.getMetricsCollector();
+        double[] turnarounds = metrics.getSortedTurnarounds();
+        for (int i = 0; i < turnarounds.length; i++) {
+            turnarounds[i] /= timeScale;
+        }
+        Outcome o = new Outcome();
+        o.placement = speedAware ? "speed-aware" : "uniform";
+        o.meanTurnaroundMs = Statistics.mean(turnarounds);
+        o.p95TurnaroundMs = Statistics.percentile(turnarounds, 95);
+        o.makespanMs = metrics.getCompletionSpanMs() / timeScale;
+        o.avgUtilizationPct = result.getAvgUtilizationPct();
+        o.capacityUtilizationPct = metrics.getCapacityWeightedUtilizationPercent();
+        o.completed = result.getCompletedTasks();
+        return o;
+    }
+
+    public static void exportCSV(List<Outcome> outcomes, String filename) {
+        ExperimentRunner.writeCsv(filename, "Heterogeneity comparison",
+                "placement,meanTurnaroundMs,p95TurnaroundMs,makespanMs,avgUtilizationPct,"
+                        + "capacityUtilizationPct,completed", pw -> {
+            for (Outcome o : outcomes) {
+                pw.printf(Locale.US, "%s,%.1f,%.1f,%.1f,%.2f,%.2f,%d%n",
+                        o.placement, o.meanTurnaroundMs, o.p95TurnaroundMs, o.makespanMs,
+                        o.avgUtilizationPct, o.capacityUtilizationPct, o.completed);
+            }
+        });
+    }
+}
@@ -0,0 +1,121 @@
+package multikernel;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Samples the queue lengths of all cores at a fixed interval while a
+ * simulation runs, to show how evenly work is spread over time.
+ *
+ * Per sample the imbalance is max - mean queue length (tasks the busiest
+ * core holds beyond its fair share). Samples where every queue is empty
+ * are skipped. The run is converged from the first sample whose spread
+ * (max - min) is at most CONVERGED_SPREAD tasks.
+ */
+public final class ImbalanceMonitor extends Thread {
+
+    static final int CONVERGED_SPREAD = 2;
+
+    /** One sample: ms since the monitor started, and the queue statistics. */
+    public static final class Sample {
+        final long timeMs;
+        final int max;
+        final int min;
+        final double mean;
+
+        Sample(long timeMs, int max, int min, double mean) {
+            this.timeMs = timeMs;
+            this.max = max;
+            this.min = min;
+            this.mean = mean;
+        }
+
+        public double getImbalance() { return max - mean; }
+        public int getSpread() { return max - min; }
+    }
+
+    private final List<Scheduler> schedulers;
+    private final long intervalMs;
+    private final List<Sample> samples = new ArrayList<>();
+    private volatile boolean running = true;
+
+    public ImbalanceMonitor(List<Scheduler> schedulers, long intervalMs) {
+        super("imbalance-monitor");
+        this.schedulers = schedulers;
+        this.intervalMs = Math.max(1L, intervalMs);
+        setDaemon(true);
+    }
+
+    @Override
+    public void run() {
+        long start = System.currentTimeMillis();
+        while (running) {
+            int max = Integer.MIN_VALUE;
+            int min = Integer.MAX_VALUE;
+            long total = 0;
+            for (Scheduler s : schedulers) {
+                int size = s.size();
+                max = Math.max(max, size);
+                min = Math.min(min, size);
+                total += size;
+            }
+            if (total > 0) {
+                synchronized (samples) {
+                    samples.add(new Sample(System.currentTimeMillis() - start, max, min,
+                            (double) total / schedulers.size()));
+                }
+            }
+            try {
+                TimeUnit.MILLISECONDS.sleep(intervalMs);
+            } catch (InterruptedException e) {
+                break;
+            }
+        }
+    }
+
+    public void stopMonitor() {
+        running = false;
+        interrupt();
+    }
+
+    /** Average of max - mean over all non-empty samples. */
+    public double getMeanImbalance() {
+        synchronized (samples) {
+            if (samples.isEmpty()) return 0.0;
+            double total = 0;
+            for (Sample s : samples) {
+                total += s.getImbalance();
+            }
+            return total / samples.size();
+        }
+    }
+
+    public double getPeakImbalance() {
+        synchronized (samples) {
+            double peak = 0;
+            for (Sample s : samples) {
+                peak = Math.max(peak, s.getImbalance());
+            }
+            return peak;
+        }
+    }
+
+    /** Wall ms until the spread first fell to CONVERGED_SPREAD, or -1 if it never did while work was queued. */
+    public long getConvergenceMs() {
+        synchronized (samples) {
+            for (Sample s : samples) {
+                if (s.getSpread() <= CONVERGED_SPREAD) {
+                    return s.timeMs;
+                }
+            }
+            return -1L;
+        }
+    }
+
+    public List<Sample> getSamples() {
+        synchronized (samples) {
+            return new ArrayList<>(samples);
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package multikernel;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * Java Flight Recorder events for the task lifecycle and inter-core messaging.
+ *
+ * Emitted from Core.run and MessageBus so scheduler decisions can be lined up
+ * with GC, lock contention and thread parking in a single recording, e.g.
+ *
+ *   java -XX:StartFlightRecording=filename=run.jfr,settings=profile multikernel.Main
+ *
+ * Every call site follows the usual pattern
+ *
+ *   SomeEvent e = new SomeEvent();
+ *   if (e.shouldCommit()) { ...fill fields...; e.commit(); }
+ *
+ * so when no recording is running the event is never populated and the
+ * allocation is removed by escape analysis. Stack traces are off by default
+ * to keep the per-event cost low.
+ */
+public final class JfrEvents {
+
+    private JfrEvents() {}
+
+    @Name("multikernel.TaskDequeued")
+    @Label("Task Dequeued")
+    @Category({"Multikernel", "Task"})
+    @Description("A core pulled a task from its scheduler")
+    @StackTrace(false)
+    public static final class TaskDequeued extends Event {
+        @Label("Core") public int coreId;
+        @Label("Task") public int taskId;
+        @Label("Burst Time") @Timespan(Timespan.MILLISECONDS) public long burstTime;
+        @Label("Time Since Arrival") @Timespan(Timespan.MILLISECONDS) public long waitTime;
+        @Label("Queue Depth After") public int queueDepth;
+    }
+
+    @Name("multikernel.AllocationFailed")
+    @Label("Allocation Failed")
+    @Category({"Multikernel", "Task"})
+    @Description("Local memory could not hold the task; the core will try to migrate it")
+    @StackTrace(false)
+    public static final class AllocationFailed extends Event {
+        @Label("Core") public int coreId;
+        @Label("Task") public int taskId;
+        @Label("Memory Required") public int memoryRequired;
+        @Label("Used Memory") public int usedMemory;
+        @Label("Total Memory") public int totalMemory;
+    }
+
+    @Name("multikernel.ResourceRequestSent")
+    @Label("Resource Request Sent")
+    @Category({"Multikernel", "Migration"})
+    @Description("A core asked another core to take a task (RESOURCE_REQUEST)")
+    @StackTrace(false)
+    public static final class ResourceRequestSent extends Event {
+        @Label("From Core") public int fromCore;
+        @Label("To Core") public int toCore;
+        @Label("Task") public int taskId;
+    }
+
+    @Name("multikernel.ResourceReply")
+    @Label("Resource Reply")
+    @Category({"Multikernel", "Migration"})
+    @Description("Outcome of a RESOURCE_REQUEST; the event duration is the blocking round trip")
+    @StackTrace(false)
+    public static final class ResourceReply extends Event {
+        @Label("Requesting Core") public int fromCore;
+        @Label("Target Core") public int toCore;
+        @Label("Task") public int taskId;
+        @Label("Outcome") @Description("RESOURCE_GRANTED, RESOURCE_DENIED or INTERRUPTED")
+        public String outcome;
+    }
+
+    @Name("multikernel.TaskExecuted")
+    @Label("Task Executed")
+    @Category({"Multikernel", "Task"})
+    @Description("A task ran to completion; the event duration is the execution time")
+    @StackTrace(false)
+    public static final class TaskExecuted extends Event {
+        @Label("Core") public int coreId;
+        @Label("Task") public int taskId;
+        @Label("Burst Time") @Timespan(Timespan.MILLISECONDS) public long burstTime;
+        @Label("Turnaround") @Timespan(Timespan.MILLISECONDS) public long turnaround;
+    }
+
+    @Name("multikernel.MessageEnqueued")
+    @Label("Message Enqueued")
+    @Category({"Multikernel", "Messaging"})
+    @StackTrace(false)
+    public static final class MessageEnqueued extends Event {
+        @Label("Type") public String type;
+        @Label("From Core") public int fromCore;
+        @Label("To Core") public int toCore;
+        @Label("Task") @Description("-1 when the message carries no task") public int taskId;
+        @Label("Queue Depth After") public int queueDepth;
+        @Label("Sync Reply") @Description("Delivered straight to a blocked requester") public boolean syncReply;
+    }
+
+    @Name("multikernel.MessageDequeued")
+    @Label("Message Dequeued")
+    @Category({"Multikernel", "Messaging"})
+    @StackTrace(false)
+    public static final class MessageDequeued extends Event {
+        @Label("Core") public int coreId;
+        @Label("Type") public String type;
+        @Label("From Core") public int fromCore;
+        @Label("Task") @Description("-1 when the message carries no task") public int taskId;
+        @Label("Queue Depth After") public int queueDepth;
+    }
+}
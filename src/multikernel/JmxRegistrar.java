@@ -0,0 +1,95 @@
+package multikernel;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Registers the MXBeans of one simulation run with the platform MBeanServer.
+ *
+ * Names look like:
+ *   multikernel:type=Core,run="main",core=3
+ *   multikernel:type=Scheduler,run="main",core=3
+ *   multikernel:type=MemoryManager,run="main",core=3
+ *   multikernel:type=MessageBus,run="main"
+ *
+ * The run key keeps back-to-back runs (e.g. RR then SJF) from clashing.
+ * Call unregisterAll() once the run has finished.
+ */
+public class JmxRegistrar {
+
+    private final String runName;
+    private final MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+    private final List<ObjectName> registered = new ArrayList<>();
+
+    public JmxRegistrar(String runName) {
+        this.runName = runName;
+    }
+
+    /** Registers everything a simulation run is made of. Lists are indexed by core id. */
+    public void registerAll(MessageBus messageBus,
+                            List<Core> cores,
+                            List<Scheduler> schedulers,
+                            List<MemoryManager> memoryManagers) {
+        registerMessageBus(messageBus);
+        for (Core core : cores) {
+            registerCore(core);
+        }
+        for (int i = 0; i < schedulers.size(); i++) {
+            registerScheduler(i, schedulers.get(i));
+        }
+        for (int i = 0; i < memoryManagers.size(); i++) {
+            registerMemoryManager(i, memoryManagers.get(i));
+        }
+    }
+
+    public void registerCore(Core core) {
+        register(core, "Core", core.getCoreId());
+    }
+
+    public void registerScheduler(int coreId, Scheduler scheduler) {
+        register(new SchedulerMonitor(coreId, scheduler), "Scheduler", coreId);
+    }
+
+    public void registerMemoryManager(int coreId, MemoryManager memoryManager) {
+        register(memoryManager, "MemoryManager", coreId);
+    }
+
+    public void registerMessageBus(MessageBus messageBus) {
+        register(messageBus, "MessageBus", -1);
+    }
+
+    /** Removes every bean this registrar added. Safe to call more than once. */
+    public synchronized void unregisterAll() {
+        for (ObjectName name : registered) {
+            try {
+                if (server.isRegistered(name)) {
+                    server.unregisterMBean(name);
+                }
+            } catch (JMException e) {
+                e.printStackTrace();
+            }
+        }
+        registered.clear();
+    }
+
+    private synchronized void register(Object bean, String type, int coreId) {
+        try {
+            String name = "multikernel:type=" + type + ",run=" + ObjectName.quote(runName);
+            if (coreId >= 0) {
+                name += ",core=" + coreId;
+            }
+            ObjectName objectName = new ObjectName(name);
+            if (server.isRegistered(objectName)) {
+                server.unregisterMBean(objectName);
+            }
+            server.registerMBean(bean, objectName);
+            registered.add(objectName);
+        } catch (JMException e) {
+            e.printStackTrace();
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package multikernel;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.DoubleAdder;
+
+/**
+ * Fixed-bucket histogram that cores record into and monitoring threads read
+ * without a lock: one atomic counter per bucket plus a running sum. A reader
+ * sees every observation that finished before it started, and possibly some
+ * of those in flight, so count and sum of one read can disagree by a few
+ * observations while the run goes on (they agree once it is over).
+ *
+ * Bucket i counts values <= bounds[i] (and above bounds[i-1]); the last
+ * counter takes everything above the largest bound (+Inf).
+ */
+public class LatencyHistogram {
+
+    /** Seconds, from sub-millisecond to a minute, roughly 1-2.5-5 per decade. */
+    public static final double[] DEFAULT_SECONDS_BOUNDS = {
+            0.0005, 0.001, 0.0025, 0.005, 0.01, 0.025, 0.05, 0.1, 0.25, 0.5, 1, 2.5, 5, 10, 30, 60
+    };
+
+    private final double[] bounds;
+    private final AtomicLongArray buckets;
+    private final DoubleAdder sum = new DoubleAdder();
+
+    public LatencyHistogram(double[] bounds) {
+        for (int i = 1; i < bounds.length; i++) {
+            if (bounds[i] <= bounds[i - 1]) {
+                throw new IllegalArgumentException("Bucket bounds must be increasing: " + Arrays.toString(bounds));
+            }
+        }
+        this.bounds = bounds.clone();
+        this.buckets = new AtomicLongArray(bounds.length + 1);
+    }
+
+    public LatencyHistogram() {
+        this(DEFAULT_SECONDS_BOUNDS);
+    }
+
+    public void observe(double value) {
+        int i = Arrays.binarySearch(bounds, value);
+        buckets.incrementAndGet(i >= 0 ? i : -i - 1);
+        sum.add(value);
+    }
+
+    public double[] getBounds() {
+        return bounds.clone();
+    }
+
+    /** Cumulative counts: entry i = observations <= bounds[i], the last entry = all of them. */
+    public long[] getCumulativeCounts() {
+        long[] counts = new long[buckets.length()];
+        long running = 0;
+        for (int i = 0; i < counts.length; i++) {
+            running += buckets.get(i);
+            counts[i] = running;
+        }
+        return counts;
+    }
+
+    public long getCount() {
+        long total = 0;
+        for (int i = 0; i < buckets.length(); i++) {
+            total += buckets.get(i);
+        }
+        return total;
+    }
+
+    public double getSum() {
+        return sum.sum();
+    }
+
+    /**
+     * The q-quantile (0 < q < 1) of the observations of all histograms
+     * together, interpolated linearly inside its bucket; NaN if they are
+     * empty. The histograms must share one set of bounds. Values in the
+     * +Inf bucket report the largest bound.
+     */
+    public static double quantile(Collection<LatencyHistogram> histograms, double q) {
+        if (histograms.isEmpty()) {
+            return Double.NaN;
+        }
+        double[] bounds = histograms.iterator().next().bounds;
+        long[] counts = new long[bounds.length + 1];
+        long total = 0;
+        for (LatencyHistogram h : histograms) {
+            if (!Arrays.equals(h.bounds, bounds)) {
+                throw new IllegalArgumentException("Histograms with different bounds cannot be merged");
+            }
+            for (int i = 0; i < counts.length; i++) {
+                long c = h.buckets.get(i);
+                counts[i] += c;
+                total += c;
+            }
+        }
+        if (total == 0) {
+            return Double.NaN;
+        }
+        double rank = q * total;
+        long below = 0;
+        for (int i = 0; i < bounds.length; i++) {
+            if (below + counts[i] >= rank) {
+                double lower = (i == 0) ? 0.0 : bounds[i - 1];
+                return lower + (bounds[i] - lower) * (rank - below) / counts[i];
+            }
+            below += counts[i];
+        }
+        return bounds[bounds.length - 1];
+    }
+}
@@ -0,0 +1,20 @@
+package multikernel;
+
+/**
+ * Periodic load balancing hooked into every Core's loop. The balancer only
+ * decides; the core carries out the pull itself with a STEAL_REQUEST, so
+ * termination detection and the victim's own checks still apply.
+ *
+ * All methods are called from the thread of core coreId.
+ */
+public interface LoadBalancer {
+
+    /** The core's current queue length, reported whenever it may have changed. */
+    void updateLoad(int coreId, int queueLength);
+
+    /** Core to pull one task from right now, or -1 if no balancing is due. */
+    int pickSource(int coreId);
+
+    /** Outcome of the pull that pickSource asked for. */
+    default void pullResult(int coreId, int source, boolean granted) {}
+}
@@ -0,0 +1,196 @@
+package multikernel;
+
+import org.jfree.chart.ChartFactory;
+import org.jfree.chart.ChartUtilities;
+import org.jfree.chart.JFreeChart;
+import org.jfree.chart.plot.PlotOrientation;
+import org.jfree.data.xy.XYSeries;
+import org.jfree.data.xy.XYSeriesCollection;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Open-system load sweep: runs the same configuration at increasing offered
+ * load (arrival rate / service capacity) and records throughput against
+ * latency, which a closed batch drain cannot show.
+ *
+ * Throughput is per simulated second. The saturation point is the first
+ * load at which the system no longer keeps up: throughput falls below
+ * SATURATION_RATIO of the arrival rate, or a bounded queue rejects more
+ * than that share of arrivals.
+ *
+ *   java multikernel.LoadCurveExperiment pattern=poisson loads=0.2,0.4,...,1.4 \
+ *        scheduler=RR cores=8 tasks=2000 timeScale=0.01 capacity=0 policy=block \
+ *        out=load_curve
+ *
+ * Points run one after another, after a short discarded warm-up run
+ * (ExperimentRunner.warmUp): concurrent runs would compete for CPU, which
+ * would show up as latency.
+ *
+ * Writes <out>.csv and <out>.png (latency vs throughput).
+ */
+public class LoadCurveExperiment {
+
+    static final double SATURATION_RATIO = 0.95;
+
+    private static final int WARMUP_TASKS = 200;
+
+    /** One point of the curve. */
+    public static class LoadPoint {
+        double offeredLoad;
+        double arrivalRatePerSec;
+        double throughputPerSec;
+        double meanLatencyMs;
+        double p50LatencyMs;
+        double p95LatencyMs;
+        double p99LatencyMs;
+        long completed;
+        long rejected;
+        double utilizationPct;
+
+        /** Completed tasks per second relative to the arrival rate. */
+        public double getKeepUpRatio() {
+            return (arrivalRatePerSec == 0) ? 0.0 : throughputPerSec / arrivalRatePerSec;
+        }
+
+        public double getRejectedRatio() {
+            long offered = completed + rejected;
+            return (offered == 0) ? 0.0 : (double) rejected / offered;
+        }
+
+        public boolean isSaturated() {
+            return getKeepUpRatio() < SATURATION_RATIO || getRejectedRatio() > 1.0 - SATURATION_RATIO;
+        }
+    }
+
+    public static void main(String[] args) {
+        ExperimentOptions options = new ExperimentOptions(args);
+        ArrivalProcess.Pattern pattern = options.get("pattern", ArrivalProcess.Pattern::parse,
+                ArrivalProcess.Pattern.POISSON);
+        List<Double> loads = options.getDoubles("loads", List.of(0.2, 0.4, 0.6, 0.7, 0.8, 0.9, 1.0, 1.1, 1.25, 1.5));
+        SchedulerType scheduler = options.getScheduler("scheduler", SchedulerType.ROUND_ROBIN);
+        int cores = options.getInt("cores", 8);
+        int tasks = options.getInt("tasks", 2000);
+        int memory = options.getInt("memory", 1000);
+        long seed = options.getLong("seed", 42L);
+        double timeScale = options.getTimeScale();
+        int capacity = options.getInt("capacity", 0);
+        BoundedScheduler.AdmissionPolicy policy = options.get("policy", BoundedScheduler.AdmissionPolicy::parse,
+                BoundedScheduler.AdmissionPolicy.BLOCK);
+        String out = options.get("out", "load_curve");
+        options.rejectUnknown();
+
+        ExperimentRunner.warmUp(new SimulationConfig(scheduler, cores, WARMUP_TASKS, memory, seed)
+                .setArrivals(pattern, 0.5)
+                .setTimeScale(timeScale)
+                .setDeadlineMs(0));
+
+        List<LoadPoint> points = new ArrayList<>();
+        for (double load : loads) {
+            Simulation sim = new Simulation(new SimulationConfig(scheduler, cores, tasks, memory, seed)
+                    .setArrivals(pattern, load)
+                    .setQueueCapacity(capacity, policy)
+                    .setTimeScale(timeScale)
+                    .setRegisterJmx(false)
+                    .setDeadlineMs(0));
+            SimulationResult result = sim.run();
+            System.out.println("  ✔ " + result);
+            points.add(measure(sim, result));
+        }
+
+        LoadPoint saturation = null;
+        for (LoadPoint p : points) {
+            if (p.isSaturated()) {
+                saturation = p;
+                break;
+            }
+        }
+        System.out.println("\n--- Throughput vs latency (" + pattern + ", " + scheduler.getDisplayName() + ") ---");
+        for (LoadPoint p : points) {
+            System.out.printf(Locale.US,
+                    "load %.2f: offered %.2f/s, throughput %.2f/s, latency mean %.0f p95 %.0f p99 %.0f ms%s%n",
+                    p.offeredLoad, p.arrivalRatePerSec, p.throughputPerSec,
+                    p.meanLatencyMs, p.p95LatencyMs, p.p99LatencyMs,
+                    p.rejected > 0 ? ", rejected " + p.rejected : "");
+        }
+        if (saturation != null) {
+            System.out.printf(Locale.US, "⚠ Saturation at offered load %.2f (%.2f tasks/s)%n",
+                    saturation.offeredLoad, saturation.arrivalRatePerSec);
+        } else {
+            System.out.println("✔ No saturation up to the highest offered load");
+        }
+
+        exportCSV(points, out + ".csv");
+        saveChart(points, pattern, scheduler, out + ".png");
+    }
+
+    /** Turns one finished run into a curve point (simulated time units). */
+    public static LoadPoint measure(Simulation sim, SimulationResult result) {
+        SimulationConfig config = sim.getConfig();
+        MetricsCollector metrics = sim.getMetricsCollector();
+        double scale = config.getTimeScale();
+
+        LoadPoint p = new LoadPoint();
+        p.offeredLoad = config.getOfferedLoad();
+        p.arrivalRatePerSec = ArrivalProcess.rateFor(config.getOfferedLoad(), config.getNumCores(),
+                WorkloadGenerator.MEAN_BURST_MS);
+        p.completed = result.getCompletedTasks();
+        p.rejected = result.getRejectedTasks();
+        double spanSec = metrics.getCompletionSpanMs() / scale / 1000.0;
+        p.throughputPerSec = (spanSec == 0) ? 0.0 : p.completed / spanSec;
+        double[] turnarounds = metrics.getSortedTurnarounds();
+        for (int i = 0; i < turnarounds.length; i++) {
+            turnarounds[i] /= scale;
+        }
+        p.meanLatencyMs = Statistics.mean(turnarounds);
+        p.p50LatencyMs = Statistics.percentile(turnarounds, 50);
+        p.p95LatencyMs = Statistics.percentile(turnarounds, 95);
+        p.p99LatencyMs = Statistics.percentile(turnarounds, 99);
+        p.utilizationPct = result.getAvgUtilizationPct();
+        return p;
+    }
+
+    public static void exportCSV(List<LoadPoint> points, String filename) {
+        ExperimentRunner.writeCsv(filename, "Load curve",
+                "offeredLoad,arrivalRatePerSec,throughputPerSec,meanLatencyMs,p50LatencyMs,"
+                        + "p95LatencyMs,p99LatencyMs,completed,rejected,utilizationPct,saturated", pw -> {
+            for (LoadPoint p : points) {
+                pw.printf(Locale.US, "%.3f,%.3f,%.3f,%.1f,%.1f,%.1f,%.1f,%d,%d,%.2f,%b%n",
+                        p.offeredLoad, p.arrivalRatePerSec, p.throughputPerSec,
+                        p.meanLatencyMs, p.p50LatencyMs, p.p95LatencyMs, p.p99LatencyMs,
+                        p.completed, p.rejected, p.utilizationPct, p.isSaturated());
+            }
+        });
+    }
+
+    private static void saveChart(List<LoadPoint> points, ArrivalProcess.Pattern pattern,
+                                  SchedulerType scheduler, String filename) {
+        XYSeries mean = new XYSeries("Mean latency", false);
+        XYSeries p95 = new XYSeries("p95 latency", false);
+        XYSeries p99 = new XYSeries("p99 latency", false);
+        for (LoadPoint p : points) {
+            mean.add(p.throughputPerSec, p.meanLatencyMs);
+            p95.add(p.throughputPerSec, p.p95LatencyMs);
+            p99.add(p.throughputPerSec, p.p99LatencyMs);
+        }
+        XYSeriesCollection dataset = new XYSeriesCollection();
+        dataset.addSeries(mean);
+        dataset.addSeries(p95);
+        dataset.addSeries(p99);
+
+        JFreeChart chart = ChartFactory.createXYLineChart(
+                "Latency vs Throughput (" + pattern + ", " + scheduler.getDisplayName() + ")",
+                "Throughput (tasks / simulated s)", "Turnaround (simulated ms)",
+                dataset, PlotOrientation.VERTICAL, true, true, false);
+        try {
+            ChartUtilities.saveChartAsPNG(new File(filename), chart, 900, 600);
+            System.out.println("✔ Load curve chart exported to " + filename);
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+}
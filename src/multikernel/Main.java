@@ -1,9 +1,7 @@
 package multikernel;
 
-import org.jfree.chart.ChartFactory;
-import org.jfree.chart.ChartFrame;
-import org.jfree.chart.JFreeChart;
-import org.jfree.data.category.DefaultCategoryDataset;
+import java.io.IOException;
+import java.nio.file.Path;
 import java.util.*;
 
 /**
@@ -11,289 +9,240 @@ import java.util.*;
  * Includes:
  *  - Full metrics export and visualization (utilization, heatmap, etc.)
  *  - Scheduler comparison experiment (Round Robin vs SJF)
+ *
+ * Each run is an isolated Simulation; the comparisons run their RR and SJF
+ * instances concurrently through ExperimentRunner. For parameter sweeps use
+ * ExperimentRunner directly.
+ *
+ * Charts open in windows, or, on a host without a display or with report=,
+ * are rendered to files by ReportWriter in a directory of their own
+ * together with the run's CSV exports.
  */
 public class Main {
 
 	static int numCores = 8;
 	static int numTasks = 200;
     static int totalMemoryPerCore = 1000;
+    // Runs end when termination detection says every task is done;
+    // this is only a safety net (0 = wait forever).
+    static long completionDeadlineMs = 120_000;
+    // workload seed; printed so an interesting run can be repeated
+    static long seed = System.nanoTime();
+
+    /**
+     * Optional arguments (key=value):
+     *   seed=N        workload seed, to repeat an earlier run's workload
+     *   record=FILE   record the base run's scheduling decisions
+     *   replay=FILE   re-execute a recorded base run exactly (e.g. under a profiler)
+     *   trace=FILE    stream the base run's tasks from a CSV / binary task trace
+     *   scheduler=S   base run's scheduler: RR (default), SJF or ADAPT
+     *   report=DIR    render charts to DIR/<run label>/ instead of windows
+     *                 (default "reports" when there is no display)
+     *   metrics=PORT  serve the base run's live counters at :PORT/metrics (OpenMetrics)
+     */
     public static void main(String[] args) {
         System.out.println("========== Multikernel Simulation ==========");
 
-//        int numCores = 8;
-//        int numTasks = 50;
-//        int totalMemoryPerCore = 1000;
-        boolean useSJF = false; // toggle scheduler here for base run
-
-        // ----- SETUP COMPONENTS -----
-        MessageBus messageBus = new MessageBus(numCores);
-        MetricsCollector metricsCollector = new MetricsCollector();
-        MemoryTracker memoryTracker = new MemoryTracker();
-
-        List<Core> cores = new ArrayList<>();
-        List<Scheduler> schedulers = new ArrayList<>();
-        List<MemoryManager> memoryManagers = new ArrayList<>();
-
-        for (int i = 0; i < numCores; i++) {
-            Scheduler scheduler = useSJF ? new ShortestJobFirstScheduler() : new RoundRobinScheduler();
-            MemoryManager memoryManager = new MemoryManager(totalMemoryPerCore);
-            schedulers.add(scheduler);
-            memoryManagers.add(memoryManager);
-
-            Core core = new Core(i, scheduler, memoryManager, messageBus, metricsCollector, memoryTracker, numCores);
-            cores.add(core);
+        SchedulerType schedulerType = SchedulerType.ROUND_ROBIN; // base run
+        String recordFile = null;
+        String replayFile = null;
+        String traceFile = null;
+        String reportBase = null;
+        int metricsPort = 0;
+        for (String arg : args) {
+            if (arg.startsWith("seed=")) seed = Long.parseLong(arg.substring(5));
+            else if (arg.startsWith("record=")) recordFile = arg.substring(7);
+            else if (arg.startsWith("replay=")) replayFile = arg.substring(7);
+            else if (arg.startsWith("trace=")) traceFile = arg.substring(6);
+            else if (arg.startsWith("scheduler=")) schedulerType = SchedulerType.parse(arg.substring(10));
+            else if (arg.startsWith("report=")) reportBase = arg.substring(7);
+            else if (arg.startsWith("metrics=")) metricsPort = Integer.parseInt(arg.substring(8));
         }
-
-        // ----- GENERATE TASKS -----
-        System.out.println("Generating workload...");
-        List<Task> tasks = generateTasks(numTasks);
-
-        // Simple distribution of tasks to cores (round robin)
-        for (int i = 0; i < tasks.size(); i++) {
-            schedulers.get(i % numCores).addTask(tasks.get(i));
+        if (reportBase != null) {
+            System.setProperty("java.awt.headless", "true");
+        } else if (ReportWriter.useHeadlessIfNoDisplay()) {
+            reportBase = "reports";
         }
 
-        // ----- START CORES -----
-        System.out.println("Starting cores...");
-        for (Core c : cores) {
-            c.start();
+        // ----- SETUP COMPONENTS + GENERATE TASKS -----
+        SimulationConfig config;
+        if (replayFile != null) {
+            try {
+                // the log knows the dimensions and seed it was recorded with
+                config = ReplayLog.load(replayFile).toConfig();
+            } catch (IOException e) {
+                e.printStackTrace();
+                return;
+            }
+            seed = config.getSeed();
+            config.setReplayFile(replayFile);
+            System.out.println("Replaying " + replayFile + " (" + config.getLabel() + ")...");
+        } else {
+            config = new SimulationConfig(schedulerType, numCores, numTasks, totalMemoryPerCore, seed);
         }
-
-        try {
-            Thread.sleep(20000); // simulation time
-        } catch (InterruptedException ignored) {}
-
-        // ----- STOP CORES -----
-        System.out.println("Stopping cores...");
-        for (Core c : cores) {
-            c.stopCore();
+        config.setDeadlineMs(completionDeadlineMs).setRecordFile(recordFile).setTraceFile(traceFile)
+                .setMetricsPort(metricsPort);
+        if (traceFile != null) {
+            // a trace can be arbitrarily long; only the deadline-free completion mode fits
+            config.setDeadlineMs(0);
+            System.out.println("Streaming workload from trace " + traceFile + "...");
+        } else {
+            System.out.println("Generating workload (seed " + seed + ")...");
         }
-
-        for (Core c : cores) {
+        Simulation simulation = new Simulation(config);
+        ReportWriter report = null;
+        if (reportBase != null) {
             try {
-                c.join();
-            } catch (InterruptedException ignored) {}
+                report = new ReportWriter(ReportWriter.forRun(Path.of(reportBase), config.getLabel()));
+            } catch (IOException e) {
+                e.printStackTrace();
+                return;
+            }
+            System.out.println("Report directory: " + report.getDirectory());
         }
 
+        // ----- RUN UNTIL ALL TASKS COMPLETE (JMX beans live meanwhile) -----
+        System.out.println("Starting cores...");
+        simulation.run();
+        simulation.reportUnfinished();
+
+        MetricsCollector metricsCollector = simulation.getMetricsCollector();
+        MessageBus messageBus = simulation.getMessageBus();
+        MemoryTracker memoryTracker = simulation.getMemoryTracker();
+
         // ===== EXPORT METRICS =====
         System.out.println("Exporting metrics...");
-        metricsCollector.exportCSV("task_metrics.csv");
-        metricsCollector.exportUtilizationCSV("core_utilization.csv");
-
-        // ===== VISUALIZATIONS =====
-        System.out.println("Generating charts...");
-        CPUUtilizationChart.showCPUUtilization(metricsCollector.getCoreUtilizationPercent());
-        MessageFrequencyChart.showMessageFrequency(messageBus.getSentCountSnapshot());
+        metricsCollector.exportCSV(outputFile(report, "task_metrics.csv"));
+        metricsCollector.exportUtilizationCSV(outputFile(report, "core_utilization.csv"));
+        metricsCollector.exportPhaseBreakdownCSV(outputFile(report, "core_phase_breakdown.csv"));
+        if (metricsCollector.getPolicySwitchCount() > 0) {
+            metricsCollector.exportPolicySwitchCSV(outputFile(report, "policy_switches.csv"));
+        }
 
         // ===== SUMMARY =====
         printSummary(metricsCollector, messageBus);
 
-        // ===== MEMORY HEATMAP =====
-        System.out.println("Generating Memory Heatmap...");
-        MemoryHeatmapChart.showHeatmap(memoryTracker.getMemoryLog());
-
-        // ===== TASK TURNAROUND CHART =====
-        System.out.println("Generating Task Turnaround Chart...");
-        ChartGenerator.showTurnaroundChart(metricsCollector.getTaskTurnarounds());
+        // ===== VISUALIZATIONS =====
+        // aggregated here, once; the charts only lay the numbers out
+        Map<Integer, Double> utilization = metricsCollector.getCoreUtilizationPercent();
+        Map<Integer, Integer> sent = messageBus.getSentCountSnapshot();
+        Map<Integer, Map<String, Double>> phases = metricsCollector.getCorePhaseBreakdownMs();
+        MemoryTracker.Grid memoryGrid = memoryTracker.binned(MemoryHeatmapChart.DEFAULT_BINS);
+        Map<Integer, Long> turnarounds = metricsCollector.getTaskTurnarounds();
+        if (report != null) {
+            report.add("cpu_utilization", () -> CPUUtilizationChart.createCPUUtilization(utilization))
+                    .add("message_frequency", () -> MessageFrequencyChart.createMessageFrequency(sent))
+                    .add("phase_breakdown", () -> PhaseBreakdownChart.createPhaseBreakdown(phases))
+                    .add("memory_heatmap", () -> MemoryHeatmapChart.createHeatmap(memoryGrid))
+                    .add("task_turnaround", () -> ChartGenerator.createTurnaroundChart(turnarounds));
+        } else {
+            System.out.println("Generating charts...");
+            CPUUtilizationChart.showCPUUtilization(utilization);
+            MessageFrequencyChart.showMessageFrequency(sent);
+            PhaseBreakdownChart.showPhaseBreakdown(phases);
+            MemoryHeatmapChart.showHeatmap(memoryGrid);
+            ChartGenerator.showTurnaroundChart(turnarounds);
+        }
 
         // ===== SCHEDULER COMPARISON (RoundRobin vs SJF) =====
-        rundecentralizeSchedulerComparison();
-        
-        runglobalSchedulerComparison();
-        
+        ExperimentRunner runner = new ExperimentRunner();
+        try {
+            Map<String, Double> decentralized = rundecentralizeSchedulerComparison(runner, report);
+            Map<String, Double> global = runglobalSchedulerComparison(runner, report);
+            if (report != null) {
+                report.add("scheduler_comparison", () -> ComparisonChartGenerator.createTurnaroundComparison(decentralized))
+                        .add("scheduler_comparison_global", () -> ComparisonChartGenerator.createTurnaroundComparison(global));
+            } else {
+                ComparisonChartGenerator.showTurnaroundComparison(decentralized);
+                ComparisonChartGenerator.showTurnaroundComparison(global);
+                System.out.println("📊 Scheduler Comparison charts displayed.");
+            }
+        } finally {
+            runner.shutdown();
+        }
+
+        if (report != null) {
+            System.out.println("Rendering report...");
+            try {
+                long start = System.nanoTime();
+                List<Path> files = report.render();
+                System.out.printf(Locale.US, "✔ %d chart files rendered to %s in %d ms%n", files.size(),
+                        report.getDirectory(), (System.nanoTime() - start) / 1_000_000);
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
+
         System.out.println("\n✅ Simulation and comparison complete.");
-        
-        
     }
-    
-    // Optional feature: automated scheduler comparison chart
-    public static void runglobalSchedulerComparison() {
-    	System.out.println("\n========== Running Scheduler Comparison ==========");
-    	
-        Map<String, Double> results = new LinkedHashMap<>();
-        System.out.println("\n========== Running Round Robin Scheduler ==========");
-        results.put("Round Robin", simulateAndGetAverage(new RoundRobinScheduler(), "RoundRobin", false));
-        System.out.println("\n========== Running Shortest Job First Scheduler ==========");
-        results.put("SJF", simulateAndGetAverage(new ShortestJobFirstScheduler(), "SJF", true));
 
-        ComparisonChartGenerator.showTurnaroundComparison(results);
+    /** name in the run's report directory, or the working directory without a report. */
+    private static String outputFile(ReportWriter report, String name) {
+        return (report != null) ? report.file(name) : name;
     }
 
-    private static double simulateAndGetAverage(Scheduler scheduler, String label, boolean useSJF) {
-
-//        int numCores = 4;
-//        int totalMemoryPerCore = 1000;
-        MessageBus bus = new MessageBus(4);
-        
-        MessageBus messageBus = new MessageBus(numCores);
-        MetricsCollector metricsCollector = new MetricsCollector();
-        MemoryTracker memoryTracker = new MemoryTracker();
-
-        List<Core> cores = new ArrayList<>();
-        List<Scheduler> schedulers = new ArrayList<>();
-        List<MemoryManager> memoryManagers = new ArrayList<>();
-
-        for (int i = 0; i < numCores; i++) {
-            Scheduler schedulerr = useSJF ? new ShortestJobFirstScheduler() : new RoundRobinScheduler();
-            MemoryManager memoryManager = new MemoryManager(totalMemoryPerCore);
-            schedulers.add(schedulerr);
-            memoryManagers.add(memoryManager);
-
-            Core core = new Core(i, scheduler, memoryManager, messageBus, metricsCollector, memoryTracker, numCores);
-            cores.add(core);
-        }
-
-        for (int i = 0; i < 50; i++) {
-            int burst = 200 + (int)(Math.random() * 800);
-            int mem = 50 + (int)(Math.random() * 150);
-            Task task = new Task(i, burst, mem, System.currentTimeMillis());
-            scheduler.addTask(task);
-        }
-
-        try {
-            Thread.sleep(10000);
-        } catch (InterruptedException e) {
-            e.printStackTrace();
+    // Optional feature: automated scheduler comparison chart.
+    // "Global" = all cores pull from one shared scheduler queue.
+    public static Map<String, Double> runglobalSchedulerComparison(ExperimentRunner runner, ReportWriter report) {
+    	System.out.println("\n========== Running Scheduler Comparison (global queue) ==========");
+
+        List<Simulation> simulations = new ArrayList<>();
+        for (SchedulerType type : new SchedulerType[]{SchedulerType.ROUND_ROBIN, SchedulerType.SJF}) {
+            simulations.add(new Simulation(
+                    new SimulationConfig(type, numCores, 50, totalMemoryPerCore, seed)
+                            .setSharedQueue(true)
+                            .setDeadlineMs(completionDeadlineMs)));
         }
+        runner.runSimulations(simulations);
 
-        try {
-        	for (Core c : cores) c.start();
-            Thread.sleep(20000);
-            for (Core c : cores) {
-                c.stopCore();
-                c.join();
-            }
-        } catch (InterruptedException e) {
-            e.printStackTrace();
+        Map<String, Double> results = new LinkedHashMap<>();
+        String[] labels = {"RoundRobin", "SJF"};
+        for (int i = 0; i < simulations.size(); i++) {
+            Simulation sim = simulations.get(i);
+            sim.reportUnfinished();
+            sim.getMetricsCollector().exportUtilizationCSV(outputFile(report, labels[i] + "_metrics.csv"));
+            results.put(sim.getConfig().getSchedulerType().getDisplayName(),
+                    sim.getMetricsCollector().getAverageTurnaround());
         }
-        
-
-        metricsCollector.exportUtilizationCSV(label + "_metrics.csv");
-        return metricsCollector.getAverageTurnaround();
+        return results;
     }
 
     // ----------------------------------------------------------------------
     // Scheduler Comparison Section (adds RR vs SJF comparison + CSVs)
     // ----------------------------------------------------------------------
-    private static void rundecentralizeSchedulerComparison() {
+    private static Map<String, Double> rundecentralizeSchedulerComparison(ExperimentRunner runner,
+                                                                          ReportWriter report) {
+        Map<String, Double> avgTurnaroundMap = new LinkedHashMap<>();
         try {
             System.out.println("\n========== Running Scheduler Comparison ==========");
 
-//            int numCores = 2;
-//            int numTasks = 50;
-            int totalMemoryPerCore = 1000;
-
-            // Generate workload
-            List<Task> workload = new ArrayList<>();
-            Random rand = new Random();
-            for (int i = 0; i < numTasks; i++) {
-                int burst = 200 + rand.nextInt(800);
-                int mem = 50 + rand.nextInt(150);
-                workload.add(new Task(i + 1, burst, mem, System.currentTimeMillis()));
-            }
-
-            Map<String, Double> avgTurnaroundMap = new LinkedHashMap<>();
-
-            // ------------------ ROUND ROBIN ------------------
-            {
-                MessageBus bus = new MessageBus(numCores);
-                MetricsCollector metrics = new MetricsCollector();
-                MemoryTracker tracker = new MemoryTracker();
-
-                List<Core> cores = new ArrayList<>();
-                List<Scheduler> scheds = new ArrayList<>();
-
-                for (int i = 0; i < numCores; i++) {
-                    Scheduler s = new RoundRobinScheduler();
-                    MemoryManager mm = new MemoryManager(totalMemoryPerCore);
-                    scheds.add(s);
-                    cores.add(new Core(i, s, mm, bus, metrics, tracker, numCores));
-                }
-
-                for (int i = 0; i < workload.size(); i++) {
-                    scheds.get(i % numCores).addTask(workload.get(i));
-                }
-
-                for (Core c : cores) c.start();
-                Thread.sleep(20000);
-                for (Core c : cores) {
-                    c.stopCore();
-                    c.join();
-                }
-
-                metrics.exportCSV("RoundRobin_metrics.csv");
-                avgTurnaroundMap.put("Round Robin", metrics.getAverageTurnaround());
-                System.out.println("📁 RoundRobin_metrics.csv saved");
-            }
-
-            // ------------------ SJF ------------------
-            {
-                MessageBus bus = new MessageBus(numCores);
-                MetricsCollector metrics = new MetricsCollector();
-                MemoryTracker tracker = new MemoryTracker();
-
-                List<Core> cores = new ArrayList<>();
-                List<Scheduler> scheds = new ArrayList<>();
-
-                for (int i = 0; i < numCores; i++) {
-                    Scheduler s = new ShortestJobFirstScheduler();
-                    MemoryManager mm = new MemoryManager(totalMemoryPerCore);
-                    scheds.add(s);
-                    cores.add(new Core(i, s, mm, bus, metrics, tracker, numCores));
-                }
-
-                for (int i = 0; i < workload.size(); i++) {
-                    scheds.get(i % numCores).addTask(workload.get(i));
-                }
-
-                for (Core c : cores) c.start();
-                Thread.sleep(20000);
-                for (Core c : cores) {
-                    c.stopCore();
-                    c.join();
-                }
-
-                metrics.exportCSV("SJF_metrics.csv");
-                avgTurnaroundMap.put("SJF", metrics.getAverageTurnaround());
-                System.out.println("📁 SJF_metrics.csv saved");
+            // Same seed -> both schedulers get the identical workload
+            List<Simulation> simulations = new ArrayList<>();
+            for (SchedulerType type : new SchedulerType[]{SchedulerType.ROUND_ROBIN, SchedulerType.SJF}) {
+                simulations.add(new Simulation(
+                        new SimulationConfig(type, numCores, numTasks, totalMemoryPerCore, seed)
+                                .setDeadlineMs(completionDeadlineMs)));
             }
-
-            // ------------------ CHART GENERATION ------------------
-            DefaultCategoryDataset dataset = new DefaultCategoryDataset();
-            for (Map.Entry<String, Double> e : avgTurnaroundMap.entrySet()) {
-                dataset.addValue(e.getValue(), "Avg Turnaround Time", e.getKey());
+            runner.runSimulations(simulations);
+
+            String[] files = {"RoundRobin_metrics.csv", "SJF_metrics.csv"};
+            for (int i = 0; i < simulations.size(); i++) {
+                Simulation sim = simulations.get(i);
+                sim.reportUnfinished();
+                sim.getMetricsCollector().exportCSV(outputFile(report, files[i]));
+                avgTurnaroundMap.put(sim.getConfig().getSchedulerType().getDisplayName(),
+                        sim.getMetricsCollector().getAverageTurnaround());
+                System.out.println("📁 " + files[i] + " saved");
             }
-
-            JFreeChart chart = ChartFactory.createBarChart(
-                    "Scheduler Comparison - Average Turnaround Time",
-                    "Scheduler", "Time (ms)", dataset);
-
-            // Show chart
-            ChartFrame frame = new ChartFrame("Scheduler Comparison", chart);
-            frame.pack();
-            frame.setVisible(true);
-
-            System.out.println("📊 Scheduler Comparison chart displayed.");
-
         } catch (Exception e) {
             e.printStackTrace();
         }
+        return avgTurnaroundMap;
     }
 
     // ----------------------------------------------------------------------
     // Helper methods
     // ----------------------------------------------------------------------
-    private static List<Task> generateTasks(int n) {
-        Random rand = new Random();
-        List<Task> tasks = new ArrayList<>();
-        for (int i = 0; i < n; i++) {
-            int burst = 200 + rand.nextInt(800);
-            int mem = 50 + rand.nextInt(150);
-            tasks.add(new Task(i + 1, burst, mem, System.currentTimeMillis()));
-        }
-        return tasks;
-    }
-
     private static void printSummary(MetricsCollector metricsCollector, MessageBus messageBus) {
         System.out.println("\n========== SUMMARY ==========");
         double avgTurnaround = metricsCollector.getAverageTurnaround();
@@ -319,6 +268,34 @@ public class Main {
         for (Map.Entry<Integer, Integer> e : recvMap.entrySet()) {
             System.out.printf("Core %d: %d messages received%n", e.getKey(), e.getValue());
         }
+
+        if (metricsCollector.getMigrationCount() > 0) {
+            String[] levels = {"local", "same cluster", "same socket", "remote"};
+            long[] placements = metricsCollector.getPlacementsByDistance();
+            long[] penalties = metricsCollector.getMigrationPenaltyMsByDistance();
+            long[] steals = metricsCollector.getStealsByDistance();
+            System.out.println("\n--- Task Placement (affinity model) ---");
+            for (int d = 0; d < levels.length; d++) {
+                System.out.printf("%s: %d runs, %d ms warm-up, %d steals%n",
+                        levels[d], placements[d], penalties[d], steals[d]);
+            }
+        }
+
+        if (metricsCollector.getPolicySwitchCount() > 0) {
+            System.out.println("\n--- Adaptive Scheduler Switches ---");
+            for (String line : metricsCollector.describePolicySwitches()) {
+                System.out.println(line);
+            }
+        }
+
+        System.out.println("\n--- Time Breakdown per Core (ms) ---");
+        for (Map.Entry<Integer, Map<String, Double>> e : metricsCollector.getCorePhaseBreakdownMs().entrySet()) {
+            StringBuilder line = new StringBuilder("Core " + e.getKey() + ":");
+            for (Map.Entry<String, Double> phase : e.getValue().entrySet()) {
+                line.append(String.format(Locale.US, " %s=%.1f", phase.getKey(), phase.getValue()));
+            }
+            System.out.println(line);
+        }
         System.out.println("=================================\n");
     }
 }
@@ -0,0 +1,357 @@
+package multikernel;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Transport between JVMs on one machine through shared memory: every
+ * ordered pair of nodes has a ring buffer in a memory-mapped file
+ * (endpoint/ring-<from>-to-<to>.dat), so a message crosses processes as
+ * plain memory writes and reads, without system calls.
+ *
+ * A ring is a header and slots of SLOT_BYTES:
+ *
+ *   HEAD      long   slots consumed so far (written by the receiving node)
+ *   TAIL      long   slots published so far (written by the sending node)
+ *   ATTACHED  int    1 once the sending node has mapped the ring
+ *
+ * HEAD and TAIL sit on separate cache lines and are accessed with
+ * acquire / release semantics through a VarHandle, which is what makes the
+ * slots written before a TAIL update visible to the other process. A
+ * MessageCodec frame takes as many consecutive slots as it needs
+ * (wrapping around the end); its length prefix is in the first one.
+ *
+ * Each ring has one producer process and one consumer process. Core threads
+ * of the sending node take turns on a ring (the ring object's monitor), so
+ * it is single-producer / single-consumer and needs no atomic
+ * read-modify-write. A full ring makes senders wait for the consumer.
+ *
+ * The receiving node creates its inbound rings in start() (written to a
+ * temporary file and moved into place, so a sender never maps half a file)
+ * and one poller thread drains them: it spins briefly when they are empty,
+ * then parks for POLL_PARK_NANOS at a time. The endpoint directory should
+ * be fresh for every run; stale ring files would be mapped as they are.
+ */
+public class MappedRingTransport implements Transport {
+
+    static final int SLOT_BYTES = 256;
+    static final int DEFAULT_SLOTS = 4096; // 1 MiB of slots per ring
+
+    private static final int HEAD = 0;
+    private static final int TAIL = 64;
+    private static final int ATTACHED = 128;
+    private static final int HEADER_BYTES = 192;
+
+    // empty polls before the poller (or a sender facing a full ring) starts
+    // parking, and how long it parks
+    private static final int SPIN_POLLS = 1000;
+    private static final long POLL_PARK_NANOS = 20_000L;
+    private static final long CONNECT_RETRY_MS = 5;
+
+    private static final VarHandle LONGS =
+            MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.nativeOrder());
+    private static final VarHandle INTS =
+            MethodHandles.byteBufferViewVarHandle(int[].class, ByteOrder.nativeOrder());
+
+    /** One mapped ring plus the position its local side keeps. */
+    private static final class Ring {
+        final MappedByteBuffer buffer;
+        final int slots;
+        long position;   // producer: our TAIL; consumer: our HEAD
+        long peer;       // producer: last HEAD seen
+
+        Ring(MappedByteBuffer buffer, int slots) {
+            this.buffer = buffer;
+            this.slots = slots;
+        }
+
+        int slotOffset(long slot) {
+            return HEADER_BYTES + (int) (slot % slots) * SLOT_BYTES;
+        }
+    }
+
+    private final Path directory;
+    private final int nodes;
+    private final int node;
+    private final int slots;
+    private final int[] owner;
+    private final Ring[] outbound;   // by receiving node
+    private final Ring[] inbound;    // by sending node
+    private final AtomicIntegerArray broken;
+
+    private Receiver receiver;
+    private Thread poller;
+    private volatile boolean running = false;
+
+    private final AtomicLong framesSent = new AtomicLong();
+    private final AtomicLong bytesSent = new AtomicLong();
+    private final AtomicLong sendNanos = new AtomicLong();
+    private final AtomicLong fullWaits = new AtomicLong();
+    private volatile long framesReceived = 0L;  // poller thread only writes
+
+    public MappedRingTransport(String directory, int nodes, int node, int numCores, int slots) {
+        if (node < 0 || node >= nodes) {
+            throw new IllegalArgumentException("No node " + node + " of " + nodes);
+        }
+        if (slots < 2) {
+            throw new IllegalArgumentException("A ring needs at least 2 slots: " + slots);
+        }
+        this.directory = Path.of(directory);
+        this.nodes = nodes;
+        this.node = node;
+        this.slots = slots;
+        this.owner = Transport.owners(nodes, numCores);
+        this.outbound = new Ring[nodes];
+        this.inbound = new Ring[nodes];
+        this.broken = new AtomicIntegerArray(nodes);
+    }
+
+    private Path ringPath(int from, int to) {
+        return directory.resolve("ring-" + from + "-to-" + to + ".dat");
+    }
+
+    private long ringBytes() {
+        return HEADER_BYTES + (long) slots * SLOT_BYTES;
+    }
+
+    private MappedByteBuffer map(Path path) throws IOException {
+        try (RandomAccessFile file = new RandomAccessFile(path.toFile(), "rw")) {
+            // the mapping stays valid after the channel is closed
+            return file.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, ringBytes());
+        }
+    }
+
+    // ----------------------------------------------------------------------
+    // Transport
+    // ----------------------------------------------------------------------
+
+    @Override
+    public boolean isLocal(int coreId) {
+        return owner[coreId] == node;
+    }
+
+    @Override
+    public void start(Receiver receiver) throws IOException {
+        this.receiver = receiver;
+        Files.createDirectories(directory);
+        for (int from = 0; from < nodes; from++) {
+            if (from == node) {
+                continue;
+            }
+            Path path = ringPath(from, node);
+            Path temp = directory.resolve(path.getFileName() + ".tmp");
+            try (RandomAccessFile file = new RandomAccessFile(temp.toFile(), "rw")) {
+                file.setLength(0);
+                file.setLength(ringBytes()); // zero-filled: HEAD = TAIL = 0, not attached
+            }
+            Files.move(temp, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            inbound[from] = new Ring(map(path), slots);
+        }
+        running = true;
+        poller = new Thread(this::pollLoop, "ring-poller-node-" + node);
+        poller.setDaemon(true);
+        poller.start();
+    }
+
+    @Override
+    public void connect(long timeoutMs) throws IOException {
+        long deadline = System.currentTimeMillis() + timeoutMs;
+        for (int to = 0; to < nodes; to++) {
+            if (to == node) {
+                continue;
+            }
+            Path path = ringPath(node, to);
+            while (!Files.exists(path)) {
+                if (System.currentTimeMillis() > deadline) {
+                    throw new IOException("Node " + to + " did not create " + path + " within " + timeoutMs + " ms");
+                }
+                pause();
+            }
+            Ring ring = new Ring(map(path), slots);
+            INTS.setRelease(ring.buffer, ATTACHED, 1);
+            outbound[to] = ring;
+        }
+        // the others have mapped our rings too once they got this far
+        for (int from = 0; from < nodes; from++) {
+            while (from != node && (int) INTS.getAcquire(inbound[from].buffer, ATTACHED) == 0) {
+                if (System.currentTimeMillis() > deadline) {
+                    throw new IOException("Node " + from + " did not attach within " + timeoutMs + " ms");
+                }
+                pause();
+            }
+        }
+    }
+
+    private static void pause() throws IOException {
+        try {
+            TimeUnit.MILLISECONDS.sleep(CONNECT_RETRY_MS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while connecting", e);
+        }
+    }
+
+    @Override
+    public void send(int fromCore, int toCore, MessageBus.Message msg, boolean syncReply) {
+        long start = System.nanoTime();
+        int target = owner[toCore];
+        Ring ring = outbound[target];
+        if (ring == null) {
+            if (broken.compareAndSet(target, 0, 1)) {
+                System.out.println("⚠ No ring from node " + node + " to node " + target);
+            }
+            return;
+        }
+        ByteBuffer frame = MessageCodec.encode(fromCore, toCore, msg, syncReply);
+        int bytes = frame.remaining();
+        int needed = (bytes + SLOT_BYTES - 1) / SLOT_BYTES;
+        if (needed > ring.slots) {
+            throw new IllegalArgumentException("Frame of " + bytes + " bytes does not fit a ring of "
+                    + ring.slots + " slots");
+        }
+        synchronized (ring) {
+            long tail = ring.position;
+            if (tail + needed - ring.peer > ring.slots) {
+                fullWaits.incrementAndGet();
+                int spins = 0;
+                while (tail + needed - (ring.peer = (long) LONGS.getAcquire(ring.buffer, HEAD)) > ring.slots) {
+                    if (!running) {
+                        return; // closing; the receiver is gone or going
+                    }
+                    if (++spins < SPIN_POLLS) {
+                        Thread.onSpinWait();
+                    } else {
+                        LockSupport.parkNanos(POLL_PARK_NANOS);
+                    }
+                }
+            }
+            for (long slot = tail; frame.hasRemaining(); slot++) {
+                int length = Math.min(SLOT_BYTES, frame.remaining());
+                ring.buffer.put(ring.slotOffset(slot), frame, frame.position(), length);
+                frame.position(frame.position() + length);
+            }
+            ring.position = tail + needed;
+            LONGS.setRelease(ring.buffer, TAIL, ring.position);
+        }
+        framesSent.incrementAndGet();
+        bytesSent.addAndGet(bytes);
+        sendNanos.addAndGet(System.nanoTime() - start);
+    }
+
+    @Override
+    public void close() {
+        running = false;
+        if (poller != null) {
+            poller.interrupt();
+            try {
+                poller.join(1000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        for (int from = 0; from < nodes; from++) {
+            if (from != node) {
+                try {
+                    Files.deleteIfExists(ringPath(from, node));
+                } catch (IOException e) {
+                    e.printStackTrace();
+                }
+            }
+        }
+    }
+
+    // ----------------------------------------------------------------------
+    // Inbound rings (poller thread)
+    // ----------------------------------------------------------------------
+
+    private void pollLoop() {
+        int idle = 0;
+        while (running) {
+            boolean any = false;
+            for (Ring ring : inbound) {
+                if (ring != null && drain(ring)) {
+                    any = true;
+                }
+            }
+            if (any) {
+                idle = 0;
+            } else if (++idle < SPIN_POLLS) {
+                Thread.onSpinWait();
+            } else {
+                LockSupport.parkNanos(POLL_PARK_NANOS);
+            }
+        }
+    }
+
+    /** Delivers every frame published on ring; true if there was any. */
+    private boolean drain(Ring ring) {
+        long tail = (long) LONGS.getAcquire(ring.buffer, TAIL);
+        if (ring.position == tail) {
+            return false;
+        }
+        while (ring.position < tail) {
+            int first = ring.slotOffset(ring.position);
+            int length = ring.buffer.getInt(first);
+            int needed = (length + 4 + SLOT_BYTES - 1) / SLOT_BYTES;
+            byte[] body = new byte[length];
+            int copied = 0;
+            for (int k = 0; k < needed; k++) {
+                int offset = ring.slotOffset(ring.position + k) + (k == 0 ? 4 : 0);
+                int chunk = Math.min(length - copied, (k == 0) ? SLOT_BYTES - 4 : SLOT_BYTES);
+                ring.buffer.get(offset, body, copied, chunk);
+                copied += chunk;
+            }
+            ring.position += needed;
+            LONGS.setRelease(ring.buffer, HEAD, ring.position);
+            try {
+                MessageCodec.Frame frame = MessageCodec.decode(body);
+                framesReceived++;
+                receiver.receive(frame.getSender(), frame.getReceiver(), frame.getMessage(), frame.isSyncReply());
+            } catch (IOException e) {
+                e.printStackTrace(); // corrupt frame: skip it, the slots are already released
+            }
+        }
+        return true;
+    }
+
+    // ----------------------------------------------------------------------
+    // Statistics
+    // ----------------------------------------------------------------------
+
+    public int getNode() { return node; }
+    public int getNodes() { return nodes; }
+    @Override
+    public long getFramesSent() { return framesSent.get(); }
+    @Override
+    public long getBytesSent() { return bytesSent.get(); }
+    @Override
+    public long getFramesReceived() { return framesReceived; }
+
+    /** Sends that found their ring full and had to wait for the receiver. */
+    public long getFullWaits() { return fullWaits.get(); }
+
+    @Override
+    public double getMeanSendMicros() {
+        long frames = framesSent.get();
+        return (frames == 0) ? 0.0 : sendNanos.get() / 1000.0 / frames;
+    }
+
+    @Override
+    public String toString() {
+        return "MappedRingTransport{node " + node + " of " + nodes + ", " + slots + " slots of "
+                + SLOT_BYTES + " bytes}";
+    }
+}
@@ -9,26 +9,40 @@ import org.jfree.chart.renderer.LookupPaintScale;
 import org.jfree.chart.renderer.xy.XYBlockRenderer;
 import org.jfree.data.xy.DefaultXYZDataset;
 import org.jfree.data.xy.XYZDataset;
+import org.jfree.ui.RectangleAnchor;
 import org.jfree.ui.RectangleInsets;
 import org.jfree.chart.title.TextTitle;
 
 import java.awt.*;
-import java.util.List;
-import java.util.Map;
 
 /**
  * Generates a heatmap of per-core memory usage over time (Red gradient).
+ *
+ * Takes the tracker's samples binned into a fixed grid (MemoryTracker.binned)
+ * rather than one block per sample, so the dataset is at most
+ * cores x DEFAULT_BINS points however long the run was.
  */
 public class MemoryHeatmapChart {
 
-    public static void showHeatmap(Map<Integer, List<Integer>> memoryLog) {
-        XYZDataset dataset = createDataset(memoryLog);
+    /** Columns of the grid: about one per pixel of a default-size chart. */
+    public static final int DEFAULT_BINS = 800;
+
+    public static void showHeatmap(MemoryTracker.Grid grid) {
+        ChartFrame frame = new ChartFrame("Memory Usage Heatmap", createHeatmap(grid));
+        frame.pack();
+        frame.setVisible(true);
+    }
+
+    public static JFreeChart createHeatmap(MemoryTracker.Grid grid) {
+        XYZDataset dataset = createDataset(grid);
 
         NumberAxis xAxis = new NumberAxis("Time Step");
         NumberAxis yAxis = new NumberAxis("Core ID");
 
         XYBlockRenderer renderer = new XYBlockRenderer();
-        double maxValue = getMaxValue(memoryLog);
+        renderer.setBlockWidth(grid.getStepsPerBin());
+        renderer.setBlockAnchor(RectangleAnchor.LEFT);
+        double maxValue = grid.getMaxValue();
 
         // 🔴 Red-based gradient palette (light pink → dark red)
         LookupPaintScale paintScale = new LookupPaintScale(0, maxValue, new Color(255, 245, 245)); // near white
@@ -50,35 +64,26 @@ public class MemoryHeatmapChart {
                 false
         );
 
-        chart.addSubtitle(new TextTitle("Per-core memory usage over time"));
-
-        ChartFrame frame = new ChartFrame("Memory Usage Heatmap", chart);
-        frame.pack();
-        frame.setVisible(true);
+        chart.addSubtitle(new TextTitle(grid.getStepsPerBin() == 1
+                ? "Per-core memory usage over time"
+                : "Per-core peak memory usage per " + grid.getStepsPerBin() + " time steps"));
+        return chart;
     }
 
-    private static XYZDataset createDataset(Map<Integer, List<Integer>> memoryLog) {
+    private static XYZDataset createDataset(MemoryTracker.Grid grid) {
         DefaultXYZDataset dataset = new DefaultXYZDataset();
 
-        int coreCount = memoryLog.size();
-        int maxSteps = memoryLog.values().stream()
-                .mapToInt(List::size)
-                .max()
-                .orElse(0);
-
-        double[] x = new double[coreCount * maxSteps];
-        double[] y = new double[coreCount * maxSteps];
-        double[] z = new double[coreCount * maxSteps];
+        int cells = grid.getCoreCount() * grid.getBins();
+        double[] x = new double[cells];
+        double[] y = new double[cells];
+        double[] z = new double[cells];
 
         int index = 0;
-        for (Map.Entry<Integer, List<Integer>> entry : memoryLog.entrySet()) {
-            int coreId = entry.getKey();
-            List<Integer> memList = entry.getValue();
-
-            for (int t = 0; t < memList.size(); t++) {
-                x[index] = t;
-                y[index] = coreId;
-                z[index] = memList.get(t);
+        for (int row = 0; row < grid.getCoreCount(); row++) {
+            for (int bin = 0; bin < grid.getBins(); bin++) {
+                x[index] = (double) bin * grid.getStepsPerBin();
+                y[index] = grid.getCoreId(row);
+                z[index] = grid.getPeak(row, bin);
                 index++;
             }
         }
@@ -86,14 +91,4 @@ public class MemoryHeatmapChart {
         dataset.addSeries("Memory Usage", new double[][]{x, y, z});
         return dataset;
     }
-
-    private static double getMaxValue(Map<Integer, List<Integer>> memoryLog) {
-        double max = 1;
-        for (List<Integer> list : memoryLog.values()) {
-            for (Integer v : list) {
-                if (v > max) max = v;
-            }
-        }
-        return max;
-    }
 }
@@ -1,10 +1,11 @@
 package multikernel;
 import java.util.concurrent.locks.ReentrantLock;
 
-public class MemoryManager {
+public class MemoryManager implements MemoryManagerMXBean {
 
     private final int totalMemory;
-    private int usedMemory;
+    // written under the lock; volatile so monitoring reads never contend with cores
+    private volatile int usedMemory;
 
     private final ReentrantLock lock = new ReentrantLock(true);
 
@@ -50,16 +51,23 @@ public class MemoryManager {
         }
     }
 
+    @Override
     public int getUsedMemory() {
-        lock.lock();
-        try {
-            return usedMemory;
-        } finally {
-            lock.unlock();
-        }
+        return usedMemory;
     }
 
+    @Override
     public int getTotalMemory() {
         return totalMemory;
     }
+
+    @Override
+    public int getFreeMemory() {
+        return totalMemory - usedMemory;
+    }
+
+    @Override
+    public double getUtilizationPercent() {
+        return (totalMemory == 0) ? 0.0 : (100.0 * usedMemory / totalMemory);
+    }
 }
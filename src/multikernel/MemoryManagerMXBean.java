@@ -0,0 +1,15 @@
+package multikernel;
+
+/**
+ * Live view of one core's local memory.
+ */
+public interface MemoryManagerMXBean {
+
+    int getTotalMemory();
+
+    int getUsedMemory();
+
+    int getFreeMemory();
+
+    double getUtilizationPercent();
+}
@@ -4,24 +4,114 @@ import java.util.*;
 
 /**
  * Tracks per-core memory usage snapshots.
- * Each core ID has a list of memory values recorded over time.
+ * Each core ID has a sequence of memory values recorded over time, kept in
+ * a growable int array so long runs with millions of samples stay compact.
  */
 public class MemoryTracker {
 
-    private final Map<Integer, List<Integer>> memoryLog = new HashMap<>();
+    private static final int INITIAL_SAMPLES = 256;
+
+    private final Map<Integer, int[]> samples = new TreeMap<>();
+    private final Map<Integer, Integer> counts = new HashMap<>();
+
+    /**
+     * Samples binned into a fixed grid: one row per core, one column per
+     * run of stepsPerBin consecutive samples, holding the peak of that run
+     * (so short spikes stay visible however far the grid is shrunk).
+     */
+    public static class Grid {
+        private final int[] coreIds;
+        private final int[][] peaks;
+        private final int stepsPerBin;
+        private final int maxValue;
+
+        Grid(int[] coreIds, int[][] peaks, int stepsPerBin, int maxValue) {
+            this.coreIds = coreIds;
+            this.peaks = peaks;
+            this.stepsPerBin = stepsPerBin;
+            this.maxValue = maxValue;
+        }
+
+        public int getCoreCount() { return coreIds.length; }
+        public int getCoreId(int row) { return coreIds[row]; }
+        public int getBins() { return (peaks.length == 0) ? 0 : peaks[0].length; }
+        public int getPeak(int row, int bin) { return peaks[row][bin]; }
+        public int getStepsPerBin() { return stepsPerBin; }
+        public int getMaxValue() { return maxValue; }
+    }
 
     /** Record current memory usage for a core. Called from Core.java */
     public synchronized void record(int coreId, int usedMemory) {
-        memoryLog.computeIfAbsent(coreId, k -> new ArrayList<>()).add(usedMemory);
+        int n = counts.getOrDefault(coreId, 0);
+        int[] log = samples.get(coreId);
+        if (log == null) {
+            log = new int[INITIAL_SAMPLES];
+            samples.put(coreId, log);
+        } else if (n == log.length) {
+            log = Arrays.copyOf(log, n * 2);
+            samples.put(coreId, log);
+        }
+        log[n] = usedMemory;
+        counts.put(coreId, n + 1);
     }
 
-    /** Expose the log for heatmap chart */
+    /** Samples recorded for coreId so far. */
+    public synchronized int getSampleCount(int coreId) {
+        return counts.getOrDefault(coreId, 0);
+    }
+
+    /**
+     * Copy of the log as lists, one per core. Boxes every sample; for large
+     * runs use binned() instead.
+     */
     public synchronized Map<Integer, List<Integer>> getMemoryLog() {
-        return memoryLog;
+        Map<Integer, List<Integer>> copy = new TreeMap<>();
+        for (Map.Entry<Integer, int[]> e : samples.entrySet()) {
+            int n = counts.get(e.getKey());
+            List<Integer> list = new ArrayList<>(n);
+            for (int i = 0; i < n; i++) {
+                list.add(e.getValue()[i]);
+            }
+            copy.put(e.getKey(), list);
+        }
+        return copy;
+    }
+
+    /** The log binned into at most maxBins columns (see Grid). */
+    public synchronized Grid binned(int maxBins) {
+        if (maxBins < 1) {
+            throw new IllegalArgumentException("maxBins must be >= 1: " + maxBins);
+        }
+        int steps = 0;
+        for (int n : counts.values()) {
+            steps = Math.max(steps, n);
+        }
+        int stepsPerBin = Math.max(1, (steps + maxBins - 1) / maxBins);
+        int bins = (steps + stepsPerBin - 1) / stepsPerBin;
+
+        int[] coreIds = new int[samples.size()];
+        int[][] peaks = new int[samples.size()][bins];
+        int max = 1;
+        int row = 0;
+        for (Map.Entry<Integer, int[]> e : samples.entrySet()) {
+            coreIds[row] = e.getKey();
+            int[] log = e.getValue();
+            int n = counts.get(e.getKey());
+            for (int t = 0; t < n; t++) {
+                int bin = t / stepsPerBin;
+                if (log[t] > peaks[row][bin]) {
+                    peaks[row][bin] = log[t];
+                }
+                max = Math.max(max, log[t]);
+            }
+            row++;
+        }
+        return new Grid(coreIds, peaks, stepsPerBin, max);
     }
 
     /** Optionally clear for next run */
     public synchronized void reset() {
-        memoryLog.clear();
+        samples.clear();
+        counts.clear();
     }
 }
@@ -1,11 +1,21 @@
 package multikernel;
 
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
 
 /**
  * MessageBus models inter-core communication.
@@ -13,13 +23,37 @@ import java.util.concurrent.LinkedBlockingQueue;
  * Features:
  *  - Asynchronous "fire-and-forget" messaging (sendAsync)
  *  - Synchronous request/reply (sendSyncRequest + sendSyncReply)
- *  - Message frequency accounting (sentCount / recvCount per core)
+ *  - One-to-many: broadcast / multicast, and scatter-gather requests that
+ *    collect all replies (scatterGather) or return the first accepted one
+ *    (requestAny)
+ *  - Message frequency accounting (sentCount / recvCount per core); control
+ *    traffic (sendControl) is delivered but not counted
+ *  - Live inbox backlog / pending sync request counts (MessageBusMXBean)
+ *  - JFR MessageEnqueued / MessageDequeued events (see JfrEvents)
  *
  * Usage pattern for sync:
  *  Core A: call sendSyncRequest(A, B, requestMsg) -> blocks until reply
  *  Core B: inside its run loop, pollMessage(B) and respond with sendSyncReply(...)
+ *
+ * A multicast request goes out under one correlationId; every target answers
+ * with sendSyncReply as for a point-to-point request, and the replies are
+ * collected for the requester until it has what it needs or the timeout
+ * passes. Replies after that go to the requester's inbox, like late replies
+ * to a timed sendSyncRequest.
+ *
+ * With setTreeFanout(k), a multicast to more than k cores is delivered along
+ * a k-ary tree: the sender enqueues k copies, and each receiving core relays
+ * to its share of the remaining targets when it polls the copy (counted as
+ * that core's sends). This spreads the fan-out over the receivers' threads at
+ * the price of waiting for each relaying core to poll its inbox.
+ *
+ * With a Transport attached (attachTransport), only the cores the transport
+ * calls local have their inbox here; messages and replies for the others are
+ * encoded and handed to the transport, and what it receives is delivered as
+ * if a local core had sent it. A core's sent count is kept by the bus of its
+ * process, its received count by the bus that owns its inbox.
  */
-public class MessageBus {
+public class MessageBus implements MessageBusMXBean {
 
     /**
      * Message structure.
@@ -27,6 +61,7 @@ public class MessageBus {
      * task: optional task being requested / migrated
      * fromCore / toCore: endpoints
      * correlationId: used to match sync replies to requests
+     * payload: optional protocol data (e.g. a TerminationDetector.Token)
      */
     public static class Message {
         private final String type;
@@ -34,8 +69,21 @@ public class MessageBus {
         private final int fromCore;
         private final int toCore;
         private final String correlationId;
+        private final Object payload;
+        // multicast tree: the targets this copy's receiver still has to relay to
+        private final int[] relayTo;
 
         public Message(String type, Task task, int fromCore, int toCore, String correlationId) {
+            this(type, task, fromCore, toCore, correlationId, null);
+        }
+
+        public Message(String type, Task task, int fromCore, int toCore, String correlationId, Object payload) {
+            this(type, task, fromCore, toCore, correlationId, payload, null);
+        }
+
+        Message(String type, Task task, int fromCore, int toCore, String correlationId, Object payload,
+                int[] relayTo) {
+            this.relayTo = relayTo;
             this.type = type;
             this.task = task;
             this.fromCore = fromCore;
@@ -43,6 +91,7 @@ public class MessageBus {
             this.correlationId = (correlationId == null)
                     ? UUID.randomUUID().toString()
                     : correlationId;
+            this.payload = payload;
         }
 
         public String getType() {
@@ -65,6 +114,20 @@ public class MessageBus {
             return correlationId;
         }
 
+        public Object getPayload() {
+            return payload;
+        }
+
+        /** Multicast tree targets still to be reached through this copy, or null. */
+        int[] getRelayTo() {
+            return relayTo;
+        }
+
+        /** The same message addressed to toCore, relaying on to relayTo (may be null). */
+        private Message copyTo(int toCore, int[] relayTo) {
+            return new Message(type, task, fromCore, toCore, correlationId, payload, relayTo);
+        }
+
         @Override
         public String toString() {
             return "[Message " + type +
@@ -75,29 +138,97 @@ public class MessageBus {
         }
     }
 
+    /** Inbox marker that only wakes an idle core; carries nothing and is not counted. */
+    public static final String WAKE_UP = "WAKE_UP";
+    private static final Message WAKE_UP_SIGNAL = new Message(WAKE_UP, null, -1, -1, WAKE_UP);
+
+    // protocol traffic kept out of the message statistics (see sendControl)
+    private static final Set<String> CONTROL_TYPES = Set.of(TerminationDetector.TOKEN, TerminationDetector.TERMINATE);
+
     // One incoming queue (inbox) per core.
     private final Map<Integer, BlockingQueue<Message>> inboxes = new HashMap<>();
 
-    // Tracks how many messages each core has sent/received.
-    // We use Integer counters protected by synchronized updaters below.
-    private final Map<Integer, Integer> sentCount = new HashMap<>();
-    private final Map<Integer, Integer> recvCount = new HashMap<>();
+    // Tracks how many messages each core has sent/received, indexed by core id.
+    // Atomic so that JMX / snapshot readers never block senders.
+    private final AtomicIntegerArray sentCount;
+    private final AtomicIntegerArray recvCount;
 
     // For synchronous messaging:
     // Each core can have multiple outstanding sync requests.
     // We map correlationId -> blocking queue that will get the reply.
     private final Map<Integer, Map<String, BlockingQueue<Message>>> pendingReplyMap = new HashMap<>();
 
+    // Multicast requests waiting for replies, per requesting core: correlationId
+    // -> queue collecting the replies. Unlike pendingReplyMap, an entry stays
+    // until the requester is done, so every target's reply finds it.
+    private final Map<Integer, Map<String, BlockingQueue<Message>>> pendingGatherMap = new HashMap<>();
+
+    // One-to-many accounting (the individual copies count in sentCount / recvCount)
+    private final AtomicLong multicasts = new AtomicLong();
+    private final AtomicLong multicastDeliveries = new AtomicLong();
+    private final AtomicLong relayedMessages = new AtomicLong();
+    private final AtomicLong gathers = new AtomicLong();
+    private final AtomicLong gathersAnswered = new AtomicLong();
+    private final AtomicLong firstReplyNanos = new AtomicLong();
+
+    // fan-out of multicast trees, 0 = the sender delivers every copy
+    private volatile int treeFanout = 0;
+
+    // cores in other processes, null = every core is local
+    private volatile Transport transport;
+
     // number of cores total
     private final int numCores;
 
     public MessageBus(int numCores) {
         this.numCores = numCores;
+        this.sentCount = new AtomicIntegerArray(numCores);
+        this.recvCount = new AtomicIntegerArray(numCores);
         for (int coreId = 0; coreId < numCores; coreId++) {
             inboxes.put(coreId, new LinkedBlockingQueue<>());
-            sentCount.put(coreId, 0);
-            recvCount.put(coreId, 0);
             pendingReplyMap.put(coreId, new ConcurrentHashMap<>());
+            pendingGatherMap.put(coreId, new ConcurrentHashMap<>());
+        }
+    }
+
+    /**
+     * Deliver multicasts to more than fanout cores along a fanout-ary tree
+     * (see class comment); 0 turns trees off. Set before the cores start.
+     */
+    public void setTreeFanout(int fanout) {
+        if (fanout < 0 || fanout == 1) {
+            throw new IllegalArgumentException("tree fanout must be 0 (off) or >= 2: " + fanout);
+        }
+        this.treeFanout = fanout;
+    }
+
+    /**
+     * Sends messages for cores in other processes through transport and
+     * starts delivering what it receives. Call before the cores start.
+     */
+    public void attachTransport(Transport transport) throws IOException {
+        this.transport = transport;
+        transport.start(this::receive);
+    }
+
+    private boolean isRemote(int coreId) {
+        Transport t = transport;
+        return t != null && !t.isLocal(coreId);
+    }
+
+    /** A frame from another process: a reply to one of our requests, or inbox mail. */
+    private void receive(int fromCoreId, int toCoreId, Message msg, boolean syncReply) {
+        if (syncReply) {
+            deliverReply(fromCoreId, toCoreId, msg, false);
+            return;
+        }
+        BlockingQueue<Message> q = inboxes.get(toCoreId);
+        if (q != null) {
+            q.offer(msg);
+            if (!CONTROL_TYPES.contains(msg.getType())) {
+                incrementRecv(toCoreId);
+            }
+            emitEnqueued(msg, fromCoreId, toCoreId, q.size(), false);
         }
     }
 
@@ -105,12 +236,12 @@ public class MessageBus {
     // Internal accounting
     // ---------------------
 
-    private synchronized void incrementSend(int coreId) {
-        sentCount.put(coreId, sentCount.get(coreId) + 1);
+    private void incrementSend(int coreId) {
+        sentCount.incrementAndGet(coreId);
     }
 
-    private synchronized void incrementRecv(int coreId) {
-        recvCount.put(coreId, recvCount.get(coreId) + 1);
+    private void incrementRecv(int coreId) {
+        recvCount.incrementAndGet(coreId);
     }
 
     // ---------------------
@@ -121,11 +252,37 @@ public class MessageBus {
      * Fire-and-forget: place msg into receiver's inbox.
      */
     public void sendAsync(int fromCoreId, int toCoreId, Message msg) {
+        if (isRemote(toCoreId)) {
+            incrementSend(fromCoreId);
+            transport.send(fromCoreId, toCoreId, msg, false);
+            return;
+        }
         BlockingQueue<Message> q = inboxes.get(toCoreId);
         if (q != null) {
             q.offer(msg);
             incrementSend(fromCoreId);
             incrementRecv(toCoreId);
+            emitEnqueued(msg, fromCoreId, toCoreId, q.size(), false);
+        }
+    }
+
+    /**
+     * As sendAsync, for protocol messages that are not part of the workload
+     * (termination detection): neither side counts them, so they do not show
+     * up in the per-core message counts and totals.
+     */
+    public void sendControl(int fromCoreId, int toCoreId, Message msg) {
+        if (!CONTROL_TYPES.contains(msg.getType())) {
+            throw new IllegalArgumentException("Not a control message: " + msg.getType());
+        }
+        if (isRemote(toCoreId)) {
+            transport.send(fromCoreId, toCoreId, msg, false);
+            return;
+        }
+        BlockingQueue<Message> q = inboxes.get(toCoreId);
+        if (q != null) {
+            q.offer(msg);
+            emitEnqueued(msg, fromCoreId, toCoreId, q.size(), false);
         }
     }
 
@@ -135,7 +292,52 @@ public class MessageBus {
     public Message pollMessage(int coreId) {
         BlockingQueue<Message> q = inboxes.get(coreId);
         if (q == null) return null;
-        return q.poll();
+        Message msg = q.poll();
+        if (msg != null) {
+            emitDequeued(coreId, msg, q.size());
+            relay(coreId, msg);
+        }
+        return msg;
+    }
+
+    /**
+     * Receive with timeout: waits up to timeoutMs for a message, returning
+     * as soon as one arrives. Used by idle cores instead of a blind sleep so
+     * they react to offloads / tokens immediately.
+     */
+    public Message pollMessage(int coreId, long timeoutMs) throws InterruptedException {
+        BlockingQueue<Message> q = inboxes.get(coreId);
+        if (q == null) return null;
+        Message msg = q.poll(timeoutMs, TimeUnit.MILLISECONDS);
+        if (msg != null) {
+            emitDequeued(coreId, msg, q.size());
+            relay(coreId, msg);
+        }
+        return msg;
+    }
+
+    /**
+     * Wakes a core that may be idle-waiting on its inbox because new work was
+     * put straight into its scheduler (e.g. by a TraceFeeder). At most one
+     * marker is queued, and only into an empty inbox.
+     */
+    public void wakeUp(int coreId) {
+        BlockingQueue<Message> q = inboxes.get(coreId);
+        if (q != null && q.isEmpty()) {
+            q.offer(WAKE_UP_SIGNAL);
+        }
+    }
+
+    private static void emitDequeued(int coreId, Message msg, int depth) {
+        JfrEvents.MessageDequeued event = new JfrEvents.MessageDequeued();
+        if (event.shouldCommit()) {
+            event.coreId = coreId;
+            event.type = msg.getType();
+            event.fromCore = msg.getFromCore();
+            event.taskId = taskIdOf(msg);
+            event.queueDepth = depth;
+            event.commit();
+        }
     }
 
     // ---------------------
@@ -150,33 +352,241 @@ public class MessageBus {
         BlockingQueue<Message> replyQueue = new LinkedBlockingQueue<>();
         pendingReplyMap.get(fromCoreId).put(request.getCorrelationId(), replyQueue);
 
+        deliverRequest(fromCoreId, toCoreId, request);
+
+        Message reply = replyQueue.take();
+        pendingReplyMap.get(fromCoreId).remove(request.getCorrelationId());
+        return reply;
+    }
+
+    /**
+     * Like sendSyncRequest, but gives up after timeoutMs and returns null.
+     * A reply that arrives after that is delivered to the requester's inbox
+     * instead, so the requester must be ready to handle late replies.
+     * Used where two cores may wait on each other (e.g. work stealing).
+     */
+    public Message sendSyncRequest(int fromCoreId, int toCoreId, Message request, long timeoutMs)
+            throws InterruptedException {
+        Map<String, BlockingQueue<Message>> waiting = pendingReplyMap.get(fromCoreId);
+        BlockingQueue<Message> replyQueue = new LinkedBlockingQueue<>();
+        waiting.put(request.getCorrelationId(), replyQueue);
+
+        deliverRequest(fromCoreId, toCoreId, request);
+
+        Message reply = replyQueue.poll(timeoutMs, TimeUnit.MILLISECONDS);
+        if (reply == null && waiting.remove(request.getCorrelationId()) == null) {
+            // the replier claimed our entry just before we gave up; it is on its way
+            reply = replyQueue.take();
+        }
+        return reply;
+    }
+
+    private void deliverRequest(int fromCoreId, int toCoreId, Message request) throws InterruptedException {
+        if (isRemote(toCoreId)) {
+            incrementSend(fromCoreId);
+            transport.send(fromCoreId, toCoreId, request, false);
+            return;
+        }
         BlockingQueue<Message> destInbox = inboxes.get(toCoreId);
         if (destInbox != null) {
             destInbox.put(request);
             incrementSend(fromCoreId);
             incrementRecv(toCoreId);
+            emitEnqueued(request, fromCoreId, toCoreId, destInbox.size(), false);
         }
-
-        Message reply = replyQueue.take();
-        pendingReplyMap.get(fromCoreId).remove(request.getCorrelationId());
-        return reply;
     }
 
     /**
      * Core 'fromCoreId' sends a reply back to 'toCoreId' that UNBLOCKS that core's waiting thread.
      */
     public void sendSyncReply(int fromCoreId, int toCoreId, Message reply) {
+        if (isRemote(toCoreId)) {
+            incrementSend(fromCoreId);
+            transport.send(fromCoreId, toCoreId, reply, true);
+            return;
+        }
+        deliverReply(fromCoreId, toCoreId, reply, true);
+    }
+
+    /** Hands reply to whoever waits for it; countSend is false if the sender's bus counted it already. */
+    private void deliverReply(int fromCoreId, int toCoreId, Message reply, boolean countSend) {
+        Map<String, BlockingQueue<Message>> gathering = pendingGatherMap.get(toCoreId);
+        BlockingQueue<Message> gather = gathering.get(reply.getCorrelationId());
+        if (gather != null) {
+            synchronized (gather) {
+                // the requester may have finished since we looked it up
+                if (gathering.get(reply.getCorrelationId()) == gather) {
+                    gather.offer(reply);
+                    if (countSend) {
+                        incrementSend(fromCoreId);
+                    }
+                    incrementRecv(toCoreId);
+                    emitEnqueued(reply, fromCoreId, toCoreId, gather.size(), true);
+                    return;
+                }
+            }
+        }
         Map<String, BlockingQueue<Message>> waitingMap = pendingReplyMap.get(toCoreId);
-        BlockingQueue<Message> waiter = waitingMap.get(reply.getCorrelationId());
+        // remove (not get) so a timed-out requester and we never both claim the reply
+        BlockingQueue<Message> waiter = waitingMap.remove(reply.getCorrelationId());
         if (waiter != null) {
             waiter.offer(reply);
-            incrementSend(fromCoreId);
+            if (countSend) {
+                incrementSend(fromCoreId);
+            }
             incrementRecv(toCoreId);
-        } else {
+            emitEnqueued(reply, fromCoreId, toCoreId, waiter.size(), true);
+        } else if (countSend) {
             sendAsync(fromCoreId, toCoreId, reply);
+        } else {
+            receive(fromCoreId, toCoreId, reply, false);
+        }
+    }
+
+    // ---------------------
+    // One-to-many messaging
+    // ---------------------
+
+    /** Fire-and-forget msg to every other core. */
+    public void broadcast(int fromCoreId, Message msg) {
+        List<Integer> others = new ArrayList<>(numCores - 1);
+        for (int coreId = 0; coreId < numCores; coreId++) {
+            if (coreId != fromCoreId) {
+                others.add(coreId);
+            }
+        }
+        multicast(fromCoreId, others, msg);
+    }
+
+    /**
+     * Fire-and-forget msg to each of targets, as copies addressed to each
+     * target that share msg's correlationId. Uses a tree if one is configured
+     * and there are more than treeFanout targets.
+     */
+    public void multicast(int fromCoreId, Collection<Integer> targets, Message msg) {
+        int[] to = new int[targets.size()];
+        int n = 0;
+        for (int target : targets) {
+            to[n++] = target;
+        }
+        multicasts.incrementAndGet();
+        multicastDeliveries.addAndGet(n);
+        int fanout = treeFanout;
+        if (fanout == 0 || n <= fanout) {
+            for (int target : to) {
+                sendAsync(fromCoreId, target, msg.copyTo(target, null));
+            }
+        } else {
+            sendToSubtrees(fromCoreId, to, fanout, msg);
+        }
+    }
+
+    /**
+     * Sends request to every target and waits for their replies, at most
+     * timeoutMs in all. Returns the replies received by then, in arrival order.
+     */
+    public List<Message> scatterGather(int fromCoreId, Collection<Integer> targets, Message request,
+                                       long timeoutMs) throws InterruptedException {
+        List<Message> replies = new ArrayList<>();
+        gather(fromCoreId, targets, request, reply -> false, replies, timeoutMs);
+        return replies;
+    }
+
+    /**
+     * Sends request to every target and returns the first reply accept
+     * approves of, or null once every target has answered otherwise or
+     * timeoutMs has passed. Replies that come in after that are delivered to
+     * the requester's inbox.
+     */
+    public Message requestAny(int fromCoreId, Collection<Integer> targets, Message request,
+                              Predicate<Message> accept, long timeoutMs) throws InterruptedException {
+        return gather(fromCoreId, targets, request, accept, null, timeoutMs);
+    }
+
+    private Message gather(int fromCoreId, Collection<Integer> targets, Message request,
+                           Predicate<Message> accept, List<Message> replies, long timeoutMs)
+            throws InterruptedException {
+        if (targets.isEmpty()) {
+            return null;
+        }
+        Map<String, BlockingQueue<Message>> waiting = pendingGatherMap.get(fromCoreId);
+        BlockingQueue<Message> replyQueue = new LinkedBlockingQueue<>();
+        waiting.put(request.getCorrelationId(), replyQueue);
+        gathers.incrementAndGet();
+        long start = System.nanoTime();
+        long deadline = start + TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+        try {
+            multicast(fromCoreId, targets, request);
+            for (int received = 0; received < targets.size(); received++) {
+                long left = deadline - System.nanoTime();
+                Message reply = (left > 0) ? replyQueue.poll(left, TimeUnit.NANOSECONDS) : null;
+                if (reply == null) {
+                    return null;
+                }
+                if (received == 0) {
+                    gathersAnswered.incrementAndGet();
+                    firstReplyNanos.addAndGet(System.nanoTime() - start);
+                }
+                if (replies != null) {
+                    replies.add(reply);
+                }
+                if (accept.test(reply)) {
+                    return reply;
+                }
+            }
+            return null;
+        } finally {
+            synchronized (replyQueue) {
+                waiting.remove(request.getCorrelationId());
+            }
+            // replies that came in after the last one we looked at go to the
+            // inbox like later ones (already counted when they were sent)
+            BlockingQueue<Message> inbox = inboxes.get(fromCoreId);
+            for (Message late; (late = replyQueue.poll()) != null; ) {
+                inbox.offer(late);
+            }
+        }
+    }
+
+    /** Forwards a multicast copy to the targets it still has to reach. */
+    private void relay(int coreId, Message msg) {
+        if (msg.relayTo != null) {
+            relayedMessages.addAndGet(msg.relayTo.length);
+            sendToSubtrees(coreId, msg.relayTo, treeFanout, msg);
         }
     }
 
+    /**
+     * Splits targets into fanout nearly equal runs and sends one copy to the
+     * first core of each run, which relays to the rest of its run.
+     */
+    private void sendToSubtrees(int fromCoreId, int[] targets, int fanout, Message msg) {
+        int runs = Math.min(fanout, targets.length);
+        for (int r = 0; r < runs; r++) {
+            int from = (int) ((long) targets.length * r / runs);
+            int to = (int) ((long) targets.length * (r + 1) / runs);
+            int[] rest = (to - from > 1) ? Arrays.copyOfRange(targets, from + 1, to) : null;
+            sendAsync(fromCoreId, targets[from], msg.copyTo(targets[from], rest));
+        }
+    }
+
+    private static void emitEnqueued(Message msg, int fromCoreId, int toCoreId, int depth, boolean syncReply) {
+        JfrEvents.MessageEnqueued event = new JfrEvents.MessageEnqueued();
+        if (event.shouldCommit()) {
+            event.type = msg.getType();
+            event.fromCore = fromCoreId;
+            event.toCore = toCoreId;
+            event.taskId = taskIdOf(msg);
+            event.queueDepth = depth;
+            event.syncReply = syncReply;
+            event.commit();
+        }
+    }
+
+    private static int taskIdOf(Message msg) {
+        return (msg.getTask() != null) ? msg.getTask().getId() : -1;
+    }
+
     // ---------------------
     // Convenience helpers
     // ---------------------
@@ -184,12 +594,17 @@ public class MessageBus {
     /**
      * Simple offload request: best-effort "I can't run this task, can you?"
      * This is async. The receiving core can accept by enqueueing the task.
+     * The request carries a task, so it is a basic message for termination
+     * detection: pass the sender's detector (null if there is none).
      */
-    public void requestOffload(int fromCoreId, Task t) {
+    public void requestOffload(int fromCoreId, Task t, TerminationDetector detector) {
         // naive: try next core in ring
         int target = (fromCoreId + 1) % numCores;
         Message offloadReq =
                 new Message("OFFLOAD_REQUEST", t, fromCoreId, target, null);
+        if (detector != null) {
+            detector.onBasicSent();
+        }
         sendAsync(fromCoreId, target, offloadReq);
     }
 
@@ -198,13 +613,122 @@ public class MessageBus {
      * Make a defensive copy so callers can chart safely.
      */
     public Map<Integer, Integer> getSentCountSnapshot() {
-        return new HashMap<>(sentCount);
+        return snapshot(sentCount);
     }
 
     /**
      * Accessor so you can visualize "# messages received per core".
      */
     public Map<Integer, Integer> getRecvCountSnapshot() {
-        return new HashMap<>(recvCount);
+        return snapshot(recvCount);
+    }
+
+    private static Map<Integer, Integer> snapshot(AtomicIntegerArray counts) {
+        Map<Integer, Integer> copy = new HashMap<>();
+        for (int coreId = 0; coreId < counts.length(); coreId++) {
+            copy.put(coreId, counts.get(coreId));
+        }
+        return copy;
+    }
+
+    // ---------------------
+    // Live monitoring (MessageBusMXBean)
+    // ---------------------
+
+    /** Messages waiting in one core's inbox. */
+    public int getInboxBacklog(int coreId) {
+        BlockingQueue<Message> q = inboxes.get(coreId);
+        return (q == null) ? 0 : q.size();
+    }
+
+    /** Sync requests sent by one core that are still waiting for a reply. */
+    public int getPendingSyncRequests(int coreId) {
+        Map<String, BlockingQueue<Message>> waiting = pendingReplyMap.get(coreId);
+        return (waiting == null) ? 0 : waiting.size();
+    }
+
+    @Override
+    public int getNumCores() {
+        return numCores;
+    }
+
+    @Override
+    public long getTotalMessagesSent() {
+        long total = 0;
+        for (int coreId = 0; coreId < numCores; coreId++) {
+            total += sentCount.get(coreId);
+        }
+        return total;
+    }
+
+    @Override
+    public long getTotalMessagesReceived() {
+        long total = 0;
+        for (int coreId = 0; coreId < numCores; coreId++) {
+            total += recvCount.get(coreId);
+        }
+        return total;
+    }
+
+    @Override
+    public int getTotalInboxBacklog() {
+        int total = 0;
+        for (int coreId = 0; coreId < numCores; coreId++) {
+            total += getInboxBacklog(coreId);
+        }
+        return total;
+    }
+
+    @Override
+    public int getMaxInboxBacklog() {
+        int max = 0;
+        for (int coreId = 0; coreId < numCores; coreId++) {
+            max = Math.max(max, getInboxBacklog(coreId));
+        }
+        return max;
+    }
+
+    @Override
+    public int getPendingSyncRequests() {
+        int total = 0;
+        for (int coreId = 0; coreId < numCores; coreId++) {
+            total += getPendingSyncRequests(coreId);
+        }
+        return total;
+    }
+
+    @Override
+    public long getMulticasts() {
+        return multicasts.get();
+    }
+
+    @Override
+    public long getMulticastDeliveries() {
+        return multicastDeliveries.get();
+    }
+
+    @Override
+    public long getRelayedMessages() {
+        return relayedMessages.get();
+    }
+
+    @Override
+    public long getGathers() {
+        return gathers.get();
+    }
+
+    @Override
+    public double getMeanFirstReplyMicros() {
+        long answered = gathersAnswered.get();
+        return (answered == 0) ? 0.0 : firstReplyNanos.get() / 1000.0 / answered;
+    }
+
+    @Override
+    public Map<Integer, Integer> getInboxBacklogPerCore() {
+        Map<Integer, Integer> backlog = new HashMap<>();
+        for (int coreId = 0; coreId < numCores; coreId++) {
+            backlog.put(coreId, getInboxBacklog(coreId));
+        }
+        return backlog;
     }
 }
@@ -0,0 +1,41 @@
+package multikernel;
+
+import java.util.Map;
+
+/**
+ * Live view of inter-core messaging.
+ */
+public interface MessageBusMXBean {
+
+    int getNumCores();
+
+    long getTotalMessagesSent();
+
+    long getTotalMessagesReceived();
+
+    /** Sum of all inbox sizes. */
+    int getTotalInboxBacklog();
+
+    /** Largest single inbox, i.e. the current messaging hot spot. */
+    int getMaxInboxBacklog();
+
+    /** Sync requests (over all cores) still waiting for a reply. */
+    int getPendingSyncRequests();
+
+    Map<Integer, Integer> getInboxBacklogPerCore();
+
+    /** broadcast / multicast operations, including those of scatter-gather requests. */
+    long getMulticasts();
+
+    /** Targets reached by those operations (each also counts as one message). */
+    long getMulticastDeliveries();
+
+    /** Copies forwarded by receiving cores along multicast trees. */
+    long getRelayedMessages();
+
+    /** scatterGather / requestAny calls. */
+    long getGathers();
+
+    /** Mean time from sending a scatter-gather request to its first reply. */
+    double getMeanFirstReplyMicros();
+}
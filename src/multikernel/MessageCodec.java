@@ -0,0 +1,244 @@
+package multikernel;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Binary wire format of MessageBus messages for transports that cross
+ * process boundaries (SocketTransport, MappedRingTransport).
+ *
+ * A frame is a 4-byte length followed by:
+ *
+ *   flags      byte    SYNC_REPLY | HAS_TASK | HAS_RELAY
+ *   sender     int     core that put the frame on the wire (relay or origin)
+ *   receiver   int     core whose inbox / pending request it is for
+ *   type       byte    index into TYPES, or TYPE_OTHER followed by the UTF name
+ *   cid        UTF     correlationId
+ *   from, to   int     the Message's own endpoints
+ *   task       (HAS_TASK) see writeTask
+ *   relay      (HAS_RELAY) count, then that many core ids
+ *   payload    tag byte, then the value (see writePayload)
+ *
+ * Only the payload types the protocols use are supported (Integer, Token,
+ * Summary, List<Task>); anything else is rejected with an
+ * IllegalArgumentException rather than silently dropped.
+ */
+public final class MessageCodec {
+
+    // flags
+    private static final int SYNC_REPLY = 1;
+    private static final int HAS_TASK = 2;
+    private static final int HAS_RELAY = 4;
+
+    // message types sent often enough to be worth one byte
+    private static final String[] TYPES = {
+            "RESOURCE_REQUEST", "RESOURCE_GRANTED", "RESOURCE_DENIED",
+            "RESOURCE_REQUEST_BATCH", "RESOURCE_BATCH_REPLY", "OFFLOAD_REQUEST",
+            "STEAL_REQUEST", "STEAL_GRANTED", "STEAL_DENIED",
+            TerminationDetector.TOKEN, TerminationDetector.TERMINATE,
+            DiffusionRebalancer.SUMMARY, DiffusionRebalancer.PUSH,
+            Core.MEMORY_PROBE, Core.MEMORY_AVAILABLE, Core.MEMORY_UNAVAILABLE
+    };
+    private static final int TYPE_OTHER = 0xFF;
+
+    // payload tags
+    private static final int P_NULL = 0;
+    private static final int P_INT = 1;
+    private static final int P_TOKEN = 2;
+    private static final int P_SUMMARY = 3;
+    private static final int P_TASKS = 4;
+
+    /** A decoded frame: the message plus the bus-level endpoints. */
+    public static final class Frame {
+        private final int sender;
+        private final int receiver;
+        private final boolean syncReply;
+        private final MessageBus.Message message;
+
+        Frame(int sender, int receiver, boolean syncReply, MessageBus.Message message) {
+            this.sender = sender;
+            this.receiver = receiver;
+            this.syncReply = syncReply;
+            this.message = message;
+        }
+
+        public int getSender() { return sender; }
+        public int getReceiver() { return receiver; }
+        public boolean isSyncReply() { return syncReply; }
+        public MessageBus.Message getMessage() { return message; }
+    }
+
+    private MessageCodec() {
+    }
+
+    /** Encodes one frame, length prefix included, ready to be written. */
+    public static ByteBuffer encode(int sender, int receiver, MessageBus.Message msg, boolean syncReply) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeInt(0); // length, filled in below
+            int[] relay = msg.getRelayTo();
+            out.writeByte((syncReply ? SYNC_REPLY : 0)
+                    | (msg.getTask() != null ? HAS_TASK : 0)
+                    | (relay != null ? HAS_RELAY : 0));
+            out.writeInt(sender);
+            out.writeInt(receiver);
+            int code = typeCode(msg.getType());
+            out.writeByte(code);
+            if (code == TYPE_OTHER) {
+                out.writeUTF(msg.getType());
+            }
+            out.writeUTF(msg.getCorrelationId());
+            out.writeInt(msg.getFromCore());
+            out.writeInt(msg.getToCore());
+            if (msg.getTask() != null) {
+                writeTask(out, msg.getTask());
+            }
+            if (relay != null) {
+                out.writeInt(relay.length);
+                for (int core : relay) {
+                    out.writeInt(core);
+                }
+            }
+            writePayload(out, msg.getPayload());
+        } catch (IOException e) {
+            throw new IllegalStateException("in-memory encoding failed", e); // cannot happen
+        }
+        ByteBuffer frame = ByteBuffer.wrap(bytes.toByteArray());
+        frame.putInt(0, frame.remaining() - 4);
+        return frame;
+    }
+
+    /** Decodes the body of a frame (after its length prefix). */
+    public static Frame decode(byte[] body) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(body));
+        int flags = in.readUnsignedByte();
+        int sender = in.readInt();
+        int receiver = in.readInt();
+        int code = in.readUnsignedByte();
+        String type;
+        if (code == TYPE_OTHER) {
+            type = in.readUTF();
+        } else if (code < TYPES.length) {
+            type = TYPES[code];
+        } else {
+            throw new IOException("Unknown message type code " + code);
+        }
+        String correlationId = in.readUTF();
+        int fromCore = in.readInt();
+        int toCore = in.readInt();
+        Task task = ((flags & HAS_TASK) != 0) ? readTask(in) : null;
+        int[] relay = null;
+        if ((flags & HAS_RELAY) != 0) {
+            relay = new int[in.readInt()];
+            for (int i = 0; i < relay.length; i++) {
+                relay[i] = in.readInt();
+            }
+        }
+        Object payload = readPayload(in);
+        MessageBus.Message msg = new MessageBus.Message(type, task, fromCore, toCore, correlationId, payload, relay);
+        return new Frame(sender, receiver, (flags & SYNC_REPLY) != 0, msg);
+    }
+
+    private static int typeCode(String type) {
+        for (int i = 0; i < TYPES.length; i++) {
+            if (TYPES[i].equals(type)) {
+                return i;
+            }
+        }
+        return TYPE_OTHER;
+    }
+
+    // ----------------------------------------------------------------------
+    // Tasks and payloads
+    // ----------------------------------------------------------------------
+
+    private static void writeTask(DataOutputStream out, Task task) throws IOException {
+        out.writeInt(task.getId());
+        out.writeInt(task.getBurstTime());
+        out.writeInt(task.getMemoryRequired());
+        out.writeLong(task.getArrivalTime());
+        out.writeInt(task.getPriority());
+        out.writeLong(task.getDeadline());
+        out.writeInt(task.getWorkingSetKb());
+        out.writeInt(task.getHomeCore());
+        out.writeBoolean(task.getRequiredCapability() != null);
+        if (task.getRequiredCapability() != null) {
+            out.writeUTF(task.getRequiredCapability());
+        }
+    }
+
+    private static Task readTask(DataInputStream in) throws IOException {
+        int id = in.readInt();
+        int burst = in.readInt();
+        int memory = in.readInt();
+        long arrival = in.readLong();
+        int priority = in.readInt();
+        long deadline = in.readLong();
+        int workingSet = in.readInt();
+        int home = in.readInt();
+        String capability = in.readBoolean() ? in.readUTF() : null;
+        Task task = new Task(id, burst, memory, arrival, priority, deadline, workingSet, capability);
+        task.setHomeCore(home);
+        return task;
+    }
+
+    private static void writePayload(DataOutputStream out, Object payload) throws IOException {
+        if (payload == null) {
+            out.writeByte(P_NULL);
+        } else if (payload instanceof Integer) {
+            out.writeByte(P_INT);
+            out.writeInt((Integer) payload);
+        } else if (payload instanceof TerminationDetector.Token) {
+            TerminationDetector.Token token = (TerminationDetector.Token) payload;
+            out.writeByte(P_TOKEN);
+            out.writeLong(token.getCount());
+            out.writeBoolean(token.isBlack());
+            out.writeInt(token.getRound());
+        } else if (payload instanceof DiffusionRebalancer.Summary) {
+            DiffusionRebalancer.Summary summary = (DiffusionRebalancer.Summary) payload;
+            out.writeByte(P_SUMMARY);
+            out.writeInt(summary.getQueueLength());
+            out.writeInt(summary.getFreeMemory());
+            out.writeBoolean(summary.isReply());
+        } else if (payload instanceof List) {
+            List<?> tasks = (List<?>) payload;
+            out.writeByte(P_TASKS);
+            out.writeInt(tasks.size());
+            for (Object task : tasks) {
+                writeTask(out, (Task) task);
+            }
+        } else {
+            throw new IllegalArgumentException("No wire encoding for payload " + payload.getClass().getName());
+        }
+    }
+
+    private static Object readPayload(DataInputStream in) throws IOException {
+        int tag = in.readUnsignedByte();
+        switch (tag) {
+            case P_NULL:
+                return null;
+            case P_INT:
+                return in.readInt();
+            case P_TOKEN:
+                return new TerminationDetector.Token(in.readLong(), in.readBoolean(), in.readInt());
+            case P_SUMMARY:
+                return new DiffusionRebalancer.Summary(in.readInt(), in.readInt(), in.readBoolean());
+            case P_TASKS: {
+                int n = in.readInt();
+                List<Task> tasks = new ArrayList<>(n);
+                for (int i = 0; i < n; i++) {
+                    tasks.add(readTask(in));
+                }
+                return tasks;
+            }
+            default:
+                throw new IOException("Unknown payload tag " + tag);
+        }
+    }
+}
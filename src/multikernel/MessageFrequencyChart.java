@@ -13,6 +13,12 @@ import java.util.Map;
 public class MessageFrequencyChart {
 
     public static void showMessageFrequency(Map<Integer, Integer> sentPerCore) {
+        ChartFrame frame = new ChartFrame("Message Frequency", createMessageFrequency(sentPerCore));
+        frame.pack();
+        frame.setVisible(true);
+    }
+
+    public static JFreeChart createMessageFrequency(Map<Integer, Integer> sentPerCore) {
         DefaultCategoryDataset dataset = new DefaultCategoryDataset();
 
         for (Map.Entry<Integer, Integer> e : sentPerCore.entrySet()) {
@@ -28,8 +34,6 @@ public class MessageFrequencyChart {
                 dataset
         );
 
-        ChartFrame frame = new ChartFrame("Message Frequency", chart);
-        frame.pack();
-        frame.setVisible(true);
+        return chart;
     }
 }
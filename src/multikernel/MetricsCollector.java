@@ -4,11 +4,18 @@ import java.io.FileWriter;
 import java.io.IOException;
 import java.io.PrintWriter;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Collects and exports runtime metrics from all cores:
  *   - Task turnaround and waiting times
  *   - CPU utilization per core
+ *   - Per-core time breakdown by Core.run phase (CorePhaseProfile)
+ *   - Migrations, their warm-up penalty and steals by topology distance
+ *
+ * Most getters take the collector's lock and are meant for after the run.
+ * The turnaround / waiting histograms and the migration counters can also
+ * be read while it runs (MetricsEndpoint) without taking it.
  */
 public class MetricsCollector {
 
@@ -19,16 +26,44 @@ public class MetricsCollector {
         long arrivalTime;
         long startTime;
         long endTime;
+        long deadline;
+    }
+
+    /** One AdaptiveScheduler policy switch and the queueing delay around it. */
+    private static class PolicySwitch {
+        int coreId;
+        long timeMs;
+        String from;
+        String to;
+        double avgQueue;
+        double burstCv;
+        double arrivalRate;
+        double serviceRate;
+        double waitBeforeMs;
+        double waitAfterMs = Double.NaN; // filled in when the next window closes
     }
 
     /** Represents one core's utilization record. */
     private static class CoreUtilization {
         long busyMs;
         long totalMs;
+        double speed = 1.0; // CoreProfile speed factor
     }
 
     private final List<TaskRecord> taskRecords = new ArrayList<>();
     private final Map<Integer, CoreUtilization> coreUtilization = new HashMap<>();
+    private final Map<Integer, long[]> corePhaseNanos = new TreeMap<>();
+    private final long[] placementsByDistance = new long[Topology.LEVELS];
+    private final long[] migrationPenaltyMsByDistance = new long[Topology.LEVELS];
+    private final long[] stealsByDistance = new long[Topology.LEVELS];
+    private final List<PolicySwitch> policySwitches = new ArrayList<>();
+    // written under the lock; volatile so monitoring reads never contend with cores
+    private volatile long migrationRequests = 0L;      // RESOURCE_REQUEST(_BATCH) round trips
+    private volatile long migrationTasksOffered = 0L;
+    private volatile long migrationTasksGranted = 0L;
+    // live per-core views of the task records (seconds of wall time)
+    private final Map<Integer, LatencyHistogram> turnaroundByCore = new ConcurrentHashMap<>();
+    private final Map<Integer, LatencyHistogram> waitingByCore = new ConcurrentHashMap<>();
 
     // ----------------------------------------------------------------------
     // Task-level metrics
@@ -43,7 +78,37 @@ public class MetricsCollector {
         record.arrivalTime = task.getArrivalTime();
         record.startTime = startWall;
         record.endTime = endWall;
+        record.deadline = task.getDeadline();
         taskRecords.add(record);
+        turnaroundByCore.computeIfAbsent(coreId, k -> new LatencyHistogram())
+                .observe((endWall - record.arrivalTime) / 1000.0);
+        waitingByCore.computeIfAbsent(coreId, k -> new LatencyHistogram())
+                .observe((startWall - record.arrivalTime) / 1000.0);
+    }
+
+    /** Live turnaround histogram (s) per core that has completed a task; no lock taken. */
+    public Map<Integer, LatencyHistogram> getTurnaroundHistograms() {
+        return Collections.unmodifiableMap(turnaroundByCore);
+    }
+
+    /** Live waiting-time histogram (s) per core that has completed a task; no lock taken. */
+    public Map<Integer, LatencyHistogram> getWaitingHistograms() {
+        return Collections.unmodifiableMap(waitingByCore);
+    }
+
+    public synchronized int getCompletedTaskCount() {
+        return taskRecords.size();
+    }
+
+    /** Completed tasks that had a deadline and finished after it. */
+    public synchronized int getDeadlineMissCount() {
+        int misses = 0;
+        for (TaskRecord r : taskRecords) {
+            if (r.deadline != Task.NO_DEADLINE && r.endTime > r.deadline) {
+                misses++;
+            }
+        }
+        return misses;
     }
 
     /** Computes average turnaround time (end - arrival). */
@@ -66,6 +131,24 @@ public class MetricsCollector {
         return total / taskRecords.size();
     }
 
+    /**
+     * Returns ids of workload tasks that never completed (e.g. cut off by a
+     * deadline). These are not part of the averages above.
+     */
+    public synchronized List<Integer> findUnfinishedTasks(Collection<Task> workload) {
+        Set<Integer> completed = new HashSet<>();
+        for (TaskRecord r : taskRecords) {
+            completed.add(r.taskId);
+        }
+        List<Integer> unfinished = new ArrayList<>();
+        for (Task t : workload) {
+            if (!completed.contains(t.getId())) {
+                unfinished.add(t.getId());
+            }
+        }
+        return unfinished;
+    }
+
     /** Exports per-task metrics to CSV. */
     public synchronized void exportCSV(String filename) {
         try (PrintWriter pw = new PrintWriter(new FileWriter(filename))) {
@@ -91,12 +174,34 @@ public class MetricsCollector {
 
     /** Called by each core when it stops. */
     public synchronized void recordCoreUtilization(int coreId, long busyMs, long totalMs) {
+        recordCoreUtilization(coreId, busyMs, totalMs, 1.0);
+    }
+
+    /** As above, for a core running at speed times the reference core. */
+    public synchronized void recordCoreUtilization(int coreId, long busyMs, long totalMs, double speed) {
         CoreUtilization util = coreUtilization.getOrDefault(coreId, new CoreUtilization());
         util.busyMs += busyMs;
         util.totalMs += totalMs;
+        util.speed = speed;
         coreUtilization.put(coreId, util);
     }
 
+    /**
+     * Share of the system's total compute capacity that was busy: each
+     * core's busy and up time weighted by its speed, so an idle big core
+     * counts for more than an idle little one. Equals the plain average
+     * when all cores are identical (and have equal uptimes).
+     */
+    public synchronized double getCapacityWeightedUtilizationPercent() {
+        double busy = 0.0;
+        double total = 0.0;
+        for (CoreUtilization u : coreUtilization.values()) {
+            busy += u.busyMs * u.speed;
+            total += u.totalMs * u.speed;
+        }
+        return (total == 0) ? 0.0 : 100.0 * busy / total;
+    }
+
     /** Returns utilization percentage per core. */
     public synchronized Map<Integer, Double> getCoreUtilizationPercent() {
         Map<Integer, Double> result = new HashMap<>();
@@ -112,19 +217,42 @@ public class MetricsCollector {
     /** Exports utilization stats to CSV. */
     public synchronized void exportUtilizationCSV(String filename) {
         try (PrintWriter pw = new PrintWriter(new FileWriter(filename))) {
-            pw.println("coreId,busyMs,totalMs,utilizationPercent");
+            pw.println("coreId,busyMs,totalMs,utilizationPercent,speed");
             for (Map.Entry<Integer, CoreUtilization> entry : coreUtilization.entrySet()) {
                 int coreId = entry.getKey();
                 CoreUtilization u = entry.getValue();
                 double pct = (u.totalMs == 0) ? 0.0 : (100.0 * u.busyMs / u.totalMs);
-                pw.printf(Locale.US, "%d,%d,%d,%.2f%n",
-                        coreId, u.busyMs, u.totalMs, pct);
+                pw.printf(Locale.US, "%d,%d,%d,%.2f,%.2f%n",
+                        coreId, u.busyMs, u.totalMs, pct, u.speed);
             }
             System.out.println("✔ Utilization metrics exported to " + filename);
         } catch (IOException e) {
             e.printStackTrace();
         }
     }
+    /** Turnaround times (ms) of all completed tasks, sorted ascending (for percentiles). */
+    public synchronized double[] getSortedTurnarounds() {
+        double[] values = new double[taskRecords.size()];
+        for (int i = 0; i < values.length; i++) {
+            TaskRecord r = taskRecords.get(i);
+            values[i] = r.endTime - r.arrivalTime;
+        }
+        Arrays.sort(values);
+        return values;
+    }
+
+    /** Wall time from the first arrival to the last completion (ms), 0 if nothing completed. */
+    public synchronized long getCompletionSpanMs() {
+        if (taskRecords.isEmpty()) return 0L;
+        long firstArrival = Long.MAX_VALUE;
+        long lastEnd = Long.MIN_VALUE;
+        for (TaskRecord r : taskRecords) {
+            firstArrival = Math.min(firstArrival, r.arrivalTime);
+            lastEnd = Math.max(lastEnd, r.endTime);
+        }
+        return lastEnd - firstArrival;
+    }
+
     /** Returns a map of TaskID -> Turnaround time (ms) for chart visualization */
     public synchronized Map<Integer, Long> getTaskTurnarounds() {
         Map<Integer, Long> map = new LinkedHashMap<>();
@@ -135,4 +263,165 @@ public class MetricsCollector {
         return map;
     }
 
+    // ----------------------------------------------------------------------
+    // Core phase breakdown
+    // ----------------------------------------------------------------------
+
+    /** Called by each core when it stops, with nanos indexed by CorePhaseProfile.Phase.ordinal(). */
+    public synchronized void recordCorePhaseBreakdown(int coreId, long[] phaseNanos) {
+        long[] total = corePhaseNanos.computeIfAbsent(coreId, k -> new long[phaseNanos.length]);
+        for (int i = 0; i < phaseNanos.length; i++) {
+            total[i] += phaseNanos[i];
+        }
+    }
+
+    /** Returns coreId -> (phase name -> milliseconds), phases in declaration order. */
+    public synchronized Map<Integer, Map<String, Double>> getCorePhaseBreakdownMs() {
+        Map<Integer, Map<String, Double>> result = new TreeMap<>();
+        CorePhaseProfile.Phase[] phases = CorePhaseProfile.Phase.values();
+        for (Map.Entry<Integer, long[]> entry : corePhaseNanos.entrySet()) {
+            Map<String, Double> perPhase = new LinkedHashMap<>();
+            for (CorePhaseProfile.Phase p : phases) {
+                perPhase.put(p.name(), entry.getValue()[p.ordinal()] / 1_000_000.0);
+            }
+            result.put(entry.getKey(), perPhase);
+        }
+        return result;
+    }
+
+    /** Exports the per-core phase breakdown to CSV (one column per phase, ms). */
+    public synchronized void exportPhaseBreakdownCSV(String filename) {
+        CorePhaseProfile.Phase[] phases = CorePhaseProfile.Phase.values();
+        try (PrintWriter pw = new PrintWriter(new FileWriter(filename))) {
+            StringBuilder header = new StringBuilder("coreId");
+            for (CorePhaseProfile.Phase p : phases) {
+                header.append(',').append(p.name().toLowerCase(Locale.ROOT)).append("Ms");
+            }
+            pw.println(header);
+            for (Map.Entry<Integer, long[]> entry : corePhaseNanos.entrySet()) {
+                StringBuilder row = new StringBuilder().append(entry.getKey());
+                for (CorePhaseProfile.Phase p : phases) {
+                    row.append(',').append(String.format(Locale.US, "%.3f",
+                            entry.getValue()[p.ordinal()] / 1_000_000.0));
+                }
+                pw.println(row);
+            }
+            System.out.println("✔ Phase breakdown exported to " + filename);
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    // ----------------------------------------------------------------------
+    // Affinity / migration (indexed by Topology distance)
+    // ----------------------------------------------------------------------
+
+    /** Called per executed task when the affinity model is on; distance 0 = ran at home. */
+    public synchronized void recordPlacement(int distance, int penaltyMs) {
+        placementsByDistance[distance]++;
+        migrationPenaltyMsByDistance[distance] += penaltyMs;
+    }
+
+    /** Called when an idle core stole a task from a core at this distance. */
+    public synchronized void recordSteal(int distance) {
+        stealsByDistance[distance]++;
+    }
+
+    public synchronized long[] getPlacementsByDistance() { return placementsByDistance.clone(); }
+    public synchronized long[] getMigrationPenaltyMsByDistance() { return migrationPenaltyMsByDistance.clone(); }
+    public synchronized long[] getStealsByDistance() { return stealsByDistance.clone(); }
+
+    /** Tasks executed away from their home core. */
+    public synchronized long getMigrationCount() {
+        long total = 0;
+        for (int d = Topology.SAME_CLUSTER; d < Topology.LEVELS; d++) {
+            total += placementsByDistance[d];
+        }
+        return total;
+    }
+
+    /** One memory-pressure migration round trip offering tasks, of which granted were taken. */
+    public synchronized void recordMigrationRequest(int offered, int granted) {
+        migrationRequests++;
+        migrationTasksOffered += offered;
+        migrationTasksGranted += granted;
+    }
+
+    public long getMigrationRequests() { return migrationRequests; }
+    public long getMigrationTasksOffered() { return migrationTasksOffered; }
+    public long getMigrationTasksGranted() { return migrationTasksGranted; }
+
+    /** Request/reply round trips per task that actually moved (0 if none moved). */
+    public synchronized double getRoundTripsPerMigratedTask() {
+        return (migrationTasksGranted == 0) ? 0.0 : (double) migrationRequests / migrationTasksGranted;
+    }
+
+    public synchronized long getMigrationPenaltyMs() {
+        long total = 0;
+        for (long ms : migrationPenaltyMsByDistance) {
+            total += ms;
+        }
+        return total;
+    }
+
+    // ----------------------------------------------------------------------
+    // Adaptive scheduling
+    // ----------------------------------------------------------------------
+
+    /**
+     * Called by an AdaptiveScheduler when it switches policy, with the window
+     * statistics that triggered it. Returns an id for recordPolicySwitchEffect.
+     */
+    public synchronized int recordPolicySwitch(int coreId, String from, String to, double avgQueue,
+                                               double burstCv, double arrivalRate, double serviceRate,
+                                               double waitBeforeMs) {
+        PolicySwitch sw = new PolicySwitch();
+        sw.coreId = coreId;
+        sw.timeMs = System.currentTimeMillis();
+        sw.from = from;
+        sw.to = to;
+        sw.avgQueue = avgQueue;
+        sw.burstCv = burstCv;
+        sw.arrivalRate = arrivalRate;
+        sw.serviceRate = serviceRate;
+        sw.waitBeforeMs = waitBeforeMs;
+        policySwitches.add(sw);
+        return policySwitches.size() - 1;
+    }
+
+    /** Mean queueing delay of the window after the switch (its effect). */
+    public synchronized void recordPolicySwitchEffect(int switchId, double waitAfterMs) {
+        policySwitches.get(switchId).waitAfterMs = waitAfterMs;
+    }
+
+    public synchronized int getPolicySwitchCount() {
+        return policySwitches.size();
+    }
+
+    /** One line per switch, for summaries: "core 2: FIFO -> SJF, wait 310 -> 120 ms". */
+    public synchronized List<String> describePolicySwitches() {
+        List<String> lines = new ArrayList<>();
+        for (PolicySwitch sw : policySwitches) {
+            lines.add(String.format(Locale.US, "%s: %s -> %s (queue %.1f, burst cv %.2f), wait %.0f -> %s ms",
+                    sw.coreId < 0 ? "global" : "core " + sw.coreId, sw.from, sw.to, sw.avgQueue, sw.burstCv,
+                    sw.waitBeforeMs, Double.isNaN(sw.waitAfterMs) ? "?" : String.format(Locale.US, "%.0f", sw.waitAfterMs)));
+        }
+        return lines;
+    }
+
+    public synchronized void exportPolicySwitchCSV(String filename) {
+        try (PrintWriter pw = new PrintWriter(new FileWriter(filename))) {
+            pw.println("coreId,timeMs,from,to,avgQueue,burstCv,arrivalRatePerSec,serviceRatePerSec,"
+                    + "waitBeforeMs,waitAfterMs");
+            for (PolicySwitch sw : policySwitches) {
+                pw.printf(Locale.US, "%d,%d,%s,%s,%.2f,%.3f,%.2f,%.2f,%.1f,%s%n",
+                        sw.coreId, sw.timeMs, sw.from, sw.to, sw.avgQueue, sw.burstCv,
+                        sw.arrivalRate, sw.serviceRate, sw.waitBeforeMs,
+                        Double.isNaN(sw.waitAfterMs) ? "" : String.format(Locale.US, "%.1f", sw.waitAfterMs));
+            }
+            System.out.println("✔ Policy switches exported to " + filename);
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
 }
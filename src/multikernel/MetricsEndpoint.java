@@ -0,0 +1,281 @@
+package multikernel;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Serves the live counters of running simulations at /metrics in the
+ * OpenMetrics text format, so Prometheus (or curl) can scrape a run while
+ * it goes on. Built on the JDK's com.sun.net.httpserver; no dependencies.
+ *
+ * One endpoint per port, shared by every simulation of the JVM that asks for
+ * it (shared(port)): a sweep of back-to-back or parallel runs shows up as one
+ * target whose samples carry a run label, as JmxRegistrar names its beans.
+ * Per-core samples also carry core="i". Exported, per run:
+ *
+ *   multikernel_tasks_completed_total{core}      counter
+ *   multikernel_core_busy_seconds_total{core}    counter
+ *   multikernel_core_phase_seconds_total{core,phase} counter
+ *   multikernel_scheduler_queue_depth{core}      gauge
+ *   multikernel_memory_used{core}, _capacity     gauge (memory units)
+ *   multikernel_messages_sent_total{core}, multikernel_messages_received_total{core}
+ *   multikernel_inbox_backlog{core}, multikernel_pending_sync_requests{core}
+ *   multikernel_multicasts_total, multikernel_migration_requests_total
+ *   multikernel_task_turnaround_seconds{core}    histogram (wall time)
+ *   multikernel_task_waiting_seconds{core}       histogram (wall time)
+ *
+ * A scrape only reads volatile fields and atomics (the MXBean getters,
+ * Scheduler.size(), LatencyHistogram) and never takes a lock a core takes,
+ * so it cannot stall one; the price is that values of one scrape are not
+ * from a single instant. Requests are served on one daemon thread.
+ */
+public final class MetricsEndpoint {
+
+    public static final String CONTENT_TYPE = "application/openmetrics-text; version=1.0.0; charset=utf-8";
+
+    private static final Map<Integer, MetricsEndpoint> SHARED = new HashMap<>();
+
+    private final HttpServer server;
+    private final List<Run> runs = new CopyOnWriteArrayList<>();
+
+    private static final class Run {
+        final String label;
+        final Simulation simulation;
+
+        Run(String label, Simulation simulation) {
+            this.label = label;
+            this.simulation = simulation;
+        }
+    }
+
+    /** Starts serving on port (0 = any free port, see getPort()). */
+    public MetricsEndpoint(int port) throws IOException {
+        server = HttpServer.create(new InetSocketAddress(port), 0);
+        server.createContext("/metrics", this::handle);
+        server.setExecutor(Executors.newSingleThreadExecutor(r -> {
+            Thread t = new Thread(r, "metrics-endpoint-" + port);
+            t.setDaemon(true);
+            return t;
+        }));
+        server.start();
+    }
+
+    /** The endpoint on port, started on first use and kept for the life of the JVM. */
+    public static synchronized MetricsEndpoint shared(int port) throws IOException {
+        MetricsEndpoint endpoint = SHARED.get(port);
+        if (endpoint == null) {
+            endpoint = new MetricsEndpoint(port);
+            SHARED.put(port, endpoint);
+            System.out.println("✔ Metrics at http://localhost:" + endpoint.getPort() + "/metrics");
+        }
+        return endpoint;
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    /** Exports simulation's counters under run=label until unregister(). */
+    public void register(String label, Simulation simulation) {
+        runs.add(new Run(label, simulation));
+    }
+
+    public void unregister(Simulation simulation) {
+        runs.removeIf(r -> r.simulation == simulation);
+    }
+
+    public void stop() {
+        synchronized (MetricsEndpoint.class) {
+            SHARED.values().remove(this);
+        }
+        server.stop(0);
+        ((ExecutorService) server.getExecutor()).shutdown();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            if (!"GET".equals(exchange.getRequestMethod())) {
+                exchange.sendResponseHeaders(405, -1);
+                return;
+            }
+            byte[] body = scrape().getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", CONTENT_TYPE);
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        }
+    }
+
+    // ----------------------------------------------------------------------
+    // Exposition
+    // ----------------------------------------------------------------------
+
+    /** The current exposition of every registered run, ending in # EOF. */
+    public String scrape() {
+        List<Run> snapshot = new ArrayList<>(runs);
+        StringBuilder out = new StringBuilder(4096);
+
+        family(out, "multikernel_tasks_completed", "counter", "Tasks completed by the core.");
+        for (Run run : snapshot) {
+            for (Core c : run.simulation.getCores()) {
+                sample(out, "multikernel_tasks_completed_total", run, c.getCoreId(), c.getTasksCompleted());
+            }
+        }
+        family(out, "multikernel_core_busy_seconds", "counter", "Wall time the core spent running tasks.");
+        for (Run run : snapshot) {
+            for (Core c : run.simulation.getCores()) {
+                sample(out, "multikernel_core_busy_seconds_total", run, c.getCoreId(), c.getBusyTimeMs() / 1000.0);
+            }
+        }
+        family(out, "multikernel_core_phase_seconds", "counter", "Wall time per phase of the core loop.");
+        for (Run run : snapshot) {
+            for (Core c : run.simulation.getCores()) {
+                for (Map.Entry<String, Long> e : c.getPhaseBreakdownMs().entrySet()) {
+                    out.append("multikernel_core_phase_seconds_total")
+                            .append(labels(run, c.getCoreId(), "phase", e.getKey().toLowerCase(Locale.ROOT)))
+                            .append(' ').append(number(e.getValue() / 1000.0)).append('\n');
+                }
+            }
+        }
+        family(out, "multikernel_scheduler_queue_depth", "gauge", "Tasks waiting in the scheduler.");
+        for (Run run : snapshot) {
+            List<Scheduler> schedulers = run.simulation.getSchedulers();
+            for (int i = 0; i < schedulers.size(); i++) {
+                sample(out, "multikernel_scheduler_queue_depth", run, i, schedulers.get(i).size());
+            }
+        }
+        family(out, "multikernel_memory_used", "gauge", "Memory units allocated to running tasks.");
+        for (Run run : snapshot) {
+            List<MemoryManager> memory = run.simulation.getMemoryManagers();
+            for (int i = 0; i < memory.size(); i++) {
+                sample(out, "multikernel_memory_used", run, i, memory.get(i).getUsedMemory());
+            }
+        }
+        family(out, "multikernel_memory_capacity", "gauge", "Memory units of the core.");
+        for (Run run : snapshot) {
+            List<MemoryManager> memory = run.simulation.getMemoryManagers();
+            for (int i = 0; i < memory.size(); i++) {
+                sample(out, "multikernel_memory_capacity", run, i, memory.get(i).getTotalMemory());
+            }
+        }
+        family(out, "multikernel_messages_sent", "counter", "Messages sent by the core.");
+        for (Run run : snapshot) {
+            // a HashMap snapshot; sorted to keep the exposition in core order
+            for (Map.Entry<Integer, Integer> e : new TreeMap<>(run.simulation.getMessageBus().getSentCountSnapshot()).entrySet()) {
+                sample(out, "multikernel_messages_sent_total", run, e.getKey(), e.getValue());
+            }
+        }
+        family(out, "multikernel_messages_received", "counter", "Messages received by the core.");
+        for (Run run : snapshot) {
+            // a HashMap snapshot; sorted to keep the exposition in core order
+            for (Map.Entry<Integer, Integer> e : new TreeMap<>(run.simulation.getMessageBus().getRecvCountSnapshot()).entrySet()) {
+                sample(out, "multikernel_messages_received_total", run, e.getKey(), e.getValue());
+            }
+        }
+        family(out, "multikernel_inbox_backlog", "gauge", "Messages in the core's inbox, not yet polled.");
+        for (Run run : snapshot) {
+            MessageBus bus = run.simulation.getMessageBus();
+            for (int i = 0; i < bus.getNumCores(); i++) {
+                sample(out, "multikernel_inbox_backlog", run, i, bus.getInboxBacklog(i));
+            }
+        }
+        family(out, "multikernel_pending_sync_requests", "gauge", "Sync requests still waiting for a reply.");
+        for (Run run : snapshot) {
+            MessageBus bus = run.simulation.getMessageBus();
+            for (int i = 0; i < bus.getNumCores(); i++) {
+                sample(out, "multikernel_pending_sync_requests", run, i, bus.getPendingSyncRequests(i));
+            }
+        }
+        family(out, "multikernel_multicasts", "counter", "Broadcast and multicast operations.");
+        for (Run run : snapshot) {
+            sample(out, "multikernel_multicasts_total", run, -1, run.simulation.getMessageBus().getMulticasts());
+        }
+        family(out, "multikernel_migration_requests", "counter", "Memory-pressure migration round trips.");
+        for (Run run : snapshot) {
+            sample(out, "multikernel_migration_requests_total", run, -1,
+                    run.simulation.getMetricsCollector().getMigrationRequests());
+        }
+        family(out, "multikernel_task_turnaround_seconds", "histogram", "Arrival to completion, wall time.");
+        for (Run run : snapshot) {
+            for (Map.Entry<Integer, LatencyHistogram> e
+                    : run.simulation.getMetricsCollector().getTurnaroundHistograms().entrySet()) {
+                histogram(out, "multikernel_task_turnaround_seconds", run, e.getKey(), e.getValue());
+            }
+        }
+        family(out, "multikernel_task_waiting_seconds", "histogram", "Arrival to start, wall time.");
+        for (Run run : snapshot) {
+            for (Map.Entry<Integer, LatencyHistogram> e
+                    : run.simulation.getMetricsCollector().getWaitingHistograms().entrySet()) {
+                histogram(out, "multikernel_task_waiting_seconds", run, e.getKey(), e.getValue());
+            }
+        }
+        out.append("# EOF\n");
+        return out.toString();
+    }
+
+    private static void family(StringBuilder out, String name, String type, String help) {
+        out.append("# TYPE ").append(name).append(' ').append(type).append('\n');
+        out.append("# HELP ").append(name).append(' ').append(help).append('\n');
+    }
+
+    private static void sample(StringBuilder out, String name, Run run, int coreId, double value) {
+        out.append(name).append(labels(run, coreId)).append(' ').append(number(value)).append('\n');
+    }
+
+    private static void histogram(StringBuilder out, String name, Run run, int coreId, LatencyHistogram h) {
+        double[] bounds = h.getBounds();
+        long[] cumulative = h.getCumulativeCounts();
+        String base = labels(run, coreId);
+        for (int i = 0; i < cumulative.length; i++) {
+            out.append(name).append("_bucket")
+                    .append(labels(run, coreId, "le", i < bounds.length ? number(bounds[i]) : "+Inf"))
+                    .append(' ').append(cumulative[i]).append('\n');
+        }
+        // count from the same read as the buckets, so _count always equals the +Inf bucket
+        out.append(name).append("_count").append(base).append(' ').append(cumulative[cumulative.length - 1]).append('\n');
+        out.append(name).append("_sum").append(base).append(' ').append(number(h.getSum())).append('\n');
+    }
+
+    /** {run="label"} or {run="label",core="i"}; coreId < 0 = not per core. */
+    private static String labels(Run run, int coreId) {
+        return labels(run, coreId, null, null);
+    }
+
+    /** As above plus one more label (key null = none). */
+    private static String labels(Run run, int coreId, String key, String value) {
+        StringBuilder sb = new StringBuilder("{run=\"").append(escape(run.label)).append('"');
+        if (coreId >= 0) {
+            sb.append(",core=\"").append(coreId).append('"');
+        }
+        if (key != null) {
+            sb.append(',').append(key).append("=\"").append(escape(value)).append('"');
+        }
+        return sb.append('}').toString();
+    }
+
+    private static String escape(String value) {
+        return value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+
+    private static String number(double value) {
+        if (value == Math.rint(value) && Math.abs(value) < 1e15) {
+            return Long.toString((long) value);
+        }
+        return Double.toString(value);
+    }
+}
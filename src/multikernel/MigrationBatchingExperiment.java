@@ -0,0 +1,99 @@
+package multikernel;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * One RESOURCE_REQUEST per memory-pressure migration against batched
+ * requests: odd cores get only smallMemory, so the tasks that do not fit
+ * there have to migrate to the big (even) cores, and the same workload runs
+ * once per batch size (1 = the single-task protocol).
+ *
+ * Reports per run the migration requests sent, tasks offered and granted,
+ * request/reply round trips per migrated task, total messages and makespan.
+ *
+ *   java multikernel.MigrationBatchingExperiment batches=1,4,8 window=20 cores=8 tasks=400 \
+ *        memory=1000 smallMemory=120 timeScale=0.01 out=migration_batching.csv
+ */
+public class MigrationBatchingExperiment {
+
+    /** One run. */
+    public static class Outcome {
+        int batch;
+        long requests;
+        long offered;
+        long granted;
+        double roundTripsPerTask;
+        long messages;
+        double makespanMs;
+        long completed;
+    }
+
+    public static void main(String[] args) {
+        ExperimentOptions options = new ExperimentOptions(args);
+        SchedulerType scheduler = options.getScheduler("scheduler", SchedulerType.ROUND_ROBIN);
+        List<Integer> batches = options.getInts("batches", List.of(1, 4, 8));
+        double windowMs = options.getDouble("window", 20.0);
+        int cores = options.getInt("cores", 8);
+        int tasks = options.getInt("tasks", 400);
+        int memory = options.getInt("memory", 1000);
+        int smallMemory = options.getInt("smallMemory", 120);
+        long seed = options.getLong("seed", 42L);
+        double timeScale = options.getTimeScale();
+        String out = options.get("out", "migration_batching.csv");
+        options.rejectUnknown();
+        int[] coreMemory = new int[cores];
+        for (int i = 0; i < cores; i++) {
+            coreMemory[i] = (i % 2 == 1) ? smallMemory : memory;
+        }
+
+        ExperimentRunner.warmUp(new SimulationConfig(scheduler, cores, Math.min(tasks, 100), memory, seed)
+                .setCoreMemory(coreMemory)
+                .setTimeScale(timeScale));
+
+        List<Outcome> outcomes = new ArrayList<>();
+        for (int batch : batches) {
+            Simulation sim = new Simulation(new SimulationConfig(scheduler, cores, tasks, memory, seed)
+                    .setCoreMemory(coreMemory)
+                    .setMigrationBatching(batch, windowMs)
+                    .setTimeScale(timeScale)
+                    .setRegisterJmx(false));
+            SimulationResult result = sim.run();
+            System.out.println("  ✔ " + result);
+            sim.reportUnfinished();
+
+            MetricsCollector metrics = sim.getMetricsCollector();
+            Outcome o = new Outcome();
+            o.batch = batch;
+            o.requests = metrics.getMigrationRequests();
+            o.offered = metrics.getMigrationTasksOffered();
+            o.granted = metrics.getMigrationTasksGranted();
+            o.roundTripsPerTask = metrics.getRoundTripsPerMigratedTask();
+            o.messages = result.getTotalMessages();
+            o.makespanMs = metrics.getCompletionSpanMs() / timeScale;
+            o.completed = result.getCompletedTasks();
+            outcomes.add(o);
+        }
+
+        System.out.printf(Locale.US, "%n--- Migration batching (%d cores, odd cores %d of %d memory, window %.0f ms) ---%n",
+                cores, smallMemory, memory, windowMs);
+        for (Outcome o : outcomes) {
+            System.out.printf(Locale.US,
+                    "batch %-3d %d requests, %d offered, %d granted, %.2f round trips/task, %d msgs, makespan %.0f ms%n",
+                    o.batch, o.requests, o.offered, o.granted, o.roundTripsPerTask, o.messages, o.makespanMs);
+        }
+        exportCSV(outcomes, out);
+    }
+
+    public static void exportCSV(List<Outcome> outcomes, String filename) {
+        ExperimentRunner.writeCsv(filename, "Migration batching results",
+                "batch,requests,tasksOffered,tasksGranted,roundTripsPerTask,messages,makespanMs,completed", pw -> {
+            for (Outcome o : outcomes) {
+                pw.printf(Locale.US, "%d,%d,%d,%d,%.3f,%d,%.1f,%d%n",
+                        o.batch, o.requests, o.offered, o.granted, o.roundTripsPerTask,
+                        o.messages, o.makespanMs, o.completed);
+            }
+        });
+    }
+}
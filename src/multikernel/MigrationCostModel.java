@@ -0,0 +1,46 @@
+package multikernel;
+
+/**
+ * Warm-up cost of running a task away from its home core: the working set
+ * has to be pulled into the new core's cache, and the further away it
+ * lives (Topology.distance) the slower that is.
+ *
+ *   penalty = workingSetKb / 1024 * msPerMb[distance(home, core)]
+ *
+ * The penalty is simulated CPU time added to the task's burst on the core
+ * that runs it. Tasks without a home (never placed) or without a working
+ * set cost nothing.
+ */
+public class MigrationCostModel {
+
+    // refill cost in simulated ms per MB of working set, by Topology distance
+    private static final double[] DEFAULT_MS_PER_MB = {0.0, 2.0, 8.0, 20.0};
+
+    private final double[] msPerMb;
+
+    public MigrationCostModel() {
+        this(DEFAULT_MS_PER_MB);
+    }
+
+    /** msPerMb[d] = cost per MB at Topology distance d (0..3). */
+    public MigrationCostModel(double[] msPerMb) {
+        if (msPerMb.length != Topology.LEVELS) {
+            throw new IllegalArgumentException("need one cost per topology level: " + Topology.LEVELS);
+        }
+        this.msPerMb = msPerMb.clone();
+    }
+
+    /** Extra simulated ms for running task on core. */
+    public int penaltyMs(Task task, int core, Topology topology) {
+        int home = task.getHomeCore();
+        if (home < 0 || home == core || task.getWorkingSetKb() <= 0) {
+            return 0;
+        }
+        return (int) Math.round(task.getWorkingSetKb() / 1024.0 * msPerMb[topology.distance(home, core)]);
+    }
+
+    /** Cost per MB at one distance, e.g. to size steal thresholds. */
+    public double getMsPerMb(int distance) {
+        return msPerMb[distance];
+    }
+}
@@ -0,0 +1,234 @@
+package multikernel;
+
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The same workload in one JVM and split over several JVMs on this machine,
+ * whose cores talk through a Transport: loopback TCP or Unix domain sockets
+ * (SocketTransport), where messages really pay for encoding, system calls
+ * and the kernel's network stack, or shared memory-mapped rings
+ * (MappedRingTransport), which avoid the system calls.
+ *
+ * Odd cores get only smallMemory and work stealing is on, so tasks move
+ * between cores, and between processes where neighbours sit on different
+ * nodes. Reports per run the completed and unfinished tasks, messages and the share of
+ * them that crossed a process boundary, bytes on the wire, the mean time to
+ * send one frame, mean turnaround and makespan.
+ *
+ *   java multikernel.MultiProcessExperiment nodes=2,4 transports=tcp,unix,mapped cores=8 tasks=400 \
+ *        memory=1000 smallMemory=120 timeScale=0.01 port=47100 out=multi_process.csv
+ *
+ * The launcher starts the nodes as child JVMs of this class (node=<i> on
+ * their command line) and sums up the RESULT line each prints.
+ */
+public class MultiProcessExperiment {
+
+    // longest a node may take, on top of the simulation deadline
+    private static final long NODE_TIMEOUT_MS = 180_000;
+    private static final int SMALL_MEMORY = 120;
+
+    /** One run, summed over its nodes. */
+    public static class Outcome {
+        String transport;
+        int nodes;
+        long completed;
+        long unfinished;
+        long messages;
+        long frames;
+        long bytes;
+        double meanSendMicros;
+        double meanTurnaroundMs;
+        double makespanMs;
+
+        public double getCrossProcessPct() {
+            return (messages == 0) ? 0.0 : 100.0 * frames / messages;
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        ExperimentOptions options = new ExperimentOptions(args);
+        if (options.has("node")) {
+            runNode(options);
+        } else {
+            launch(options);
+        }
+    }
+
+    /** The workload both the launcher and the nodes run (their options are passed on as given). */
+    private static SimulationConfig configFor(ExperimentOptions options) {
+        int cores = options.getInt("cores", 8);
+        int memory = options.getInt("memory", 1000);
+        int smallMemory = options.getInt("smallMemory", SMALL_MEMORY);
+        int[] coreMemory = new int[cores];
+        for (int i = 0; i < cores; i++) {
+            coreMemory[i] = (i % 2 == 1) ? smallMemory : memory;
+        }
+        return new SimulationConfig(SchedulerType.ROUND_ROBIN, cores, options.getInt("tasks", 400),
+                memory, options.getLong("seed", 42L))
+                .setCoreMemory(coreMemory)
+                .setWorkStealing(true)
+                .setTimeScale(options.getTimeScale())
+                .setRegisterJmx(false);
+    }
+
+    // ----------------------------------------------------------------------
+    // Launcher
+    // ----------------------------------------------------------------------
+
+    private static void launch(ExperimentOptions options) throws Exception {
+        List<Integer> nodeCounts = options.getInts("nodes", List.of(2, 4));
+        List<Transport.Kind> kinds = options.getList("transports", Transport.Kind::parse,
+                List.of(Transport.Kind.TCP, Transport.Kind.UNIX, Transport.Kind.MAPPED));
+        String port = options.get("port", "47100");
+        String out = options.get("out", "multi_process.csv");
+        SimulationConfig config = configFor(options);
+        options.rejectUnknown();
+        double timeScale = config.getTimeScale();
+
+        ExperimentRunner.warmUp(configFor(options).setDeadlineMs(0));
+
+        List<Outcome> outcomes = new ArrayList<>();
+        Simulation sim = new Simulation(config);
+        SimulationResult result = sim.run();
+        System.out.println("  ✔ " + result);
+        Outcome single = new Outcome();
+        single.transport = "in-jvm";
+        single.nodes = 1;
+        single.completed = result.getCompletedTasks();
+        single.unfinished = result.getUnfinishedTasks();
+        single.messages = result.getTotalMessages();
+        single.meanTurnaroundMs = sim.getMetricsCollector().getAverageTurnaround() / timeScale;
+        single.makespanMs = sim.getMetricsCollector().getCompletionSpanMs() / timeScale;
+        outcomes.add(single);
+
+        for (Transport.Kind kind : kinds) {
+            for (int nodes : nodeCounts) {
+                outcomes.add(runNodes(options, config.getNumTasks(), port, kind, nodes));
+            }
+        }
+
+        System.out.printf(Locale.US, "%n--- Multi-process (%d cores, %d tasks, odd cores %d memory, stealing) ---%n",
+                config.getNumCores(), config.getNumTasks(), options.getInt("smallMemory", SMALL_MEMORY));
+        for (Outcome o : outcomes) {
+            System.out.printf(Locale.US,
+                    "%-7s %d node(s): %d done, %d unfinished, %d msgs (%.0f%% cross-process, %d bytes, %.1f us/frame), "
+                            + "turnaround %.0f ms, makespan %.0f ms%n",
+                    o.transport, o.nodes, o.completed, o.unfinished, o.messages, o.getCrossProcessPct(), o.bytes,
+                    o.meanSendMicros, o.meanTurnaroundMs, o.makespanMs);
+        }
+        exportCSV(outcomes, out);
+    }
+
+    /**
+     * Starts one child JVM per node and adds up their RESULT lines. Tasks
+     * move between the nodes, so unfinished is only known for the sum.
+     */
+    private static Outcome runNodes(ExperimentOptions options, int tasks, String port, Transport.Kind kind, int nodes)
+            throws Exception {
+        String endpoint = (kind == Transport.Kind.TCP)
+                ? port
+                : Files.createTempDirectory("multikernel-ipc").toString();
+        String java = Path.of(System.getProperty("java.home"), "bin", "java").toString();
+        List<Process> processes = new ArrayList<>();
+        for (int node = 0; node < nodes; node++) {
+            List<String> command = new ArrayList<>(List.of(java, "-cp", System.getProperty("java.class.path"),
+                    MultiProcessExperiment.class.getName()));
+            command.addAll(options.toArgs());
+            command.add("node=" + node);
+            command.add("nodes=" + nodes);
+            command.add("transport=" + kind.name());
+            command.add("endpoint=" + endpoint);
+            processes.add(new ProcessBuilder(command).redirectErrorStream(true).start());
+        }
+
+        Outcome o = new Outcome();
+        o.transport = kind.name().toLowerCase(Locale.ROOT);
+        o.nodes = nodes;
+        double turnaroundSum = 0;
+        double sendMicrosSum = 0;
+        for (int node = 0; node < nodes; node++) {
+            Process p = processes.get(node);
+            Map<String, String> values = new HashMap<>();
+            try (BufferedReader in = new BufferedReader(new InputStreamReader(p.getInputStream()))) {
+                String line;
+                while ((line = in.readLine()) != null) {
+                    if (line.startsWith("RESULT ")) {
+                        for (String field : line.substring(7).split(" ")) {
+                            int eq = field.indexOf('=');
+                            values.put(field.substring(0, eq), field.substring(eq + 1));
+                        }
+                    } else {
+                        System.out.println("  [node " + node + "] " + line);
+                    }
+                }
+            }
+            if (!p.waitFor(NODE_TIMEOUT_MS, TimeUnit.MILLISECONDS) || values.isEmpty()) {
+                p.destroyForcibly();
+                throw new IllegalStateException("Node " + node + " of " + nodes + " (" + kind + ") gave no result");
+            }
+            long completed = Long.parseLong(values.get("completed"));
+            long frames = Long.parseLong(values.get("frames"));
+            o.completed += completed;
+            o.messages += Long.parseLong(values.get("messages"));
+            o.frames += frames;
+            o.bytes += Long.parseLong(values.get("bytes"));
+            turnaroundSum += Double.parseDouble(values.get("turnaroundMs")) * completed;
+            sendMicrosSum += Double.parseDouble(values.get("sendMicros")) * frames;
+            o.makespanMs = Math.max(o.makespanMs, Double.parseDouble(values.get("makespanMs")));
+        }
+        o.unfinished = Math.max(0L, tasks - o.completed);
+        o.meanTurnaroundMs = (o.completed == 0) ? 0.0 : turnaroundSum / o.completed;
+        o.meanSendMicros = (o.frames == 0) ? 0.0 : sendMicrosSum / o.frames;
+        return o;
+    }
+
+    // ----------------------------------------------------------------------
+    // Node (child JVM)
+    // ----------------------------------------------------------------------
+
+    private static void runNode(ExperimentOptions options) {
+        int nodes = options.getInt("nodes", 1);
+        int node = options.getInt("node", 0);
+        Transport.Kind kind = options.get("transport", Transport.Kind::parse, Transport.Kind.TCP);
+        String endpoint = options.get("endpoint", "");
+        SimulationConfig config = configFor(options);
+        options.ignore("transports", "port", "out"); // the launcher's
+        options.rejectUnknown();
+        double timeScale = config.getTimeScale();
+
+        ExperimentRunner.warmUp(configFor(options).setDeadlineMs(0));
+
+        Simulation sim = new Simulation(config.setDistributed(nodes, node, kind, endpoint));
+        SimulationResult result = sim.run();
+        System.out.println("✔ " + result);
+
+        Transport transport = sim.getTransport();
+        MetricsCollector metrics = sim.getMetricsCollector();
+        System.out.printf(Locale.US,
+                "RESULT completed=%d messages=%d frames=%d bytes=%d sendMicros=%.2f turnaroundMs=%.2f makespanMs=%.1f%n",
+                result.getCompletedTasks(), result.getTotalMessages(), transport.getFramesSent(),
+                transport.getBytesSent(), transport.getMeanSendMicros(),
+                metrics.getAverageTurnaround() / timeScale, metrics.getCompletionSpanMs() / timeScale);
+    }
+
+    public static void exportCSV(List<Outcome> outcomes, String filename) {
+        ExperimentRunner.writeCsv(filename, "Multi-process results",
+                "transport,nodes,completed,unfinished,messages,crossProcessPct,bytes,meanSendMicros,"
+                        + "meanTurnaroundMs,makespanMs", pw -> {
+            for (Outcome o : outcomes) {
+                pw.printf(Locale.US, "%s,%d,%d,%d,%d,%.1f,%d,%.2f,%.1f,%.1f%n",
+                        o.transport, o.nodes, o.completed, o.unfinished, o.messages, o.getCrossProcessPct(), o.bytes,
+                        o.meanSendMicros, o.meanTurnaroundMs, o.makespanMs);
+            }
+        });
+    }
+}
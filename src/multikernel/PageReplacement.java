@@ -0,0 +1,252 @@
+package multikernel;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+
+/**
+ * Which resident page to give up when a page fault finds every frame in
+ * use. An instance manages a fixed number of frames; access() references a
+ * page and reports whether it was resident, making it resident if not.
+ *
+ *   LRU    evicts the least recently used page (exact, a linked map)
+ *   CLOCK  second chance: a hand sweeps the frames, clearing reference
+ *          bits, and evicts the first page whose bit is already clear
+ *   ARC    adaptive replacement cache (Megiddo & Modha): recency (T1) and
+ *          frequency (T2) lists plus ghost lists of their recent evictions
+ *          (B1, B2) that steer the split between them, so one sequential
+ *          sweep cannot flush a hot set the way it does under LRU
+ *
+ * Pages are small non-negative ints (page numbers within one task's address
+ * space). Not thread-safe: each core owns its frames.
+ */
+public interface PageReplacement {
+
+    enum Policy {
+        LRU, CLOCK, ARC;
+
+        public static Policy parse(String text) {
+            for (Policy p : values()) {
+                if (p.name().equalsIgnoreCase(text)) {
+                    return p;
+                }
+            }
+            throw new IllegalArgumentException("Unknown page replacement policy: " + text);
+        }
+    }
+
+    static PageReplacement create(Policy policy, int frames) {
+        if (frames < 1) {
+            throw new IllegalArgumentException("Need at least one frame: " + frames);
+        }
+        switch (policy) {
+            case CLOCK:
+                return new Clock(frames);
+            case ARC:
+                return new Arc(frames);
+            case LRU:
+            default:
+                return new Lru(frames);
+        }
+    }
+
+    /** References page; true on a hit, false on a fault (after which it is resident). */
+    boolean access(int page);
+
+    /** Drops every resident page (and any history). */
+    void clear();
+
+    int getFrames();
+
+    // ----------------------------------------------------------------------
+    // LRU
+    // ----------------------------------------------------------------------
+
+    final class Lru implements PageReplacement {
+        private final int frames;
+        private final LinkedHashMap<Integer, Boolean> resident;
+
+        Lru(int frames) {
+            this.frames = frames;
+            this.resident = new LinkedHashMap<Integer, Boolean>(frames * 2, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Integer, Boolean> eldest) {
+                    return size() > Lru.this.frames;
+                }
+            };
+        }
+
+        @Override
+        public boolean access(int page) {
+            return resident.put(page, Boolean.TRUE) != null;
+        }
+
+        @Override
+        public void clear() {
+            resident.clear();
+        }
+
+        @Override
+        public int getFrames() {
+            return frames;
+        }
+    }
+
+    // ----------------------------------------------------------------------
+    // CLOCK
+    // ----------------------------------------------------------------------
+
+    final class Clock implements PageReplacement {
+        private final int[] pageInFrame;    // -1 = free
+        private final boolean[] referenced;
+        private int[] frameOfPage = new int[256]; // -1 = not resident
+        private int hand = 0;
+        private int used = 0;
+
+        Clock(int frames) {
+            this.pageInFrame = new int[frames];
+            this.referenced = new boolean[frames];
+            clear();
+        }
+
+        @Override
+        public boolean access(int page) {
+            if (page >= frameOfPage.length) {
+                int old = frameOfPage.length;
+                frameOfPage = Arrays.copyOf(frameOfPage, Math.max(page + 1, old * 2));
+                Arrays.fill(frameOfPage, old, frameOfPage.length, -1);
+            }
+            int frame = frameOfPage[page];
+            if (frame >= 0) {
+                referenced[frame] = true;
+                return true;
+            }
+            if (used < pageInFrame.length) {
+                frame = used++;
+            } else {
+                while (referenced[hand]) {
+                    referenced[hand] = false;
+                    hand = (hand + 1) % pageInFrame.length;
+                }
+                frame = hand;
+                frameOfPage[pageInFrame[frame]] = -1;
+                hand = (hand + 1) % pageInFrame.length;
+            }
+            pageInFrame[frame] = page;
+            referenced[frame] = true;
+            frameOfPage[page] = frame;
+            return false;
+        }
+
+        @Override
+        public void clear() {
+            Arrays.fill(pageInFrame, -1);
+            Arrays.fill(referenced, false);
+            Arrays.fill(frameOfPage, -1);
+            hand = 0;
+            used = 0;
+        }
+
+        @Override
+        public int getFrames() {
+            return pageInFrame.length;
+        }
+    }
+
+    // ----------------------------------------------------------------------
+    // ARC
+    // ----------------------------------------------------------------------
+
+    final class Arc implements PageReplacement {
+        private final int c;
+        private int p = 0; // target size of T1
+        // iteration order = LRU first, MRU last
+        private final LinkedHashSet<Integer> t1 = new LinkedHashSet<>();
+        private final LinkedHashSet<Integer> t2 = new LinkedHashSet<>();
+        private final LinkedHashSet<Integer> b1 = new LinkedHashSet<>();
+        private final LinkedHashSet<Integer> b2 = new LinkedHashSet<>();
+
+        Arc(int frames) {
+            this.c = frames;
+        }
+
+        @Override
+        public boolean access(int page) {
+            Integer x = page;
+            if (t1.remove(x) || t2.remove(x)) {
+                t2.add(x);
+                return true;
+            }
+            if (b1.contains(x)) {
+                p = Math.min(c, p + Math.max(b2.size() / b1.size(), 1));
+                replace(false);
+                b1.remove(x);
+                t2.add(x);
+                return false;
+            }
+            if (b2.contains(x)) {
+                p = Math.max(0, p - Math.max(b1.size() / b2.size(), 1));
+                replace(true);
+                b2.remove(x);
+                t2.add(x);
+                return false;
+            }
+            int l1 = t1.size() + b1.size();
+            if (l1 == c) {
+                if (t1.size() < c) {
+                    removeLru(b1);
+                    replace(false);
+                } else {
+                    removeLru(t1);
+                }
+            } else {
+                int total = l1 + t2.size() + b2.size();
+                if (total >= c) {
+                    if (total == 2 * c) {
+                        removeLru(b2);
+                    }
+                    replace(false);
+                }
+            }
+            t1.add(x);
+            return false;
+        }
+
+        /** Evicts from T1 or T2 into the matching ghost list, as the target p says. */
+        private void replace(boolean inB2) {
+            if (t1.size() + t2.size() < c) {
+                return; // a frame is still free
+            }
+            if (!t1.isEmpty() && (t1.size() > p || (inB2 && t1.size() == p))) {
+                b1.add(removeLru(t1));
+            } else if (!t2.isEmpty()) {
+                b2.add(removeLru(t2));
+            } else {
+                b1.add(removeLru(t1));
+            }
+        }
+
+        private static Integer removeLru(LinkedHashSet<Integer> list) {
+            Iterator<Integer> it = list.iterator();
+            Integer lru = it.next();
+            it.remove();
+            return lru;
+        }
+
+        @Override
+        public void clear() {
+            t1.clear();
+            t2.clear();
+            b1.clear();
+            b2.clear();
+            p = 0;
+        }
+
+        @Override
+        public int getFrames() {
+            return c;
+        }
+    }
+}
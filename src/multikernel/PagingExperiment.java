@@ -0,0 +1,128 @@
+package multikernel;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Migration against overcommit: odd cores get only smallMemory, so some
+ * tasks do not fit there. The same workload runs once with the usual
+ * memory-pressure migrations (RESOURCE_REQUEST to another core) and once
+ * per page replacement policy with demand paging (VirtualMemory), where
+ * such tasks stay and run in the frames they get, paying faultMs per major
+ * fault.
+ *
+ * Reports per run the throughput (completed tasks per simulated second of
+ * makespan), mean turnaround, migration requests, overcommitted tasks,
+ * major fault rate (faults per reference), the share of execution time
+ * spent in fault service and the number of thrashing tasks.
+ *
+ *   java multikernel.PagingExperiment policies=lru,clock,arc faultMs=2 cores=8 tasks=400 \
+ *        memory=1000 smallMemory=120 timeScale=0.01 out=paging.csv
+ */
+public class PagingExperiment {
+
+    /** One run. */
+    public static class Outcome {
+        String mode;
+        long completed;
+        double throughputPerSec;
+        double meanTurnaroundMs;
+        double makespanMs;
+        long migrationRequests;
+        long overcommitted;
+        long references;
+        long majorFaults;
+        double faultServiceMs;
+        long thrashing;
+        double faultSharePct;
+
+        public double getFaultRatePct() {
+            return (references == 0) ? 0.0 : 100.0 * majorFaults / references;
+        }
+    }
+
+    public static void main(String[] args) {
+        ExperimentOptions options = new ExperimentOptions(args);
+        SchedulerType scheduler = options.getScheduler("scheduler", SchedulerType.ROUND_ROBIN);
+        List<PageReplacement.Policy> policies = options.getList("policies", PageReplacement.Policy::parse,
+                List.of(PageReplacement.Policy.values()));
+        double faultMs = options.getDouble("faultMs", 2.0);
+        int cores = options.getInt("cores", 8);
+        int tasks = options.getInt("tasks", 400);
+        int memory = options.getInt("memory", 1000);
+        int smallMemory = options.getInt("smallMemory", 120);
+        long seed = options.getLong("seed", 42L);
+        double timeScale = options.getTimeScale();
+        String out = options.get("out", "paging.csv");
+        options.rejectUnknown();
+        int[] coreMemory = new int[cores];
+        for (int i = 0; i < cores; i++) {
+            coreMemory[i] = (i % 2 == 1) ? smallMemory : memory;
+        }
+
+        ExperimentRunner.warmUp(new SimulationConfig(scheduler, cores, Math.min(tasks, 100), memory, seed)
+                .setCoreMemory(coreMemory)
+                .setPaging(PageReplacement.Policy.ARC, faultMs)
+                .setTimeScale(timeScale));
+
+        List<Outcome> outcomes = new ArrayList<>();
+        List<PageReplacement.Policy> modes = new ArrayList<>();
+        modes.add(null); // migration
+        modes.addAll(policies);
+        for (PageReplacement.Policy policy : modes) {
+            SimulationConfig config = new SimulationConfig(scheduler, cores, tasks, memory, seed)
+                    .setCoreMemory(coreMemory)
+                    .setTimeScale(timeScale)
+                    .setRegisterJmx(false);
+            if (policy != null) {
+                config.setPaging(policy, faultMs);
+            }
+            Simulation sim = new Simulation(config);
+            SimulationResult result = sim.run();
+            System.out.println("  ✔ " + result);
+            sim.reportUnfinished();
+
+            MetricsCollector metrics = sim.getMetricsCollector();
+            Outcome o = new Outcome();
+            o.mode = (policy == null) ? "migrate" : "page-" + policy.name().toLowerCase(Locale.ROOT);
+            o.completed = result.getCompletedTasks();
+            o.makespanMs = metrics.getCompletionSpanMs() / timeScale;
+            o.throughputPerSec = (o.makespanMs <= 0) ? 0.0 : o.completed * 1000.0 / o.makespanMs;
+            o.meanTurnaroundMs = metrics.getAverageTurnaround() / timeScale;
+            o.migrationRequests = metrics.getMigrationRequests();
+            o.overcommitted = sim.getOvercommittedTasks();
+            o.references = sim.getPageReferences();
+            o.majorFaults = sim.getMajorPageFaults();
+            o.faultServiceMs = sim.getPageFaultServiceMs();
+            o.thrashing = sim.getThrashingTasks();
+            o.faultSharePct = sim.getPageFaultTimeSharePct();
+            outcomes.add(o);
+        }
+
+        System.out.printf(Locale.US, "%n--- Paging vs migration (%d cores, odd cores %d of %d memory, %.1f ms/fault) ---%n",
+                cores, smallMemory, memory, faultMs);
+        for (Outcome o : outcomes) {
+            System.out.printf(Locale.US,
+                    "%-10s %d done, %.2f tasks/s, turnaround %.0f ms, makespan %.0f ms, %d migration requests, "
+                            + "%d overcommitted, %.2f%% faults/ref, %.1f%% of exec time in faults, %d thrashing%n",
+                    o.mode, o.completed, o.throughputPerSec, o.meanTurnaroundMs, o.makespanMs, o.migrationRequests,
+                    o.overcommitted, o.getFaultRatePct(), o.faultSharePct, o.thrashing);
+        }
+        exportCSV(outcomes, out);
+    }
+
+    public static void exportCSV(List<Outcome> outcomes, String filename) {
+        ExperimentRunner.writeCsv(filename, "Paging results",
+                "mode,completed,throughputPerSec,meanTurnaroundMs,makespanMs,migrationRequests,"
+                        + "overcommittedTasks,references,majorFaults,faultRatePct,faultServiceMs,faultSharePct,"
+                        + "thrashingTasks", pw -> {
+            for (Outcome o : outcomes) {
+                pw.printf(Locale.US, "%s,%d,%.3f,%.1f,%.1f,%d,%d,%d,%d,%.3f,%.1f,%.2f,%d%n",
+                        o.mode, o.completed, o.throughputPerSec, o.meanTurnaroundMs, o.makespanMs,
+                        o.migrationRequests, o.overcommitted, o.references, o.majorFaults, o.getFaultRatePct(),
+                        o.faultServiceMs, o.faultSharePct, o.thrashing);
+            }
+        });
+    }
+}
@@ -0,0 +1,45 @@
+package multikernel;
+
+import org.jfree.chart.ChartFactory;
+import org.jfree.chart.ChartFrame;
+import org.jfree.chart.JFreeChart;
+import org.jfree.chart.plot.PlotOrientation;
+import org.jfree.data.category.DefaultCategoryDataset;
+
+import java.util.Map;
+
+/**
+ * Displays where each core's time went (message handling, dequeue,
+ * allocation, sync waits, idle, execution, ...) as a stacked bar chart.
+ */
+public class PhaseBreakdownChart {
+
+    public static void showPhaseBreakdown(Map<Integer, Map<String, Double>> phaseMsPerCore) {
+        ChartFrame frame = new ChartFrame("Core Phase Breakdown", createPhaseBreakdown(phaseMsPerCore));
+        frame.pack();
+        frame.setVisible(true);
+    }
+
+    public static JFreeChart createPhaseBreakdown(Map<Integer, Map<String, Double>> phaseMsPerCore) {
+        DefaultCategoryDataset dataset = new DefaultCategoryDataset();
+
+        for (Map.Entry<Integer, Map<String, Double>> core : phaseMsPerCore.entrySet()) {
+            for (Map.Entry<String, Double> phase : core.getValue().entrySet()) {
+                dataset.addValue(phase.getValue(), phase.getKey(), "Core " + core.getKey());
+            }
+        }
+
+        JFreeChart chart = ChartFactory.createStackedBarChart(
+                "Per-Core Time Breakdown by Phase",
+                "Core",
+                "Time (ms)",
+                dataset,
+                PlotOrientation.VERTICAL,
+                true,
+                true,
+                false
+        );
+
+        return chart;
+    }
+}
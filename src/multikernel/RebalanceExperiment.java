@@ -0,0 +1,108 @@
+package multikernel;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Rebalancing epochs against the current behaviour (queues only change
+ * through memory-failure migrations): deals the workload to a few hotspot
+ * cores, then runs it without rebalancing, with diffusion and with
+ * dimension exchange, sampling the queue-length imbalance throughout.
+ *
+ * Reports per run the convergence time (until the queue spread first fell
+ * to ImbalanceMonitor.CONVERGED_SPREAD), the mean imbalance (max - mean
+ * queue length) and its reduction relative to no rebalancing.
+ *
+ *   java multikernel.RebalanceExperiment cores=16 tasks=400 hot=4 period=50 damping=0.5 \
+ *        timeScale=0.01 out=rebalance.csv
+ */
+public class RebalanceExperiment {
+
+    /** One run. */
+    public static class Outcome {
+        String scheme;
+        double convergenceMs;   // -1 = never converged while work was queued
+        double meanImbalance;
+        double peakImbalance;
+        double makespanMs;
+        long tasksPushed;
+        long messages;
+    }
+
+    public static void main(String[] args) {
+        ExperimentOptions options = new ExperimentOptions(args);
+        SchedulerType scheduler = options.getScheduler("scheduler", SchedulerType.ROUND_ROBIN);
+        int cores = options.getInt("cores", 16);
+        int tasks = options.getInt("tasks", 400);
+        int hot = options.getInt("hot", 4);
+        double periodMs = options.getDouble("period", 50.0);
+        double damping = options.getDouble("damping", 0.5);
+        int memory = options.getInt("memory", 1000);
+        long seed = options.getLong("seed", 42L);
+        double timeScale = options.getTimeScale();
+        String out = options.get("out", "rebalance.csv");
+        options.rejectUnknown();
+        // a few samples per epoch, at least one per wall ms
+        long sampleMs = Math.max(1L, (long) (periodMs * timeScale / 4));
+
+        ExperimentRunner.warmUp(new SimulationConfig(scheduler, cores, Math.min(tasks, 100), memory, seed)
+                .setTimeScale(timeScale));
+
+        List<Outcome> outcomes = new ArrayList<>();
+        List<DiffusionRebalancer.Scheme> schemes = new ArrayList<>();
+        schemes.add(null);
+        schemes.add(DiffusionRebalancer.Scheme.DIFFUSION);
+        schemes.add(DiffusionRebalancer.Scheme.DIMENSION_EXCHANGE);
+        for (DiffusionRebalancer.Scheme scheme : schemes) {
+            Simulation sim = new Simulation(new SimulationConfig(scheduler, cores, tasks, memory, seed)
+                    .setHotspotCores(hot)
+                    .setRebalancing(scheme, periodMs, damping)
+                    .setImbalanceSampleMs(sampleMs)
+                    .setTimeScale(timeScale)
+                    .setRegisterJmx(false));
+            SimulationResult result = sim.run();
+            System.out.println("  ✔ " + result);
+            sim.reportUnfinished();
+
+            ImbalanceMonitor monitor = sim.getImbalanceMonitor();
+            Outcome o = new Outcome();
+            o.scheme = (scheme == null) ? "none" : scheme.name().toLowerCase(Locale.ROOT);
+            long convergence = monitor.getConvergenceMs();
+            o.convergenceMs = (convergence < 0) ? -1 : convergence / timeScale;
+            o.meanImbalance = monitor.getMeanImbalance();
+            o.peakImbalance = monitor.getPeakImbalance();
+            o.makespanMs = sim.getMetricsCollector().getCompletionSpanMs() / timeScale;
+            o.tasksPushed = sim.getTasksPushed();
+            o.messages = result.getTotalMessages();
+            outcomes.add(o);
+        }
+
+        Outcome baseline = outcomes.get(0);
+        System.out.printf(Locale.US, "%n--- Rebalancing (%d cores, tasks dealt to %d, period %.0f ms, damping %.2f) ---%n",
+                cores, hot, periodMs, damping);
+        for (Outcome o : outcomes) {
+            double reduction = (baseline.meanImbalance == 0) ? 0.0
+                    : 100.0 * (1.0 - o.meanImbalance / baseline.meanImbalance);
+            System.out.printf(Locale.US,
+                    "%-20s converged %s, imbalance mean %.1f peak %.1f tasks (%.0f%% reduction), makespan %.0f ms, %d pushed, %d msgs%n",
+                    o.scheme + ":", o.convergenceMs < 0 ? "never" : String.format(Locale.US, "after %.0f ms", o.convergenceMs),
+                    o.meanImbalance, o.peakImbalance, reduction, o.makespanMs, o.tasksPushed, o.messages);
+        }
+        exportCSV(outcomes, baseline, out);
+    }
+
+    public static void exportCSV(List<Outcome> outcomes, Outcome baseline, String filename) {
+        ExperimentRunner.writeCsv(filename, "Rebalancing results",
+                "scheme,convergenceMs,meanImbalance,peakImbalance,imbalanceReductionPct,makespanMs,"
+                        + "tasksPushed,messages", pw -> {
+            for (Outcome o : outcomes) {
+                double reduction = (baseline.meanImbalance == 0) ? 0.0
+                        : 100.0 * (1.0 - o.meanImbalance / baseline.meanImbalance);
+                pw.printf(Locale.US, "%s,%.1f,%.2f,%.2f,%.1f,%.1f,%d,%d%n",
+                        o.scheme, o.convergenceMs, o.meanImbalance, o.peakImbalance, reduction,
+                        o.makespanMs, o.tasksPushed, o.messages);
+            }
+        });
+    }
+}
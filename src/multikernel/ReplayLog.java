@@ -0,0 +1,238 @@
+package multikernel;
+
+import java.io.BufferedReader;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Record / replay of the scheduling and message-delivery decisions of one
+ * simulation run.
+ *
+ * Given the same seeded workload, the only nondeterminism left in a run is
+ * thread interleaving: when each core gets to handle a message relative to
+ * its own dequeues. Recording therefore keeps, per core, the ordered list of
+ * steps that core took:
+ *
+ *   M&lt;correlationId&gt;    handled a task-carrying message (offload / resource request)
+ *   T&lt;taskId&gt;           dequeued a task from its scheduler
+ *   R&lt;taskId&gt;:&lt;reply&gt;   got the reply to its own resource request
+ *
+ * Correlation ids of those messages are deterministic ("core-seq"), so in
+ * replay each core walks its step list: it holds back any message that
+ * arrives early, only dequeues when the log says so, and stops once its
+ * list is exhausted. Termination-detection traffic is not recorded; a
+ * replayed run ends when every core has replayed its steps.
+ *
+ * Any step that comes out differently in replay (a different task dequeued,
+ * a different reply) is counted as a divergence and the first one is printed.
+ *
+ * Each core only touches its own step list, and the lists are read/written
+ * by the driver only before start() / after join(), so no locking is needed.
+ */
+public class ReplayLog {
+
+    public static final char MESSAGE = 'M';
+    public static final char TASK = 'T';
+    public static final char REPLY = 'R';
+
+    private static final String HEADER = "# ";
+
+    private final String schedulerType;
+    private final int numCores;
+    private final int numTasks;
+    private final int memoryPerCore;
+    private final long seed;
+    private final double timeScale;
+
+    private final List<List<String>> steps = new ArrayList<>();
+    private final AtomicInteger divergences = new AtomicInteger();
+
+    /** Empty log for recording a run of the given configuration. */
+    public ReplayLog(SimulationConfig config) {
+        this(config.getSchedulerType().name(), config.getNumCores(), config.getNumTasks(),
+                config.getMemoryPerCore(), config.getSeed(), config.getTimeScale());
+    }
+
+    private ReplayLog(String schedulerType, int numCores, int numTasks,
+                      int memoryPerCore, long seed, double timeScale) {
+        this.schedulerType = schedulerType;
+        this.numCores = numCores;
+        this.numTasks = numTasks;
+        this.memoryPerCore = memoryPerCore;
+        this.seed = seed;
+        this.timeScale = timeScale;
+        for (int i = 0; i < numCores; i++) {
+            steps.add(new ArrayList<>());
+        }
+    }
+
+    // ----------------------------------------------------------------------
+    // Steps
+    // ----------------------------------------------------------------------
+
+    public static String messageStep(String correlationId) {
+        return MESSAGE + correlationId;
+    }
+
+    public static String taskStep(Task task) {
+        return TASK + (task == null ? "none" : Integer.toString(task.getId()));
+    }
+
+    public static String replyStep(Task task, String replyType) {
+        return REPLY + Integer.toString(task.getId()) + ":" + replyType;
+    }
+
+    /** Appends a step; only ever called by the core's own thread. */
+    public void record(int coreId, String step) {
+        steps.get(coreId).add(step);
+    }
+
+    /** Notes a replayed step that came out differently from the recording. */
+    public void diverged(int coreId, int index, String expected, String actual) {
+        if (divergences.incrementAndGet() == 1) {
+            System.out.println("⚠ Replay diverged on core " + coreId + " at step " + index
+                    + ": recorded " + expected + ", got " + actual);
+        }
+    }
+
+    public int getDivergences() {
+        return divergences.get();
+    }
+
+    public int getStepCount(int coreId) {
+        return steps.get(coreId).size();
+    }
+
+    /** Reader over one core's steps, used by that core during replay. */
+    public Cursor cursor(int coreId) {
+        return new Cursor(coreId);
+    }
+
+    public class Cursor {
+        private final int coreId;
+        private final List<String> coreSteps;
+        private int index = 0;
+
+        private Cursor(int coreId) {
+            this.coreId = coreId;
+            this.coreSteps = steps.get(coreId);
+        }
+
+        public boolean isDone() {
+            return index >= coreSteps.size();
+        }
+
+        /** True if the next recorded step is of the given kind. */
+        public boolean nextIs(char kind) {
+            return !isDone() && coreSteps.get(index).charAt(0) == kind;
+        }
+
+        /** The next recorded step without its kind prefix, not consumed. */
+        public String peekKey() {
+            return coreSteps.get(index).substring(1);
+        }
+
+        /** Consumes the next step, checking it against what actually happened. */
+        public void advance(String actual) {
+            String expected = coreSteps.get(index);
+            if (!expected.equals(actual)) {
+                diverged(coreId, index, expected, actual);
+            }
+            index++;
+        }
+    }
+
+    // ----------------------------------------------------------------------
+    // Configuration the log was recorded with
+    // ----------------------------------------------------------------------
+
+    /** Config that rebuilds the recorded run's workload and topology. */
+    public SimulationConfig toConfig() {
+        return new SimulationConfig(SchedulerType.parse(schedulerType), numCores, numTasks,
+                memoryPerCore, seed).setTimeScale(timeScale);
+    }
+
+    /** True if config describes the same run this log was recorded from. */
+    public boolean matches(SimulationConfig config) {
+        return config.getSchedulerType().name().equals(schedulerType)
+                && config.getNumCores() == numCores
+                && config.getNumTasks() == numTasks
+                && config.getMemoryPerCore() == memoryPerCore
+                && config.getSeed() == seed
+                && !config.isSharedQueue();
+    }
+
+    // ----------------------------------------------------------------------
+    // File format: "# key=value" header lines, then one "core<TAB>step" per line
+    // ----------------------------------------------------------------------
+
+    public void save(String filename) {
+        try (PrintWriter pw = new PrintWriter(new FileWriter(filename))) {
+            pw.println(HEADER + "scheduler=" + schedulerType);
+            pw.println(HEADER + "cores=" + numCores);
+            pw.println(HEADER + "tasks=" + numTasks);
+            pw.println(HEADER + "memory=" + memoryPerCore);
+            pw.println(HEADER + "seed=" + seed);
+            pw.println(HEADER + "timeScale=" + timeScale);
+            for (int coreId = 0; coreId < numCores; coreId++) {
+                for (String step : steps.get(coreId)) {
+                    pw.println(coreId + "\t" + step);
+                }
+            }
+            System.out.println("✔ Replay log exported to " + filename);
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    public static ReplayLog load(String filename) throws IOException {
+        try (BufferedReader reader = new BufferedReader(new FileReader(filename))) {
+            String scheduler = null;
+            int cores = -1, tasks = -1, memory = -1;
+            long seed = 0;
+            double timeScale = 1.0;
+            ReplayLog log = null;
+
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isEmpty()) continue;
+                if (line.startsWith(HEADER)) {
+                    String[] kv = line.substring(HEADER.length()).split("=", 2);
+                    switch (kv[0]) {
+                        case "scheduler": scheduler = kv[1]; break;
+                        case "cores": cores = Integer.parseInt(kv[1]); break;
+                        case "tasks": tasks = Integer.parseInt(kv[1]); break;
+                        case "memory": memory = Integer.parseInt(kv[1]); break;
+                        case "seed": seed = Long.parseLong(kv[1]); break;
+                        case "timeScale": timeScale = Double.parseDouble(kv[1]); break;
+                        default: break;
+                    }
+                    continue;
+                }
+                if (log == null) {
+                    if (scheduler == null || cores < 1 || tasks < 0 || memory < 0) {
+                        throw new IOException("Incomplete replay log header in " + filename);
+                    }
+                    log = new ReplayLog(scheduler, cores, tasks, memory, seed, timeScale);
+                }
+                int tab = line.indexOf('\t');
+                if (tab < 0) {
+                    throw new IOException("Malformed replay log line: " + line);
+                }
+                log.record(Integer.parseInt(line.substring(0, tab)), line.substring(tab + 1));
+            }
+            if (log == null) {
+                if (scheduler == null || cores < 1) {
+                    throw new IOException("Incomplete replay log header in " + filename);
+                }
+                log = new ReplayLog(scheduler, cores, tasks, memory, seed, timeScale);
+            }
+            return log;
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package multikernel;
+
+import org.jfree.chart.JFreeChart;
+
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.Supplier;
+import javax.imageio.ImageIO;
+
+/**
+ * Renders a run's charts to image files instead of Swing windows, so batch
+ * runs work on headless hosts (java.awt.headless=true) and do not block on
+ * open frames.
+ *
+ * Charts are registered as suppliers over data the caller has already
+ * aggregated (utilization per core, a binned MemoryTracker.Grid, ...);
+ * render() builds and writes them in parallel on a ForkJoinPool, one chart
+ * per task, since JFreeChart objects are independent of each other. Every
+ * run gets its own directory (forRun), which also takes the run's CSV
+ * exports.
+ */
+public class ReportWriter {
+
+    public static final int DEFAULT_WIDTH = 900;
+    public static final int DEFAULT_HEIGHT = 600;
+
+    private final Path directory;
+    private final int width;
+    private final int height;
+    private final Map<String, Supplier<JFreeChart>> charts = new LinkedHashMap<>();
+
+    public ReportWriter(Path directory, int width, int height) {
+        this.directory = directory;
+        this.width = width;
+        this.height = height;
+    }
+
+    public ReportWriter(Path directory) {
+        this(directory, DEFAULT_WIDTH, DEFAULT_HEIGHT);
+    }
+
+    /** A fresh directory for one run: base/label, or base/label-2, ... if taken. */
+    public static Path forRun(Path base, String label) throws IOException {
+        Path dir = base.resolve(label);
+        for (int i = 2; Files.exists(dir); i++) {
+            dir = base.resolve(label + "-" + i);
+        }
+        return Files.createDirectories(dir);
+    }
+
+    /**
+     * Switches AWT to headless mode if there is no display. Only effective
+     * before the first AWT class initializes, so call it at startup.
+     */
+    public static boolean useHeadlessIfNoDisplay() {
+        if (System.getProperty("java.awt.headless") == null
+                && System.getenv("DISPLAY") == null && System.getenv("WAYLAND_DISPLAY") == null
+                && !System.getProperty("os.name", "").startsWith("Windows")
+                && !System.getProperty("os.name", "").startsWith("Mac")) {
+            System.setProperty("java.awt.headless", "true");
+        }
+        return Boolean.getBoolean("java.awt.headless");
+    }
+
+    public Path getDirectory() {
+        return directory;
+    }
+
+    /** A file in the report directory, for CSV exports alongside the charts. */
+    public String file(String name) {
+        return directory.resolve(name).toString();
+    }
+
+    /** Registers a chart; name (without extension) is its file name. */
+    public ReportWriter add(String name, Supplier<JFreeChart> chart) {
+        if (charts.putIfAbsent(name, chart) != null) {
+            throw new IllegalArgumentException("Chart " + name + " is already in the report");
+        }
+        return this;
+    }
+
+    /** Builds and writes every registered chart in parallel; the files written. */
+    public List<Path> render() throws IOException {
+        Files.createDirectories(directory);
+        List<ForkJoinTask<Path>> tasks = new ArrayList<>();
+        for (Map.Entry<String, Supplier<JFreeChart>> e : charts.entrySet()) {
+            tasks.add(ForkJoinTask.adapt(() -> write(e.getKey(), e.getValue().get())));
+        }
+        ForkJoinPool pool = new ForkJoinPool(Math.max(1, Math.min(tasks.size(),
+                Runtime.getRuntime().availableProcessors())));
+        List<Path> written = new ArrayList<>();
+        try {
+            for (ForkJoinTask<Path> task : tasks) {
+                pool.execute(task);
+            }
+            for (ForkJoinTask<Path> task : tasks) {
+                written.add(task.join());
+            }
+        } catch (RuntimeException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw e;
+        } finally {
+            pool.shutdown();
+        }
+        return written;
+    }
+
+    private Path write(String name, JFreeChart chart) throws IOException {
+        BufferedImage image = chart.createBufferedImage(width, height);
+        Path png = directory.resolve(name + ".png");
+        ImageIO.write(image, "png", png.toFile());
+        return png;
+    }
+}
@@ -1,17 +1,73 @@
 package multikernel;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
 import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
 
 public class RoundRobinScheduler implements Scheduler {
     private final ConcurrentLinkedQueue<Task> queue = new ConcurrentLinkedQueue<>();
 
+    // ConcurrentLinkedQueue.size() walks the whole queue, so keep our own count;
+    // counted before a task is queued, so a concurrent take never sees it negative
+    private final AtomicInteger size = new AtomicInteger();
+    private final AtomicLong work = new AtomicLong();
+
     @Override
     public void addTask(Task task) {
+        work.addAndGet(task.getBurstTime());
+        size.incrementAndGet();
         queue.add(task);
     }
 
+    @Override
+    public void addAll(Collection<Task> tasks) {
+        long burst = 0;
+        for (Task task : tasks) {
+            burst += task.getBurstTime();
+        }
+        work.addAndGet(burst);
+        size.addAndGet(tasks.size());
+        queue.addAll(tasks);
+    }
+
     @Override
     public Task getNextTask() {
-        return queue.poll();
+        Task task = queue.poll();
+        if (task != null) {
+            size.decrementAndGet();
+            work.addAndGet(-task.getBurstTime());
+        }
+        return task;
+    }
+
+    @Override
+    public List<Task> steal(int maxTasks, int keep, Predicate<? super Task> accept) {
+        List<Task> stolen = new ArrayList<>();
+        while (stolen.size() < maxTasks && size.get() > keep) {
+            Task head = queue.peek();
+            if (head == null || !accept.test(head)) {
+                break;
+            }
+            if (queue.remove(head)) { // false if a consumer polled it meanwhile; look again
+                size.decrementAndGet();
+                work.addAndGet(-head.getBurstTime());
+                stolen.add(head);
+            }
+        }
+        return stolen;
+    }
+
+    @Override
+    public int size() {
+        return size.get();
+    }
+
+    @Override
+    public long estimatedWork() {
+        return work.get();
     }
 }
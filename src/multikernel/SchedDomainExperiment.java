@@ -0,0 +1,112 @@
+package multikernel;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Balancing traffic as the system grows: runs the same per-core workload on
+ * increasing core counts with no balancing, with flat work stealing (idle
+ * cores ask victims nearest first) and with hierarchical sched domains,
+ * and reports the balancing messages (STEAL_REQUEST + reply) per core
+ * alongside the makespan.
+ *
+ *   java multikernel.SchedDomainExperiment cores=16,64,256,1024 tasksPerCore=6 \
+ *        timeScale=0.01 out=sched_domains.csv
+ *
+ * Large core counts mean as many threads; keep timeScale small so the run
+ * is dominated by queueing rather than by thread scheduling on the host.
+ */
+public class SchedDomainExperiment {
+
+    public enum Balancing { NONE, STEAL, DOMAINS }
+
+    /** One (core count, balancing) run. */
+    public static class Point {
+        int cores;
+        Balancing balancing;
+        double makespanMs;
+        double meanTurnaroundMs;
+        long balanceMessages;
+        boolean completed;
+
+        public double getMessagesPerCore() {
+            return (double) balanceMessages / cores;
+        }
+    }
+
+    public static void main(String[] args) {
+        ExperimentOptions options = new ExperimentOptions(args);
+        List<Integer> coreCounts = options.getInts("cores", List.of(16, 64, 256));
+        int tasksPerCore = options.getInt("tasksPerCore", 6);
+        int memory = options.getInt("memory", 1000);
+        long seed = options.getLong("seed", 42L);
+        double timeScale = options.getTimeScale();
+        String out = options.get("out", "sched_domains.csv");
+        options.rejectUnknown();
+
+        ExperimentRunner.warmUp(configFor(8, Balancing.DOMAINS, tasksPerCore, memory, seed, timeScale));
+
+        List<Point> points = new ArrayList<>();
+        for (int cores : coreCounts) {
+            for (Balancing balancing : Balancing.values()) {
+                points.add(run(cores, balancing, tasksPerCore, memory, seed, timeScale));
+            }
+        }
+
+        System.out.println("\n--- Balancing messages per core vs system size ---");
+        for (Point p : points) {
+            System.out.printf(Locale.US, "%5d cores %-8s makespan %7.0f ms, turnaround %7.0f ms, %7d msgs (%.2f / core)%s%n",
+                    p.cores, p.balancing, p.makespanMs, p.meanTurnaroundMs, p.balanceMessages,
+                    p.getMessagesPerCore(), p.completed ? "" : "  ⚠ deadline");
+        }
+        exportCSV(points, out);
+    }
+
+    private static Point run(int cores, Balancing balancing, int tasksPerCore, int memory,
+                             long seed, double timeScale) {
+        Simulation sim = new Simulation(configFor(cores, balancing, tasksPerCore, memory, seed, timeScale));
+        SimulationResult result = sim.run();
+        System.out.println("  ✔ " + result);
+
+        MetricsCollector metrics = sim.getMetricsCollector();
+        Point p = new Point();
+        p.cores = cores;
+        p.balancing = balancing;
+        p.makespanMs = metrics.getCompletionSpanMs() / timeScale;
+        p.meanTurnaroundMs = metrics.getAverageTurnaround() / timeScale;
+        p.balanceMessages = 2 * sim.getStealRequestsSent();
+        p.completed = result.isCompleted();
+        if (sim.getSchedDomains() != null) {
+            SchedDomains domains = sim.getSchedDomains();
+            StringBuilder line = new StringBuilder("    pulls by level:");
+            List<String> levels = domains.getLevelNames();
+            for (int level = 0; level < levels.size(); level++) {
+                line.append(' ').append(levels.get(level)).append('=')
+                        .append(domains.getGrantedPulls(level)).append('/').append(domains.getPulls(level));
+            }
+            System.out.println(line);
+        }
+        return p;
+    }
+
+    private static SimulationConfig configFor(int cores, Balancing balancing, int tasksPerCore, int memory,
+                                              long seed, double timeScale) {
+        return new SimulationConfig(SchedulerType.ROUND_ROBIN, cores, cores * tasksPerCore, memory, seed)
+                .setWorkStealing(balancing == Balancing.STEAL)
+                .setSchedDomains(balancing == Balancing.DOMAINS)
+                .setTimeScale(timeScale)
+                .setRegisterJmx(false);
+    }
+
+    public static void exportCSV(List<Point> points, String filename) {
+        ExperimentRunner.writeCsv(filename, "Sched domain results",
+                "cores,balancing,makespanMs,meanTurnaroundMs,balanceMessages,messagesPerCore,completed", pw -> {
+            for (Point p : points) {
+                pw.printf(Locale.US, "%d,%s,%.1f,%.1f,%d,%.3f,%b%n",
+                        p.cores, p.balancing, p.makespanMs, p.meanTurnaroundMs,
+                        p.balanceMessages, p.getMessagesPerCore(), p.completed);
+            }
+        });
+    }
+}
@@ -0,0 +1,260 @@
+package multikernel;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Hierarchical scheduling domains in the style of Linux sched domains,
+ * built over a Topology:
+ *
+ *   pair     two neighbouring cores of a cluster
+ *   group    a cluster (shared cache)
+ *   socket   the clusters of one socket
+ *   nodeN    groups of up to MAX_FANOUT sockets (only on large systems)
+ *   system   all cores
+ *
+ * Levels that would not group anything new are left out (e.g. pair with
+ * two cores per cluster). Every domain keeps the total queue length of its
+ * cores, updated incrementally: a core reports its own queue length, and
+ * only the difference is added along its chain of domains, O(levels).
+ *
+ * Balancing a domain means comparing the average load of its child groups:
+ * if the busiest one is sufficiently above the group of the balancing core
+ * (IMBALANCE_PCT and MIN_IMBALANCE), that core pulls one task from the
+ * busiest core found by descending through the busiest children, provided
+ * that core holds enough tasks to give one away at this distance
+ * (Core.STEAL_MIN_QUEUE). Each domain is balanced at most once per
+ * interval, and the interval grows with the domain's span
+ * (BALANCE_MS_PER_CORE), so small domains balance often and the system
+ * domain rarely. A core also looks at each of its
+ * domains at most once per interval, so reading the aggregates stays cheap.
+ *
+ * Balancing reads shared aggregates and only sends messages for actual
+ * pulls (a STEAL_REQUEST and its reply), so balancing traffic follows the
+ * imbalance rather than the number of core pairs.
+ */
+public class SchedDomains implements LoadBalancer {
+
+    // balance interval per core spanned, simulated ms (Linux: ~1 ms per CPU in the domain)
+    static final double BALANCE_MS_PER_CORE = 1.0;
+    // shortest wall-clock interval, for timeScale 0
+    private static final long MIN_INTERVAL_NANOS = 100_000L;
+    // the busiest group must be this much (percent) above the local one...
+    static final int IMBALANCE_PCT = 125;
+    // ...and at least this many tasks per core
+    static final double MIN_IMBALANCE = 1.0;
+    // levels above socket group at most this many children
+    static final int MAX_FANOUT = 8;
+
+    /** A contiguous range of cores with an aggregate load. Leaves are single cores. */
+    static final class Domain {
+        final int level;      // index into levelNames, -1 for a leaf
+        final int firstCore;
+        final int span;
+        final Domain[] children;
+        final AtomicInteger load = new AtomicInteger();
+        final AtomicLong nextBalanceNanos = new AtomicLong();
+        final long intervalNanos;
+
+        Domain(int level, int firstCore, int span, Domain[] children, long intervalNanos) {
+            this.level = level;
+            this.firstCore = firstCore;
+            this.span = span;
+            this.children = children;
+            this.intervalNanos = intervalNanos;
+        }
+
+        double avgLoad() {
+            return (double) load.get() / span;
+        }
+    }
+
+    private final Topology topology;
+    private final List<String> levelNames = new ArrayList<>();
+    private final Domain[] leaves;
+    // per core: its leaf, then its domains from the smallest up
+    private final Domain[][] chains;
+    // per core: when it may next look at each of its domains (owner thread only)
+    private final long[][] nextLook;
+
+    private final AtomicLongArray pullsByLevel;
+    private final AtomicLongArray grantedByLevel;
+    // per core: level of the pull in flight (owner thread only)
+    private final int[] pendingLevel;
+
+    public SchedDomains(Topology topology, double timeScale) {
+        this.topology = topology;
+        int numCores = topology.getNumCores();
+
+        // spans of the levels above single cores
+        List<Integer> spans = new ArrayList<>();
+        int cluster = topology.getCoresPerCluster();
+        int socket = cluster * topology.getClustersPerSocket();
+        addLevel(spans, "pair", (cluster >= 4 && cluster % 2 == 0) ? 2 : 1, numCores);
+        addLevel(spans, "group", cluster, numCores);
+        addLevel(spans, "socket", socket, numCores);
+        int node = 1;
+        for (long span = (long) socket * MAX_FANOUT; span < numCores; span *= MAX_FANOUT) {
+            addLevel(spans, "node" + node++, (int) span, numCores);
+        }
+        addLevel(spans, "system", numCores, numCores);
+
+        this.leaves = new Domain[numCores];
+        for (int core = 0; core < numCores; core++) {
+            leaves[core] = new Domain(-1, core, 1, new Domain[0], 0L);
+        }
+        Domain[] below = leaves;
+        List<Domain[]> byLevel = new ArrayList<>();
+        for (int level = 0; level < spans.size(); level++) {
+            int span = spans.get(level);
+            long interval = Math.max(MIN_INTERVAL_NANOS,
+                    (long) (span * BALANCE_MS_PER_CORE * timeScale * 1_000_000L));
+            List<Domain> domains = new ArrayList<>();
+            for (int first = 0; first < numCores; first += span) {
+                int size = Math.min(span, numCores - first);
+                List<Domain> children = new ArrayList<>();
+                for (Domain child : below) {
+                    if (child.firstCore >= first && child.firstCore < first + size) {
+                        children.add(child);
+                    }
+                }
+                domains.add(new Domain(level, first, size, children.toArray(new Domain[0]), interval));
+            }
+            below = domains.toArray(new Domain[0]);
+            byLevel.add(below);
+        }
+
+        this.chains = new Domain[numCores][];
+        this.nextLook = new long[numCores][];
+        for (int core = 0; core < numCores; core++) {
+            Domain[] chain = new Domain[byLevel.size() + 1];
+            chain[0] = leaves[core];
+            for (int level = 0; level < byLevel.size(); level++) {
+                Domain[] domains = byLevel.get(level);
+                chain[level + 1] = domains[core / spans.get(level)];
+            }
+            chains[core] = chain;
+            nextLook[core] = new long[chain.length];
+        }
+        this.pullsByLevel = new AtomicLongArray(levelNames.size());
+        this.grantedByLevel = new AtomicLongArray(levelNames.size());
+        this.pendingLevel = new int[numCores];
+    }
+
+    private void addLevel(List<Integer> spans, String name, int span, int numCores) {
+        int previous = spans.isEmpty() ? 1 : spans.get(spans.size() - 1);
+        int capped = Math.min(span, numCores);
+        if (capped > previous) {
+            spans.add(capped);
+            levelNames.add(name);
+        }
+    }
+
+    // ----------------------------------------------------------------------
+    // LoadBalancer
+    // ----------------------------------------------------------------------
+
+    @Override
+    public void updateLoad(int coreId, int queueLength) {
+        Domain[] chain = chains[coreId];
+        int delta = queueLength - chain[0].load.get(); // only this core writes its leaf
+        if (delta != 0) {
+            for (Domain d : chain) {
+                d.load.addAndGet(delta);
+            }
+        }
+    }
+
+    @Override
+    public int pickSource(int coreId) {
+        Domain[] chain = chains[coreId];
+        long[] looks = nextLook[coreId];
+        long now = System.nanoTime();
+        for (int i = 1; i < chain.length; i++) {
+            Domain domain = chain[i];
+            if (now < looks[i]) {
+                continue;
+            }
+            looks[i] = now + domain.intervalNanos;
+            int source = findSource(coreId, chain[i - 1], domain);
+            if (source < 0) {
+                continue;
+            }
+            // at most one pull per domain and interval, whoever gets there first
+            long next = domain.nextBalanceNanos.get();
+            if (now < next || !domain.nextBalanceNanos.compareAndSet(next, now + domain.intervalNanos)) {
+                continue;
+            }
+            pullsByLevel.incrementAndGet(domain.level);
+            pendingLevel[coreId] = domain.level;
+            return source;
+        }
+        return -1;
+    }
+
+    @Override
+    public void pullResult(int coreId, int source, boolean granted) {
+        if (granted) {
+            grantedByLevel.incrementAndGet(pendingLevel[coreId]);
+        }
+    }
+
+    /** Busiest core of the busiest group of domain, if coreId should pull from it. */
+    private int findSource(int coreId, Domain local, Domain domain) {
+        double localAvg = local.avgLoad();
+        if (leaves[coreId].load.get() > localAvg) {
+            return -1; // let a less loaded core of our group do the pulling
+        }
+        Domain busiest = null;
+        for (Domain child : domain.children) {
+            if (child != local && (busiest == null || child.avgLoad() > busiest.avgLoad())) {
+                busiest = child;
+            }
+        }
+        if (busiest == null) {
+            return -1;
+        }
+        double busiestAvg = busiest.avgLoad();
+        if (busiestAvg - localAvg < MIN_IMBALANCE || busiestAvg * 100 < localAvg * IMBALANCE_PCT) {
+            return -1;
+        }
+        Domain d = busiest;
+        while (d.children.length > 0) {
+            Domain next = d.children[0];
+            for (Domain child : d.children) {
+                if (child.avgLoad() > next.avgLoad()) {
+                    next = child;
+                }
+            }
+            d = next;
+        }
+        // only ask if the victim's distance rule will let the task go
+        int minQueue = Core.STEAL_MIN_QUEUE[topology.distance(d.firstCore, coreId)];
+        return (d.load.get() > Math.max(1, minQueue)) ? d.firstCore : -1;
+    }
+
+    // ----------------------------------------------------------------------
+    // Inspection
+    // ----------------------------------------------------------------------
+
+    public Topology getTopology() { return topology; }
+
+    /** Balancing levels from the smallest up, e.g. [pair, group, socket, system]. */
+    public List<String> getLevelNames() { return new ArrayList<>(levelNames); }
+
+    /** Current aggregate queue length of the domain at level containing core. */
+    public int getDomainLoad(int level, int core) {
+        return chains[core][level + 1].load.get();
+    }
+
+    public long getPulls(int level) { return pullsByLevel.get(level); }
+    public long getGrantedPulls(int level) { return grantedByLevel.get(level); }
+
+    @Override
+    public String toString() {
+        return "SchedDomains{" + topology.getNumCores() + " cores, levels=" + levelNames + "}";
+    }
+}
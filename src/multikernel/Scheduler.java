@@ -1,6 +1,152 @@
 package multikernel;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Predicate;
+
+/**
+ * A core's run queue. The first three methods are all an implementation
+ * has to provide; the rest have defaults built on them, which schedulers
+ * override when they can do better (one lock acquisition per batch, an
+ * exact work sum). SchedulerConformanceTest checks an implementation against
+ * the contract below, single-threaded and under concurrent use.
+ *
+ *   - every queued task is dequeued exactly once, by getNextTask, drainTo
+ *     or steal, whichever gets it first
+ *   - size() and estimatedWork() are cheap and lock-free (monitoring
+ *     threads, placement and balancing call them while cores run); under
+ *     concurrent use they may lag, but are exact once the queue is quiet
+ *   - batch methods need not be atomic, but must not lose or duplicate
+ *     tasks when racing other calls
+ */
 public interface Scheduler {
     void addTask(Task task);
     Task getNextTask();
+
+    /** Number of tasks currently queued. Must be cheap and safe to call from monitoring threads. */
+    int size();
+
+    /**
+     * Admits a task arriving from outside the system (a producer stage such
+     * as TraceFeeder), as opposed to addTask, which is also used for requeues
+     * and migrations of tasks already admitted. Bounded schedulers may block
+     * here or refuse the task by returning false.
+     */
+    default boolean offer(Task task) throws InterruptedException {
+        addTask(task);
+        return true;
+    }
+
+    /**
+     * Puts back a task this core took from its own queue and could not hand
+     * on (a denied migration, a steal the thief cannot run). Not an arrival:
+     * schedulers that measure arrivals override it to leave it uncounted.
+     */
+    default void requeue(Task task) {
+        addTask(task);
+    }
+
+    /** Queues every task, in iteration order, as addTask would. */
+    default void addAll(Collection<Task> tasks) {
+        for (Task task : tasks) {
+            addTask(task);
+        }
+    }
+
+    /**
+     * Moves up to maxTasks tasks to sink in the order getNextTask would
+     * return them; the number moved.
+     */
+    default int drainTo(Collection<? super Task> sink, int maxTasks) {
+        int moved = 0;
+        Task task;
+        while (moved < maxTasks && (task = getNextTask()) != null) {
+            sink.add(task);
+            moved++;
+        }
+        return moved;
+    }
+
+    /**
+     * Burst ms of the queued tasks. The default assumes every task is of
+     * mean size; schedulers that see the bursts keep the exact sum.
+     */
+    default long estimatedWork() {
+        return Math.round(size() * WorkloadGenerator.MEAN_BURST_MS);
+    }
+
+    /**
+     * Gives up to maxTasks queued tasks to another core, leaving at least
+     * keep queued as far as size() can tell. Which tasks go is the
+     * scheduler's choice; by default the ones getNextTask would return.
+     */
+    default List<Task> steal(int maxTasks, int keep) {
+        List<Task> stolen = new ArrayList<>();
+        int spare = Math.min(maxTasks, size() - keep);
+        if (spare > 0) {
+            drainTo(stolen, spare);
+        }
+        return stolen;
+    }
+
+    /** steal(maxTasks, 0): may empty the queue. */
+    default List<Task> steal(int maxTasks) {
+        return steal(maxTasks, 0);
+    }
+
+    /**
+     * As steal(maxTasks, keep), in getNextTask order, but only while accept
+     * allows: the first task it refuses stays queued where it is, and so does
+     * everything behind it. accept sees each task before it is taken; under
+     * concurrent use it may also see one that another consumer takes first.
+     * The default cannot look before it takes, so a refused task goes back
+     * through requeue; the schedulers of this tree override it.
+     */
+    default List<Task> steal(int maxTasks, int keep, Predicate<? super Task> accept) {
+        List<Task> stolen = new ArrayList<>();
+        while (stolen.size() < maxTasks) {
+            List<Task> next = steal(1, keep);
+            if (next.isEmpty()) {
+                break;
+            }
+            if (!accept.test(next.get(0))) {
+                requeue(next.get(0));
+                break;
+            }
+            stolen.add(next.get(0));
+        }
+        return stolen;
+    }
+
+    /** Queue length and work for balancing decisions, from the two cheap getters. */
+    default Load loadSnapshot() {
+        return new Load(size(), estimatedWork());
+    }
+
+    /** What a core reports about its queue to placement and load balancing. */
+    final class Load {
+        private final int queued;
+        private final long workMs;
+
+        public Load(int queued, long workMs) {
+            this.queued = queued;
+            this.workMs = workMs;
+        }
+
+        public int getQueued() { return queued; }
+
+        /** Estimated burst ms of the queued tasks. */
+        public long getWorkMs() { return workMs; }
+
+        /** Time to drain the queue on a core of this speed (CoreProfile). */
+        public double drainMs(double speed) {
+            return workMs / speed;
+        }
+
+        @Override
+        public String toString() {
+            return queued + " tasks / " + workMs + " ms";
+        }
+    }
 }
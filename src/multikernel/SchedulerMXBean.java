@@ -0,0 +1,17 @@
+package multikernel;
+
+/**
+ * Live view of one core's scheduler queue.
+ */
+public interface SchedulerMXBean {
+
+    int getCoreId();
+
+    /**
+     * Simple class name of the scheduling policy, e.g. "RoundRobinScheduler";
+     * an AdaptiveScheduler adds its current ordering, e.g. "AdaptiveScheduler[SJF]".
+     */
+    String getPolicy();
+
+    int getQueueDepth();
+}
@@ -0,0 +1,40 @@
+package multikernel;
+
+/**
+ * Adapts any Scheduler to SchedulerMXBean. Schedulers are plain queues and
+ * don't know which core they belong to, so the core id is supplied here.
+ */
+public class SchedulerMonitor implements SchedulerMXBean {
+
+    private final int coreId;
+    private final Scheduler scheduler;
+
+    public SchedulerMonitor(int coreId, Scheduler scheduler) {
+        this.coreId = coreId;
+        this.scheduler = scheduler;
+    }
+
+    @Override
+    public int getCoreId() {
+        return coreId;
+    }
+
+    @Override
+    public String getPolicy() {
+        Scheduler visible = (scheduler instanceof StragglerHedging.Tracked) // tracking is not a policy
+                ? ((StragglerHedging.Tracked) scheduler).getDelegate()
+                : scheduler;
+        Scheduler inner = (visible instanceof BoundedScheduler)
+                ? ((BoundedScheduler) visible).getDelegate()
+                : visible;
+        if (inner instanceof AdaptiveScheduler) {
+            return inner.getClass().getSimpleName() + "[" + ((AdaptiveScheduler) inner).getPolicy() + "]";
+        }
+        return visible.getClass().getSimpleName();
+    }
+
+    @Override
+    public int getQueueDepth() {
+        return scheduler.size();
+    }
+}
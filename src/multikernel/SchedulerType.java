@@ -0,0 +1,65 @@
+package multikernel;
+
+/**
+ * The scheduling policies a simulation can be configured with.
+ */
+public enum SchedulerType {
+
+    ROUND_ROBIN("Round Robin", "RR"),
+    SJF("SJF", "SJF"),
+    ADAPTIVE("Adaptive", "ADAPT");
+
+    private final String displayName;
+    private final String shortName;
+
+    SchedulerType(String displayName, String shortName) {
+        this.displayName = displayName;
+        this.shortName = shortName;
+    }
+
+    /** Fresh, empty scheduler instance for one core. */
+    public Scheduler create() {
+        switch (this) {
+            case SJF:
+                return new ShortestJobFirstScheduler();
+            case ADAPTIVE:
+                return new AdaptiveScheduler();
+            case ROUND_ROBIN:
+            default:
+                return new RoundRobinScheduler();
+        }
+    }
+
+    /**
+     * Fresh, empty scheduler that queues handles into table rather than Task
+     * objects (see TaskTable). Round robin and SJF only.
+     */
+    public Scheduler create(TaskTable table) {
+        switch (this) {
+            case SJF:
+                return new TaskHandleScheduler(table, true);
+            case ROUND_ROBIN:
+                return new TaskHandleScheduler(table, false);
+            default:
+                throw new IllegalArgumentException(displayName + " has no compact task queue");
+        }
+    }
+
+    public String getDisplayName() {
+        return displayName;
+    }
+
+    public String getShortName() {
+        return shortName;
+    }
+
+    /** Accepts the enum name or the short name, case-insensitive ("rr", "SJF", "round_robin"). */
+    public static SchedulerType parse(String text) {
+        for (SchedulerType t : values()) {
+            if (t.name().equalsIgnoreCase(text) || t.shortName.equalsIgnoreCase(text)) {
+                return t;
+            }
+        }
+        throw new IllegalArgumentException("Unknown scheduler: " + text);
+    }
+}
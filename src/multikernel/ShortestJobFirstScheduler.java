@@ -1,19 +1,70 @@
 package multikernel;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
 import java.util.PriorityQueue;
 import java.util.Comparator;
+import java.util.function.Predicate;
 
 public class ShortestJobFirstScheduler implements Scheduler {
 
     private final PriorityQueue<Task> queue = new PriorityQueue<>(Comparator.comparingInt(Task::getBurstTime));
 
+    // mirror queue.size() and the burst sum; written under the lock, read without it by monitoring threads
+    private volatile int size;
+    private volatile long work;
+
     @Override
     public synchronized void addTask(Task task) {
         queue.offer(task);
+        size = queue.size();
+        work += task.getBurstTime();
+    }
+
+    @Override
+    public synchronized void addAll(Collection<Task> tasks) {
+        long burst = work;
+        for (Task task : tasks) {
+            queue.offer(task);
+            burst += task.getBurstTime();
+        }
+        size = queue.size();
+        work = burst;
     }
 
     @Override
     public synchronized Task getNextTask() {
-        return queue.poll();
+        Task task = queue.poll();
+        size = queue.size();
+        if (task != null) {
+            work -= task.getBurstTime();
+        }
+        return task;
+    }
+
+    /** One lock acquisition for the whole batch. */
+    @Override
+    public synchronized int drainTo(Collection<? super Task> sink, int maxTasks) {
+        return Scheduler.super.drainTo(sink, maxTasks);
+    }
+
+    @Override
+    public synchronized List<Task> steal(int maxTasks, int keep, Predicate<? super Task> accept) {
+        List<Task> stolen = new ArrayList<>();
+        while (stolen.size() < maxTasks && queue.size() > keep && accept.test(queue.peek())) {
+            stolen.add(getNextTask());
+        }
+        return stolen;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public long estimatedWork() {
+        return work;
     }
 }
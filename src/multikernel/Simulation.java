@@ -0,0 +1,663 @@
+package multikernel;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * One isolated simulation instance: its own MessageBus, cores, schedulers,
+ * memory managers and metrics, built from a SimulationConfig. Nothing is
+ * shared with other instances, so several can run side by side
+ * (see ExperimentRunner).
+ *
+ * Usage:
+ *   Simulation sim = new Simulation(config);
+ *   SimulationResult result = sim.run();   // blocks until completion/deadline
+ *   sim.getMetricsCollector().exportCSV(...);
+ *
+ * The workload comes from a seeded WorkloadGenerator, so the same config
+ * always yields the same tasks. With setRecordFile / setReplayFile the
+ * remaining thread-timing decisions are recorded or replayed (ReplayLog).
+ * With setTraceFile (a trace file) or setArrivals (an arrival process) the
+ * workload is open instead: a TraceFeeder streams tasks in at their arrival
+ * times while the cores run.
+ *
+ * With setDistributed the cores are split over several processes: each
+ * builds the same simulation but starts only its own cores and queues only
+ * the tasks placed on them, and messages to the other cores go through a
+ * Transport, connected by the constructor (which waits for the other
+ * nodes) and closed by run(). Results and metrics then cover this process's
+ * cores; a task may finish on another node than the one that queued it, so
+ * task counts only add up over all nodes.
+ */
+public class Simulation {
+
+    // a core stuck in a sync request never re-checks its running flag
+    private static final long STOP_GRACE_MS = 2000;
+    // how long a node waits for the other nodes of a distributed run to listen
+    private static final long CONNECT_TIMEOUT_MS = 30_000;
+
+    private final SimulationConfig config;
+
+    private final MessageBus messageBus;
+    private final MetricsCollector metricsCollector = new MetricsCollector();
+    private final MemoryTracker memoryTracker = new MemoryTracker();
+
+    private final List<Core> cores = new ArrayList<>();
+    private final List<Scheduler> schedulers = new ArrayList<>();
+    private final List<MemoryManager> memoryManagers = new ArrayList<>();
+    private final List<Task> workload;   // empty in trace mode; a view of taskTable if set
+    private final TaskTable taskTable;   // compact tasks only
+    private TraceFeeder traceFeeder;      // open workloads only, created by run()
+    private final SchedDomains schedDomains; // null unless load balancing is on
+    private ImbalanceMonitor imbalanceMonitor; // created by run() if sampling is on
+    private final StragglerHedging hedging;    // null unless straggler hedging is on
+    private final Transport transport;        // distributed runs only
+
+    // record / replay (null when not enabled)
+    private final ReplayLog recordLog;
+    private final ReplayLog replayLog;
+
+    private boolean started = false;
+    private volatile Throwable coreFailure; // first exception or error that killed a core thread
+
+    public Simulation(SimulationConfig config) {
+        this.config = config;
+        config.validate();
+        this.recordLog = (config.getRecordFile() != null) ? new ReplayLog(config) : null;
+        this.replayLog = (config.getReplayFile() != null) ? loadReplayLog(config) : null;
+
+        int numCores = config.getNumCores();
+        // filled once the nodes are connected; the schedulers only need the reference
+        this.taskTable = config.isCompactTasks() ? new TaskTable(1, config.getNumTasks()) : null;
+        this.messageBus = new MessageBus(numCores);
+        this.transport = config.isDistributed()
+                ? Transport.create(config.getTransportKind(), config.getTransportEndpoint(),
+                        config.getNodes(), config.getNode(), numCores)
+                : null;
+        messageBus.setTreeFanout(config.getMulticastFanout());
+        Topology topology = (config.getMigrationCost() != null || config.isWorkStealing()
+                || config.isSchedDomains())
+                ? config.createTopology()
+                : null;
+        // a shared queue is balanced by construction
+        this.schedDomains = config.isSchedDomains() && !config.isSharedQueue()
+                ? new SchedDomains(topology, config.getTimeScale())
+                : null;
+
+        this.hedging = config.isHedging()
+                ? new StragglerHedging(config.getHedgePercentile(), config.getHedgeCheckMs(), cores,
+                        memoryManagers, messageBus, metricsCollector, config.getCoreProfiles())
+                : null;
+
+        Scheduler shared = config.isSharedQueue() ? createScheduler(-1) : null;
+        for (int i = 0; i < numCores; i++) {
+            Scheduler scheduler = (shared != null) ? shared : createScheduler(i);
+            MemoryManager memoryManager = new MemoryManager(config.getMemoryOfCore(i));
+            schedulers.add(scheduler);
+            memoryManagers.add(memoryManager);
+            Core core = new Core(i, scheduler, memoryManager, messageBus,
+                    metricsCollector, memoryTracker, numCores);
+            if (config.getMigrationCost() != null) {
+                core.setAffinity(topology, config.getMigrationCost());
+            }
+            if (config.isWorkStealing()) {
+                core.enableWorkStealing(topology);
+            }
+            if (schedDomains != null) {
+                core.setLoadBalancer(schedDomains, topology);
+            }
+            if (config.getMigrationBatch() > 1) {
+                core.setMigrationBatching(config.getMigrationBatch(), config.getMigrationWindowMs());
+            }
+            if (config.isMemoryProbe()) {
+                core.setMemoryProbe(true);
+            }
+            if (config.getPagingPolicy() != null) {
+                core.setVirtualMemory(new VirtualMemory(config.getPagingPolicy(), config.getPageFaultMs(),
+                        config.getSeed()));
+            }
+            if (config.getRebalanceScheme() != null && !config.isSharedQueue()) {
+                core.enableRebalancing(new DiffusionRebalancer(i, numCores, config.getRebalanceScheme(),
+                        config.getRebalancePeriodMs(), config.getRebalanceDamping(), config.getTimeScale()));
+            }
+            if (config.getCoreProfiles() != null) {
+                core.setCoreProfiles(config.getCoreProfiles(), config.isSpeedAwarePlacement());
+            }
+            if (hedging != null) {
+                core.setHedging(hedging);
+            }
+            if (transport == null || transport.isLocal(i)) {
+                cores.add(core);
+            }
+        }
+        if (config.isSpeedAwarePlacement() && config.getCoreProfiles() == null) {
+            throw new IllegalArgumentException("Speed-aware placement needs core profiles: " + config.getLabel());
+        }
+
+        if (config.isOpenWorkload()) {
+            // streamed by a TraceFeeder once the cores run
+            this.workload = Collections.emptyList();
+            return;
+        }
+
+        if (transport != null) {
+            // all nodes get here together, so their tasks arrive at the same time
+            try {
+                messageBus.attachTransport(transport);
+                transport.connect(CONNECT_TIMEOUT_MS);
+            } catch (IOException e) {
+                transport.close();
+                throw new IllegalStateException("Cannot reach the other nodes of " + config.getLabel(), e);
+            }
+        }
+        List<Task> generated;
+        if (taskTable != null) {
+            new WorkloadGenerator(config.getSeed())
+                    .generate(taskTable, config.getNumTasks(), System.currentTimeMillis());
+            generated = taskTable.view(allHandles(taskTable.size()));
+        } else {
+            generated = new WorkloadGenerator(config.getSeed())
+                    .generate(config.getNumTasks(), System.currentTimeMillis());
+        }
+        // another node's tasks are queued (and counted) there
+        List<Task> local = new ArrayList<>();
+        int[] localHandles = new int[generated.size()];
+        int localCount = 0;
+
+        TaskPlacement placement = createPlacement(schedulers);
+        for (int i = 0; i < generated.size(); i++) {
+            // with a TaskTable this is a short-lived copy the scheduler folds back into handle i
+            Task task = generated.get(i);
+            int core = placement.place(task);
+            if (core < 0) {
+                // generated tasks need no capability, so only an odd profile list gets here
+                throw new IllegalArgumentException("No core can run task " + task.getId() + ": " + config.getLabel());
+            }
+            if (!config.isSharedQueue()) {
+                task.setHomeCore(core);
+            }
+            if (transport == null || transport.isLocal(core)) {
+                schedulers.get(core).addTask(task);
+                if (taskTable != null) {
+                    localHandles[localCount++] = i;
+                } else {
+                    local.add(task);
+                }
+            }
+        }
+        this.workload = (taskTable != null) ? taskTable.view(Arrays.copyOf(localHandles, localCount)) : local;
+    }
+
+    private static int[] allHandles(int n) {
+        int[] handles = new int[n];
+        for (int h = 0; h < n; h++) {
+            handles[h] = h;
+        }
+        return handles;
+    }
+
+    /**
+     * Round robin (skipping cores without a task's capability, and over the
+     * hotspot cores only if set), or by estimated finish time when
+     * speed-aware placement is on. With a shared
+     * queue there is only one target; cores sort out capabilities themselves.
+     */
+    private TaskPlacement createPlacement(List<Scheduler> targets) {
+        if (config.isSharedQueue()) {
+            return TaskPlacement.roundRobin(1, null);
+        }
+        if (config.getHotspotCores() > 0) {
+            return TaskPlacement.roundRobin(Math.min(config.getHotspotCores(), targets.size()),
+                    config.getCoreProfiles());
+        }
+        if (config.isSpeedAwarePlacement()) {
+            return TaskPlacement.speedAware(config.getCoreProfiles(), targets);
+        }
+        return TaskPlacement.roundRobin(targets.size(), config.getCoreProfiles());
+    }
+
+    /**
+     * Runs the simulation in completion mode and blocks until every task is
+     * done or the configured deadline passes. Can only be called once.
+     * If a core thread dies, the other cores are stopped and its failure is
+     * rethrown here: errors (OutOfMemoryError) as they are, exceptions
+     * wrapped in an IllegalStateException.
+     */
+    public SimulationResult run() {
+        if (started) {
+            throw new IllegalStateException("Simulation already run: " + config.getLabel());
+        }
+        started = true;
+
+        JmxRegistrar jmx = null;
+        if (config.isRegisterJmx()) {
+            jmx = new JmxRegistrar(config.getLabel());
+            jmx.registerAll(messageBus, cores, schedulers, memoryManagers);
+        }
+        MetricsEndpoint metricsEndpoint = null;
+        if (config.getMetricsPort() > 0) {
+            try {
+                metricsEndpoint = MetricsEndpoint.shared(config.getMetricsPort());
+                metricsEndpoint.register(config.getLabel(), this);
+            } catch (IOException e) {
+                System.out.println("⚠ [" + config.getLabel() + "] no metrics endpoint on port "
+                        + config.getMetricsPort() + ": " + e.getMessage());
+            }
+        }
+
+        long wallStart = System.currentTimeMillis();
+        if (config.isOpenWorkload()) {
+            List<Scheduler> targets = config.isSharedQueue()
+                    ? Collections.singletonList(schedulers.get(0))
+                    : schedulers;
+            int numCores = cores.size();
+            traceFeeder = new TraceFeeder(openWorkloadSource(), targets, createPlacement(targets),
+                    config.getTimeScale(),
+                    config.getTraceMaxBacklogPerCore() * numCores,
+                    // shared queue: any core can take it, so spread the wake-ups
+                    config.isSharedQueue()
+                            ? target -> messageBus.wakeUp((int) (traceFeeder.getTasksFed() % numCores))
+                            : messageBus::wakeUp);
+        }
+        for (Core c : cores) {
+            if (replayLog != null) {
+                c.setReplayLog(replayLog); // ends on its own once the log is used up
+            } else if (traceFeeder != null) {
+                c.enableTerminationDetection(traceFeeder::isDone);
+            } else {
+                c.enableTerminationDetection();
+            }
+            if (recordLog != null) {
+                c.setRecordLog(recordLog);
+            }
+            c.setTimeScale(config.getTimeScale());
+            c.setUncaughtExceptionHandler(this::onCoreFailure);
+        }
+        if (config.getImbalanceSampleMs() > 0) {
+            imbalanceMonitor = new ImbalanceMonitor(schedulers, config.getImbalanceSampleMs());
+            imbalanceMonitor.start();
+        }
+        for (Core c : cores) {
+            c.start();
+        }
+        if (traceFeeder != null) {
+            traceFeeder.start();
+        }
+        if (hedging != null) {
+            hedging.start();
+        }
+
+        boolean completed = false;
+        try {
+            completed = awaitCompletion();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            for (Core c : cores) {
+                c.stopCore();
+                c.interrupt();
+            }
+        }
+        if (traceFeeder != null) {
+            traceFeeder.interrupt(); // deadline hit before the trace was used up
+            try {
+                traceFeeder.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        long wallTimeMs = System.currentTimeMillis() - wallStart;
+        if (imbalanceMonitor != null) {
+            imbalanceMonitor.stopMonitor();
+        }
+        if (hedging != null) {
+            hedging.stopMonitor();
+        }
+
+        if (transport != null) {
+            transport.close();
+        }
+        if (jmx != null) {
+            jmx.unregisterAll();
+        }
+        if (metricsEndpoint != null) {
+            metricsEndpoint.unregister(this);
+        }
+        if (recordLog != null) {
+            recordLog.save(config.getRecordFile());
+        }
+        if (replayLog != null && replayLog.getDivergences() == 0) {
+            System.out.println("✔ [" + config.getLabel() + "] replay matched the recording");
+        } else if (replayLog != null) {
+            System.out.println("⚠ [" + config.getLabel() + "] replay diverged at "
+                    + replayLog.getDivergences() + " steps");
+        }
+
+        Throwable failure = coreFailure;
+        if (failure instanceof Error) {
+            throw (Error) failure; // OutOfMemoryError and friends reach the caller as such
+        } else if (failure != null) {
+            throw new IllegalStateException("A core thread failed: " + config.getLabel(), failure);
+        }
+
+        int completedTasks = metricsCollector.getCompletedTaskCount();
+        long totalMessages = messageBus.getTotalMessagesSent();
+        // a node of a distributed run cannot tell: its tasks may be stolen or
+        // migrated to another process and complete there (and the reverse)
+        int unfinishedTasks = config.isDistributed() ? 0 : (int) Math.max(0L, getTasksSubmitted() - completedTasks);
+
+        return new SimulationResult(
+                config,
+                metricsCollector.getAverageTurnaround(),
+                metricsCollector.getAverageWaiting(),
+                averageUtilization(),
+                completedTasks,
+                unfinishedTasks,
+                (traceFeeder != null) ? traceFeeder.getTasksRejected() : 0L,
+                totalMessages,
+                wallTimeMs,
+                completed);
+    }
+
+    /**
+     * A core thread died. Without it termination detection never completes,
+     * so the other cores are stopped and run() rethrows the failure once
+     * they have exited. Keeps to field writes first: the failure may be an
+     * OutOfMemoryError.
+     */
+    private void onCoreFailure(Thread core, Throwable failure) {
+        synchronized (this) {
+            if (coreFailure != null) {
+                return; // the first failure is the one that counts
+            }
+            coreFailure = failure;
+        }
+        for (Core c : cores) {
+            if (c != core) {
+                c.stopCore();
+                c.interrupt();
+            }
+        }
+        System.out.println("⚠ [" + config.getLabel() + "] core " + ((Core) core).getCoreId() + " died: " + failure);
+    }
+
+    /** The first exception or error that killed a core thread, or null. */
+    public Throwable getCoreFailure() { return coreFailure; }
+
+    /**
+     * Waits for the cores to stop on their own. When called from a
+     * ForkJoinPool worker the wait goes through managedBlock so the pool
+     * can compensate for the blocked thread.
+     */
+    private boolean awaitCompletion() throws InterruptedException {
+        if (!ForkJoinTask.inForkJoinPool()) {
+            return awaitCompletion(cores, config.getDeadlineMs());
+        }
+        CompletionBlocker blocker = new CompletionBlocker();
+        ForkJoinPool.managedBlock(blocker);
+        return blocker.completed;
+    }
+
+    private final class CompletionBlocker implements ForkJoinPool.ManagedBlocker {
+        private volatile boolean done = false;
+        private boolean completed = false;
+
+        @Override
+        public boolean block() throws InterruptedException {
+            completed = awaitCompletion(cores, config.getDeadlineMs());
+            done = true;
+            return true;
+        }
+
+        @Override
+        public boolean isReleasable() {
+            return done;
+        }
+    }
+
+    /**
+     * Waits for cores running in completion mode to stop on their own.
+     * If the deadline (ms, 0 = none) passes first, the cores are stopped
+     * forcibly and false is returned; whatever is still queued is unfinished.
+     */
+    public static boolean awaitCompletion(List<Core> cores, long deadlineMs) throws InterruptedException {
+        long deadline = (deadlineMs > 0) ? System.currentTimeMillis() + deadlineMs : Long.MAX_VALUE;
+        for (Core c : cores) {
+            long remaining = deadline - System.currentTimeMillis();
+            if (deadlineMs > 0 && remaining <= 0) {
+                break;
+            }
+            c.join(deadlineMs > 0 ? remaining : 0);
+        }
+
+        boolean completed = true;
+        for (Core c : cores) {
+            if (c.isAlive()) {
+                completed = false;
+                c.stopCore();
+            }
+        }
+        if (!completed) {
+            System.out.println("⚠ Deadline of " + deadlineMs + " ms reached, stopping cores.");
+        }
+        for (Core c : cores) {
+            c.join(STOP_GRACE_MS);
+            if (c.isAlive()) {
+                c.interrupt();
+                c.join();
+            }
+        }
+        return completed;
+    }
+
+    /**
+     * Prints tasks that never completed; they are excluded from the averages.
+     * A node of a distributed run only reports what it completed: whatever
+     * its cores did not finish may have finished in another process.
+     */
+    public void reportUnfinished() {
+        if (config.isDistributed()) {
+            System.out.println("✔ [" + config.getLabel() + "] " + metricsCollector.getCompletedTaskCount()
+                    + " tasks completed on this node (unfinished tasks are counted over all nodes)");
+            return;
+        }
+        if (traceFeeder != null) {
+            long unfinished = traceFeeder.getTasksFed() - metricsCollector.getCompletedTaskCount();
+            System.out.println((unfinished == 0 && traceFeeder.getFailure() == null ? "✔" : "⚠")
+                    + " [" + config.getLabel() + "] " + traceFeeder.getTasksFed() + " tasks fed, "
+                    + unfinished + " unfinished"
+                    + (traceFeeder.getTasksRejected() > 0 ? ", " + traceFeeder.getTasksRejected() + " rejected" : "")
+                    + (traceFeeder.getFailure() != null ? ", trace read failed: " + traceFeeder.getFailure() : ""));
+            return;
+        }
+        List<Integer> unfinished = metricsCollector.findUnfinishedTasks(workload);
+        String label = config.getLabel();
+        if (unfinished.isEmpty()) {
+            System.out.println("✔ [" + label + "] all " + workload.size() + " tasks completed");
+        } else {
+            System.out.println("⚠ [" + label + "] " + unfinished.size() + " of " + workload.size()
+                    + " tasks unfinished (excluded from averages): " + unfinished);
+        }
+    }
+
+    private double averageUtilization() {
+        Map<Integer, Double> util = metricsCollector.getCoreUtilizationPercent();
+        if (util.isEmpty()) return 0.0;
+        double total = 0;
+        for (double pct : util.values()) {
+            total += pct;
+        }
+        return total / util.size();
+    }
+
+    /** Scheduler for coreId (-1 = the shared queue). */
+    private Scheduler createScheduler(int coreId) {
+        Scheduler scheduler = (taskTable != null)
+                ? config.getSchedulerType().create(taskTable)
+                : config.getSchedulerType().create();
+        if (scheduler instanceof AdaptiveScheduler) {
+            ((AdaptiveScheduler) scheduler).attachMetrics(coreId, metricsCollector);
+        }
+        if (config.getQueueCapacity() > 0) {
+            scheduler = new BoundedScheduler(scheduler, config.getQueueCapacity(), config.getAdmissionPolicy());
+        }
+        if (hedging != null) {
+            scheduler = hedging.track(coreId, scheduler);
+        }
+        return scheduler;
+    }
+
+    /** The trace file, or a generated arrival stream of numTasks tasks. */
+    private TaskTraceReader openWorkloadSource() {
+        if (config.getTraceFile() != null) {
+            try {
+                return TaskTraceReader.open(config.getTraceFile());
+            } catch (IOException e) {
+                throw new IllegalArgumentException("Cannot open trace " + config.getTraceFile(), e);
+            }
+        }
+        double rate = ArrivalProcess.rateFor(config.getOfferedLoad(), config.getNumCores(),
+                WorkloadGenerator.MEAN_BURST_MS);
+        // arrivals get their own stream so task sizes match the closed workload of the same seed
+        ArrivalProcess arrivals = ArrivalProcess.create(config.getArrivalPattern(), rate, ~config.getSeed());
+        return new ArrivalTaskSource(new WorkloadGenerator(config.getSeed()), arrivals, config.getNumTasks());
+    }
+
+    private static ReplayLog loadReplayLog(SimulationConfig config) {
+        ReplayLog log;
+        try {
+            log = ReplayLog.load(config.getReplayFile());
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Cannot read replay log " + config.getReplayFile(), e);
+        }
+        if (!log.matches(config)) {
+            throw new IllegalArgumentException("Replay log " + config.getReplayFile()
+                    + " was recorded for " + log.toConfig().getLabel() + ", not " + config.getLabel());
+        }
+        return log;
+    }
+
+    // ----------------------------------------------------------------------
+    // Accessors (for exports and charts after run())
+    // ----------------------------------------------------------------------
+
+    public SimulationConfig getConfig() { return config; }
+    public MessageBus getMessageBus() { return messageBus; }
+    public MetricsCollector getMetricsCollector() { return metricsCollector; }
+    public MemoryTracker getMemoryTracker() { return memoryTracker; }
+    public List<Core> getCores() { return Collections.unmodifiableList(cores); }
+    public List<Scheduler> getSchedulers() { return Collections.unmodifiableList(schedulers); }
+    public List<MemoryManager> getMemoryManagers() { return Collections.unmodifiableList(memoryManagers); }
+    public List<Task> getWorkload() { return Collections.unmodifiableList(workload); }
+
+    /** The workload's columns when compact tasks are on, else null. */
+    public TaskTable getTaskTable() { return taskTable; }
+    public TraceFeeder getTraceFeeder() { return traceFeeder; }
+    public SchedDomains getSchedDomains() { return schedDomains; }
+    public ImbalanceMonitor getImbalanceMonitor() { return imbalanceMonitor; }
+    public StragglerHedging getHedging() { return hedging; }
+    public Transport getTransport() { return transport; }
+
+    /** Tasks pushed by all cores in rebalancing epochs. */
+    public long getTasksPushed() {
+        long total = 0;
+        for (Core c : cores) {
+            total += c.getTasksPushed();
+        }
+        return total;
+    }
+
+    /** MEMORY_PROBE requests sent by all cores, and those no core said yes to. */
+    public long getProbesSent() {
+        long total = 0;
+        for (Core c : cores) {
+            total += c.getProbesSent();
+        }
+        return total;
+    }
+
+    public long getProbesUnanswered() {
+        long total = 0;
+        for (Core c : cores) {
+            total += c.getProbesUnanswered();
+        }
+        return total;
+    }
+
+    /** Paging statistics summed over all cores; zero without demand paging. */
+    public long getPageReferences() {
+        long total = 0;
+        for (Core c : cores) {
+            total += (c.getVirtualMemory() != null) ? c.getVirtualMemory().getReferences() : 0;
+        }
+        return total;
+    }
+
+    public long getMajorPageFaults() {
+        long total = 0;
+        for (Core c : cores) {
+            total += (c.getVirtualMemory() != null) ? c.getVirtualMemory().getMajorFaults() : 0;
+        }
+        return total;
+    }
+
+    /** Tasks that ran with fewer frames than pages, and those of them that thrashed. */
+    public long getOvercommittedTasks() {
+        long total = 0;
+        for (Core c : cores) {
+            total += (c.getVirtualMemory() != null) ? c.getVirtualMemory().getOvercommittedTasks() : 0;
+        }
+        return total;
+    }
+
+    public long getThrashingTasks() {
+        long total = 0;
+        for (Core c : cores) {
+            total += (c.getVirtualMemory() != null) ? c.getVirtualMemory().getThrashingTasks() : 0;
+        }
+        return total;
+    }
+
+    /** Simulated ms all cores spent waiting for pages from swap. */
+    public double getPageFaultServiceMs() {
+        double total = 0;
+        for (Core c : cores) {
+            total += (c.getVirtualMemory() != null) ? c.getVirtualMemory().getFaultServiceMs() : 0;
+        }
+        return total;
+    }
+
+    /** Share of all cores' execution time that was fault service. */
+    public double getPageFaultTimeSharePct() {
+        double faults = 0;
+        double total = 0;
+        for (Core c : cores) {
+            if (c.getVirtualMemory() != null) {
+                faults += c.getVirtualMemory().getFaultServiceMs();
+                total += c.getVirtualMemory().getFaultServiceMs() + c.getVirtualMemory().getBurstMs();
+            }
+        }
+        return (total <= 0) ? 0.0 : 100.0 * faults / total;
+    }
+
+    /** STEAL_REQUESTs sent by all cores (work stealing and load balancing). */
+    public long getStealRequestsSent() {
+        long total = 0;
+        for (Core c : cores) {
+            total += c.getStealRequestsSent();
+        }
+        return total;
+    }
+
+    /** Tasks handed to the cores: the generated workload, or what the trace feeder injected. */
+    public long getTasksSubmitted() {
+        return (traceFeeder != null) ? traceFeeder.getTasksFed() : workload.size();
+    }
+    public ReplayLog getRecordLog() { return recordLog; }
+    public ReplayLog getReplayLog() { return replayLog; }
+}
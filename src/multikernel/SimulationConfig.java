@@ -0,0 +1,481 @@
+package multikernel;
+
+import java.io.File;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Everything needed to build one isolated simulation instance.
+ *
+ * The constructor takes the dimensions an experiment sweeps over; the
+ * setters cover the optional knobs and return this so they can be chained.
+ */
+public class SimulationConfig {
+
+    private final SchedulerType schedulerType;
+    private final int numCores;
+    private final int numTasks;
+    private final int memoryPerCore;
+    private final long seed;
+
+    // optional knobs
+    private long deadlineMs = 120_000;  // safety net for completion mode, 0 = none
+    private boolean sharedQueue = false; // one "global" scheduler shared by all cores
+    private boolean registerJmx = true;
+    private int metricsPort = 0;         // OpenMetrics endpoint (MetricsEndpoint), 0 = off
+    private double timeScale = 1.0;      // simulated ms -> wall ms (0 = no sleeping)
+    private String recordFile;           // save a ReplayLog of the run here
+    private String replayFile;           // repeat the decisions recorded here
+    private String traceFile;            // stream tasks from this trace instead of generating
+    private int traceMaxBacklogPerCore = 10_000; // feeder pauses above this many queued tasks per core
+    private ArrivalProcess.Pattern arrivalPattern; // open system: tasks arrive while cores run
+    private double offeredLoad = 0.0;    // arrival rate / total service capacity
+    private int queueCapacity = 0;       // per-scheduler admission bound, 0 = unbounded
+    private BoundedScheduler.AdmissionPolicy admissionPolicy = BoundedScheduler.AdmissionPolicy.BLOCK;
+    private int coresPerCluster = 0;     // topology; 0 = Topology.defaultFor(numCores)
+    private int clustersPerSocket = 0;
+    private MigrationCostModel migrationCost; // null = migrations are free
+    private boolean workStealing = false;
+    private boolean schedDomains = false; // hierarchical periodic load balancing
+    private DiffusionRebalancer.Scheme rebalanceScheme; // null = no rebalancing epochs
+    private double rebalancePeriodMs = 50.0;
+    private double rebalanceDamping = 0.5;
+    private long imbalanceSampleMs = 0;  // sample queue lengths every N wall ms, 0 = off
+    private int hotspotCores = 0;        // initial tasks only on the first N cores, 0 = all
+    private int migrationBatch = 1;      // tasks per RESOURCE_REQUEST_BATCH, 1 = unbatched
+    private int[] coreMemory;            // per-core memory, null = memoryPerCore everywhere
+    private double migrationWindowMs = 20.0;
+    private boolean memoryProbe = false; // find migration targets with a MEMORY_PROBE multicast
+    private int multicastFanout = 0;     // MessageBus tree fanout, 0 = direct delivery
+    private int nodes = 1;               // processes the cores are split over (Transport)
+    private int node = 0;                // which of them this one is
+    private Transport.Kind transportKind = Transport.Kind.TCP;
+    private String transportEndpoint;    // base port (TCP) or socket directory (UNIX)
+    private List<CoreProfile> coreProfiles; // heterogeneous cores, null = all CoreProfile.REFERENCE
+    private boolean speedAwarePlacement = false;
+    private boolean compactTasks = false;   // workload in a TaskTable, queues hold handles
+    private PageReplacement.Policy pagingPolicy; // demand paging (VirtualMemory), null = off
+    private double pageFaultMs = 2.0;    // simulated cost of one major fault
+    private double hedgePercentile = 0.0; // straggler hedging (StragglerHedging), 0 = off
+    private long hedgeCheckMs = 10;
+
+    public SimulationConfig(SchedulerType schedulerType, int numCores, int numTasks,
+                            int memoryPerCore, long seed) {
+        this.schedulerType = schedulerType;
+        this.numCores = numCores;
+        this.numTasks = numTasks;
+        this.memoryPerCore = memoryPerCore;
+        this.seed = seed;
+    }
+
+    public SchedulerType getSchedulerType() { return schedulerType; }
+    public int getNumCores() { return numCores; }
+    public int getNumTasks() { return numTasks; }
+    public int getMemoryPerCore() { return memoryPerCore; }
+    public long getSeed() { return seed; }
+    public long getDeadlineMs() { return deadlineMs; }
+    public boolean isSharedQueue() { return sharedQueue; }
+    public boolean isRegisterJmx() { return registerJmx; }
+    public int getMetricsPort() { return metricsPort; }
+    public double getTimeScale() { return timeScale; }
+    public String getRecordFile() { return recordFile; }
+    public String getReplayFile() { return replayFile; }
+    public String getTraceFile() { return traceFile; }
+    public int getTraceMaxBacklogPerCore() { return traceMaxBacklogPerCore; }
+    public ArrivalProcess.Pattern getArrivalPattern() { return arrivalPattern; }
+    public double getOfferedLoad() { return offeredLoad; }
+    public int getQueueCapacity() { return queueCapacity; }
+    public BoundedScheduler.AdmissionPolicy getAdmissionPolicy() { return admissionPolicy; }
+    public MigrationCostModel getMigrationCost() { return migrationCost; }
+    public boolean isWorkStealing() { return workStealing; }
+    public boolean isSchedDomains() { return schedDomains; }
+    public DiffusionRebalancer.Scheme getRebalanceScheme() { return rebalanceScheme; }
+    public double getRebalancePeriodMs() { return rebalancePeriodMs; }
+    public double getRebalanceDamping() { return rebalanceDamping; }
+    public long getImbalanceSampleMs() { return imbalanceSampleMs; }
+    public int getHotspotCores() { return hotspotCores; }
+    public int getMigrationBatch() { return migrationBatch; }
+    public boolean hasCoreMemory() { return coreMemory != null; }
+    public boolean isMemoryProbe() { return memoryProbe; }
+    public int getMulticastFanout() { return multicastFanout; }
+    public boolean isDistributed() { return nodes > 1; }
+    public int getNodes() { return nodes; }
+    public int getNode() { return node; }
+    public Transport.Kind getTransportKind() { return transportKind; }
+    public String getTransportEndpoint() { return transportEndpoint; }
+    public boolean isCompactTasks() { return compactTasks; }
+    public PageReplacement.Policy getPagingPolicy() { return pagingPolicy; }
+    public double getPageFaultMs() { return pageFaultMs; }
+    public boolean isHedging() { return hedgePercentile > 0; }
+    public double getHedgePercentile() { return hedgePercentile; }
+    public long getHedgeCheckMs() { return hedgeCheckMs; }
+
+    /** Memory of one core: its entry from setCoreMemory, else memoryPerCore. */
+    public int getMemoryOfCore(int coreId) {
+        return (coreMemory != null) ? coreMemory[coreId] : memoryPerCore;
+    }
+    public double getMigrationWindowMs() { return migrationWindowMs; }
+    public List<CoreProfile> getCoreProfiles() { return coreProfiles; }
+    public boolean isSpeedAwarePlacement() { return speedAwarePlacement; }
+
+    /** True if tasks are streamed in while the cores run (trace or arrival process). */
+    public boolean isOpenWorkload() { return traceFile != null || arrivalPattern != null; }
+
+    public SimulationConfig setDeadlineMs(long deadlineMs) {
+        this.deadlineMs = deadlineMs;
+        return this;
+    }
+
+    public SimulationConfig setSharedQueue(boolean sharedQueue) {
+        this.sharedQueue = sharedQueue;
+        return this;
+    }
+
+    public SimulationConfig setRegisterJmx(boolean registerJmx) {
+        this.registerJmx = registerJmx;
+        return this;
+    }
+
+    /**
+     * Exports the run's live counters at http://host:port/metrics while it
+     * runs (MetricsEndpoint, shared by all runs on that port).
+     */
+    public SimulationConfig setMetricsPort(int metricsPort) {
+        if (metricsPort < 0 || metricsPort > 65535) {
+            throw new IllegalArgumentException("metricsPort must be 0 (off) or a port: " + metricsPort);
+        }
+        this.metricsPort = metricsPort;
+        return this;
+    }
+
+    public SimulationConfig setTimeScale(double timeScale) {
+        this.timeScale = timeScale;
+        return this;
+    }
+
+    /** Records scheduling / message-delivery decisions to filename (see ReplayLog). */
+    public SimulationConfig setRecordFile(String recordFile) {
+        this.recordFile = recordFile;
+        return this;
+    }
+
+    /**
+     * Replays the decisions recorded in filename instead of letting thread
+     * timing decide. The log must come from a run with the same dimensions;
+     * ReplayLog.toConfig() rebuilds them.
+     */
+    public SimulationConfig setReplayFile(String replayFile) {
+        this.replayFile = replayFile;
+        return this;
+    }
+
+    /**
+     * Streams the workload from a CSV or binary task trace (TaskTraceReader)
+     * at the recorded arrival times, scaled by timeScale. numTasks and seed
+     * are ignored.
+     */
+    public SimulationConfig setTraceFile(String traceFile) {
+        this.traceFile = traceFile;
+        return this;
+    }
+
+    /** Bounds memory in trace mode; 0 = let the feeder run ahead without limit. */
+    public SimulationConfig setTraceMaxBacklogPerCore(int traceMaxBacklogPerCore) {
+        this.traceMaxBacklogPerCore = traceMaxBacklogPerCore;
+        return this;
+    }
+
+    /**
+     * Open system: numTasks tasks arrive by the given process while the cores
+     * run, at offeredLoad times the cores' total service capacity (1.0 =
+     * saturation in theory). Arrival times are simulated ms, scaled by
+     * timeScale like burst times.
+     */
+    public SimulationConfig setArrivals(ArrivalProcess.Pattern pattern, double offeredLoad) {
+        this.arrivalPattern = pattern;
+        this.offeredLoad = offeredLoad;
+        return this;
+    }
+
+    /**
+     * Bounds each scheduler's queue for new arrivals: when full, the producer
+     * blocks (BLOCK, backpressure) or the arrival is dropped (REJECT).
+     */
+    public SimulationConfig setQueueCapacity(int queueCapacity, BoundedScheduler.AdmissionPolicy policy) {
+        this.queueCapacity = queueCapacity;
+        this.admissionPolicy = policy;
+        return this;
+    }
+
+    /** Cache layout used by the affinity model and work stealing. */
+    public SimulationConfig setTopology(int coresPerCluster, int clustersPerSocket) {
+        this.coresPerCluster = coresPerCluster;
+        this.clustersPerSocket = clustersPerSocket;
+        return this;
+    }
+
+    /**
+     * Charges a warm-up penalty for running tasks away from their home core
+     * (null = migrations are free, the default).
+     */
+    public SimulationConfig setMigrationCost(MigrationCostModel migrationCost) {
+        this.migrationCost = migrationCost;
+        return this;
+    }
+
+    /** Idle cores steal queued tasks from other cores, nearest first. */
+    public SimulationConfig setWorkStealing(boolean workStealing) {
+        this.workStealing = workStealing;
+        return this;
+    }
+
+    /**
+     * Periodic load balancing over hierarchical scheduling domains built on
+     * the topology (see SchedDomains). An alternative to work stealing.
+     */
+    public SimulationConfig setSchedDomains(boolean schedDomains) {
+        this.schedDomains = schedDomains;
+        return this;
+    }
+
+    /**
+     * Periodic rebalancing epochs: every periodMs (simulated) cores exchange
+     * load summaries with their neighbours and push work down the gradient,
+     * moving damping (0..1] of the computed amount. null scheme = off.
+     */
+    public SimulationConfig setRebalancing(DiffusionRebalancer.Scheme scheme, double periodMs, double damping) {
+        this.rebalanceScheme = scheme;
+        this.rebalancePeriodMs = periodMs;
+        this.rebalanceDamping = damping;
+        return this;
+    }
+
+    /**
+     * Different memory sizes per core (one entry per core), e.g. small-memory
+     * cores whose big tasks must migrate. null = memoryPerCore on every core.
+     */
+    public SimulationConfig setCoreMemory(int... coreMemory) {
+        if (coreMemory != null && coreMemory.length != numCores) {
+            throw new IllegalArgumentException("Expected " + numCores + " memory sizes, got " + coreMemory.length);
+        }
+        this.coreMemory = (coreMemory != null) ? coreMemory.clone() : null;
+        return this;
+    }
+
+    /**
+     * Coalesces memory-pressure migrations to the same destination into
+     * requests of up to maxBatch tasks, held at most windowMs (simulated).
+     */
+    public SimulationConfig setMigrationBatching(int maxBatch, double windowMs) {
+        this.migrationBatch = maxBatch;
+        this.migrationWindowMs = windowMs;
+        return this;
+    }
+
+    /**
+     * Demand paging (see VirtualMemory): tasks that do not fit a core run
+     * there overcommitted, replacing pages with policy and paying faultMs
+     * per major fault, instead of migrating.
+     */
+    public SimulationConfig setPaging(PageReplacement.Policy policy, double faultMs) {
+        this.pagingPolicy = policy;
+        this.pageFaultMs = faultMs;
+        return this;
+    }
+
+    /**
+     * Straggler hedging (see StragglerHedging): every checkMs wall ms, idle
+     * cores get duplicates of queued tasks that have waited longer than the
+     * percentile-th waiting time so far; the first copy to finish counts.
+     */
+    public SimulationConfig setHedging(double percentile, long checkMs) {
+        if (percentile <= 0 || percentile >= 100) {
+            throw new IllegalArgumentException("Hedging percentile must be in (0, 100): " + percentile);
+        }
+        this.hedgePercentile = percentile;
+        this.hedgeCheckMs = checkMs;
+        return this;
+    }
+
+    /**
+     * Picks the destination of a memory-pressure migration by asking all
+     * capable cores at once (MessageBus.requestAny) instead of the next
+     * core in the ring.
+     */
+    public SimulationConfig setMemoryProbe(boolean memoryProbe) {
+        this.memoryProbe = memoryProbe;
+        return this;
+    }
+
+    /** Delivers multicasts along MessageBus trees of this fanout, 0 = direct. */
+    public SimulationConfig setMulticastFanout(int fanout) {
+        this.multicastFanout = fanout;
+        return this;
+    }
+
+    /**
+     * Runs only this process's share of the cores (node of nodes, see
+     * Transport); messages to the other cores go through a kind transport
+     * at endpoint. Every node needs the same config apart from node.
+     */
+    public SimulationConfig setDistributed(int nodes, int node, Transport.Kind kind, String endpoint) {
+        this.nodes = nodes;
+        this.node = node;
+        this.transportKind = kind;
+        this.transportEndpoint = endpoint;
+        return this;
+    }
+
+    /**
+     * Keeps the generated workload in a TaskTable and queues int handles
+     * instead of Task objects, for workloads of millions of tasks. Round
+     * robin and SJF, closed workloads only.
+     */
+    public SimulationConfig setCompactTasks(boolean compactTasks) {
+        this.compactTasks = compactTasks;
+        return this;
+    }
+
+    /** Samples queue-length imbalance every sampleMs wall ms (ImbalanceMonitor). */
+    public SimulationConfig setImbalanceSampleMs(long sampleMs) {
+        this.imbalanceSampleMs = sampleMs;
+        return this;
+    }
+
+    /** Deals the workload to the first cores only, leaving the rest to be balanced. */
+    public SimulationConfig setHotspotCores(int hotspotCores) {
+        this.hotspotCores = hotspotCores;
+        return this;
+    }
+
+    /**
+     * Per-core speed factors and capability tags (one entry per core, null =
+     * identical reference cores). Without setSpeedAwarePlacement tasks are
+     * still placed as if the cores were uniform, only capabilities are honoured.
+     */
+    public SimulationConfig setCoreProfiles(List<CoreProfile> coreProfiles) {
+        if (coreProfiles != null && coreProfiles.size() != numCores) {
+            throw new IllegalArgumentException("Expected " + numCores + " core profiles, got " + coreProfiles.size());
+        }
+        this.coreProfiles = coreProfiles;
+        return this;
+    }
+
+    /** Place and forward tasks by estimated finish time on the core profiles' speeds. */
+    public SimulationConfig setSpeedAwarePlacement(boolean speedAwarePlacement) {
+        this.speedAwarePlacement = speedAwarePlacement;
+        return this;
+    }
+
+    public Topology createTopology() {
+        return (coresPerCluster > 0)
+                ? new Topology(numCores, coresPerCluster, clustersPerSocket)
+                : Topology.defaultFor(numCores);
+    }
+
+    /**
+     * Rejects option combinations a run cannot honour; Simulation calls this
+     * before it builds anything.
+     */
+    public void validate() {
+        int balancers = (workStealing ? 1 : 0) + (schedDomains ? 1 : 0) + (rebalanceScheme != null ? 1 : 0);
+        if (balancers > 1) {
+            throw new IllegalArgumentException("Choose one of work stealing, sched domains and rebalancing: "
+                    + getLabel());
+        }
+        if (memoryProbe && migrationBatch > 1) {
+            throw new IllegalArgumentException("Choose one of migration batching and memory probes: " + getLabel());
+        }
+
+        if (recordFile != null || replayFile != null) {
+            // features whose decisions depend on timing or state the per-core log does not carry
+            Map<String, Boolean> unreplayable = new LinkedHashMap<>();
+            // which core dequeues which task is a race
+            unreplayable.put("a shared queue", sharedQueue);
+            // injection times relative to the cores' steps are not recorded
+            unreplayable.put("open workloads", isOpenWorkload());
+            // steal attempts depend on when a core happens to go idle
+            unreplayable.put("work stealing", workStealing);
+            // balancing passes and diffusion rounds run on wall-clock intervals
+            unreplayable.put("load balancing", schedDomains);
+            unreplayable.put("rebalancing", rebalanceScheme != null);
+            // the log only carries memoryPerCore
+            unreplayable.put("per-core memory sizes", coreMemory != null);
+            // a batch goes out when its time window closes
+            unreplayable.put("migration batching", migrationBatch > 1);
+            // the destination is whichever core answers first
+            unreplayable.put("memory probes", memoryProbe);
+            // policy switches depend on measured arrival / service rates
+            unreplayable.put("adaptive scheduling", schedulerType == SchedulerType.ADAPTIVE);
+            // copies are made on wall-clock checks
+            unreplayable.put("straggler hedging", isHedging());
+            // each process would write its own log of a shared run
+            unreplayable.put("distributed runs", isDistributed());
+            for (Map.Entry<String, Boolean> feature : unreplayable.entrySet()) {
+                if (feature.getValue()) {
+                    throw new IllegalArgumentException("Record/replay is not supported with " + feature.getKey()
+                            + ": " + getLabel());
+                }
+            }
+        }
+
+        if (compactTasks && (isOpenWorkload() || schedulerType == SchedulerType.ADAPTIVE)) {
+            // a trace or arrival stream is not a TaskTable; Adaptive reorders Task objects itself
+            throw new IllegalArgumentException("Compact tasks need a closed Round Robin or SJF workload: "
+                    + getLabel());
+        }
+        if (isHedging() && (sharedQueue || compactTasks || isDistributed())) {
+            // the monitor reads every queue directly and tells copies apart by object identity;
+            // a shared queue needs no hedging (idle cores take from it anyway)
+            throw new IllegalArgumentException("Straggler hedging needs per-core queues of one process "
+                    + "and Task objects: " + getLabel());
+        }
+        if (isDistributed() && (sharedQueue || schedDomains || isOpenWorkload() || imbalanceSampleMs > 0)) {
+            // these read or write other cores' state directly, not by messages
+            throw new IllegalArgumentException("Distributed runs support message-based features only: "
+                    + getLabel());
+        }
+    }
+
+    /** Short unique-ish label, used for JMX run names and log lines. */
+    public String getLabel() {
+        return schedulerType.getShortName()
+                + (sharedQueue ? "-global" : "")
+                + "-c" + numCores
+                + (traceFile != null
+                        ? "-trace-" + new File(traceFile).getName()
+                        : "-t" + numTasks)
+                + "-m" + memoryPerCore
+                + (traceFile != null ? "" : "-s" + seed)
+                + (arrivalPattern != null && traceFile == null
+                        ? String.format(Locale.US, "-%s%.2f", arrivalPattern.name().toLowerCase(Locale.ROOT), offeredLoad)
+                        : "")
+                + (queueCapacity > 0
+                        ? "-q" + queueCapacity + admissionPolicy.name().toLowerCase(Locale.ROOT)
+                        : "")
+                + (migrationCost != null ? "-aff" : "")
+                + (workStealing ? "-steal" : "")
+                + (schedDomains ? "-sd" : "")
+                + (rebalanceScheme != null
+                        ? (rebalanceScheme == DiffusionRebalancer.Scheme.DIFFUSION ? "-diff" : "-dimx")
+                        : "")
+                + (hotspotCores > 0 ? "-hot" + hotspotCores : "")
+                + (coreMemory != null ? "-memmix" : "")
+                + (migrationBatch > 1 ? "-batch" + migrationBatch : "")
+                + (memoryProbe ? "-probe" : "")
+                + (multicastFanout > 0 ? "-tree" + multicastFanout : "")
+                + (nodes > 1 ? "-node" + node + "of" + nodes + transportKind.name().toLowerCase(Locale.ROOT) : "")
+                + (coreProfiles != null ? "-het" : "")
+                + (speedAwarePlacement ? "-speed" : "")
+                + (compactTasks ? "-compact" : "")
+                + (pagingPolicy != null ? "-page" + pagingPolicy.name().toLowerCase(Locale.ROOT) : "")
+                + (hedgePercentile > 0 ? String.format(Locale.US, "-hedge%.0f", hedgePercentile) : "");
+    }
+
+    @Override
+    public String toString() {
+        return "SimulationConfig{" + getLabel() + "}";
+    }
+}
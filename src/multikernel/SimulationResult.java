@@ -0,0 +1,77 @@
+package multikernel;
+
+/**
+ * Headline numbers of one finished simulation run.
+ */
+public class SimulationResult {
+
+    private final SimulationConfig config;
+    private final double avgTurnaroundMs;
+    private final double avgWaitingMs;
+    private final double avgUtilizationPct;
+    private final int completedTasks;
+    private final int unfinishedTasks;
+    private final long rejectedTasks;
+    private final long totalMessages;
+    private final long wallTimeMs;
+    private final boolean completed;
+
+    public SimulationResult(SimulationConfig config,
+                            double avgTurnaroundMs,
+                            double avgWaitingMs,
+                            double avgUtilizationPct,
+                            int completedTasks,
+                            int unfinishedTasks,
+                            long totalMessages,
+                            long wallTimeMs,
+                            boolean completed) {
+        this(config, avgTurnaroundMs, avgWaitingMs, avgUtilizationPct, completedTasks,
+                unfinishedTasks, 0L, totalMessages, wallTimeMs, completed);
+    }
+
+    public SimulationResult(SimulationConfig config,
+                            double avgTurnaroundMs,
+                            double avgWaitingMs,
+                            double avgUtilizationPct,
+                            int completedTasks,
+                            int unfinishedTasks,
+                            long rejectedTasks,
+                            long totalMessages,
+                            long wallTimeMs,
+                            boolean completed) {
+        this.config = config;
+        this.avgTurnaroundMs = avgTurnaroundMs;
+        this.avgWaitingMs = avgWaitingMs;
+        this.avgUtilizationPct = avgUtilizationPct;
+        this.completedTasks = completedTasks;
+        this.unfinishedTasks = unfinishedTasks;
+        this.rejectedTasks = rejectedTasks;
+        this.totalMessages = totalMessages;
+        this.wallTimeMs = wallTimeMs;
+        this.completed = completed;
+    }
+
+    public SimulationConfig getConfig() { return config; }
+    public double getAvgTurnaroundMs() { return avgTurnaroundMs; }
+    public double getAvgWaitingMs() { return avgWaitingMs; }
+    public double getAvgUtilizationPct() { return avgUtilizationPct; }
+    public int getCompletedTasks() { return completedTasks; }
+    /** 0 on a node of a distributed run, which cannot tell; sum getCompletedTasks() over the nodes instead. */
+    public int getUnfinishedTasks() { return unfinishedTasks; }
+    /** Arrivals refused by a bounded queue (open workloads only). */
+    public long getRejectedTasks() { return rejectedTasks; }
+    public long getTotalMessages() { return totalMessages; }
+    public long getWallTimeMs() { return wallTimeMs; }
+
+    /** False if the deadline cut the run off. */
+    public boolean isCompleted() { return completed; }
+
+    @Override
+    public String toString() {
+        return String.format(java.util.Locale.US,
+                "%s: avgTurnaround=%.1fms avgWaiting=%.1fms util=%.1f%% done=%d unfinished=%s msgs=%d wall=%dms",
+                config.getLabel(), avgTurnaroundMs, avgWaitingMs, avgUtilizationPct,
+                completedTasks, config.isDistributed() ? "n/a" : String.valueOf(unfinishedTasks),
+                totalMessages, wallTimeMs);
+    }
+}
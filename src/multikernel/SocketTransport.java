@@ -0,0 +1,340 @@
+package multikernel;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.net.StandardProtocolFamily;
+import java.net.StandardSocketOptions;
+import java.net.UnixDomainSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channel;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Transport between JVMs on one machine over loopback TCP or Unix domain
+ * sockets. The cores are split into nodes (processes) of consecutive ids
+ * (Transport.firstCoreOf).
+ *
+ * Every node listens on its own address:
+ *
+ *   TCP   127.0.0.1:(endpoint + node), endpoint being a base port
+ *   UNIX  endpoint/node-<i>.sock, endpoint being a directory
+ *
+ * and opens one outbound connection to each other node (connect()), so
+ * every ordered pair of nodes has its own FIFO link. connect() returns once
+ * all links in both directions are up, so it doubles as a start barrier. Senders write
+ * MessageCodec frames on the outbound link with blocking writes, one
+ * sender at a time per link; a single selector thread reads all inbound
+ * links without blocking and hands decoded frames to the MessageBus.
+ *
+ * A link that breaks is reported once and its frames are dropped from then
+ * on; the run then ends by its deadline rather than by termination
+ * detection.
+ */
+public class SocketTransport implements Transport {
+
+    // how often connect() retries a node that is not listening yet
+    private static final long CONNECT_RETRY_MS = 20;
+    private static final int READ_BUFFER_BYTES = 64 * 1024;
+
+    private final Kind kind;
+    private final String endpoint;
+    private final int nodes;
+    private final int node;
+    private final int[] owner;               // node of each core
+    private final SocketChannel[] peers;     // outbound link per node, null for ourselves
+    private final AtomicIntegerArray broken; // per node: link failure already reported
+    private final AtomicInteger inbound = new AtomicInteger(); // links accepted from other nodes
+
+    private Receiver receiver;
+    private Selector selector;
+    private ServerSocketChannel server;
+    private Thread selectorThread;
+    private volatile boolean running = false;
+
+    private final AtomicLong framesSent = new AtomicLong();
+    private final AtomicLong bytesSent = new AtomicLong();
+    private final AtomicLong sendNanos = new AtomicLong();
+    private final AtomicLong framesReceived = new AtomicLong();
+    private final AtomicLong bytesReceived = new AtomicLong();
+
+    public SocketTransport(Kind kind, String endpoint, int nodes, int node, int numCores) {
+        if (kind != Kind.TCP && kind != Kind.UNIX) {
+            throw new IllegalArgumentException("Not a socket transport: " + kind);
+        }
+        if (node < 0 || node >= nodes) {
+            throw new IllegalArgumentException("No node " + node + " of " + nodes);
+        }
+        this.kind = kind;
+        this.endpoint = endpoint;
+        this.nodes = nodes;
+        this.node = node;
+        this.owner = Transport.owners(nodes, numCores);
+        this.peers = new SocketChannel[nodes];
+        this.broken = new AtomicIntegerArray(nodes);
+    }
+
+    private SocketAddress addressOf(int n) {
+        if (kind == Kind.TCP) {
+            return new InetSocketAddress(InetAddress.getLoopbackAddress(), Integer.parseInt(endpoint) + n);
+        }
+        return UnixDomainSocketAddress.of(socketPath(n));
+    }
+
+    private Path socketPath(int n) {
+        return Path.of(endpoint, "node-" + n + ".sock");
+    }
+
+    // ----------------------------------------------------------------------
+    // Transport
+    // ----------------------------------------------------------------------
+
+    @Override
+    public boolean isLocal(int coreId) {
+        return owner[coreId] == node;
+    }
+
+    @Override
+    public void start(Receiver receiver) throws IOException {
+        this.receiver = receiver;
+        selector = Selector.open();
+        if (kind == Kind.TCP) {
+            server = ServerSocketChannel.open(StandardProtocolFamily.INET);
+            server.setOption(StandardSocketOptions.SO_REUSEADDR, true);
+        } else {
+            server = ServerSocketChannel.open(StandardProtocolFamily.UNIX);
+            Files.deleteIfExists(socketPath(node)); // left over from an earlier run
+        }
+        server.bind(addressOf(node));
+        server.configureBlocking(false);
+        server.register(selector, SelectionKey.OP_ACCEPT);
+        running = true;
+        selectorThread = new Thread(this::selectLoop, "transport-node-" + node);
+        selectorThread.setDaemon(true);
+        selectorThread.start();
+    }
+
+    @Override
+    public void connect(long timeoutMs) throws IOException {
+        long deadline = System.currentTimeMillis() + timeoutMs;
+        for (int n = 0; n < nodes; n++) {
+            if (n == node) {
+                continue;
+            }
+            while (peers[n] == null) {
+                try {
+                    SocketChannel channel = SocketChannel.open(addressOf(n));
+                    if (kind == Kind.TCP) {
+                        channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+                    }
+                    peers[n] = channel;
+                } catch (IOException e) {
+                    if (System.currentTimeMillis() > deadline) {
+                        throw new IOException("Node " + n + " not reachable at " + addressOf(n)
+                                + " within " + timeoutMs + " ms", e);
+                    }
+                    pause();
+                }
+            }
+        }
+        // the others have connected to us too once they got this far
+        while (inbound.get() < nodes - 1) {
+            if (System.currentTimeMillis() > deadline) {
+                throw new IOException((nodes - 1 - inbound.get()) + " node(s) did not connect back within "
+                        + timeoutMs + " ms");
+            }
+            pause();
+        }
+    }
+
+    private static void pause() throws IOException {
+        try {
+            TimeUnit.MILLISECONDS.sleep(CONNECT_RETRY_MS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while connecting", e);
+        }
+    }
+
+    @Override
+    public void send(int fromCore, int toCore, MessageBus.Message msg, boolean syncReply) {
+        long start = System.nanoTime();
+        int target = owner[toCore];
+        SocketChannel channel = peers[target];
+        if (channel == null) {
+            reportBroken(target, new IOException("not connected"));
+            return;
+        }
+        ByteBuffer frame = MessageCodec.encode(fromCore, toCore, msg, syncReply);
+        int bytes = frame.remaining();
+        try {
+            synchronized (channel) {
+                while (frame.hasRemaining()) {
+                    channel.write(frame);
+                }
+            }
+        } catch (IOException e) {
+            reportBroken(target, e);
+            return;
+        }
+        framesSent.incrementAndGet();
+        bytesSent.addAndGet(bytes);
+        sendNanos.addAndGet(System.nanoTime() - start);
+    }
+
+    private void reportBroken(int target, IOException e) {
+        if (running && broken.compareAndSet(target, 0, 1)) {
+            System.out.println("⚠ Link from node " + node + " to node " + target + " failed: " + e.getMessage());
+        }
+    }
+
+    @Override
+    public void close() {
+        running = false;
+        if (selector != null) {
+            selector.wakeup();
+        }
+        if (selectorThread != null) {
+            try {
+                selectorThread.join(1000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        for (SocketChannel peer : peers) {
+            closeQuietly(peer);
+        }
+        closeQuietly(server);
+        try {
+            if (selector != null) {
+                selector.close();
+            }
+            if (kind == Kind.UNIX) {
+                Files.deleteIfExists(socketPath(node));
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    private static void closeQuietly(Channel channel) {
+        if (channel != null) {
+            try {
+                channel.close();
+            } catch (IOException ignored) {
+            }
+        }
+    }
+
+    // ----------------------------------------------------------------------
+    // Inbound links (selector thread)
+    // ----------------------------------------------------------------------
+
+    private void selectLoop() {
+        try {
+            while (running) {
+                selector.select();
+                Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+                    if (!key.isValid()) {
+                        continue;
+                    }
+                    if (key.isAcceptable()) {
+                        SocketChannel channel = server.accept();
+                        if (channel != null) {
+                            channel.configureBlocking(false);
+                            channel.register(selector, SelectionKey.OP_READ, ByteBuffer.allocate(READ_BUFFER_BYTES));
+                            inbound.incrementAndGet();
+                        }
+                    } else if (key.isReadable()) {
+                        readFrames(key);
+                    }
+                }
+            }
+        } catch (IOException e) {
+            if (running) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    /** Reads what is available on one link and delivers every complete frame. */
+    private void readFrames(SelectionKey key) {
+        SocketChannel channel = (SocketChannel) key.channel();
+        ByteBuffer buffer = (ByteBuffer) key.attachment();
+        try {
+            int read = channel.read(buffer);
+            if (read < 0) {
+                key.cancel();
+                channel.close(); // peer finished
+                return;
+            }
+            bytesReceived.addAndGet(read);
+            buffer.flip();
+            while (buffer.remaining() >= 4) {
+                int length = buffer.getInt(buffer.position());
+                if (buffer.remaining() < 4 + length) {
+                    break;
+                }
+                buffer.getInt();
+                byte[] body = new byte[length];
+                buffer.get(body);
+                MessageCodec.Frame frame = MessageCodec.decode(body);
+                framesReceived.incrementAndGet();
+                receiver.receive(frame.getSender(), frame.getReceiver(), frame.getMessage(), frame.isSyncReply());
+            }
+            buffer.compact();
+            if (!buffer.hasRemaining()) {
+                // a frame larger than the buffer: grow it
+                ByteBuffer bigger = ByteBuffer.allocate(buffer.capacity() * 2);
+                buffer.flip();
+                bigger.put(buffer);
+                key.attach(bigger);
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+            key.cancel();
+            closeQuietly(channel);
+        }
+    }
+
+    // ----------------------------------------------------------------------
+    // Statistics
+    // ----------------------------------------------------------------------
+
+    public Kind getKind() { return kind; }
+    public int getNode() { return node; }
+    public int getNodes() { return nodes; }
+    @Override
+    public long getFramesSent() { return framesSent.get(); }
+    @Override
+    public long getBytesSent() { return bytesSent.get(); }
+    @Override
+    public long getFramesReceived() { return framesReceived.get(); }
+    public long getBytesReceived() { return bytesReceived.get(); }
+
+    @Override
+    public double getMeanSendMicros() {
+        long frames = framesSent.get();
+        return (frames == 0) ? 0.0 : sendNanos.get() / 1000.0 / frames;
+    }
+
+    @Override
+    public String toString() {
+        return String.format(Locale.US, "SocketTransport{%s, node %d of %d}", kind, node, nodes);
+    }
+}
@@ -0,0 +1,57 @@
+package multikernel;
+
+/**
+ * Small descriptive-statistics helpers for aggregating repeated runs.
+ */
+public final class Statistics {
+
+    // two-sided 95% Student t critical values for df = 1..30
+    private static final double[] T_95 = {
+            12.706, 4.303, 3.182, 2.776, 2.571, 2.447, 2.365, 2.306, 2.262, 2.228,
+            2.201, 2.179, 2.160, 2.145, 2.131, 2.120, 2.110, 2.101, 2.093, 2.086,
+            2.080, 2.074, 2.069, 2.064, 2.060, 2.056, 2.052, 2.048, 2.045, 2.042
+    };
+    private static final double Z_95 = 1.960;
+
+    private Statistics() {}
+
+    public static double mean(double[] values) {
+        if (values.length == 0) return 0.0;
+        double total = 0;
+        for (double v : values) {
+            total += v;
+        }
+        return total / values.length;
+    }
+
+    /** Sample standard deviation (n - 1); 0 for fewer than two values. */
+    public static double stdDev(double[] values) {
+        if (values.length < 2) return 0.0;
+        double m = mean(values);
+        double sq = 0;
+        for (double v : values) {
+            sq += (v - m) * (v - m);
+        }
+        return Math.sqrt(sq / (values.length - 1));
+    }
+
+    /**
+     * Half-width of the 95% confidence interval of the mean (Student t for
+     * small samples, normal approximation beyond 30 degrees of freedom).
+     * 0 for fewer than two values.
+     */
+    public static double ci95HalfWidth(double[] values) {
+        int n = values.length;
+        if (n < 2) return 0.0;
+        int df = n - 1;
+        double t = (df <= T_95.length) ? T_95[df - 1] : Z_95;
+        return t * stdDev(values) / Math.sqrt(n);
+    }
+
+    /** p-th percentile (0-100) of an already sorted array, nearest-rank. */
+    public static double percentile(double[] sorted, double p) {
+        if (sorted.length == 0) return 0.0;
+        int rank = (int) Math.ceil(p / 100.0 * sorted.length);
+        return sorted[Math.max(0, Math.min(sorted.length - 1, rank - 1))];
+    }
+}
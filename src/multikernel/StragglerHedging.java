@@ -0,0 +1,394 @@
+package multikernel;
+
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+
+/**
+ * Hedged execution of stragglers: tasks stuck in a queue behind long
+ * bursts while other cores have nothing to do.
+ *
+ * Every core's scheduler is wrapped (track) so this monitor knows which
+ * tasks are queued where and since when. Every checkMs it takes the
+ * percentile-th waiting time of the tasks completed so far (from
+ * MetricsCollector's live histograms) as the threshold, and gives each idle
+ * core (empty queue, nothing running) a duplicate of the oldest queued task
+ * that has waited longer than that, fits in the idle core's free memory and
+ * can run there. The duplicate travels as a DUPLICATE message from the
+ * owning core.
+ *
+ * Both copies then race; the first to finish counts as the task's
+ * completion (finish). The other copy is dropped when it is dequeued if it
+ * has not started yet, or cancelled while it runs (a running copy waits on
+ * the hedge instead of sleeping its burst out), and its memory is freed.
+ * The run time of cancelled copies is the price of the shorter tail; the
+ * counters here report both sides.
+ *
+ * Duplicates are speculative and not counted by termination detection: the
+ * original stays queued and counted until a copy has finished, and a
+ * duplicate that does not fit where it lands is simply dropped.
+ */
+public final class StragglerHedging extends Thread {
+
+    public static final String DUPLICATE = "HEDGE_DUPLICATE";
+
+    /** Completed tasks needed before the percentile means anything. */
+    static final int MIN_SAMPLES = 20;
+
+    /** One hedged task and the race between its copies. */
+    public static final class Hedge {
+        private final Task duplicate;
+        private final CountDownLatch finished = new CountDownLatch(1);
+        private final AtomicBoolean won = new AtomicBoolean();
+        private volatile boolean duplicateWon;
+
+        Hedge(Task duplicate) {
+            this.duplicate = duplicate;
+        }
+
+        public boolean isFinished() {
+            return won.get();
+        }
+
+        /** True if task is the speculative copy rather than the original. */
+        public boolean isDuplicate(Task task) {
+            return task == duplicate;
+        }
+
+        /** Runs a copy for up to nanos; true if the other copy finished first. */
+        public boolean runUnlessBeaten(long nanos) {
+            try {
+                return finished.await(nanos, TimeUnit.NANOSECONDS);
+            } catch (InterruptedException e) {
+                return won.get();
+            }
+        }
+
+        /** Which copy finished first, once isFinished(). */
+        public boolean isDuplicateWon() { return duplicateWon; }
+    }
+
+    private final double percentile;
+    private final long checkMs;
+    private final List<Core> cores;
+    private final List<MemoryManager> memoryManagers;
+    private final MessageBus messageBus;
+    private final MetricsCollector metricsCollector;
+    private final List<CoreProfile> coreProfiles; // null = all cores can run every task
+    private final List<Tracked> tracked = new ArrayList<>();
+    private final Map<Integer, Hedge> hedges = new ConcurrentHashMap<>();
+    private volatile boolean running = true;
+    private volatile double thresholdMs = Double.NaN;
+
+    private final AtomicLong duplicatesSent = new AtomicLong();
+    private final AtomicLong duplicatesDropped = new AtomicLong();  // did not fit where they landed
+    private final AtomicLong duplicateWins = new AtomicLong();
+    private final AtomicLong originalWins = new AtomicLong();
+    private final AtomicLong copiesDiscarded = new AtomicLong();    // dequeued after the other copy finished
+    private final AtomicLong copiesCancelled = new AtomicLong();    // stopped while running
+    private final AtomicLong wastedMs = new AtomicLong();           // wall ms run by cancelled copies
+
+    public StragglerHedging(double percentile, long checkMs, List<Core> cores, List<MemoryManager> memoryManagers,
+                            MessageBus messageBus, MetricsCollector metricsCollector, List<CoreProfile> coreProfiles) {
+        super("straggler-hedging");
+        if (percentile <= 0 || percentile >= 100) {
+            throw new IllegalArgumentException("Hedging percentile must be in (0, 100): " + percentile);
+        }
+        this.percentile = percentile;
+        this.checkMs = Math.max(1L, checkMs);
+        this.cores = cores;
+        this.memoryManagers = memoryManagers;
+        this.messageBus = messageBus;
+        this.metricsCollector = metricsCollector;
+        this.coreProfiles = coreProfiles;
+        setDaemon(true);
+    }
+
+    /** Wraps coreId's scheduler so its queued tasks are visible here; call once per core, in core order. */
+    public Scheduler track(int coreId, Scheduler scheduler) {
+        Tracked t = new Tracked(coreId, scheduler);
+        tracked.add(t);
+        return t;
+    }
+
+    // ----------------------------------------------------------------------
+    // Monitor
+    // ----------------------------------------------------------------------
+
+    @Override
+    public void run() {
+        while (running) {
+            hedgeStragglers();
+            try {
+                TimeUnit.MILLISECONDS.sleep(checkMs);
+            } catch (InterruptedException e) {
+                break;
+            }
+        }
+    }
+
+    public void stopMonitor() {
+        running = false;
+        interrupt();
+    }
+
+    private void hedgeStragglers() {
+        Collection<LatencyHistogram> waits = metricsCollector.getWaitingHistograms().values();
+        long samples = 0;
+        for (LatencyHistogram h : waits) {
+            samples += h.getCount();
+        }
+        if (samples < MIN_SAMPLES) {
+            return;
+        }
+        double threshold = 1000.0 * LatencyHistogram.quantile(waits, percentile / 100.0);
+        thresholdMs = threshold;
+
+        List<Integer> idle = new ArrayList<>();
+        for (Core c : cores) {
+            if (c.isIdle() && tracked.get(c.getCoreId()).size() == 0) {
+                idle.add(c.getCoreId());
+            }
+        }
+        if (idle.isEmpty()) {
+            return;
+        }
+
+        long now = System.currentTimeMillis();
+        List<Map.Entry<Integer, Task>> stragglers = new ArrayList<>(); // owner -> task
+        for (Tracked t : tracked) {
+            for (Map.Entry<Task, Boolean> e : t.queued.entrySet()) {
+                Task task = e.getKey();
+                if (e.getValue() && now - task.getArrivalTime() > threshold && !hedges.containsKey(task.getId())) {
+                    stragglers.add(new AbstractMap.SimpleImmutableEntry<>(t.coreId, task));
+                }
+            }
+        }
+        stragglers.sort(Comparator.comparingLong(e -> e.getValue().getArrivalTime())); // oldest first
+
+        for (Map.Entry<Integer, Task> straggler : stragglers) {
+            if (idle.isEmpty()) {
+                break;
+            }
+            int owner = straggler.getKey();
+            Task task = straggler.getValue();
+            for (int k = 0; k < idle.size(); k++) {
+                int target = idle.get(k);
+                if (target == owner
+                        || !memoryManagers.get(target).canFit(task.getMemoryRequired())
+                        || (coreProfiles != null && !coreProfiles.get(target).supports(task))) {
+                    continue;
+                }
+                Hedge hedge = new Hedge(copyOf(task));
+                if (hedges.putIfAbsent(task.getId(), hedge) != null) {
+                    break;
+                }
+                // the owner may have taken it since the scan, before the hedge was there to
+                // see; then it may already have finished uncontested. Taken after this check,
+                // it finds the hedge when the core looks it up.
+                if (!tracked.get(owner).isQueued(task)) {
+                    hedges.remove(task.getId(), hedge);
+                    break;
+                }
+                messageBus.sendAsync(owner, target, new MessageBus.Message(
+                        DUPLICATE, hedge.duplicate, owner, target, "hedge-" + task.getId()));
+                duplicatesSent.incrementAndGet();
+                idle.remove(k);
+                break;
+            }
+        }
+    }
+
+    private static Task copyOf(Task task) {
+        Task copy = new Task(task.getId(), task.getBurstTime(), task.getMemoryRequired(), task.getArrivalTime(),
+                task.getPriority(), task.getDeadline(), task.getWorkingSetKb(), task.getRequiredCapability());
+        copy.setHomeCore(task.getHomeCore());
+        return copy;
+    }
+
+    // ----------------------------------------------------------------------
+    // Core side
+    // ----------------------------------------------------------------------
+
+    /** The hedge of task, or null if it has none. */
+    public Hedge lookup(Task task) {
+        return hedges.get(task.getId());
+    }
+
+    /** A dequeued copy whose twin already finished: not run at all. */
+    public void onDiscarded() {
+        copiesDiscarded.incrementAndGet();
+    }
+
+    /** A duplicate that arrived at, or was dequeued on, a core without room or capability for it. */
+    public void onDuplicateDropped() {
+        duplicatesDropped.incrementAndGet();
+    }
+
+    /**
+     * A copy of task ran for ranMs. True if it counts as the task's
+     * completion (not hedged, or first to finish); false if the other copy
+     * beat it, which makes this one cancelled.
+     */
+    public boolean finish(Task task, long ranMs) {
+        Hedge hedge = hedges.get(task.getId());
+        if (hedge == null) {
+            return true;
+        }
+        if (hedge.won.compareAndSet(false, true)) {
+            hedge.duplicateWon = hedge.isDuplicate(task);
+            (hedge.duplicateWon ? duplicateWins : originalWins).incrementAndGet();
+            hedge.finished.countDown();
+            return true;
+        }
+        copiesCancelled.incrementAndGet();
+        wastedMs.addAndGet(ranMs);
+        return false;
+    }
+
+    // ----------------------------------------------------------------------
+    // Statistics
+    // ----------------------------------------------------------------------
+
+    public double getPercentile() { return percentile; }
+
+    /** Waiting time (wall ms) above which a queued task counted as a straggler at the last check. */
+    public double getThresholdMs() { return thresholdMs; }
+
+    public long getDuplicatesSent() { return duplicatesSent.get(); }
+    public long getDuplicatesDropped() { return duplicatesDropped.get(); }
+
+    /** Hedged tasks the duplicate finished first. */
+    public long getDuplicateWins() { return duplicateWins.get(); }
+    public long getOriginalWins() { return originalWins.get(); }
+    public long getCopiesDiscarded() { return copiesDiscarded.get(); }
+    public long getCopiesCancelled() { return copiesCancelled.get(); }
+
+    /** Wall ms cancelled copies ran before they were stopped. */
+    public long getWastedMs() { return wastedMs.get(); }
+
+    // ----------------------------------------------------------------------
+    // Queue tracking
+    // ----------------------------------------------------------------------
+
+    /**
+     * A core's scheduler plus the tasks it holds, readable by the monitor
+     * without a lock. Keyed by identity (an original and its duplicate can
+     * meet in one queue): TRUE = queued, FALSE = taken before offer() got
+     * to register it.
+     */
+    static final class Tracked implements Scheduler {
+        final int coreId;
+        final Scheduler delegate;
+        final Map<Task, Boolean> queued = new ConcurrentHashMap<>();
+
+        Tracked(int coreId, Scheduler delegate) {
+            this.coreId = coreId;
+            this.delegate = delegate;
+        }
+
+        // requeues go in before the task is queued and out after it is taken,
+        // so such a task is never queued without an entry
+
+        @Override
+        public void addTask(Task task) {
+            queued.put(task, Boolean.TRUE);
+            delegate.addTask(task);
+        }
+
+        @Override
+        public void requeue(Task task) {
+            queued.put(task, Boolean.TRUE);
+            delegate.requeue(task);
+        }
+
+        /**
+         * Admissions only count once the delegate has accepted them: a task
+         * parked in a blocked producer, or refused, is not queued and must
+         * not be hedged. A core may take it before we register it; then
+         * untrack has left FALSE behind, which this clears.
+         */
+        @Override
+        public boolean offer(Task task) throws InterruptedException {
+            if (!delegate.offer(task)) {
+                return false;
+            }
+            queued.compute(task, (t, state) -> (state == null) ? Boolean.TRUE : null);
+            return true;
+        }
+
+        @Override
+        public void addAll(Collection<Task> tasks) {
+            for (Task task : tasks) {
+                queued.put(task, Boolean.TRUE);
+            }
+            delegate.addAll(tasks);
+        }
+
+        @Override
+        public Task getNextTask() {
+            Task task = delegate.getNextTask();
+            if (task != null) {
+                untrack(task);
+            }
+            return task;
+        }
+
+        @Override
+        public int drainTo(Collection<? super Task> sink, int maxTasks) {
+            List<Task> taken = new ArrayList<>();
+            int moved = delegate.drainTo(taken, maxTasks);
+            untrack(taken);
+            sink.addAll(taken);
+            return moved;
+        }
+
+        @Override
+        public List<Task> steal(int maxTasks, int keep) {
+            return untrack(delegate.steal(maxTasks, keep));
+        }
+
+        @Override
+        public List<Task> steal(int maxTasks, int keep, Predicate<? super Task> accept) {
+            return untrack(delegate.steal(maxTasks, keep, accept));
+        }
+
+        private List<Task> untrack(List<Task> tasks) {
+            for (Task task : tasks) {
+                untrack(task);
+            }
+            return tasks;
+        }
+
+        private void untrack(Task task) {
+            queued.compute(task, (t, state) -> (state == null) ? Boolean.FALSE : null);
+        }
+
+        @Override
+        public int size() {
+            return delegate.size();
+        }
+
+        @Override
+        public long estimatedWork() {
+            return delegate.estimatedWork();
+        }
+
+        boolean isQueued(Task task) {
+            return queued.get(task) == Boolean.TRUE;
+        }
+
+        Scheduler getDelegate() {
+            return delegate;
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package multikernel;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Cartesian sweep specification:
+ *   schedulers x core counts x task counts x memory sizes x seeds.
+ *
+ * Can be built in code:
+ *   new SweepSpec()
+ *       .schedulers(SchedulerType.ROUND_ROBIN, SchedulerType.SJF)
+ *       .coreCounts(2, 4, 8)
+ *       .seeds(1, 2, 3, 4, 5);
+ *
+ * or from command-line style key=value arguments:
+ *   schedulers=RR,SJF cores=2,4,8 tasks=50,200 memory=1000 seeds=1..5
+ *
+ * Dimensions that are not set keep a single default value.
+ */
+public class SweepSpec {
+
+    private List<SchedulerType> schedulers = new ArrayList<>(Arrays.asList(SchedulerType.values()));
+    private List<Integer> coreCounts = new ArrayList<>(List.of(8));
+    private List<Integer> taskCounts = new ArrayList<>(List.of(200));
+    private List<Integer> memorySizes = new ArrayList<>(List.of(1000));
+    private List<Long> seeds = new ArrayList<>(List.of(1L));
+    private long deadlineMs = 120_000;
+
+    public SweepSpec schedulers(SchedulerType... types) {
+        this.schedulers = new ArrayList<>(Arrays.asList(types));
+        return this;
+    }
+
+    public SweepSpec coreCounts(int... values) {
+        this.coreCounts = toList(values);
+        return this;
+    }
+
+    public SweepSpec taskCounts(int... values) {
+        this.taskCounts = toList(values);
+        return this;
+    }
+
+    public SweepSpec memorySizes(int... values) {
+        this.memorySizes = toList(values);
+        return this;
+    }
+
+    public SweepSpec seeds(long... values) {
+        this.seeds = new ArrayList<>();
+        for (long v : values) {
+            seeds.add(v);
+        }
+        return this;
+    }
+
+    public SweepSpec deadlineMs(long deadlineMs) {
+        this.deadlineMs = deadlineMs;
+        return this;
+    }
+
+    /** One config per point of the cartesian product, seeds innermost. */
+    public List<SimulationConfig> expand() {
+        List<SimulationConfig> configs = new ArrayList<>();
+        for (SchedulerType s : schedulers) {
+            for (int cores : coreCounts) {
+                for (int tasks : taskCounts) {
+                    for (int mem : memorySizes) {
+                        for (long seed : seeds) {
+                            configs.add(new SimulationConfig(s, cores, tasks, mem, seed)
+                                    .setDeadlineMs(deadlineMs));
+                        }
+                    }
+                }
+            }
+        }
+        return configs;
+    }
+
+    public int size() {
+        return schedulers.size() * coreCounts.size() * taskCounts.size()
+                * memorySizes.size() * seeds.size();
+    }
+
+    /**
+     * Parses key=value arguments (see ExperimentOptions). Lists are comma
+     * separated; integer ranges may be written as a..b (inclusive). Unknown
+     * keys are rejected; out and parallelism are left to the runner.
+     */
+    public static SweepSpec fromArgs(String[] args) {
+        ExperimentOptions options = new ExperimentOptions(args);
+        options.ignore("out", "parallelism");
+        SweepSpec spec = from(options);
+        options.rejectUnknown();
+        return spec;
+    }
+
+    /** Reads the sweep dimensions from options; the caller checks for unknown keys. */
+    public static SweepSpec from(ExperimentOptions options) {
+        SweepSpec spec = new SweepSpec();
+        spec.schedulers = options.getList("schedulers", SchedulerType::parse, spec.schedulers);
+        spec.coreCounts = options.getInts("cores", spec.coreCounts);
+        spec.taskCounts = options.getInts("tasks", spec.taskCounts);
+        spec.memorySizes = options.getInts("memory", spec.memorySizes);
+        if (options.has("seeds")) {
+            List<Long> parsed = new ArrayList<>();
+            for (int v : options.getInts("seeds", List.of())) {
+                parsed.add((long) v);
+            }
+            spec.seeds = parsed;
+        }
+        spec.deadlineMs = options.getLong("deadline", spec.deadlineMs);
+        return spec;
+    }
+
+    private static List<Integer> toList(int[] values) {
+        List<Integer> list = new ArrayList<>();
+        for (int v : values) {
+            list.add(v);
+        }
+        return list;
+    }
+}
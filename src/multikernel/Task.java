@@ -1,15 +1,44 @@
 package multikernel;
 public class Task {
+    /** Deadline value for tasks that have none. */
+    public static final long NO_DEADLINE = -1L;
+
     private final int id;
     private final int burstTime;
     private final int memoryRequired;
     private final long arrivalTime;
+    private final int priority;      // higher = more important, 0 = default
+    private final long deadline;     // absolute, same clock as arrivalTime
+    private final int workingSetKb;  // cache footprint, paid again when run away from home
+    private final String requiredCapability; // CoreProfile tag the running core needs, null = any
+
+    // core whose cache / memory node holds this task's working set, -1 = none yet.
+    // Set when the task is placed and whenever it runs; read by whichever core runs it.
+    private volatile int homeCore = -1;
 
     public Task(int id, int burstTime, int memoryRequired, long arrivalTime) {
+        this(id, burstTime, memoryRequired, arrivalTime, 0, NO_DEADLINE);
+    }
+
+    public Task(int id, int burstTime, int memoryRequired, long arrivalTime, int priority, long deadline) {
+        this(id, burstTime, memoryRequired, arrivalTime, priority, deadline, 0);
+    }
+
+    public Task(int id, int burstTime, int memoryRequired, long arrivalTime, int priority, long deadline,
+                int workingSetKb) {
+        this(id, burstTime, memoryRequired, arrivalTime, priority, deadline, workingSetKb, null);
+    }
+
+    public Task(int id, int burstTime, int memoryRequired, long arrivalTime, int priority, long deadline,
+                int workingSetKb, String requiredCapability) {
         this.id = id;
         this.burstTime = burstTime;
         this.memoryRequired = memoryRequired;
         this.arrivalTime = arrivalTime;
+        this.priority = priority;
+        this.deadline = deadline;
+        this.workingSetKb = workingSetKb;
+        this.requiredCapability = requiredCapability;
     }
 
     // Getters
@@ -17,6 +46,14 @@ public class Task {
     public int getBurstTime() { return burstTime; }
     public int getMemoryRequired() { return memoryRequired; }
     public long getArrivalTime() { return arrivalTime; }
+    public int getPriority() { return priority; }
+    public long getDeadline() { return deadline; }
+    public boolean hasDeadline() { return deadline != NO_DEADLINE; }
+    public int getWorkingSetKb() { return workingSetKb; }
+    public int getHomeCore() { return homeCore; }
+    public String getRequiredCapability() { return requiredCapability; }
+
+    public void setHomeCore(int homeCore) { this.homeCore = homeCore; }
 
     @Override
     public String toString() {
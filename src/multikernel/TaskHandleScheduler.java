@@ -0,0 +1,204 @@
+package multikernel;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Queue;
+import java.util.function.Predicate;
+
+/**
+ * Round robin or SJF over int handles into a TaskTable instead of Task
+ * references: a growable int ring (FIFO) or an int binary heap ordered by
+ * the table's burst column (SJF). A queued task costs 4 bytes of array and
+ * nothing for the GC to trace.
+ *
+ * getNextTask materializes the Task a core is about to run; addTask folds a
+ * requeued, migrated or stolen task back into its handle. Tasks that are not
+ * the table's (TaskTable.handleOf is -1) are kept as objects on the side and
+ * served first.
+ */
+public class TaskHandleScheduler implements Scheduler {
+
+    private static final int INITIAL_CAPACITY = 64;
+
+    private final TaskTable table;
+    private final boolean shortestFirst;
+
+    // FIFO: ring of handles from head, count long. SJF: heap in handles[0, count).
+    private int[] handles = new int[INITIAL_CAPACITY];
+    private int head = 0;
+    private int count = 0;
+    private final Queue<Task> foreign;
+
+    // written under the lock, read without it by monitoring threads
+    private volatile int size;
+    private volatile long work;
+
+    public TaskHandleScheduler(TaskTable table, boolean shortestFirst) {
+        this.table = table;
+        this.shortestFirst = shortestFirst;
+        this.foreign = shortestFirst
+                ? new PriorityQueue<>(Comparator.comparingInt(Task::getBurstTime))
+                : new ArrayDeque<>();
+    }
+
+    public TaskTable getTable() {
+        return table;
+    }
+
+    /** Queues the table's task h. */
+    public synchronized void addHandle(int h) {
+        if (count == handles.length) {
+            grow();
+        }
+        if (shortestFirst) {
+            handles[count] = h;
+            siftUp(count++);
+        } else {
+            handles[(head + count++) % handles.length] = h;
+        }
+        size++;
+        work += table.getBurstTime(h);
+    }
+
+    /** Next handle in policy order, or -1 if none is queued (foreign tasks are not counted). */
+    public synchronized int getNextHandle() {
+        if (count == 0) {
+            return -1;
+        }
+        int h;
+        if (shortestFirst) {
+            h = handles[0];
+            handles[0] = handles[--count];
+            if (count > 0) {
+                siftDown(0);
+            }
+        } else {
+            h = handles[head];
+            head = (head + 1) % handles.length;
+            count--;
+        }
+        size--;
+        work -= table.getBurstTime(h);
+        return h;
+    }
+
+    @Override
+    public synchronized void addTask(Task task) {
+        int h = table.store(task);
+        if (h >= 0) {
+            addHandle(h);
+        } else {
+            foreign.add(task);
+            size++;
+            work += task.getBurstTime();
+        }
+    }
+
+    @Override
+    public synchronized Task getNextTask() {
+        Task task = foreign.poll();
+        if (task != null) {
+            size--;
+            work -= task.getBurstTime();
+            return task;
+        }
+        int h = getNextHandle();
+        return (h < 0) ? null : table.get(h);
+    }
+
+    @Override
+    public synchronized int drainTo(Collection<? super Task> sink, int maxTasks) {
+        return Scheduler.super.drainTo(sink, maxTasks);
+    }
+
+    @Override
+    public synchronized List<Task> steal(int maxTasks, int keep, Predicate<? super Task> accept) {
+        List<Task> stolen = new ArrayList<>();
+        while (stolen.size() < maxTasks && size > keep) {
+            if (!foreign.isEmpty()) {
+                if (!accept.test(foreign.peek())) {
+                    break;
+                }
+                stolen.add(getNextTask());
+                continue;
+            }
+            Task next = table.get(handles[shortestFirst ? 0 : head]);
+            if (!accept.test(next)) {
+                break;
+            }
+            getNextHandle();
+            stolen.add(next);
+        }
+        return stolen;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public long estimatedWork() {
+        return work;
+    }
+
+    private void grow() {
+        int[] bigger = new int[handles.length * 2];
+        if (shortestFirst) {
+            System.arraycopy(handles, 0, bigger, 0, count);
+        } else {
+            for (int i = 0; i < count; i++) {
+                bigger[i] = handles[(head + i) % handles.length];
+            }
+            head = 0;
+        }
+        handles = bigger;
+    }
+
+    // ----------------------------------------------------------------------
+    // SJF heap, keyed by burst time
+    // ----------------------------------------------------------------------
+
+    private boolean before(int a, int b) {
+        return table.getBurstTime(a) < table.getBurstTime(b);
+    }
+
+    private void siftUp(int i) {
+        int h = handles[i];
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (!before(h, handles[parent])) {
+                break;
+            }
+            handles[i] = handles[parent];
+            i = parent;
+        }
+        handles[i] = h;
+    }
+
+    private void siftDown(int i) {
+        int h = handles[i];
+        int half = count >>> 1;
+        while (i < half) {
+            int child = 2 * i + 1;
+            if (child + 1 < count && before(handles[child + 1], handles[child])) {
+                child++;
+            }
+            if (!before(handles[child], h)) {
+                break;
+            }
+            handles[i] = handles[child];
+            i = child;
+        }
+        handles[i] = h;
+    }
+
+    @Override
+    public String toString() {
+        return "TaskHandleScheduler{" + (shortestFirst ? "SJF" : "FIFO") + ", " + size + " queued}";
+    }
+}
@@ -0,0 +1,62 @@
+package multikernel;
+
+import java.util.List;
+
+/**
+ * Chooses the core (scheduler index) a new task is queued on, both for the
+ * initial workload (Simulation) and for streamed arrivals (TraceFeeder).
+ * Returns -1 if no core can run the task.
+ */
+public interface TaskPlacement {
+
+    int place(Task task);
+
+    /**
+     * Round-robin over the cores, skipping cores that lack the task's
+     * required capability. profiles may be null (all cores identical).
+     */
+    static TaskPlacement roundRobin(int numCores, List<CoreProfile> profiles) {
+        return new TaskPlacement() {
+            private int next = 0;
+
+            @Override
+            public int place(Task task) {
+                for (int tried = 0; tried < numCores; tried++) {
+                    int core = next;
+                    next = (next + 1) % numCores;
+                    if (profiles == null || profiles.get(core).supports(task)) {
+                        return core;
+                    }
+                }
+                return -1;
+            }
+        };
+    }
+
+    /**
+     * Earliest estimated finish on heterogeneous cores: the core minimising
+     * (queued work + this burst) / speed among capable cores. Long tasks
+     * end up on fast cores; short ones fill in wherever a queue is short.
+     * Queued work comes from Scheduler.estimatedWork(), so the estimate
+     * follows the cores as they drain their queues.
+     */
+    static TaskPlacement speedAware(List<CoreProfile> profiles, List<Scheduler> schedulers) {
+        return task -> {
+            int best = -1;
+            double bestFinish = Double.MAX_VALUE;
+            for (int core = 0; core < schedulers.size(); core++) {
+                CoreProfile profile = profiles.get(core);
+                if (!profile.supports(task)) {
+                    continue;
+                }
+                double queued = schedulers.get(core).estimatedWork();
+                double finish = (queued + task.getBurstTime()) / profile.getSpeed();
+                if (finish < bestFinish) {
+                    bestFinish = finish;
+                    best = core;
+                }
+            }
+            return best;
+        };
+    }
+}
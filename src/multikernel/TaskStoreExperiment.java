@@ -0,0 +1,144 @@
+package multikernel;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Heap and GC cost of holding a large workload as Task objects versus a
+ * TaskTable with int-handle queues.
+ *
+ * For every size, each store generates the seeded workload and deals it
+ * round robin to per-core schedulers of the given type, the way Simulation
+ * does, then measures:
+ *
+ *   - retained heap per task (used heap after a full GC, minus before)
+ *   - GC time spent building and queueing the workload
+ *   - GC time while the cores drain their queues, allocating a Task per
+ *     dequeue as they would (objects) or materializing it (table)
+ *
+ *   java -Xmx4g multikernel.TaskStoreExperiment tasks=1000000,10000000 cores=8 \
+ *        scheduler=RR seed=42 out=task_store.csv
+ */
+public class TaskStoreExperiment {
+
+    /** One store at one workload size. */
+    public static class Outcome {
+        String store;
+        int tasks;
+        double bytesPerTask;
+        long buildMs;
+        long buildGcMs;
+        long drainMs;
+        long drainGcMs;
+        long checksum;
+    }
+
+    public static void main(String[] args) {
+        ExperimentOptions options = new ExperimentOptions(args);
+        List<Integer> sizes = options.getInts("tasks", List.of(1_000_000, 10_000_000));
+        int cores = options.getInt("cores", 8);
+        SchedulerType scheduler = options.getScheduler("scheduler", SchedulerType.ROUND_ROBIN);
+        long seed = options.getLong("seed", 42L);
+        String out = options.get("out", "task_store.csv");
+        options.rejectUnknown();
+
+        // warm-up: JIT the generators and both queue kinds before measuring
+        run("objects", 200_000, cores, scheduler, seed);
+        run("table", 200_000, cores, scheduler, seed);
+
+        List<Outcome> outcomes = new ArrayList<>();
+        for (int n : sizes) {
+            for (String store : new String[] {"objects", "table"}) {
+                Outcome o = run(store, n, cores, scheduler, seed);
+                System.out.printf(Locale.US, "  ✔ %-7s %,d tasks: %.1f bytes/task%n", store, n, o.bytesPerTask);
+                outcomes.add(o);
+            }
+        }
+
+        System.out.printf(Locale.US, "%n--- Task store (%s, %d cores) ---%n", scheduler.getDisplayName(), cores);
+        System.out.printf(Locale.US, "%-8s %11s %11s %9s %9s %9s %9s%n",
+                "store", "tasks", "bytes/task", "build ms", "build GC", "drain ms", "drain GC");
+        for (Outcome o : outcomes) {
+            System.out.printf(Locale.US, "%-8s %,11d %11.1f %9d %9d %9d %9d%n",
+                    o.store, o.tasks, o.bytesPerTask, o.buildMs, o.buildGcMs, o.drainMs, o.drainGcMs);
+        }
+        exportCSV(outcomes, out);
+    }
+
+    private static Outcome run(String store, int n, int cores, SchedulerType type, long seed) {
+        Outcome o = new Outcome();
+        o.store = store;
+        o.tasks = n;
+        long before = usedHeapAfterGc();
+
+        long gc0 = gcMillis();
+        long t0 = System.nanoTime();
+        List<Scheduler> schedulers = new ArrayList<>(cores);
+        if (store.equals("table")) {
+            TaskTable table = new WorkloadGenerator(seed).generateTable(n, 0L);
+            for (int i = 0; i < cores; i++) {
+                schedulers.add(type.create(table));
+            }
+            for (int h = 0; h < n; h++) {
+                table.setHomeCore(h, h % cores);
+                ((TaskHandleScheduler) schedulers.get(h % cores)).addHandle(h);
+            }
+        } else {
+            List<Task> tasks = new WorkloadGenerator(seed).generate(n, 0L);
+            for (int i = 0; i < cores; i++) {
+                schedulers.add(type.create());
+            }
+            for (int i = 0; i < n; i++) {
+                Task task = tasks.get(i);
+                task.setHomeCore(i % cores);
+                schedulers.get(i % cores).addTask(task);
+            }
+        }
+        o.buildMs = (System.nanoTime() - t0) / 1_000_000;
+        o.buildGcMs = gcMillis() - gc0;
+
+        // the workload list (objects) is garbage by now; the queues hold everything
+        o.bytesPerTask = (double) (usedHeapAfterGc() - before) / n;
+
+        gc0 = gcMillis();
+        t0 = System.nanoTime();
+        for (Scheduler s : schedulers) {
+            Task task;
+            while ((task = s.getNextTask()) != null) {
+                o.checksum += task.getBurstTime();
+            }
+        }
+        o.drainMs = (System.nanoTime() - t0) / 1_000_000;
+        o.drainGcMs = gcMillis() - gc0;
+        return o;
+    }
+
+    private static long usedHeapAfterGc() {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        Runtime rt = Runtime.getRuntime();
+        return rt.totalMemory() - rt.freeMemory();
+    }
+
+    private static long gcMillis() {
+        long total = 0;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            total += Math.max(0, gc.getCollectionTime());
+        }
+        return total;
+    }
+
+    public static void exportCSV(List<Outcome> outcomes, String filename) {
+        ExperimentRunner.writeCsv(filename, "Task store results",
+                "store,tasks,bytesPerTask,buildMs,buildGcMs,drainMs,drainGcMs", pw -> {
+            for (Outcome o : outcomes) {
+                pw.printf(Locale.US, "%s,%d,%.1f,%d,%d,%d,%d%n",
+                        o.store, o.tasks, o.bytesPerTask, o.buildMs, o.buildGcMs, o.drainMs, o.drainGcMs);
+            }
+        });
+    }
+}
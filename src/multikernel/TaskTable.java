@@ -0,0 +1,178 @@
+package multikernel;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Columnar store for large generated workloads: one primitive array per
+ * Task field instead of one heap object per task, addressed by an int
+ * handle (0, 1, 2, ... in insertion order).
+ *
+ * A Task object costs a header, eight fields and the reference that holds
+ * it, around 56 bytes on a 64-bit JVM, and every one of them is traced by
+ * the GC for as long as it is queued. Here a task is BYTES_PER_TASK bytes in
+ * a handful of arrays the GC sees as six objects, however many tasks there
+ * are. Ids are not stored: handle h is task firstId + h, which is how
+ * WorkloadGenerator numbers its tasks.
+ *
+ * Only what a generated task carries is kept (burst, memory, arrival,
+ * working set, home core): priority 0, no deadline, no required capability.
+ * Tasks are materialized as Task objects when a core takes one (get) and
+ * fold back into their handle when they are queued again (handleOf, store),
+ * so only the tasks in flight exist as objects.
+ *
+ * Columns are written while the table is filled, by one thread, before it is
+ * shared; afterwards only the home core column changes, and every Scheduler
+ * that hands out handles does so under its own lock.
+ */
+public class TaskTable {
+
+    /** Bytes per task across all columns. */
+    public static final int BYTES_PER_TASK = 4 + 4 + 8 + 4 + 4;
+
+    private static final int DEFAULT_CAPACITY = 1024;
+
+    private final int firstId;
+    private int size = 0;
+    private int[] burstTime;
+    private int[] memoryRequired;
+    private long[] arrivalTime;
+    private int[] workingSetKb;
+    private int[] homeCore;
+
+    public TaskTable(int firstId, int capacity) {
+        if (capacity < 0) {
+            throw new IllegalArgumentException("Negative capacity: " + capacity);
+        }
+        this.firstId = firstId;
+        int n = Math.max(capacity, 1);
+        burstTime = new int[n];
+        memoryRequired = new int[n];
+        arrivalTime = new long[n];
+        workingSetKb = new int[n];
+        homeCore = new int[n];
+    }
+
+    public TaskTable(int firstId) {
+        this(firstId, DEFAULT_CAPACITY);
+    }
+
+    /** Appends the next task (id firstId + size()) and returns its handle. */
+    public int add(int burst, int memory, long arrival, int workingSet) {
+        if (size == burstTime.length) {
+            grow();
+        }
+        int h = size++;
+        burstTime[h] = burst;
+        memoryRequired[h] = memory;
+        arrivalTime[h] = arrival;
+        workingSetKb[h] = workingSet;
+        homeCore[h] = -1;
+        return h;
+    }
+
+    private void grow() {
+        int n = burstTime.length * 2;
+        if (n < 0) {
+            throw new IllegalStateException("TaskTable is full at " + size + " tasks");
+        }
+        burstTime = Arrays.copyOf(burstTime, n);
+        memoryRequired = Arrays.copyOf(memoryRequired, n);
+        arrivalTime = Arrays.copyOf(arrivalTime, n);
+        workingSetKb = Arrays.copyOf(workingSetKb, n);
+        homeCore = Arrays.copyOf(homeCore, n);
+    }
+
+    public int size() { return size; }
+    public int getFirstId() { return firstId; }
+
+    // ----------------------------------------------------------------------
+    // Columns by handle
+    // ----------------------------------------------------------------------
+
+    public int getId(int h) { return firstId + checked(h); }
+    public int getBurstTime(int h) { return burstTime[checked(h)]; }
+    public int getMemoryRequired(int h) { return memoryRequired[checked(h)]; }
+    public long getArrivalTime(int h) { return arrivalTime[checked(h)]; }
+    public int getWorkingSetKb(int h) { return workingSetKb[checked(h)]; }
+    public int getHomeCore(int h) { return homeCore[checked(h)]; }
+
+    public void setHomeCore(int h, int core) { homeCore[checked(h)] = core; }
+
+    private int checked(int h) {
+        if (h < 0 || h >= size) {
+            throw new IndexOutOfBoundsException("No task handle " + h + " in a table of " + size);
+        }
+        return h;
+    }
+
+    // ----------------------------------------------------------------------
+    // Task objects
+    // ----------------------------------------------------------------------
+
+    /** A fresh Task object for handle h; each call returns a new one. */
+    public Task get(int h) {
+        Task task = new Task(getId(h), burstTime[h], memoryRequired[h], arrivalTime[h], 0,
+                Task.NO_DEADLINE, workingSetKb[h]);
+        task.setHomeCore(homeCore[h]);
+        return task;
+    }
+
+    /**
+     * Handle of task if it is one of this table's (same id and sizes, nothing
+     * the table cannot hold), otherwise -1. A task decoded from another
+     * process matches as well as the object get() returned.
+     */
+    public int handleOf(Task task) {
+        long h = (long) task.getId() - firstId;
+        if (h < 0 || h >= size) {
+            return -1;
+        }
+        int i = (int) h;
+        boolean same = task.getBurstTime() == burstTime[i]
+                && task.getMemoryRequired() == memoryRequired[i]
+                && task.getWorkingSetKb() == workingSetKb[i]
+                && task.getPriority() == 0
+                && !task.hasDeadline()
+                && task.getRequiredCapability() == null;
+        return same ? i : -1;
+    }
+
+    /** Folds task's mutable state (its home core) back into the table; its handle, or -1. */
+    public int store(Task task) {
+        int h = handleOf(task);
+        if (h >= 0) {
+            homeCore[h] = task.getHomeCore();
+        }
+        return h;
+    }
+
+    /**
+     * The tasks of handles as a read-only list; elements are materialized on
+     * access, so iterating it allocates but holding it does not.
+     */
+    public List<Task> view(int[] handles) {
+        return new AbstractList<Task>() {
+            @Override
+            public Task get(int index) {
+                return TaskTable.this.get(handles[index]);
+            }
+
+            @Override
+            public int size() {
+                return handles.length;
+            }
+        };
+    }
+
+    /** Bytes held by the columns (allocated capacity, not just size()). */
+    public long getFootprintBytes() {
+        return (long) burstTime.length * BYTES_PER_TASK;
+    }
+
+    @Override
+    public String toString() {
+        return "TaskTable{" + size + " tasks, ids " + firstId + ".." + (firstId + size - 1) + "}";
+    }
+}
@@ -0,0 +1,36 @@
+package multikernel;
+
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.FileInputStream;
+import java.io.IOException;
+
+/**
+ * Streaming source of trace tasks, one at a time in file order, so traces
+ * with millions of tasks never have to fit in memory (see TraceFeeder).
+ *
+ * Arrival time and deadline of the returned tasks are in trace time (ms
+ * since whatever origin the trace uses); TraceFeeder maps them onto the
+ * wall clock when it injects the task.
+ *
+ * Two formats: CSV (CsvTraceReader) and a fixed-size binary record format
+ * (BinaryTraceReader / BinaryTraceWriter). open() tells them apart by the
+ * binary magic number, not by file extension.
+ */
+public interface TaskTraceReader extends Closeable {
+
+    /** Next task of the trace, or null at the end. */
+    Task next() throws IOException;
+
+    /** Opens filename as a binary trace if it starts with the magic number, otherwise as CSV. */
+    static TaskTraceReader open(String filename) throws IOException {
+        int magic;
+        try (DataInputStream in = new DataInputStream(new FileInputStream(filename))) {
+            magic = in.available() >= 4 ? in.readInt() : 0;
+        }
+        if (magic == BinaryTraceWriter.MAGIC) {
+            return new BinaryTraceReader(filename);
+        }
+        return new CsvTraceReader(filename);
+    }
+}
@@ -0,0 +1,183 @@
+package multikernel;
+
+import java.util.function.BooleanSupplier;
+
+/**
+ * Decentralized termination detection (Dijkstra-Safra token ring) over MessageBus.
+ *
+ * Each core owns one detector. A core is "passive" when it has no local work
+ * (its scheduler is empty and it isn't holding a task). Task-carrying
+ * messages (OFFLOAD_REQUEST, RESOURCE_REQUEST) are "basic" messages:
+ *   - the sender increments its counter,
+ *   - the receiver decrements its counter and turns black.
+ *
+ * Core 0 is the initiator. Once passive it sends a white token with count 0
+ * around the ring 0 -> 1 -> ... -> n-1 -> 0. A core forwards the token only
+ * while passive, adding its counter and blackening the token if it is black
+ * itself, then turns white. When the token returns to core 0 white, core 0
+ * is white and token.count + counter == 0, every core was passive and no
+ * basic message was in flight, so core 0 broadcasts TERMINATE. Otherwise it
+ * starts another round.
+ *
+ * Work that enters from outside (a TraceFeeder injecting tasks) is not a
+ * basic message, so the initiator also has an input gate: it only starts a
+ * round once the gate reports all input delivered. A round started before
+ * that never concludes termination, because injected tasks may have landed
+ * on cores the token had already passed.
+ *
+ * Sync replies are not counted: the requester is blocked (active) until the
+ * reply arrives and does not touch the token meanwhile.
+ *
+ * TOKEN and TERMINATE go through MessageBus.sendControl, so the detector's
+ * own traffic stays out of the message statistics.
+ *
+ * All state is confined to the owning core's thread except the terminated
+ * flag, which the simulation driver may read.
+ */
+public class TerminationDetector {
+
+    public static final String TOKEN = "TERMINATION_TOKEN";
+    public static final String TERMINATE = "TERMINATE";
+
+    /** Token payload carried by TERMINATION_TOKEN messages. */
+    public static final class Token {
+        private final long count;
+        private final boolean black;
+        private final int round;
+
+        public Token(long count, boolean black, int round) {
+            this.count = count;
+            this.black = black;
+            this.round = round;
+        }
+
+        public long getCount() { return count; }
+        public boolean isBlack() { return black; }
+        public int getRound() { return round; }
+
+        @Override
+        public String toString() {
+            return "Token{count=" + count + ", " + (black ? "black" : "white") + ", round=" + round + "}";
+        }
+    }
+
+    private static final int INITIATOR = 0;
+
+    private final int coreId;
+    private final int numCores;
+    private final MessageBus messageBus;
+
+    private long counter = 0L;       // basic messages sent - received
+    private boolean black = false;
+    private Token heldToken = null;  // token waiting for us to go passive
+    private boolean roundInProgress = false;
+    private int rounds = 0;
+    private BooleanSupplier inputDone = () -> true;
+
+    private volatile boolean terminated = false;
+
+    public TerminationDetector(int coreId, int numCores, MessageBus messageBus) {
+        this.coreId = coreId;
+        this.numCores = numCores;
+        this.messageBus = messageBus;
+    }
+
+    /**
+     * Initiator only: termination may not be concluded until inputDone
+     * returns true (e.g. TraceFeeder::isDone). Call before the core starts.
+     */
+    public void setInputGate(BooleanSupplier inputDone) {
+        this.inputDone = inputDone;
+    }
+
+    /** Call after sending a task-carrying message. */
+    public void onBasicSent() {
+        counter++;
+    }
+
+    /** Call on receiving a task-carrying message. */
+    public void onBasicReceived() {
+        counter--;
+        black = true;
+    }
+
+    /** Call when a TERMINATION_TOKEN arrives; it is forwarded once we are passive. */
+    public void onToken(Token token) {
+        heldToken = token;
+    }
+
+    /** Call when a TERMINATE broadcast arrives. */
+    public void onTerminate() {
+        terminated = true;
+    }
+
+    public boolean isTerminated() {
+        return terminated;
+    }
+
+    /** Number of token rounds the initiator has started (0 on other cores). */
+    public int getRounds() {
+        return rounds;
+    }
+
+    /**
+     * Call whenever the core is passive (no local work). Starts a round on
+     * the initiator, or forwards/evaluates a held token.
+     */
+    public void onPassive() {
+        if (terminated) {
+            return;
+        }
+
+        if (coreId == INITIATOR) {
+            if (!roundInProgress) {
+                if (inputDone.getAsBoolean()) {
+                    startRound();
+                }
+                return;
+            }
+            if (heldToken != null) {
+                Token t = heldToken;
+                heldToken = null;
+                if (!t.isBlack() && !black && t.getCount() + counter == 0) {
+                    announceTermination();
+                } else if (inputDone.getAsBoolean()) {
+                    startRound();
+                } else {
+                    roundInProgress = false;
+                }
+            }
+            return;
+        }
+
+        if (heldToken != null) {
+            Token t = heldToken;
+            heldToken = null;
+            send(new Token(t.getCount() + counter, t.isBlack() || black, t.getRound()));
+            black = false;
+        }
+    }
+
+    private void startRound() {
+        rounds++;
+        roundInProgress = true;
+        black = false;
+        send(new Token(0L, false, rounds));
+    }
+
+    private void send(Token token) {
+        int next = (coreId + 1) % numCores;
+        messageBus.sendControl(coreId, next,
+                new MessageBus.Message(TOKEN, null, coreId, next, null, token));
+    }
+
+    private void announceTermination() {
+        terminated = true;
+        for (int target = 0; target < numCores; target++) {
+            if (target != coreId) {
+                messageBus.sendControl(coreId, target,
+                        new MessageBus.Message(TERMINATE, null, coreId, target, null));
+            }
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package multikernel;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Cache / memory layout of the simulated cores: cores share a last-level
+ * cache in clusters, and clusters share a memory node in sockets. Core ids
+ * are laid out contiguously (cores 0..coresPerCluster-1 form cluster 0,
+ * and so on).
+ *
+ * distance(a, b):
+ *   0  same core
+ *   1  same cluster (shared cache, cheap to warm up)
+ *   2  same socket, other cluster
+ *   3  other socket (remote memory)
+ */
+public class Topology {
+
+    public static final int SAME_CORE = 0;
+    public static final int SAME_CLUSTER = 1;
+    public static final int SAME_SOCKET = 2;
+    public static final int REMOTE = 3;
+    public static final int LEVELS = 4;
+
+    private final int numCores;
+    private final int coresPerCluster;
+    private final int clustersPerSocket;
+
+    // per core: every other core, nearest first (ties by ring distance);
+    // built on first use, as most runs only ever need a few rows
+    private final AtomicReferenceArray<int[]> byDistance;
+
+    public Topology(int numCores, int coresPerCluster, int clustersPerSocket) {
+        if (coresPerCluster < 1 || clustersPerSocket < 1) {
+            throw new IllegalArgumentException("coresPerCluster and clustersPerSocket must be >= 1");
+        }
+        this.numCores = numCores;
+        this.coresPerCluster = coresPerCluster;
+        this.clustersPerSocket = clustersPerSocket;
+        this.byDistance = new AtomicReferenceArray<>(numCores);
+    }
+
+    /** Typical small server: 4 cores per shared cache, 2 caches per socket. */
+    public static Topology defaultFor(int numCores) {
+        return new Topology(numCores, 4, 2);
+    }
+
+    public int distance(int a, int b) {
+        if (a == b) return SAME_CORE;
+        if (clusterOf(a) == clusterOf(b)) return SAME_CLUSTER;
+        if (socketOf(a) == socketOf(b)) return SAME_SOCKET;
+        return REMOTE;
+    }
+
+    public int clusterOf(int core) {
+        return core / coresPerCluster;
+    }
+
+    public int socketOf(int core) {
+        return clusterOf(core) / clustersPerSocket;
+    }
+
+    /** All other cores ordered nearest first; do not modify. */
+    public int[] othersByDistance(int core) {
+        int[] row = byDistance.get(core);
+        if (row == null) {
+            List<Integer> others = new ArrayList<>();
+            for (int other = 0; other < numCores; other++) {
+                if (other != core) others.add(other);
+            }
+            others.sort(Comparator.<Integer>comparingInt(o -> distance(core, o))
+                    .thenComparingInt(o -> Math.floorMod(o - core, numCores)));
+            row = others.stream().mapToInt(Integer::intValue).toArray();
+            byDistance.set(core, row); // racing builders produce equal rows
+        }
+        return row;
+    }
+
+    public int getNumCores() { return numCores; }
+    public int getCoresPerCluster() { return coresPerCluster; }
+    public int getClustersPerSocket() { return clustersPerSocket; }
+
+    @Override
+    public String toString() {
+        return "Topology{" + numCores + " cores, " + coresPerCluster + "/cluster, "
+                + clustersPerSocket + " clusters/socket}";
+    }
+}
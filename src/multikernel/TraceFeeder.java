@@ -0,0 +1,147 @@
+package multikernel;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntConsumer;
+
+/**
+ * Producer thread that streams tasks into the cores' schedulers at their
+ * arrival times: from a trace file (TaskTraceReader) or from a generated
+ * open workload (ArrivalTaskSource).
+ *
+ * Trace time is mapped onto the wall clock relative to the first task:
+ * a task arriving t ms after the first one is injected t * timeScale ms
+ * after the feeder started (timeScale 0 = inject as fast as possible). Its
+ * arrival time (and deadline) are re-stamped to that wall-clock instant, so
+ * waiting / turnaround metrics work as for generated workloads. The core
+ * each task is queued on comes from the same TaskPlacement as the generated
+ * workload; a task no core can run is counted as rejected.
+ *
+ * Tasks enter through Scheduler.offer(), so a BoundedScheduler can push
+ * back (the feeder blocks) or reject them (counted in getTasksRejected()).
+ * After each admission wakeUp is called with the target index, so an idle
+ * core notices the new task now rather than after its idle wait.
+ *
+ * Memory stays bounded: only one task is read ahead, and the feeder stops
+ * reading while the schedulers together hold maxBacklog tasks. Time spent
+ * blocked there counts as waiting time of the delayed tasks.
+ *
+ * Termination detection must not conclude while input is still coming;
+ * the initiator's detector uses isDone() as its input gate.
+ */
+public final class TraceFeeder extends Thread {
+
+    // how often a blocked feeder re-checks the scheduler backlog
+    private static final long BACKLOG_WAIT_MS = 1;
+
+    private final TaskTraceReader source;
+    private final List<Scheduler> schedulers;
+    private final TaskPlacement placement;
+    private final double timeScale;
+    private final int maxBacklog;
+    private final IntConsumer wakeUp;
+    // per-core queues: a task's data starts out on the core it is fed to
+    private final boolean homes;
+
+    private volatile long tasksFed = 0L;
+    private volatile long tasksRejected = 0L;
+    private volatile boolean done = false;
+    private volatile IOException failure;
+
+    public TraceFeeder(TaskTraceReader source, List<Scheduler> schedulers, TaskPlacement placement,
+                       double timeScale, int maxBacklog, IntConsumer wakeUp) {
+        super("trace-feeder");
+        this.source = source;
+        this.schedulers = schedulers;
+        this.placement = placement;
+        this.timeScale = timeScale;
+        this.maxBacklog = maxBacklog;
+        this.wakeUp = wakeUp;
+        this.homes = schedulers.size() > 1;
+        setDaemon(true);
+    }
+
+    @Override
+    public void run() {
+        try (TaskTraceReader reader = source) {
+            long wallStart = System.currentTimeMillis();
+            long traceStart = 0L;
+
+            boolean first = true;
+            Task task;
+            while ((task = reader.next()) != null) {
+                if (first) {
+                    first = false;
+                    traceStart = task.getArrivalTime();
+                }
+                long offset = (long) ((task.getArrivalTime() - traceStart) * timeScale);
+                long due = wallStart + Math.max(0L, offset);
+
+                long wait = due - System.currentTimeMillis();
+                if (wait > 0) {
+                    TimeUnit.MILLISECONDS.sleep(wait);
+                }
+                while (maxBacklog > 0 && backlog() >= maxBacklog) {
+                    TimeUnit.MILLISECONDS.sleep(BACKLOG_WAIT_MS);
+                }
+
+                long deadline = task.hasDeadline()
+                        ? due + (long) ((task.getDeadline() - task.getArrivalTime()) * timeScale)
+                        : Task.NO_DEADLINE;
+                Task stamped = new Task(task.getId(), task.getBurstTime(), task.getMemoryRequired(),
+                        due, task.getPriority(), deadline, task.getWorkingSetKb(), task.getRequiredCapability());
+                int core = placement.place(stamped);
+                if (core < 0) {
+                    tasksRejected++;
+                    continue;
+                }
+                if (homes) {
+                    stamped.setHomeCore(core);
+                }
+                boolean admitted = schedulers.get(core).offer(stamped);
+                if (admitted) {
+                    wakeUp.accept(core);
+                    tasksFed++;
+                } else {
+                    tasksRejected++;
+                }
+            }
+        } catch (IOException e) {
+            failure = e;
+            e.printStackTrace();
+        } catch (InterruptedException e) {
+            // simulation stopped (deadline) before the trace was used up
+        } finally {
+            done = true;
+        }
+    }
+
+    private int backlog() {
+        int total = 0;
+        for (Scheduler s : schedulers) {
+            total += s.size();
+        }
+        return total;
+    }
+
+    /** Tasks injected so far. */
+    public long getTasksFed() {
+        return tasksFed;
+    }
+
+    /** Arrivals a bounded scheduler refused (AdmissionPolicy.REJECT). */
+    public long getTasksRejected() {
+        return tasksRejected;
+    }
+
+    /** True once the trace is used up (or reading it failed / was interrupted). */
+    public boolean isDone() {
+        return done;
+    }
+
+    /** Why the trace could not be read to the end, or null. */
+    public IOException getFailure() {
+        return failure;
+    }
+}
@@ -0,0 +1,95 @@
+package multikernel;
+
+import java.io.IOException;
+
+/**
+ * Carries MessageBus traffic to cores in other processes. The bus keeps the
+ * inboxes of the cores isLocal() reports and hands everything addressed to
+ * the rest to send(); whatever arrives from other processes comes back
+ * through the Receiver given to start().
+ *
+ * send() is called from any core thread, concurrently. It must not lose or
+ * reorder the frames of one sender to one peer (the termination protocol
+ * relies on FIFO links) and reports a broken link rather than throwing.
+ */
+public interface Transport {
+
+    /** Available implementations. */
+    enum Kind {
+        TCP, UNIX, MAPPED;
+
+        public static Kind parse(String text) {
+            for (Kind k : values()) {
+                if (k.name().equalsIgnoreCase(text)) {
+                    return k;
+                }
+            }
+            throw new IllegalArgumentException("Unknown transport: " + text);
+        }
+    }
+
+    /**
+     * Transport of kind for node of nodes. endpoint is the base port (TCP)
+     * or a directory for the socket / ring files (UNIX, MAPPED).
+     */
+    static Transport create(Kind kind, String endpoint, int nodes, int node, int numCores) {
+        if (kind == Kind.MAPPED) {
+            return new MappedRingTransport(endpoint, nodes, node, numCores, MappedRingTransport.DEFAULT_SLOTS);
+        }
+        return new SocketTransport(kind, endpoint, nodes, node, numCores);
+    }
+
+    /**
+     * Nodes own consecutive core ids: node i has cores
+     * [firstCoreOf(i), firstCoreOf(i + 1)).
+     */
+    static int firstCoreOf(int node, int nodes, int numCores) {
+        return (int) ((long) numCores * node / nodes);
+    }
+
+    /** Node of every core. */
+    static int[] owners(int nodes, int numCores) {
+        if (nodes < 1 || nodes > numCores) {
+            throw new IllegalArgumentException(nodes + " nodes do not fit " + numCores + " cores");
+        }
+        int[] owner = new int[numCores];
+        for (int n = 0; n < nodes; n++) {
+            for (int core = firstCoreOf(n, nodes, numCores); core < firstCoreOf(n + 1, nodes, numCores); core++) {
+                owner[core] = n;
+            }
+        }
+        return owner;
+    }
+
+    /** Delivery callback into the local MessageBus. */
+    interface Receiver {
+        void receive(int fromCore, int toCore, MessageBus.Message msg, boolean syncReply);
+    }
+
+    /** True if toCore's inbox is in this process. */
+    boolean isLocal(int coreId);
+
+    /** Starts accepting frames from other processes. */
+    void start(Receiver receiver) throws IOException;
+
+    /**
+     * Opens links to every other process, waiting up to timeoutMs for them
+     * to come up. Call after start() and before the cores send anything.
+     */
+    void connect(long timeoutMs) throws IOException;
+
+    /** Sends msg from fromCore to the process owning toCore. */
+    void send(int fromCore, int toCore, MessageBus.Message msg, boolean syncReply);
+
+    void close();
+
+    /** Frames this process sent to other processes. */
+    long getFramesSent();
+
+    long getBytesSent();
+
+    long getFramesReceived();
+
+    /** Mean time to encode and hand over one frame. */
+    double getMeanSendMicros();
+}
@@ -0,0 +1,122 @@
+package multikernel;
+
+import java.util.Random;
+
+/**
+ * Demand paging for one core. With it a task no longer needs all of its
+ * memory free to run: it gets whatever frames are free (one memory unit =
+ * one page frame) and pages the rest of its address space in and out of
+ * them through a PageReplacement policy, paying faultMs of simulated time
+ * for every page it has to read back from swap.
+ *
+ * A task's address space is memoryRequired pages. While it runs it makes
+ * one reference per simulated ms of burst, drawn from a seeded stream per
+ * task (the same task always makes the same references):
+ *
+ *   - HOT_SHARE of them go to a random page of its working set, the first
+ *     workingSetKb / PAGE_KB pages (at least one, at most all of them)
+ *   - the rest sweep the whole address space in order, round and round
+ *
+ * The first touch of a page is free (the page comes with the task, or is
+ * zero-filled); a fault on a page touched before means it was evicted and
+ * has to come back from swap: a major fault. A task thrashes when more than
+ * THRASHING_FAULT_RATE of its references are major faults. Frames are
+ * released when the task ends, so tasks never compete for them with each
+ * other, only with their own working set.
+ *
+ * Owned by one core thread; the counters are read by others when the run is
+ * over (or approximately while it runs).
+ */
+public class VirtualMemory {
+
+    public static final int PAGE_KB = 64;
+    public static final double HOT_SHARE = 0.8;
+    public static final double THRASHING_FAULT_RATE = 0.1;
+
+    private final PageReplacement.Policy policy;
+    private final double faultMs;
+    private final long seed;
+
+    private volatile long tasks = 0;
+    private volatile long overcommittedTasks = 0;
+    private volatile long references = 0;
+    private volatile long majorFaults = 0;
+    private volatile long thrashingTasks = 0;
+    private volatile double faultServiceMs = 0.0;
+    private volatile long burstMs = 0;
+
+    public VirtualMemory(PageReplacement.Policy policy, double faultMs, long seed) {
+        if (faultMs < 0) {
+            throw new IllegalArgumentException("faultMs must be >= 0: " + faultMs);
+        }
+        this.policy = policy;
+        this.faultMs = faultMs;
+        this.seed = seed;
+    }
+
+    /**
+     * Runs task's references in frames page frames and returns the simulated
+     * ms its major faults add to the execution.
+     */
+    public double execute(Task task, int frames) {
+        int pages = Math.max(1, task.getMemoryRequired());
+        int hotPages = Math.max(1, Math.min(pages, task.getWorkingSetKb() / PAGE_KB));
+        int refs = Math.max(1, task.getBurstTime());
+        long faults = 0;
+
+        if (frames < pages) {
+            PageReplacement replacement = PageReplacement.create(policy, Math.max(1, frames));
+            boolean[] touched = new boolean[pages];
+            Random rand = new Random(seed * 31 + task.getId());
+            int sweep = 0;
+            for (int r = 0; r < refs; r++) {
+                int page;
+                if (rand.nextDouble() < HOT_SHARE) {
+                    page = rand.nextInt(hotPages);
+                } else {
+                    page = sweep;
+                    sweep = (sweep + 1) % pages;
+                }
+                if (!replacement.access(page) && touched[page]) {
+                    faults++;
+                }
+                touched[page] = true;
+            }
+            overcommittedTasks++;
+        }
+        // with every page resident only first touches fault, and those are free
+
+        double ms = faults * faultMs;
+        tasks++;
+        references += refs;
+        majorFaults += faults;
+        faultServiceMs += ms;
+        burstMs += task.getBurstTime();
+        if (faults > THRASHING_FAULT_RATE * refs) {
+            thrashingTasks++;
+        }
+        return ms;
+    }
+
+    public PageReplacement.Policy getPolicy() { return policy; }
+    public double getFaultMs() { return faultMs; }
+    public long getTasks() { return tasks; }
+
+    /** Tasks that ran with fewer frames than pages. */
+    public long getOvercommittedTasks() { return overcommittedTasks; }
+    public long getReferences() { return references; }
+    public long getMajorFaults() { return majorFaults; }
+    public long getThrashingTasks() { return thrashingTasks; }
+
+    /** Simulated ms spent waiting for pages from swap. */
+    public double getFaultServiceMs() { return faultServiceMs; }
+
+    /** Share of the execution time of this core's tasks that was fault service. */
+    public double getFaultTimeSharePct() {
+        double total = burstMs + faultServiceMs;
+        return (total <= 0) ? 0.0 : 100.0 * faultServiceMs / total;
+    }
+
+    /** Burst ms of the tasks run, without fault service. */
+    public long getBurstMs() { return burstMs; }
+}
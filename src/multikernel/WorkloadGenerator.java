@@ -0,0 +1,87 @@
+package multikernel;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Seeded synthetic workload. The same seed always produces the same tasks
+ * (ids, burst times, memory sizes, in the same order), so two runs of one
+ * experiment see identical input and a recorded run can be replayed
+ * (see ReplayLog).
+ *
+ * Tasks are uniform: burst 200-999 ms, memory 50-199 units, working set
+ * 256-8191 KB, ids 1..n. Working sets come from a separate stream so bursts
+ * and memory sizes of a seed are the same as before working sets existed.
+ */
+public class WorkloadGenerator {
+
+    public static final int MIN_BURST = 200;
+    public static final int MAX_BURST = 999;
+    public static final int MIN_MEMORY = 50;
+    public static final int MAX_MEMORY = 199;
+
+    /** Mean burst of the uniform distribution, for offered-load calculations. */
+    public static final double MEAN_BURST_MS = (MIN_BURST + MAX_BURST) / 2.0;
+
+    public static final int MIN_WORKING_SET_KB = 256;
+    public static final int MAX_WORKING_SET_KB = 8191;
+
+    private final long seed;
+    private final Random rand;
+    private final Random workingSetRand;
+    private int nextId = 1;
+
+    public WorkloadGenerator(long seed) {
+        this.seed = seed;
+        this.rand = new Random(seed);
+        this.workingSetRand = new Random(~seed);
+    }
+
+    /** Next task of the sequence, stamped with the given arrival time. */
+    public Task next(long arrivalTime) {
+        int burst = MIN_BURST + rand.nextInt(MAX_BURST - MIN_BURST + 1);
+        int mem = MIN_MEMORY + rand.nextInt(MAX_MEMORY - MIN_MEMORY + 1);
+        int workingSet = MIN_WORKING_SET_KB
+                + workingSetRand.nextInt(MAX_WORKING_SET_KB - MIN_WORKING_SET_KB + 1);
+        return new Task(nextId++, burst, mem, arrivalTime, 0, Task.NO_DEADLINE, workingSet);
+    }
+
+    /** The next n tasks, all arriving at arrivalTime. */
+    public List<Task> generate(int n, long arrivalTime) {
+        List<Task> tasks = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            tasks.add(next(arrivalTime));
+        }
+        return tasks;
+    }
+
+    /**
+     * The next n tasks as a TaskTable rather than Task objects: the same
+     * sequence generate(n, arrivalTime) would have produced.
+     */
+    public TaskTable generateTable(int n, long arrivalTime) {
+        TaskTable table = new TaskTable(nextId, n);
+        generate(table, n, arrivalTime);
+        return table;
+    }
+
+    /** Appends the next n tasks to table, which must end where this sequence is. */
+    public void generate(TaskTable table, int n, long arrivalTime) {
+        if (table.getFirstId() + table.size() != nextId) {
+            throw new IllegalArgumentException(table + " does not continue at task " + nextId);
+        }
+        for (int i = 0; i < n; i++) {
+            int burst = MIN_BURST + rand.nextInt(MAX_BURST - MIN_BURST + 1);
+            int mem = MIN_MEMORY + rand.nextInt(MAX_MEMORY - MIN_MEMORY + 1);
+            int workingSet = MIN_WORKING_SET_KB
+                    + workingSetRand.nextInt(MAX_WORKING_SET_KB - MIN_WORKING_SET_KB + 1);
+            table.add(burst, mem, arrivalTime, workingSet);
+            nextId++;
+        }
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+}
@@ -0,0 +1,368 @@
+package multikernel;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+
+/**
+ * Checks every Scheduler in the tree against the contract in Scheduler's
+ * header, so a new scheduler (or a faster batch method) can be verified the
+ * same way as the existing ones: add it to subjects().
+ *
+ *   contract     empty queue, size / estimatedWork / loadSnapshot against
+ *                the queued tasks, drainTo limits and order (the order
+ *                getNextTask gives a twin fed the same tasks), requeue, steal's keep
+ *   concurrency  producers (addTask, addAll), consumers (getNextTask,
+ *                drainTo, steal) and a monitor (size, estimatedWork,
+ *                loadSnapshot) racing on one queue: every task comes out
+ *                exactly once and the queue ends empty with no work left
+ *   countsNeverNegative  one producer feeding consumers that take as fast as
+ *                they can: size and estimatedWork, read right after a take,
+ *                never dip below 0 (as they would if counted after queueing)
+ *
+ * Tasks are compared by id: TaskHandleScheduler hands out new Task objects.
+ */
+class SchedulerConformanceTest {
+
+    private static final int TASKS = 20_000;
+    private static final int THREADS = 4;
+    private static final long SEED = 42L;
+
+    private static final List<Task> WORKLOAD = workload(TASKS, SEED);
+
+    /** name, factory, deterministic (same calls -> same order; not so if the policy reads the clock) */
+    static Stream<Arguments> subjects() {
+        TaskTable table = new TaskTable(0, TASKS);
+        for (Task t : WORKLOAD) {
+            table.add(t.getBurstTime(), t.getMemoryRequired(), t.getArrivalTime(), t.getWorkingSetKb());
+        }
+        return Stream.of(
+                Arguments.of("RR", (Supplier<Scheduler>) SchedulerType.ROUND_ROBIN::create, true),
+                Arguments.of("SJF", (Supplier<Scheduler>) SchedulerType.SJF::create, true),
+                Arguments.of("ADAPT", (Supplier<Scheduler>) SchedulerType.ADAPTIVE::create, false),
+                Arguments.of("BOUNDED-RR", (Supplier<Scheduler>) () -> new BoundedScheduler(new RoundRobinScheduler(),
+                        Integer.MAX_VALUE, BoundedScheduler.AdmissionPolicy.REJECT), true),
+                Arguments.of("COMPACT-RR", (Supplier<Scheduler>) () -> SchedulerType.ROUND_ROBIN.create(table), true),
+                Arguments.of("COMPACT-SJF", (Supplier<Scheduler>) () -> SchedulerType.SJF.create(table), true));
+    }
+
+    // ----------------------------------------------------------------------
+    // Single-threaded contract
+    // ----------------------------------------------------------------------
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("subjects")
+    void contract(String name, Supplier<Scheduler> factory, boolean deterministic) {
+        List<Task> tasks = WORKLOAD.subList(0, 200);
+        Scheduler s = factory.get();
+        assertEquals(0, s.size(), "new queue size");
+        assertEquals(0, s.estimatedWork(), "new queue work");
+        assertNull(s.getNextTask(), "getNextTask on an empty queue");
+        assertEquals(0, s.drainTo(new ArrayList<>(), 10), "drainTo on an empty queue");
+        assertTrue(s.steal(10).isEmpty(), "steal on an empty queue returned tasks");
+
+        s.addAll(tasks);
+        expectQuiet(s, tasks, "after addAll");
+        assertEquals(0, s.drainTo(new ArrayList<>(), 0), "drainTo(0)");
+
+        // drainTo takes what getNextTask would, in that order
+        Scheduler twin = factory.get();
+        for (Task t : tasks) {
+            twin.addTask(t);
+        }
+        List<Task> drained = new ArrayList<>();
+        int half = tasks.size() / 2;
+        assertEquals(half, s.drainTo(drained, half), "drainTo(" + half + ") moved");
+        assertEquals(half, drained.size(), "tasks drainTo added to the sink");
+        if (deterministic) {
+            for (int i = 0; i < half; i++) {
+                Task next = twin.getNextTask();
+                assertTrue(next != null && next.getId() == drained.get(i).getId(),
+                        "drainTo order differs from getNextTask at position " + i);
+            }
+        }
+        List<Task> left = remaining(tasks, drained);
+        expectQuiet(s, left, "after drainTo");
+
+        // a requeued task is queued again, once
+        s.requeue(s.getNextTask());
+        expectQuiet(s, left, "after requeue");
+
+        // steal leaves keep behind, and never more than it was asked for
+        int keep = left.size() / 3;
+        List<Task> stolen = s.steal(left.size(), keep);
+        assertEquals(left.size() - keep, stolen.size(), "steal(" + left.size() + ", " + keep + ") took");
+        left = remaining(left, stolen);
+        expectQuiet(s, left, "after steal");
+        assertTrue(s.steal(1, s.size()).isEmpty(), "steal took a task it was told to keep");
+        assertEquals(Math.min(2, left.size()), s.steal(2, 0).size(), "steal(2) took");
+
+        List<Task> rest = new ArrayList<>();
+        s.drainTo(rest, Integer.MAX_VALUE);
+        assertEquals(0, s.size(), "drainTo(MAX_VALUE) left tasks behind");
+        assertNull(s.getNextTask(), "drainTo(MAX_VALUE) left tasks behind");
+        assertEquals(0, s.estimatedWork(), "empty queue work");
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("subjects")
+    void stealWhileAccepted(String name, Supplier<Scheduler> factory, boolean deterministic) {
+        List<Task> tasks = WORKLOAD.subList(0, 50);
+        Scheduler s = factory.get();
+        Scheduler twin = factory.get();
+        s.addAll(tasks);
+        twin.addAll(tasks);
+        List<Task> order = new ArrayList<>();
+        twin.drainTo(order, Integer.MAX_VALUE);
+
+        // refuse the 6th task in line: the first 5 go, the rest stays queued in order
+        int refused = order.get(5).getId();
+        List<Task> stolen = s.steal(20, 0, t -> t.getId() != refused);
+        assertEquals(5, stolen.size(), "steal stopped after");
+        assertTrue(s.steal(20, s.size() - 1, t -> false).isEmpty(), "steal took a refused task");
+        assertTrue(s.steal(20, s.size(), t -> true).isEmpty(), "steal took a task it was told to keep");
+        expectQuiet(s, remaining(tasks, stolen), "after a refused steal");
+        if (deterministic) {
+            for (int i = 0; i < order.size(); i++) {
+                Task next = (i < 5) ? stolen.get(i) : s.getNextTask();
+                assertEquals(order.get(i).getId(), next.getId(), "order after a refused steal at position " + i);
+            }
+        }
+    }
+
+    /** With nobody else using s: size, work and the load snapshot match expected. */
+    private static void expectQuiet(Scheduler s, List<Task> expected, String when) {
+        long burst = 0;
+        for (Task t : expected) {
+            burst += t.getBurstTime();
+        }
+        long mean = Math.round(expected.size() * WorkloadGenerator.MEAN_BURST_MS); // the default estimate
+        assertEquals(expected.size(), s.size(), when + ": size");
+        assertTrue(s.estimatedWork() == burst || s.estimatedWork() == mean,
+                when + ": estimatedWork " + s.estimatedWork() + ", expected " + burst);
+        Scheduler.Load load = s.loadSnapshot();
+        assertTrue(load.getQueued() == s.size() && load.getWorkMs() == s.estimatedWork(),
+                when + ": loadSnapshot " + load + " disagrees with size / estimatedWork");
+    }
+
+    private static List<Task> remaining(List<Task> all, List<Task> taken) {
+        List<Integer> ids = new ArrayList<>();
+        for (Task t : taken) {
+            ids.add(t.getId());
+        }
+        List<Task> left = new ArrayList<>();
+        for (Task t : all) {
+            if (!ids.remove((Integer) t.getId())) {
+                left.add(t);
+            }
+        }
+        assertEquals(all.size() - taken.size(), left.size(), "took tasks that were never queued");
+        return left;
+    }
+
+    // ----------------------------------------------------------------------
+    // Concurrency
+    // ----------------------------------------------------------------------
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("subjects")
+    void concurrency(String name, Supplier<Scheduler> factory, boolean deterministic) throws InterruptedException {
+        Scheduler s = factory.get();
+        List<Task> tasks = WORKLOAD;
+        int n = tasks.size();
+        AtomicInteger[] seen = new AtomicInteger[n];
+        for (int i = 0; i < n; i++) {
+            seen[i] = new AtomicInteger();
+        }
+        AtomicInteger taken = new AtomicInteger();
+        AtomicBoolean producing = new AtomicBoolean(true);
+        ConcurrentLinkedQueue<String> errors = new ConcurrentLinkedQueue<>();
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> workers = new ArrayList<>();
+
+        // producers: disjoint slices, alternating single adds and batches
+        AtomicInteger producersLeft = new AtomicInteger(THREADS);
+        for (int p = 0; p < THREADS; p++) {
+            List<Task> slice = tasks.subList(p * n / THREADS, (p + 1) * n / THREADS);
+            workers.add(new Thread(() -> {
+                await(start);
+                for (int i = 0; i < slice.size(); ) {
+                    int batch = Math.min(1 + (i % 7), slice.size() - i);
+                    if (batch == 1) {
+                        s.addTask(slice.get(i));
+                    } else {
+                        s.addAll(slice.subList(i, i + batch));
+                    }
+                    i += batch;
+                }
+                if (producersLeft.decrementAndGet() == 0) {
+                    producing.set(false);
+                }
+            }, "producer-" + p));
+        }
+
+        // consumers: getNextTask, drainTo and steal in turn, until the producers are
+        // done and the queue is empty (then it stays empty); lost tasks show up in seen
+        AtomicInteger consumersLeft = new AtomicInteger(THREADS);
+        for (int c = 0; c < THREADS; c++) {
+            Random rand = new Random(SEED + c);
+            workers.add(new Thread(() -> {
+                await(start);
+                List<Task> out = new ArrayList<>();
+                while (true) {
+                    out.clear();
+                    switch (rand.nextInt(3)) {
+                        case 0:
+                            Task t = s.getNextTask();
+                            if (t != null) {
+                                out.add(t);
+                            }
+                            break;
+                        case 1:
+                            s.drainTo(out, 1 + rand.nextInt(16));
+                            break;
+                        default:
+                            out.addAll(s.steal(1 + rand.nextInt(8), rand.nextInt(3)));
+                            break;
+                    }
+                    for (Task t : out) {
+                        if (seen[t.getId()].incrementAndGet() > 1) {
+                            errors.add("task " + t.getId() + " dequeued twice");
+                        }
+                    }
+                    taken.addAndGet(out.size());
+                    if (out.isEmpty() && !producing.get() && s.size() == 0) {
+                        break;
+                    }
+                }
+                consumersLeft.decrementAndGet();
+            }, "consumer-" + c));
+        }
+
+        // monitor: the cheap getters must not block or throw while all of that goes on
+        workers.add(new Thread(() -> {
+            await(start);
+            while (consumersLeft.get() > 0 && errors.isEmpty()) {
+                Scheduler.Load load = s.loadSnapshot();
+                if (s.size() > n || load.getQueued() > n) {
+                    errors.add("size " + s.size() + " exceeds the " + n + " tasks ever queued");
+                }
+            }
+        }, "monitor"));
+
+        for (Thread w : workers) {
+            w.setDaemon(true);
+            w.start();
+        }
+        start.countDown();
+        for (Thread w : workers) {
+            w.join(60_000);
+            if (w.isAlive()) {
+                errors.add(w.getName() + " did not finish in 60 s (" + taken.get() + " of " + n + " taken)");
+                break;
+            }
+        }
+        if (!errors.isEmpty()) {
+            fail("concurrent use: " + errors.peek() + (errors.size() > 1 ? " (+" + (errors.size() - 1) + " more)" : ""));
+        }
+        for (int i = 0; i < n; i++) {
+            assertEquals(1, seen[i].get(), "concurrent use: times task " + i + " came out");
+        }
+        expectQuiet(s, Collections.emptyList(), "after concurrent use");
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("subjects")
+    void countsNeverNegative(String name, Supplier<Scheduler> factory, boolean deterministic)
+            throws InterruptedException {
+        Scheduler s = factory.get();
+        AtomicBoolean producing = new AtomicBoolean(true);
+        ConcurrentLinkedQueue<String> errors = new ConcurrentLinkedQueue<>();
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> workers = new ArrayList<>();
+
+        // the queue is nearly always empty, so a take often races the add that fed it
+        workers.add(new Thread(() -> {
+            await(start);
+            for (int i = 0; i < WORKLOAD.size(); ) {
+                int batch = Math.min(1 + (i % 3), WORKLOAD.size() - i);
+                if (batch == 1) {
+                    s.addTask(WORKLOAD.get(i));
+                } else {
+                    s.addAll(WORKLOAD.subList(i, i + batch));
+                }
+                i += batch;
+            }
+            producing.set(false);
+        }, "producer"));
+        for (int c = 0; c < THREADS; c++) {
+            workers.add(new Thread(() -> {
+                await(start);
+                while (errors.isEmpty()) {
+                    Task t = s.getNextTask();
+                    int size = s.size();
+                    long work = s.estimatedWork();
+                    if (size < 0 || work < 0) {
+                        errors.add("size " + size + ", work " + work + " after a take");
+                    }
+                    if (t == null && !producing.get() && size == 0) {
+                        break;
+                    }
+                }
+            }, "consumer-" + c));
+        }
+
+        for (Thread w : workers) {
+            w.setDaemon(true);
+            w.start();
+        }
+        start.countDown();
+        for (Thread w : workers) {
+            w.join(60_000);
+            if (w.isAlive()) {
+                errors.add(w.getName() + " did not finish in 60 s");
+                break;
+            }
+        }
+        if (!errors.isEmpty()) {
+            fail("concurrent use: " + errors.peek());
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // ----------------------------------------------------------------------
+
+    /** Tasks with ids 0..n-1, so ids index the bookkeeping arrays. */
+    private static List<Task> workload(int n, long seed) {
+        Random rand = new Random(seed);
+        List<Task> tasks = new ArrayList<>(n);
+        for (int id = 0; id < n; id++) {
+            tasks.add(new Task(id, 1 + rand.nextInt(2 * (int) WorkloadGenerator.MEAN_BURST_MS),
+                    1 + rand.nextInt(100), 0L, 0, Task.NO_DEADLINE, 0));
+        }
+        return tasks;
+    }
+}